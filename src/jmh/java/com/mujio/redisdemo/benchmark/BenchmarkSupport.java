@@ -0,0 +1,109 @@
+package com.mujio.redisdemo.benchmark;
+
+import com.mujio.redisdemo.config.SerializerProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import com.mujio.redisdemo.embedded.EmbeddedRedisServer;
+import com.mujio.redisdemo.serializer.TypeRegistry;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: BenchmarkSupport 基准测试公共部分，不启动 Spring 容器，直接按 RedisConfig 的方式创建模板
+ * 连接地址通过 -Dredis.host / -Dredis.port 指定，默认 localhost:6379；-Dredis.embedded=true 时连接进程内的 EmbeddedRedisServer
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static LettuceConnectionFactory connectionFactory() {
+        RedisStandaloneConfiguration configuration;
+        if (Boolean.getBoolean("redis.embedded")) {
+            EmbeddedRedisServer server = EmbeddedRedisServer.shared();
+            configuration = new RedisStandaloneConfiguration(server.getHost(), server.getPort());
+        } else {
+            configuration = new RedisStandaloneConfiguration(
+                    System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379));
+        }
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(configuration);
+        factory.afterPropertiesSet();
+        return factory;
+    }
+
+    static RedisTemplate<String, Object> template(LettuceConnectionFactory factory, SerializerProperties.Format format) {
+        SerializerProperties properties = new SerializerProperties();
+        properties.setValue(format);
+        //不启用熔断与隔离舱，测量的是模板本身的开销
+        return EmbeddedRedisFixture.redisTemplate(factory, typeRegistry(), properties, RedisMetrics.noop());
+    }
+
+    static TypeRegistry typeRegistry() {
+        return new TypeRegistry().register(1, Payload.class);
+    }
+
+    /**
+     * @Description: payload 典型的值：small 为短字符串，medium 为 10 个字段的对象，large 为 1000 个元素的列表
+     * @Param: [size]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    static Object payload(String size) {
+        switch (size) {
+            case "small":
+                return "session-token-0123456789";
+            case "medium":
+                return Payload.sample(1);
+            case "large":
+                List<Payload> list = new ArrayList<>(1000);
+                for (int i = 0; i < 1000; i++) {
+                    list.add(Payload.sample(i));
+                }
+                return list;
+            default:
+                throw new IllegalArgumentException(size);
+        }
+    }
+
+    static class Payload {
+
+        private long id;
+        private String name;
+        private String email;
+        private int age;
+        private double balance;
+        private boolean active;
+        private long createdAt;
+        private String city;
+        private List<String> tags;
+        private Map<String, Integer> counters;
+
+        static Payload sample(int i) {
+            Payload payload = new Payload();
+            payload.id = i;
+            payload.name = "user-" + i;
+            payload.email = "user-" + i + "@example.com";
+            payload.age = 20 + i % 50;
+            payload.balance = i * 1.5;
+            payload.active = i % 2 == 0;
+            payload.createdAt = 1_700_000_000_000L + i;
+            payload.city = "Shanghai";
+            payload.tags = new ArrayList<>();
+            payload.tags.add("vip");
+            payload.tags.add("beta");
+            payload.counters = new LinkedHashMap<>();
+            payload.counters.put("login", i);
+            payload.counters.put("order", i * 2);
+            return payload;
+        }
+    }
+}
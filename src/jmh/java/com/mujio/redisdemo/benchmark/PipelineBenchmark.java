@@ -0,0 +1,115 @@
+package com.mujio.redisdemo.benchmark;
+
+import com.mujio.redisdemo.config.SerializerProperties;
+import com.mujio.redisdemo.utils.RedisBatch;
+import com.mujio.redisdemo.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: PipelineBenchmark 逐条写入与 pipeline 批量写入的吞吐对比，结果按单个 key 计算
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    private static final int KEYS = 100;
+
+    private LettuceConnectionFactory factory;
+
+    private RedisUtil redisUtil;
+
+    private final List<String> keys = new ArrayList<>(KEYS);
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    @Setup
+    public void setUp() {
+        factory = BenchmarkSupport.connectionFactory();
+        redisUtil = new RedisUtil(BenchmarkSupport.template(factory, SerializerProperties.Format.JSON));
+        for (int i = 0; i < KEYS; i++) {
+            String key = "bench:pipeline:" + i;
+            keys.add(key);
+            values.put(key, BenchmarkSupport.payload("small"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisUtil.del(keys.toArray(new String[0]));
+        for (String key : keys) {
+            redisUtil.del(key + ":h");
+        }
+        factory.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void sequentialSetWithTime() {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            redisUtil.set(entry.getKey(), entry.getValue(), 60);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public List<Object> pipelinedSetWithTime() {
+        RedisBatch batch = redisUtil.batch();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            batch.set(entry.getKey(), entry.getValue(), 60);
+        }
+        return batch.execute();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void sequentialHsetWithTime() {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            redisUtil.hset(entry.getKey() + ":h", "item", entry.getValue(), 60);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public List<Object> pipelinedHsetWithTime() {
+        RedisBatch batch = redisUtil.batch();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            batch.hset(entry.getKey() + ":h", "item", entry.getValue(), 60);
+        }
+        return batch.execute();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void sequentialGet() {
+        for (String key : keys) {
+            redisUtil.get(key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public List<Object> mget() {
+        return redisUtil.mget(keys);
+    }
+}
@@ -0,0 +1,127 @@
+package com.mujio.redisdemo.benchmark;
+
+import com.mujio.redisdemo.config.SerializerProperties;
+import com.mujio.redisdemo.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * @Description: RedisUtilBenchmark RedisUtil 单 key、hash、set、list 操作，需要可连接的 Redis
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RedisUtilBenchmark {
+
+    private static final String KEY = "bench:value";
+    private static final String HASH = "bench:hash";
+    private static final String SET = "bench:set";
+    private static final String LIST = "bench:list";
+    private static final String COUNTER = "bench:counter";
+
+    @Param({"json", "compact"})
+    public String codec;
+
+    @Param({"medium"})
+    public String payload;
+
+    private LettuceConnectionFactory factory;
+
+    private RedisUtil redisUtil;
+
+    private Object value;
+
+    @Setup
+    public void setUp() {
+        factory = BenchmarkSupport.connectionFactory();
+        redisUtil = new RedisUtil(BenchmarkSupport.template(factory, SerializerProperties.Format.valueOf(codec.toUpperCase())));
+        value = BenchmarkSupport.payload(payload);
+        redisUtil.set(KEY, value);
+        redisUtil.hset(HASH, "item", value);
+        redisUtil.sSet(SET, "member");
+        redisUtil.del(LIST);
+        redisUtil.lSet(LIST, value);
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisUtil.del(KEY, HASH, SET, LIST, COUNTER);
+        factory.destroy();
+    }
+
+    @Benchmark
+    public boolean set() {
+        return redisUtil.set(KEY, value);
+    }
+
+    @Benchmark
+    public boolean setWithTime() {
+        return redisUtil.set(KEY, value, 60);
+    }
+
+    @Benchmark
+    public Object get() {
+        return redisUtil.get(KEY);
+    }
+
+    @Benchmark
+    public long incr() {
+        return redisUtil.incr(COUNTER, 1);
+    }
+
+    @Benchmark
+    public boolean hset() {
+        return redisUtil.hset(HASH, "item", value);
+    }
+
+    @Benchmark
+    public boolean hsetWithTime() {
+        return redisUtil.hset(HASH, "item", value, 60);
+    }
+
+    @Benchmark
+    public boolean hsetAtomic() {
+        return redisUtil.hsetAtomic(HASH, "item", value, 60);
+    }
+
+    @Benchmark
+    public Object hget() {
+        return redisUtil.hget(HASH, "item");
+    }
+
+    @Benchmark
+    public long sSet() {
+        return redisUtil.sSet(SET, "member");
+    }
+
+    @Benchmark
+    public boolean sHasKey() {
+        return redisUtil.sHasKey(SET, "member");
+    }
+
+    @Benchmark
+    public Object lGetIndex() {
+        return redisUtil.lGetIndex(LIST, 0);
+    }
+
+    @Benchmark
+    public boolean lUpdateIndex() {
+        return redisUtil.lUpdateIndex(LIST, 0, value);
+    }
+}
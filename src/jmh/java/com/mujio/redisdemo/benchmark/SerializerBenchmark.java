@@ -0,0 +1,58 @@
+package com.mujio.redisdemo.benchmark;
+
+import com.mujio.redisdemo.config.RedisConfig;
+import com.mujio.redisdemo.serializer.CompactRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * @Description: SerializerBenchmark JSON 与紧凑格式的编码/解码，不需要 Redis
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"json", "compact"})
+    public String codec;
+
+    @Param({"small", "medium", "large"})
+    public String payload;
+
+    private RedisSerializer<Object> serializer;
+
+    private Object value;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        RedisSerializer<Object> json = RedisConfig.jacksonSerializer();
+        serializer = "json".equals(codec) ? json : new CompactRedisSerializer(BenchmarkSupport.typeRegistry(), json);
+        value = BenchmarkSupport.payload(payload);
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,385 @@
+package com.mujio.redisdemo.cache;
+
+import com.mujio.redisdemo.utils.RedisScanner;
+import com.mujio.redisdemo.utils.RedisScripts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * @Description: RedisTtlCache 带过期时间浮动、单飞加载和过期后后台刷新的 Redis 缓存
+ * key 为 缓存名::key，value 为 Entry（值 + 逻辑过期时间）；Redis 中的实际过期时间 = 逻辑过期时间 + staleTtl
+ * get(key, loader)（即 @Cacheable(sync = true)）时：
+ * 未过期直接返回；已过期但仍在 staleTtl 内时返回旧值，并由一个线程在后台刷新；不存在时同步加载
+ * 同步加载在本进程内每个 key 只有一个线程执行 loader，其他线程等待其结果；跨进程用 SET NX PX 锁保证只有一个节点回源
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisTtlCache extends AbstractValueAdaptingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisTtlCache.class);
+
+    private static final String LOCK_PREFIX = "lock:";
+
+    /**
+     * 未拿到锁时轮询 Redis 等待其他节点加载结果的间隔
+     */
+    private static final long POLL_MILLIS = 50;
+
+    private final String name;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Duration ttl;
+
+    private final double jitter;
+
+    /**
+     * 过期后旧值的保留时间，为 0 表示不返回过期值
+     */
+    private final Duration staleTtl;
+
+    private final Duration lockTimeout;
+
+    private final Executor refreshExecutor;
+
+    private final RedisScanner scanner;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    public RedisTtlCache(String name, RedisTemplate<String, Object> redisTemplate, Duration ttl, double jitter,
+                         Duration staleTtl, Duration lockTimeout, boolean allowNullValues, Executor refreshExecutor,
+                         RedisScanner scanner) {
+        super(allowNullValues);
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.jitter = jitter;
+        this.staleTtl = staleTtl;
+        this.lockTimeout = lockTimeout;
+        this.refreshExecutor = refreshExecutor;
+        this.scanner = scanner;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisTemplate;
+    }
+
+    /**
+     * 不带 loader 的读取没有刷新的途径，逻辑过期的值按未命中处理
+     */
+    @Override
+    protected Object lookup(Object key) {
+        Entry entry = read(cacheKey(key));
+        return entry == null || entry.expired() ? null : entry.storeValue();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = cacheKey(key);
+        Entry entry = read(cacheKey);
+        if (entry != null) {
+            if (entry.expired()) {
+                refresh(cacheKey, valueLoader);
+            }
+            return (T) fromStoreValue(entry.storeValue());
+        }
+        return (T) fromStoreValue(load(cacheKey, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        write(cacheKey(key), toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String cacheKey = cacheKey(key);
+        Entry entry = newEntry(toStoreValue(value));
+        Boolean absent = redisTemplate.opsForValue().setIfAbsent(cacheKey, entry, expireMillis(entry), TimeUnit.MILLISECONDS);
+        if (Boolean.TRUE.equals(absent)) {
+            return null;
+        }
+        return toValueWrapper(lookup(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisTemplate.delete(cacheKey(key));
+    }
+
+    /**
+     * @Description: clear 用 SCAN 找出本缓存的所有 key 分批删除，不阻塞 Redis
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @Override
+    public void clear() {
+        try (Stream<String> keys = scanner.scan(name + "::*", RedisScanner.DEFAULT_COUNT)) {
+            List<String> batch = new ArrayList<>(RedisScanner.DEFAULT_COUNT);
+            keys.forEach(key -> {
+                batch.add(key);
+                if (batch.size() >= RedisScanner.DEFAULT_COUNT) {
+                    redisTemplate.delete(new ArrayList<>(batch));
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                redisTemplate.delete(batch);
+            }
+        }
+    }
+
+    /**
+     * @Description: load 同步加载：本进程内同一个 key 只有一个线程执行，其余线程等待同一个结果
+     * @Param: [cacheKey, valueLoader]
+     * @return: java.lang.Object 存储值（null 已转换为 NullValue）
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private Object load(String cacheKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(cacheKey, future);
+        if (running != null) {
+            return await(running, cacheKey, valueLoader);
+        }
+        Object value;
+        try {
+            value = loadWithLock(cacheKey, valueLoader, true);
+        } catch (RuntimeException e) {
+            loading.remove(cacheKey, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        //先移除再完成，等待者被唤醒后重新进入 load 时不会再拿到这个已完成的 future
+        loading.remove(cacheKey, future);
+        future.complete(value);
+        return value;
+    }
+
+    /**
+     * @Description: refresh 后台刷新过期值，本进程内已有线程在加载该 key 时跳过
+     * @Param: [cacheKey, valueLoader]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private void refresh(String cacheKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(cacheKey, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                Object value = null;
+                try {
+                    value = loadWithLock(cacheKey, valueLoader, false);
+                } catch (RuntimeException e) {
+                    log.warn("cache refresh failed, key={}", cacheKey, e);
+                }
+                loading.remove(cacheKey, future);
+                future.complete(value);
+            });
+        } catch (RuntimeException e) {
+            //刷新线程池已满，本次不刷新，下次读取时再尝试
+            loading.remove(cacheKey, future);
+            future.complete(null);
+        }
+    }
+
+    /**
+     * @Description: loadWithLock 拿到分布式锁的节点回源并写入；没拿到锁时同步加载会等待其他节点的结果，超时后自行回源，后台刷新则直接放弃
+     * @Param: [cacheKey, valueLoader, wait]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private Object loadWithLock(String cacheKey, Callable<?> valueLoader, boolean wait) {
+        String lockKey = LOCK_PREFIX + cacheKey;
+        String token = UUID.randomUUID().toString();
+        boolean locked = lock(lockKey, token);
+        try {
+            if (!locked) {
+                if (!wait) {
+                    return null;
+                }
+                Entry loaded = poll(cacheKey);
+                if (loaded != null) {
+                    return loaded.storeValue();
+                }
+            } else if (wait) {
+                //拿锁前其他节点可能刚写入
+                Entry entry = read(cacheKey);
+                if (entry != null && !entry.expired()) {
+                    return entry.storeValue();
+                }
+            }
+            Object value = toStoreValue(call(valueLoader, cacheKey));
+            write(cacheKey, value);
+            return value;
+        } finally {
+            if (locked) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    /**
+     * @Description: await 等待本进程内正在进行的加载；后台刷新没拿到锁或失败时结果为 null，此时重新走单飞加载
+     * @Param: [running, cacheKey, valueLoader]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private Object await(CompletableFuture<Object> running, String cacheKey, Callable<?> valueLoader) {
+        try {
+            Object value = running.get(lockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return value != null ? value : load(cacheKey, valueLoader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ValueRetrievalException(cacheKey, valueLoader, e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("cache load timed out waiting for another thread, key={}", cacheKey);
+        }
+        return loadWithLock(cacheKey, valueLoader, true);
+    }
+
+    private Entry poll(String cacheKey) {
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            Entry entry = read(cacheKey);
+            if (entry != null && !entry.expired()) {
+                return entry;
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean lock(String lockKey, String token) {
+        //token 按纯字符串写入，与 unlock 脚本的参数序列化一致，否则 GET 比较不相等锁永远释放不掉
+        byte[] rawKey = RedisSerializer.string().serialize(lockKey);
+        byte[] rawToken = RedisSerializer.string().serialize(token);
+        try {
+            return Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(rawKey, rawToken,
+                    Expiration.milliseconds(lockTimeout.toMillis()), RedisStringCommands.SetOption.ifAbsent())));
+        } catch (RuntimeException e) {
+            //锁不可用时退化为只有本进程内单飞
+            log.warn("cache lock failed, key={}", lockKey, e);
+            return false;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(RedisScripts.UNLOCK, RedisSerializer.string(), null,
+                    Collections.singletonList(lockKey), token);
+        } catch (RuntimeException e) {
+            log.warn("cache unlock failed, key={}", lockKey, e);
+        }
+    }
+
+    private Object call(Callable<?> valueLoader, String cacheKey) {
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(cacheKey, valueLoader, e);
+        }
+    }
+
+    private Entry read(String cacheKey) {
+        Object value = redisTemplate.opsForValue().get(cacheKey);
+        return value instanceof Entry ? (Entry) value : null;
+    }
+
+    private void write(String cacheKey, Object storeValue) {
+        Entry entry = newEntry(storeValue);
+        redisTemplate.opsForValue().set(cacheKey, entry, expireMillis(entry), TimeUnit.MILLISECONDS);
+    }
+
+    private Entry newEntry(Object storeValue) {
+        long ttlMillis = ttl.toMillis();
+        if (jitter > 0) {
+            long range = (long) (ttlMillis * jitter);
+            ttlMillis += ThreadLocalRandom.current().nextLong(-range, range + 1);
+        }
+        return new Entry(storeValue, System.currentTimeMillis() + Math.max(ttlMillis, 1));
+    }
+
+    private long expireMillis(Entry entry) {
+        return Math.max(entry.expireAt - System.currentTimeMillis(), 1) + staleTtl.toMillis();
+    }
+
+    private String cacheKey(Object key) {
+        return name + "::" + key;
+    }
+
+    /**
+     * 缓存在 Redis 中的值，NullValue 无法经 Jackson 还原，null 单独用标记位表示
+     */
+    public static class Entry {
+
+        private Object value;
+
+        private boolean nullValue;
+
+        private long expireAt;
+
+        public Entry() {
+        }
+
+        Entry(Object storeValue, long expireAt) {
+            this.nullValue = storeValue == NullValue.INSTANCE;
+            this.value = nullValue ? null : storeValue;
+            this.expireAt = expireAt;
+        }
+
+        Object storeValue() {
+            return nullValue ? NullValue.INSTANCE : value;
+        }
+
+        boolean expired() {
+            return System.currentTimeMillis() >= expireAt;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mujio.redisdemo.cache;
+
+import com.mujio.redisdemo.config.RedisCacheProperties;
+import com.mujio.redisdemo.utils.RedisScanner;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Description: RedisTtlCacheManager 按缓存名配置过期时间的 CacheManager，未配置的缓存名使用默认过期时间按需创建
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisTtlCacheManager extends AbstractCacheManager implements DisposableBean {
+
+    /**
+     * 后台刷新任务的排队上限，超过后丢弃刷新任务，继续返回旧值
+     */
+    private static final int REFRESH_QUEUE_SIZE = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisCacheProperties properties;
+
+    private final RedisScanner scanner;
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    public RedisTtlCacheManager(RedisTemplate<String, Object> redisTemplate, RedisCacheProperties properties, RedisScanner scanner) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.scanner = scanner;
+        AtomicInteger threads = new AtomicInteger();
+        int refreshThreads = Math.max(properties.getRefreshThreads(), 1);
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "redis-cache-refresh-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> caches = new ArrayList<>();
+        for (String name : properties.getTtls().keySet()) {
+            caches.add(createCache(name));
+        }
+        return caches;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Cache createCache(String name) {
+        //不开启 stale-while-revalidate 时 Redis 中的过期时间就是逻辑过期时间
+        Duration staleTtl = properties.isStaleWhileRevalidate() ? properties.getStaleTtl() : Duration.ZERO;
+        return new RedisTtlCache(name, redisTemplate, properties.ttl(name), properties.getJitter(), staleTtl,
+                properties.getLockTimeout(), properties.isAllowNullValues(), refreshExecutor, scanner);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.CounterBuffer;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * @Description: CounterBufferConfig 计数器合并写配置，redis.counter-buffer.enabled=true 时生效
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(CounterBufferProperties.class)
+@ConditionalOnProperty(prefix = "redis.counter-buffer", name = "enabled", havingValue = "true")
+public class CounterBufferConfig {
+
+    @Bean
+    public CounterBuffer counterBuffer(RedisTemplate<String, Object> redisTemplate, CounterBufferProperties properties,
+                                       RedisMetrics redisMetrics) {
+        return new CounterBuffer(redisTemplate, properties, redisMetrics);
+    }
+}
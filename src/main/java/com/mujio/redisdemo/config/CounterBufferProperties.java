@@ -0,0 +1,92 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @Description: CounterBufferProperties 计数器合并写配置，前缀 redis.counter-buffer
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.counter-buffer")
+public class CounterBufferProperties {
+
+    /**
+     * 是否启用计数器合并写
+     */
+    private boolean enabled = false;
+
+    /**
+     * 定期把本地累计的增量写入 Redis 的间隔
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * 本地最多累计的计数器个数（key 与 hash item 合计），达到后由写入线程立即提交，限制内存占用
+     */
+    private int maxKeys = 100000;
+
+    /**
+     * 本地计数器个数的硬上限，Redis 持续不可用导致增量积压到该值后，新 key 的增量直接丢弃（已有 key 仍可累加）
+     */
+    private int maxPendingKeys = 1000000;
+
+    /**
+     * 提交失败后的退避上限，退避从 flushInterval 开始每次失败翻倍，退避期间写入线程不再同步提交
+     */
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    /**
+     * 单次 pipeline 最多提交的命令数
+     */
+    private int batchSize = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public int getMaxPendingKeys() {
+        return maxPendingKeys;
+    }
+
+    public void setMaxPendingKeys(int maxPendingKeys) {
+        this.maxPendingKeys = maxPendingKeys;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
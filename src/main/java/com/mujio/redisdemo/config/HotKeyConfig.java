@@ -0,0 +1,28 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.HotKeyDetector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @Description: HotKeyConfig 热点 key 探测配置，redis.hot-key.enabled=true 时生效
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(HotKeyProperties.class)
+@ConditionalOnProperty(prefix = "redis.hot-key", name = "enabled", havingValue = "true")
+public class HotKeyConfig {
+
+    @Bean
+    public HotKeyDetector hotKeyDetector(HotKeyProperties properties) {
+        return new HotKeyDetector(properties);
+    }
+
+    @Bean
+    public HotKeyEndpoint hotKeyEndpoint(HotKeyDetector hotKeyDetector) {
+        return new HotKeyEndpoint(hotKeyDetector);
+    }
+}
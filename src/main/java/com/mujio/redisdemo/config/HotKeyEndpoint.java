@@ -0,0 +1,43 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.HotKeyDetector;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: HotKeyEndpoint /actuator/hotkeys，上一个统计窗口访问最多的 key、估算 QPS 以及是否由本地副本提供读取
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyDetector detector;
+
+    public HotKeyEndpoint(HotKeyDetector detector) {
+        this.detector = detector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("windowMillis", detector.getWindowMillis());
+        result.put("sampleRate", detector.getSampleRate());
+        result.put("threshold", detector.getThreshold());
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (HotKeyDetector.HotKey hotKey : detector.topKeys()) {
+            Map<String, Object> key = new LinkedHashMap<>();
+            key.put("key", hotKey.getKey());
+            key.put("qps", Math.round(hotKey.getQps()));
+            key.put("hot", hotKey.isHot());
+            keys.add(key);
+        }
+        result.put("keys", keys);
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @Description: HotKeyProperties 热点 key 探测配置，前缀 redis.hot-key
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.hot-key")
+public class HotKeyProperties {
+
+    /**
+     * 是否启用热点 key 探测
+     */
+    private boolean enabled = false;
+
+    /**
+     * 采样率，每 sampleRate 次访问计数一次，1 表示每次都计数
+     */
+    private int sampleRate = 8;
+
+    /**
+     * 统计窗口，每个窗口结束时重新评估热点
+     */
+    private Duration window = Duration.ofSeconds(1);
+
+    /**
+     * 估算 QPS 达到该值的 key 视为热点，由本地副本提供读取
+     */
+    private double threshold = 2000;
+
+    /**
+     * 每个窗口保留的候选热点数
+     */
+    private int topK = 32;
+
+    /**
+     * 热点 key 本地副本的存活时间，其他节点写入后最多读到这么久的旧值
+     */
+    private Duration localTtl = Duration.ofSeconds(1);
+
+    /**
+     * Count-Min sketch 每行的计数器数，取 2 的幂
+     */
+    private int sketchWidth = 4096;
+
+    /**
+     * Count-Min sketch 的行数（哈希函数个数）
+     */
+    private int sketchDepth = 4;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public void setLocalTtl(Duration localTtl) {
+        this.localTtl = localTtl;
+    }
+
+    public int getSketchWidth() {
+        return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+        this.sketchWidth = sketchWidth;
+    }
+
+    public int getSketchDepth() {
+        return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+        this.sketchDepth = sketchDepth;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.RedisKeyAnalyzer;
+import com.mujio.redisdemo.utils.RedisScanner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * @Description: KeyAnalyzerConfig 大 key 与内存分析配置，redis.key-analyzer.enabled=true 时生效
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(KeyAnalyzerProperties.class)
+@ConditionalOnProperty(prefix = "redis.key-analyzer", name = "enabled", havingValue = "true")
+public class KeyAnalyzerConfig {
+
+    @Bean
+    public RedisKeyAnalyzer redisKeyAnalyzer(RedisTemplate<String, Object> redisTemplate, KeyAnalyzerProperties properties,
+                                             RedisScanner redisScanner) {
+        return new RedisKeyAnalyzer(redisTemplate, properties, redisScanner);
+    }
+
+    @Bean
+    public KeyAnalyzerEndpoint keyAnalyzerEndpoint(RedisKeyAnalyzer redisKeyAnalyzer) {
+        return new KeyAnalyzerEndpoint(redisKeyAnalyzer);
+    }
+}
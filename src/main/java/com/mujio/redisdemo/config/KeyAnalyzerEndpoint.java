@@ -0,0 +1,91 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.KeyReport;
+import com.mujio.redisdemo.utils.RedisKeyAnalyzer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: KeyAnalyzerEndpoint /actuator/keyanalysis，POST 开始后台分析（可带 pattern），GET 查看进度与最近一次报告
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Endpoint(id = "keyanalysis")
+public class KeyAnalyzerEndpoint {
+
+    private final RedisKeyAnalyzer analyzer;
+
+    public KeyAnalyzerEndpoint(RedisKeyAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        KeyReport current = analyzer.getCurrent();
+        result.put("running", current != null);
+        if (current != null) {
+            result.put("scanned", current.getScanned());
+        }
+        KeyReport last = analyzer.getLastReport();
+        if (last != null) {
+            result.put("lastReport", toMap(last));
+        }
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String pattern) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("started", analyzer.start(pattern));
+        result.put("pattern", pattern);
+        return result;
+    }
+
+    private static Map<String, Object> toMap(KeyReport report) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pattern", report.getPattern());
+        result.put("startedAt", report.getStartedAt());
+        result.put("finishedAt", report.getFinishedAt());
+        result.put("scanned", report.getScanned());
+        result.put("totalBytes", report.getTotalBytes());
+        result.put("noTtlCount", report.getNoTtlCount());
+        result.put("bigKeyCount", report.getBigKeyCount());
+        if (report.getError() != null) {
+            result.put("error", report.getError());
+        }
+        List<Map<String, Object>> groups = new ArrayList<>();
+        for (KeyReport.Group group : report.getGroups()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("prefix", group.getPrefix());
+            item.put("type", group.getType());
+            item.put("keys", group.getCount());
+            item.put("bytes", group.getBytes());
+            item.put("maxBytes", group.getMaxBytes());
+            item.put("noTtl", group.getNoTtl());
+            groups.add(item);
+        }
+        result.put("groups", groups);
+        List<Map<String, Object>> bigKeys = new ArrayList<>();
+        for (KeyReport.KeyInfo info : report.getBigKeys()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("key", info.getKey());
+            item.put("type", info.getType());
+            item.put("encoding", info.getEncoding());
+            item.put("bytes", info.getBytes());
+            item.put("elements", info.getElements());
+            item.put("ttlMillis", info.getTtlMillis());
+            bigKeys.add(item);
+        }
+        result.put("bigKeys", bigKeys);
+        result.put("noTtlKeys", report.getNoTtlKeys());
+        return result;
+    }
+}
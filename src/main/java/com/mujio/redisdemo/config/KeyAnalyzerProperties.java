@@ -0,0 +1,119 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * @Description: KeyAnalyzerProperties 大 key 与内存分析配置，前缀 redis.key-analyzer
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.key-analyzer")
+public class KeyAnalyzerProperties {
+
+    /**
+     * 是否启用分析器及 /actuator/keyanalysis
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每批 SCAN 的 COUNT，也是每次 pipeline 分析的 key 数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 每秒最多分析的 key 数，用于限制对线上实例的压力
+     */
+    private int keysPerSecond = 5000;
+
+    /**
+     * 一批分析的往返耗时超过该值时，额外暂停同样长的时间，Redis 变慢时自动让路
+     */
+    private Duration slowBatch = Duration.ofMillis(20);
+
+    /**
+     * 占用内存达到该值的 key 视为大 key
+     */
+    private DataSize bigKeyBytes = DataSize.ofMegabytes(1);
+
+    /**
+     * 元素数达到该值的 list/hash/set/zset/stream 视为大 key
+     */
+    private long bigKeyElements = 10000;
+
+    /**
+     * 按前缀汇总时保留的段数，包含数字的段替换为 *
+     */
+    private int prefixDepth = 2;
+
+    /**
+     * 报告中最多列出的大 key 数和无过期时间的 key 数
+     */
+    private int maxReportedKeys = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getKeysPerSecond() {
+        return keysPerSecond;
+    }
+
+    public void setKeysPerSecond(int keysPerSecond) {
+        this.keysPerSecond = keysPerSecond;
+    }
+
+    public Duration getSlowBatch() {
+        return slowBatch;
+    }
+
+    public void setSlowBatch(Duration slowBatch) {
+        this.slowBatch = slowBatch;
+    }
+
+    public DataSize getBigKeyBytes() {
+        return bigKeyBytes;
+    }
+
+    public void setBigKeyBytes(DataSize bigKeyBytes) {
+        this.bigKeyBytes = bigKeyBytes;
+    }
+
+    public long getBigKeyElements() {
+        return bigKeyElements;
+    }
+
+    public void setBigKeyElements(long bigKeyElements) {
+        this.bigKeyElements = bigKeyElements;
+    }
+
+    public int getPrefixDepth() {
+        return prefixDepth;
+    }
+
+    public void setPrefixDepth(int prefixDepth) {
+        this.prefixDepth = prefixDepth;
+    }
+
+    public int getMaxReportedKeys() {
+        return maxReportedKeys;
+    }
+
+    public void setMaxReportedKeys(int maxReportedKeys) {
+        this.maxReportedKeys = maxReportedKeys;
+    }
+}
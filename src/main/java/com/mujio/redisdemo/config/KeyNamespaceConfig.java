@@ -0,0 +1,47 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.namespace.KeyNamespaceRegistry;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import com.mujio.redisdemo.utils.RedisScanner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * @Description: KeyNamespaceConfig key 命名空间与版本号配置，redis.namespace.enabled=true 时生效
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(KeyNamespaceProperties.class)
+@ConditionalOnProperty(prefix = "redis.namespace", name = "enabled", havingValue = "true")
+public class KeyNamespaceConfig {
+
+    @Bean
+    public KeyNamespaceRegistry keyNamespaceRegistry(RedisTemplate<String, Object> redisTemplate, KeyNamespaceProperties properties,
+                                                     RedisMetrics redisMetrics, RedisScanner redisScanner) {
+        return new KeyNamespaceRegistry(redisTemplate, properties, redisMetrics, redisScanner);
+    }
+
+/**
+ * @Description: 订阅版本变更频道，收到其他节点递增版本号的通知后更新本地缓存的版本号
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public RedisMessageListenerContainer keyNamespaceListenerContainer(RedisConnectionFactory factory, KeyNamespaceRegistry registry,
+                                                                       KeyNamespaceProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(registry, new ChannelTopic(properties.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description: KeyNamespaceProperties key 命名空间配置，前缀 redis.namespace
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.namespace")
+public class KeyNamespaceProperties {
+
+    /**
+     * 是否启用 KeyNamespaceRegistry
+     */
+    private boolean enabled = false;
+
+    /**
+     * 命名空间名 -> key 前缀，未配置的命名空间以名字作为前缀
+     */
+    private Map<String, String> prefixes = new LinkedHashMap<>();
+
+    /**
+     * 本地缓存的版本号超过这个时间后在后台重新读取，兜底错过的失效通知
+     */
+    private Duration versionRefresh = Duration.ofSeconds(5);
+
+    /**
+     * 跨节点版本变更通知的频道
+     */
+    private String channel = "namespace:invalidate";
+
+    /**
+     * 版本号递增后是否在后台用 SCAN 删除旧版本的 key；关闭时旧 key 只能依靠各自的过期时间回收
+     */
+    private boolean reclaim = true;
+
+    /**
+     * 递增后等待多久再回收旧版本，留给其他节点收到通知前的写入
+     */
+    private Duration reclaimDelay = Duration.ofSeconds(10);
+
+    /**
+     * 回收时每批 SCAN 的 COUNT 和每条 UNLINK 的 key 数
+     */
+    private int reclaimBatch = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, String> getPrefixes() {
+        return prefixes;
+    }
+
+    public void setPrefixes(Map<String, String> prefixes) {
+        this.prefixes = prefixes;
+    }
+
+    public Duration getVersionRefresh() {
+        return versionRefresh;
+    }
+
+    public void setVersionRefresh(Duration versionRefresh) {
+        this.versionRefresh = versionRefresh;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public boolean isReclaim() {
+        return reclaim;
+    }
+
+    public void setReclaim(boolean reclaim) {
+        this.reclaim = reclaim;
+    }
+
+    public Duration getReclaimDelay() {
+        return reclaimDelay;
+    }
+
+    public void setReclaimDelay(Duration reclaimDelay) {
+        this.reclaimDelay = reclaimDelay;
+    }
+
+    public int getReclaimBatch() {
+        return reclaimBatch;
+    }
+
+    public void setReclaimBatch(int reclaimBatch) {
+        this.reclaimBatch = reclaimBatch;
+    }
+}
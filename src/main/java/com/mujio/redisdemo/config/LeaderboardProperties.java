@@ -0,0 +1,53 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @Description: LeaderboardProperties 排行榜配置，前缀 redis.leaderboard
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.leaderboard")
+public class LeaderboardProperties {
+
+    /**
+     * 每页的成员数
+     */
+    private int pageSize = 20;
+
+    /**
+     * 前几页在本地缓存，热门的榜首查询不访问 Redis；0 表示不缓存
+     */
+    private int cachedPages = 5;
+
+    /**
+     * 本地缓存页的有效期，榜单最多落后这么久
+     */
+    private Duration pageTtl = Duration.ofSeconds(1);
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getCachedPages() {
+        return cachedPages;
+    }
+
+    public void setCachedPages(int cachedPages) {
+        this.cachedPages = cachedPages;
+    }
+
+    public Duration getPageTtl() {
+        return pageTtl;
+    }
+
+    public void setPageTtl(Duration pageTtl) {
+        this.pageTtl = pageTtl;
+    }
+}
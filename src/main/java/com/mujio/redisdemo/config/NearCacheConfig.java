@@ -0,0 +1,45 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.NearCache;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * @Description: NearCacheConfig 近端缓存配置，redis.near-cache.enabled=true 时生效
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(NearCacheProperties.class)
+@ConditionalOnProperty(prefix = "redis.near-cache", name = "enabled", havingValue = "true")
+public class NearCacheConfig {
+
+    @Bean
+    public NearCache nearCache(RedisTemplate<String, Object> redisTemplate, NearCacheProperties properties, RedisMetrics redisMetrics) {
+        return new NearCache(redisTemplate, properties, redisMetrics);
+    }
+
+/**
+ * @Description: 订阅失效通知频道，收到其他节点的写入通知后清除本地副本
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public RedisMessageListenerContainer nearCacheListenerContainer(RedisConnectionFactory factory, NearCache nearCache,
+                                                                    NearCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(nearCache, new ChannelTopic(properties.getChannel()));
+        return container;
+    }
+}
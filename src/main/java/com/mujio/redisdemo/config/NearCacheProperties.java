@@ -0,0 +1,77 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @Description: NearCacheProperties 近端缓存配置，前缀 redis.near-cache
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.near-cache")
+public class NearCacheProperties {
+
+    /**
+     * 是否启用近端缓存
+     */
+    private boolean enabled = false;
+
+    /**
+     * 本地最多缓存的 key 数（value 与 hash 各自计数）
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 单个 hash 最多缓存的 item 数
+     */
+    private int maximumHashItems = 1000;
+
+    /**
+     * 本地缓存写入后的存活时间（秒）
+     */
+    private long ttl = 60;
+
+    /**
+     * 跨节点失效通知的频道
+     */
+    private String channel = "near-cache:invalidate";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public int getMaximumHashItems() {
+        return maximumHashItems;
+    }
+
+    public void setMaximumHashItems(int maximumHashItems) {
+        this.maximumHashItems = maximumHashItems;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+}
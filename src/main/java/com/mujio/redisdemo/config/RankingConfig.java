@@ -0,0 +1,31 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.leaderboard.LeaderboardRegistry;
+import com.mujio.redisdemo.limit.RedisRateLimiter;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * @Description: RankingConfig 基于有序集合的排行榜与限流配置
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties({LeaderboardProperties.class, RateLimiterProperties.class})
+public class RankingConfig {
+
+    @Bean
+    public LeaderboardRegistry leaderboardRegistry(RedisTemplate<String, Object> redisTemplate, LeaderboardProperties properties,
+                                                   RedisMetrics redisMetrics) {
+        return new LeaderboardRegistry(redisTemplate, properties, redisMetrics);
+    }
+
+    @Bean
+    public RedisRateLimiter redisRateLimiter(RedisTemplate<String, Object> redisTemplate, RateLimiterProperties properties,
+                                             RedisMetrics redisMetrics) {
+        return new RedisRateLimiter(redisTemplate, properties, redisMetrics);
+    }
+}
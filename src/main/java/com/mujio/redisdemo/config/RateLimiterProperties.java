@@ -0,0 +1,25 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @Description: RateLimiterProperties 限流配置，前缀 redis.rate-limiter
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.rate-limiter")
+public class RateLimiterProperties {
+
+    /**
+     * 限流键的前缀
+     */
+    private String keyPrefix = "rate-limit:";
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.AsyncRedisUtil;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.resource.ClientResources;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Description: RedisAsyncConfig AsyncRedisUtil 配置，redis.async.enabled=true 时生效
+ * 命令合并需要关闭连接的自动 flush，会影响同一连接上的所有命令，因此不复用 RedisTemplate 的共享连接，
+ * 而是按 redis.* 的地址单独建一条连接，与 RedisClientConfig 共用 ClientResources
+ * master-replica 拓扑只连接 master
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(RedisAsyncProperties.class)
+@ConditionalOnProperty(prefix = "redis.async", name = "enabled", havingValue = "true")
+public class RedisAsyncConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public AbstractRedisClient asyncRedisClient(RedisClientProperties properties, ClientResources clientResources) {
+        TimeoutOptions timeoutOptions = TimeoutOptions.builder().fixedTimeout(properties.getTimeout()).build();
+        if (properties.getTopology() == RedisClientProperties.Topology.CLUSTER) {
+            List<RedisURI> uris = new ArrayList<>();
+            for (String node : properties.getNodes()) {
+                int colon = node.lastIndexOf(':');
+                uris.add(uri(RedisURI.builder().withHost(node.substring(0, colon)).withPort(Integer.parseInt(node.substring(colon + 1))), properties));
+            }
+            RedisClusterClient client = RedisClusterClient.create(clientResources, uris);
+            client.setOptions(ClusterClientOptions.builder().maxRedirects(properties.getCluster().getMaxRedirects())
+                    .timeoutOptions(timeoutOptions).build());
+            return client;
+        }
+        RedisURI.Builder builder;
+        if (properties.getTopology() == RedisClientProperties.Topology.SENTINEL) {
+            builder = RedisURI.builder().withSentinelMasterId(properties.getSentinel().getMaster());
+            for (String node : properties.getNodes()) {
+                int colon = node.lastIndexOf(':');
+                builder.withSentinel(node.substring(0, colon), Integer.parseInt(node.substring(colon + 1)));
+            }
+        } else {
+            builder = RedisURI.builder().withHost(properties.getHost()).withPort(properties.getPort());
+        }
+        RedisClient client = RedisClient.create(clientResources, uri(builder.withDatabase(properties.getDatabase()), properties));
+        client.setOptions(ClientOptions.builder().timeoutOptions(timeoutOptions).build());
+        return client;
+    }
+
+    @Bean
+    public AsyncRedisUtil asyncRedisUtil(AbstractRedisClient asyncRedisClient, RedisTemplate<String, Object> redisTemplate,
+                                         RedisAsyncProperties properties, RedisMetrics redisMetrics) {
+        StatefulConnection<byte[], byte[]> connection = asyncRedisClient instanceof RedisClusterClient
+                ? ((RedisClusterClient) asyncRedisClient).connect(ByteArrayCodec.INSTANCE)
+                : ((RedisClient) asyncRedisClient).connect(ByteArrayCodec.INSTANCE);
+        return new AsyncRedisUtil(connection, redisTemplate, properties, redisMetrics);
+    }
+
+    private static RedisURI uri(RedisURI.Builder builder, RedisClientProperties properties) {
+        if (StringUtils.hasText(properties.getPassword())) {
+            builder.withPassword(properties.getPassword().toCharArray());
+        }
+        return builder.withTimeout(properties.getTimeout()).build();
+    }
+}
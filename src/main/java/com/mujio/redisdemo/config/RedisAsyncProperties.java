@@ -0,0 +1,53 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @Description: RedisAsyncProperties AsyncRedisUtil 配置，前缀 redis.async
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.async")
+public class RedisAsyncProperties {
+
+    /**
+     * 是否创建 AsyncRedisUtil，启用后单独占用一条连接
+     */
+    private boolean enabled = false;
+
+    /**
+     * 命令发出前最多等待的时间，这段时间内各线程发出的命令合并为一次 flush；为 0 时每条命令立即发出
+     */
+    private Duration flushInterval = Duration.ofNanos(200_000);
+
+    /**
+     * 积累到这么多条命令时不等 flushInterval 立即发出
+     */
+    private int maxBatch = 128;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public void setMaxBatch(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+}
@@ -0,0 +1,131 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description: RedisCacheProperties @Cacheable 使用的 Redis 缓存配置，前缀 redis.cache
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.cache")
+public class RedisCacheProperties {
+
+    /**
+     * 未在 ttls 中配置的缓存的过期时间
+     */
+    private Duration defaultTtl = Duration.ofMinutes(10);
+
+    /**
+     * 按缓存名配置的过期时间
+     */
+    private Map<String, Duration> ttls = new LinkedHashMap<>();
+
+    /**
+     * 过期时间的随机浮动比例，0.1 表示在 ttl 的 ±10% 内随机，避免同时写入的 key 同时过期
+     */
+    private double jitter = 0.1;
+
+    /**
+     * 过期后是否继续返回旧值，同时由一个线程在后台刷新（仅对 @Cacheable(sync = true) 生效）
+     */
+    private boolean staleWhileRevalidate = false;
+
+    /**
+     * 过期后旧值最多保留多久，超过后 Redis 删除该 key，只能同步加载
+     */
+    private Duration staleTtl = Duration.ofMinutes(5);
+
+    /**
+     * 加载数据时分布式锁的持有时间，其他节点最多等待这么久后自行加载
+     */
+    private Duration lockTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 后台刷新线程数
+     */
+    private int refreshThreads = 4;
+
+    /**
+     * 是否缓存 null 值（防止缓存穿透）
+     */
+    private boolean allowNullValues = true;
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Map<String, Duration> getTtls() {
+        return ttls;
+    }
+
+    public void setTtls(Map<String, Duration> ttls) {
+        this.ttls = ttls;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public boolean isStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public Duration getStaleTtl() {
+        return staleTtl;
+    }
+
+    public void setStaleTtl(Duration staleTtl) {
+        this.staleTtl = staleTtl;
+    }
+
+    public Duration getLockTimeout() {
+        return lockTimeout;
+    }
+
+    public void setLockTimeout(Duration lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    public int getRefreshThreads() {
+        return refreshThreads;
+    }
+
+    public void setRefreshThreads(int refreshThreads) {
+        this.refreshThreads = refreshThreads;
+    }
+
+    public boolean isAllowNullValues() {
+        return allowNullValues;
+    }
+
+    public void setAllowNullValues(boolean allowNullValues) {
+        this.allowNullValues = allowNullValues;
+    }
+
+    /**
+     * @Description: ttl 指定缓存的过期时间
+     * @Param: [cacheName]
+     * @return: java.time.Duration
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Duration ttl(String cacheName) {
+        return ttls.getOrDefault(cacheName, defaultTtl);
+    }
+}
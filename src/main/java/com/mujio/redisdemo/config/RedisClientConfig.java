@@ -0,0 +1,241 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.utils.RedisMetrics;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.metrics.DefaultCommandLatencyCollectorOptions;
+import io.lettuce.core.protocol.RedisCommand;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: RedisClientConfig 按 redis.* 配置创建连接工厂和 Lettuce 客户端资源
+ * 定义了 RedisConnectionFactory 后 Spring Boot 的 spring.redis.* 自动配置不再生效
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(RedisClientProperties.class)
+public class RedisClientConfig {
+
+/**
+ * @Description: Lettuce 的 I/O 线程、计算线程和命令耗时统计，所有连接共用
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources(RedisClientProperties properties) {
+        DefaultClientResources.Builder builder = DefaultClientResources.builder();
+        if (properties.getIoThreads() > 0) {
+            builder.ioThreadPoolSize(properties.getIoThreads());
+        }
+        if (properties.getComputationThreads() > 0) {
+            builder.computationThreadPoolSize(properties.getComputationThreads());
+        }
+        DefaultCommandLatencyCollectorOptions.Builder latency = DefaultCommandLatencyCollectorOptions.builder();
+        if (properties.isLatencyEnabled()) {
+            //统计值累计保留，由 /actuator/redisclient 读取，不随 Lettuce 的定时事件清零
+            latency.enable().resetLatenciesAfterEvent(false).localDistinction(false);
+        } else {
+            latency.disable();
+        }
+        return builder.commandLatencyCollectorOptions(latency.build()).build();
+    }
+
+/**
+ * @Description: 连接工厂，redis.mode=shared 时所有线程复用一条连接，pooled 时每次操作独占池中的连接
+ * redis.topology 决定单节点/集群/哨兵/一主多从，redis.read-from 决定读命令发往哪类节点，写命令始终发往 master
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public LettuceConnectionFactory redisConnectionFactory(RedisClientProperties properties, ClientResources clientResources) {
+        boolean pooled = properties.getMode() == RedisClientProperties.Mode.POOLED;
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = pooled
+                ? LettucePoolingClientConfiguration.builder().poolConfig(poolConfig(properties.getPool()))
+                : LettuceClientConfiguration.builder();
+        builder.clientResources(clientResources)
+                .clientOptions(clientOptions(properties))
+                .commandTimeout(properties.getTimeout())
+                .shutdownTimeout(properties.getShutdownTimeout());
+        if (properties.getReadFrom() != RedisClientProperties.ReadMode.MASTER) {
+            //单节点配置了 readFrom 时 spring-data-redis 会改用 master/replica 连接，自动发现从节点
+            builder.readFrom(readFrom(properties.getReadFrom()));
+        }
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(redisConfiguration(properties), builder.build());
+        //默认即使配置了连接池也共享一条连接，pooled 模式下关闭共享才会真正从池中借连接
+        factory.setShareNativeConnection(!pooled);
+        return factory;
+    }
+
+/**
+ * @Description: 连接池 active/idle/waiting 指标，通过 /actuator/metrics/redis.pool.* 查看
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public RedisPoolStats redisPoolStats(LettuceConnectionFactory factory, RedisMetrics redisMetrics) {
+        RedisPoolStats stats = new RedisPoolStats(factory);
+        redisMetrics.bindPool(stats, RedisPoolStats::active, RedisPoolStats::idle, RedisPoolStats::waiting);
+        return stats;
+    }
+
+    @Bean
+    public RedisClientEndpoint redisClientEndpoint(RedisClientProperties properties, RedisPoolStats redisPoolStats,
+                                                   ClientResources clientResources) {
+        return new RedisClientEndpoint(properties, redisPoolStats, clientResources);
+    }
+
+    private static RedisConfiguration redisConfiguration(RedisClientProperties properties) {
+        RedisPassword password = RedisPassword.of(StringUtils.hasText(properties.getPassword()) ? properties.getPassword() : null);
+        switch (properties.getTopology()) {
+            case CLUSTER:
+                RedisClusterConfiguration cluster = new RedisClusterConfiguration(properties.getNodes());
+                cluster.setMaxRedirects(properties.getCluster().getMaxRedirects());
+                cluster.setPassword(password);
+                return cluster;
+            case SENTINEL:
+                RedisSentinelConfiguration sentinel = new RedisSentinelConfiguration(properties.getSentinel().getMaster(),
+                        new LinkedHashSet<>(properties.getNodes()));
+                sentinel.setDatabase(properties.getDatabase());
+                sentinel.setPassword(password);
+                if (StringUtils.hasText(properties.getSentinel().getPassword())) {
+                    sentinel.setSentinelPassword(RedisPassword.of(properties.getSentinel().getPassword()));
+                }
+                return sentinel;
+            case MASTER_REPLICA:
+                RedisStaticMasterReplicaConfiguration masterReplica =
+                        new RedisStaticMasterReplicaConfiguration(properties.getHost(), properties.getPort());
+                for (String node : properties.getNodes()) {
+                    int colon = node.lastIndexOf(':');
+                    masterReplica.node(node.substring(0, colon), Integer.parseInt(node.substring(colon + 1)));
+                }
+                masterReplica.setDatabase(properties.getDatabase());
+                masterReplica.setPassword(password);
+                return masterReplica;
+            default:
+                RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(properties.getHost(), properties.getPort());
+                standalone.setDatabase(properties.getDatabase());
+                standalone.setPassword(password);
+                return standalone;
+        }
+    }
+
+    private static ReadFrom readFrom(RedisClientProperties.ReadMode readMode) {
+        switch (readMode) {
+            case MASTER_PREFERRED:
+                return ReadFrom.MASTER_PREFERRED;
+            case REPLICA_PREFERRED:
+                return ReadFrom.REPLICA_PREFERRED;
+            case REPLICA:
+                return ReadFrom.REPLICA;
+            case NEAREST:
+                return ReadFrom.NEAREST;
+            case ANY:
+                return ReadFrom.ANY;
+            default:
+                return ReadFrom.MASTER;
+        }
+    }
+
+    private static ClientOptions clientOptions(RedisClientProperties properties) {
+        SocketOptions socketOptions = SocketOptions.builder()
+                .connectTimeout(properties.getConnectTimeout())
+                .keepAlive(properties.isKeepAlive())
+                .tcpNoDelay(true)
+                .build();
+        ClientOptions.Builder builder = ClientOptions.builder();
+        if (properties.getTopology() == RedisClientProperties.Topology.CLUSTER) {
+            //MOVED/ASK 和连接断开时立即刷新拓扑，另外按 refresh-period 定期刷新，扩缩容后请求能尽快路由到新节点
+            ClusterTopologyRefreshOptions.Builder refresh = ClusterTopologyRefreshOptions.builder().enableAllAdaptiveRefreshTriggers();
+            if (!properties.getCluster().getRefreshPeriod().isZero()) {
+                refresh.enablePeriodicRefresh(properties.getCluster().getRefreshPeriod());
+            }
+            builder = ClusterClientOptions.builder()
+                    .maxRedirects(properties.getCluster().getMaxRedirects())
+                    .topologyRefreshOptions(refresh.build());
+        }
+        return builder
+                .socketOptions(socketOptions)
+                //命令在发出前（如断线重连期间）排队也计入超时，避免调用方无限等待；按命令名可单独设置更短的超时
+                .timeoutOptions(TimeoutOptions.builder().timeoutCommands()
+                        .timeoutSource(new CommandTimeouts(properties.getTimeout(), properties.getCommandTimeouts()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * 按命令类型取超时时间，未单独配置的命令使用默认超时
+     */
+    private static final class CommandTimeouts extends TimeoutOptions.TimeoutSource {
+
+        private final long defaultNanos;
+
+        private final Map<String, Long> nanos = new HashMap<>();
+
+        private CommandTimeouts(Duration timeout, Map<String, Duration> commandTimeouts) {
+            this.defaultNanos = timeout.toNanos();
+            commandTimeouts.forEach((command, value) -> nanos.put(command.toUpperCase(Locale.ROOT), value.toNanos()));
+        }
+
+        @Override
+        public long getTimeout(RedisCommand<?, ?, ?> command) {
+            if (nanos.isEmpty()) {
+                return defaultNanos;
+            }
+            return nanos.getOrDefault(command.getType().name(), defaultNanos);
+        }
+
+        @Override
+        public TimeUnit getTimeUnit() {
+            return TimeUnit.NANOSECONDS;
+        }
+    }
+
+    private static GenericObjectPoolConfig<?> poolConfig(RedisClientProperties.Pool pool) {
+        GenericObjectPoolConfig<?> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(pool.getMaxActive());
+        config.setMaxIdle(pool.getMaxIdle());
+        config.setMinIdle(pool.getMinIdle());
+        config.setMaxWaitMillis(pool.getMaxWait().toMillis());
+        if (!pool.getTimeBetweenEvictionRuns().isZero()) {
+            config.setTimeBetweenEvictionRunsMillis(pool.getTimeBetweenEvictionRuns().toMillis());
+        }
+        return config;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mujio.redisdemo.config;
+
+import io.lettuce.core.metrics.CommandLatencyCollector;
+import io.lettuce.core.metrics.CommandLatencyId;
+import io.lettuce.core.metrics.CommandMetrics;
+import io.lettuce.core.resource.ClientResources;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @Description: RedisClientEndpoint /actuator/redisclient，当前连接配置、连接池统计和 Lettuce 按命令统计的耗时
+ * 用于根据实际负载调整 redis.pool.* 和线程数
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Endpoint(id = "redisclient")
+public class RedisClientEndpoint {
+
+    private final RedisClientProperties properties;
+
+    private final RedisPoolStats poolStats;
+
+    private final ClientResources clientResources;
+
+    public RedisClientEndpoint(RedisClientProperties properties, RedisPoolStats poolStats, ClientResources clientResources) {
+        this.properties = properties;
+        this.poolStats = poolStats;
+        this.clientResources = clientResources;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", properties.getMode());
+        stats.put("timeout", properties.getTimeout().toMillis());
+        stats.put("ioThreads", clientResources.ioThreadPoolSize());
+        stats.put("computationThreads", clientResources.computationThreadPoolSize());
+        stats.put("pool", pool());
+        stats.put("latency", latency());
+        return stats;
+    }
+
+    private Map<String, Object> pool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("maxActive", properties.getPool().getMaxActive());
+        pool.put("active", poolStats.active());
+        pool.put("idle", poolStats.idle());
+        pool.put("waiting", poolStats.waiting());
+        pool.put("borrowed", poolStats.borrowed());
+        pool.put("created", poolStats.created());
+        pool.put("meanBorrowWaitMillis", poolStats.meanBorrowWaitMillis());
+        pool.put("maxBorrowWaitMillis", poolStats.maxBorrowWaitMillis());
+        return pool;
+    }
+
+    private Map<String, Object> latency() {
+        Map<String, Object> latency = new TreeMap<>();
+        CommandLatencyCollector collector = clientResources.commandLatencyCollector();
+        if (collector == null || !collector.isEnabled()) {
+            return latency;
+        }
+        for (Map.Entry<CommandLatencyId, CommandMetrics> entry : collector.retrieveMetrics().entrySet()) {
+            CommandMetrics metrics = entry.getValue();
+            Map<String, Object> command = new LinkedHashMap<>();
+            command.put("count", metrics.getCount());
+            command.put("unit", metrics.getTimeUnit());
+            command.put("firstResponse", metrics.getFirstResponse().getPercentiles());
+            command.put("completion", metrics.getCompletion().getPercentiles());
+            command.put("max", metrics.getCompletion().getMax());
+            latency.put(entry.getKey().remoteAddress() + " " + entry.getKey().commandType().name(), command);
+        }
+        return latency;
+    }
+}
@@ -0,0 +1,443 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: RedisClientProperties 连接与客户端配置，前缀 redis，用于创建 RedisConnectionFactory
+ * 启动时校验，配置不合法时应用无法启动
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Validated
+@ConfigurationProperties(prefix = "redis")
+public class RedisClientProperties {
+
+    @NotBlank
+    private String host = "localhost";
+
+    @Min(1)
+    @Max(65535)
+    private int port = 6379;
+
+    private String password;
+
+    @Min(0)
+    private int database = 0;
+
+    /**
+     * 部署拓扑：standalone 单节点，cluster 集群，sentinel 哨兵，master-replica 固定的一主多从
+     */
+    @NotNull
+    private Topology topology = Topology.STANDALONE;
+
+    /**
+     * host:port 列表；cluster 为种子节点，sentinel 为哨兵节点，master-replica 为 host/port 之外的其他节点
+     */
+    private List<String> nodes = new ArrayList<>();
+
+    /**
+     * 读命令发往哪类节点，写命令始终发往 master；standalone 且只有一个节点时无效
+     */
+    @NotNull
+    private ReadMode readFrom = ReadMode.MASTER;
+
+    @Valid
+    private final Sentinel sentinel = new Sentinel();
+
+    @Valid
+    private final Cluster cluster = new Cluster();
+
+    /**
+     * 连接模式：shared 所有线程复用一条多路复用连接，pooled 每次操作从连接池借出独占连接
+     */
+    @NotNull
+    private Mode mode = Mode.SHARED;
+
+    /**
+     * 命令超时时间
+     */
+    @NotNull
+    private Duration timeout = Duration.ofSeconds(3);
+
+    /**
+     * 按命令名（大写，如 GET、HGET、EVALSHA）单独设置的超时时间，未配置的命令使用 timeout；
+     * 由 Lettuce 在命令排队时开始计时，到期后取消命令并抛出超时异常
+     */
+    private Map<String, Duration> commandTimeouts = new LinkedHashMap<>();
+
+    /**
+     * 建立连接的超时时间
+     */
+    @NotNull
+    private Duration connectTimeout = Duration.ofSeconds(3);
+
+    /**
+     * 关闭客户端时等待未完成命令的时间
+     */
+    @NotNull
+    private Duration shutdownTimeout = Duration.ofMillis(100);
+
+    /**
+     * 是否开启 TCP keepalive
+     */
+    private boolean keepAlive = true;
+
+    /**
+     * Netty I/O 线程数，0 表示使用 Lettuce 默认值（CPU 核数）
+     */
+    @Min(0)
+    private int ioThreads = 0;
+
+    /**
+     * 计算线程数（回调、事件），0 表示使用 Lettuce 默认值（CPU 核数）
+     */
+    @Min(0)
+    private int computationThreads = 0;
+
+    /**
+     * 是否在客户端统计每种命令的耗时
+     */
+    private boolean latencyEnabled = true;
+
+    @Valid
+    private final Pool pool = new Pool();
+
+    @AssertTrue(message = "redis.pool.max-idle and redis.pool.min-idle must not exceed redis.pool.max-active")
+    public boolean isPoolSizeValid() {
+        return pool.maxIdle <= pool.maxActive && pool.minIdle <= pool.maxIdle;
+    }
+
+    @AssertTrue(message = "redis.nodes must not be empty when redis.topology is cluster or sentinel")
+    public boolean isNodesValid() {
+        return (topology != Topology.CLUSTER && topology != Topology.SENTINEL) || !nodes.isEmpty();
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getDatabase() {
+        return database;
+    }
+
+    public void setDatabase(int database) {
+        this.database = database;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Map<String, Duration> getCommandTimeouts() {
+        return commandTimeouts;
+    }
+
+    public void setCommandTimeouts(Map<String, Duration> commandTimeouts) {
+        this.commandTimeouts = commandTimeouts;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public int getComputationThreads() {
+        return computationThreads;
+    }
+
+    public void setComputationThreads(int computationThreads) {
+        this.computationThreads = computationThreads;
+    }
+
+    public boolean isLatencyEnabled() {
+        return latencyEnabled;
+    }
+
+    public void setLatencyEnabled(boolean latencyEnabled) {
+        this.latencyEnabled = latencyEnabled;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<String> nodes) {
+        this.nodes = nodes;
+    }
+
+    public ReadMode getReadFrom() {
+        return readFrom;
+    }
+
+    public void setReadFrom(ReadMode readFrom) {
+        this.readFrom = readFrom;
+    }
+
+    public Sentinel getSentinel() {
+        return sentinel;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public enum Topology {
+        STANDALONE,
+        CLUSTER,
+        SENTINEL,
+        MASTER_REPLICA
+    }
+
+    /**
+     * 对应 Lettuce 的 ReadFrom
+     */
+    public enum ReadMode {
+        /**
+         * 只读 master
+         */
+        MASTER,
+        /**
+         * 优先 master，master 不可用时读 replica
+         */
+        MASTER_PREFERRED,
+        /**
+         * 优先 replica，没有可用 replica 时读 master
+         */
+        REPLICA_PREFERRED,
+        /**
+         * 只读 replica
+         */
+        REPLICA,
+        /**
+         * 延迟最低的节点
+         */
+        NEAREST,
+        /**
+         * 任意节点
+         */
+        ANY
+    }
+
+    /**
+     * 哨兵配置，topology=sentinel 时生效
+     */
+    public static class Sentinel {
+
+        @NotBlank
+        private String master = "mymaster";
+
+        private String password;
+
+        public String getMaster() {
+            return master;
+        }
+
+        public void setMaster(String master) {
+            this.master = master;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    /**
+     * 集群配置，topology=cluster 时生效
+     */
+    public static class Cluster {
+
+        /**
+         * MOVED/ASK 最多跟随的次数
+         */
+        @Min(0)
+        private int maxRedirects = 5;
+
+        /**
+         * 定期刷新集群拓扑的间隔，为 0 时只在收到 MOVED/ASK 或连接断开时刷新
+         */
+        @NotNull
+        private Duration refreshPeriod = Duration.ofSeconds(30);
+
+        public int getMaxRedirects() {
+            return maxRedirects;
+        }
+
+        public void setMaxRedirects(int maxRedirects) {
+            this.maxRedirects = maxRedirects;
+        }
+
+        public Duration getRefreshPeriod() {
+            return refreshPeriod;
+        }
+
+        public void setRefreshPeriod(Duration refreshPeriod) {
+            this.refreshPeriod = refreshPeriod;
+        }
+    }
+
+    public enum Mode {
+        /**
+         * 共享一条多路复用连接
+         */
+        SHARED,
+        /**
+         * commons-pool2 连接池
+         */
+        POOLED
+    }
+
+    /**
+     * 连接池配置，mode=pooled 时生效
+     */
+    public static class Pool {
+
+        @Min(1)
+        private int maxActive = 50;
+
+        @Min(0)
+        private int maxIdle = 20;
+
+        @Min(0)
+        private int minIdle = 0;
+
+        /**
+         * 连接池耗尽时借连接的最长等待时间
+         */
+        @NotNull
+        private Duration maxWait = Duration.ofSeconds(30);
+
+        /**
+         * 空闲连接检查间隔，为 0 时不检查
+         */
+        @NotNull
+        private Duration timeBetweenEvictionRuns = Duration.ZERO;
+
+        public int getMaxActive() {
+            return maxActive;
+        }
+
+        public void setMaxActive(int maxActive) {
+            this.maxActive = maxActive;
+        }
+
+        public int getMaxIdle() {
+            return maxIdle;
+        }
+
+        public void setMaxIdle(int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        public int getMinIdle() {
+            return minIdle;
+        }
+
+        public void setMinIdle(int minIdle) {
+            this.minIdle = minIdle;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public Duration getTimeBetweenEvictionRuns() {
+            return timeBetweenEvictionRuns;
+        }
+
+        public void setTimeBetweenEvictionRuns(Duration timeBetweenEvictionRuns) {
+            this.timeBetweenEvictionRuns = timeBetweenEvictionRuns;
+        }
+    }
+}
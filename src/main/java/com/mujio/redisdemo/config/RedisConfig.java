@@ -5,14 +5,32 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.mujio.redisdemo.cache.RedisTtlCacheManager;
+import com.mujio.redisdemo.resilience.RedisResilience;
+import com.mujio.redisdemo.resilience.ResilientRedisTemplate;
+import com.mujio.redisdemo.serializer.CompactRedisSerializer;
+import com.mujio.redisdemo.serializer.CompressingRedisSerializer;
+import com.mujio.redisdemo.serializer.TypeRegistry;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import com.mujio.redisdemo.utils.RedisScanner;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.*;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.StringUtils;
 
 
 /**
@@ -28,15 +46,158 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({SerializerProperties.class, RedisCacheProperties.class})
 public class RedisConfig extends CachingConfigurerSupport {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
+    @Primary
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory, TypeRegistry typeRegistry,
+                                                       SerializerProperties serializerProperties, RedisMetrics redisMetrics,
+                                                       ObjectProvider<RedisResilience> resilience) {
+        return createTemplate(factory, valueSerializer(typeRegistry, serializerProperties, redisMetrics), resilience.getIfAvailable());
+    }
+
+/**
+ * @Description: 响应式模板，key/value 序列化与 redisTemplate 保持一致，供 ReactiveRedisUtil 使用
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory factory, TypeRegistry typeRegistry,
+                                                                       SerializerProperties serializerProperties, RedisMetrics redisMetrics) {
+        RedisSerializer<Object> valueSerializer = valueSerializer(typeRegistry, serializerProperties, redisMetrics);
+        RedisSerializationContext<String, Object> context = RedisSerializationContext.<String, Object>newSerializationContext()
+                .key(new StringRedisSerializer())
+                .value(valueSerializer)
+                .hashKey(new StringRedisSerializer())
+                .hashValue(valueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+/**
+ * @Description: 始终以紧凑二进制格式写入的模板，可按需单独注入使用
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public RedisTemplate<String, Object> compactRedisTemplate(RedisConnectionFactory factory, TypeRegistry typeRegistry,
+                                                              RedisMetrics redisMetrics, ObjectProvider<RedisResilience> resilience) {
+        return createTemplate(factory, redisMetrics.meter(new CompactRedisSerializer(typeRegistry, jacksonSerializer())),
+                resilience.getIfAvailable());
+    }
+
+/**
+ * @Description: 共享的 SCAN 游标遍历器，RedisUtil、命名空间回收与大 key 分析共用同一个并行扫描线程池
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public RedisScanner redisScanner(RedisTemplate<String, Object> redisTemplate) {
+        return new RedisScanner(redisTemplate);
+    }
+
+/**
+ * @Description: @Cacheable 使用的缓存，过期时间按 redis.cache.ttls 配置并随机浮动；
+ * 需要防击穿（单飞加载、过期后后台刷新）的方法使用 @Cacheable(sync = true)
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public CacheManager cacheManager(RedisTemplate<String, Object> redisTemplate, RedisCacheProperties cacheProperties,
+                                     RedisScanner redisScanner) {
+        return new RedisTtlCacheManager(redisTemplate, cacheProperties, redisScanner);
+    }
+
+/**
+ * @Description: 未指定 key 时的缓存 key：类名.方法名:参数1,参数2，避免同一缓存中不同方法的参数相同时互相覆盖
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Override
+    public KeyGenerator keyGenerator() {
+        return (target, method, params) -> target.getClass().getSimpleName() + "." + method.getName()
+                + ":" + StringUtils.arrayToCommaDelimitedString(params);
+    }
 
-        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+/**
+ * @Description: 紧凑格式的类型注册表，redis.serializer.types 中配置的类型在这里注册
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public TypeRegistry typeRegistry(SerializerProperties serializerProperties) {
+        TypeRegistry typeRegistry = new TypeRegistry();
+        serializerProperties.getTypes().forEach(typeRegistry::register);
+        return typeRegistry;
+    }
+
+/**
+ * @Description: RedisUtil 命令耗时、错误、字节数等指标，注册到 Actuator 的 MeterRegistry
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public RedisMetrics redisMetrics(MeterRegistry meterRegistry) {
+        return new RedisMetrics(meterRegistry);
+    }
+
+    private RedisSerializer<Object> valueSerializer(TypeRegistry typeRegistry, SerializerProperties serializerProperties,
+                                                    RedisMetrics redisMetrics) {
+        //读取时两种格式都能识别，写入格式由 redis.serializer.value 决定
+        boolean writeCompact = serializerProperties.getValue() == SerializerProperties.Format.COMPACT;
+        //压缩在最外层，读取时先按首字节识别并解压，未压缩的旧值原样交给内层
+        SerializerProperties.Compression compression = serializerProperties.getCompression();
+        return redisMetrics.meter(new CompressingRedisSerializer<>(
+                new CompactRedisSerializer(typeRegistry, jacksonSerializer(), writeCompact), compression.getCodec(),
+                (int) compression.getThreshold().toBytes(), compression.getMinSaving(), redisMetrics));
+    }
+
+    private RedisTemplate<String, Object> createTemplate(RedisConnectionFactory factory, RedisSerializer<Object> valueSerializer,
+                                                         RedisResilience resilience) {
+
+        //启用熔断与隔离舱时每次执行前包装连接
+        RedisTemplate<String, Object> redisTemplate = resilience == null ? new RedisTemplate<>() : new ResilientRedisTemplate<>(resilience);
         //配置redis连接
         redisTemplate.setConnectionFactory(factory);
 
+        //设置redis的序列化模式
+        //序列化redis的key,通常都用String的序列化类，因为redis的key为String类型
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        //序列化redis的value，按照上文中序列化对象的具体设置来序列化value值，覆盖了redis的除hash外的其他类型
+        redisTemplate.setValueSerializer(valueSerializer);
+
+        //设置hash的key和value序列化模式
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(valueSerializer);
+        redisTemplate.afterPropertiesSet();
+
+        return redisTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static RedisSerializer<Object> jacksonSerializer() {
         //序列化和反序列化基本设置
         //使用Jackson库将对象序列化为JSON字符串。优点是速度快，序列化后的字符串短小精悍。但缺点也非常致命，那就是此类的构造函数中有一个类型参数，必须提供要序列化对象的类型信息(.class对象)
         Jackson2JsonRedisSerializer jksonSeial = new Jackson2JsonRedisSerializer(Object.class);
@@ -48,19 +209,7 @@ public class RedisConfig extends CachingConfigurerSupport {
         // oMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);//此方法被证实存在漏洞
         oMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
         jksonSeial.setObjectMapper(oMapper);
-
-        //设置redis的序列化模式
-        //序列化redis的key,通常都用String的序列化类，因为redis的key为String类型
-        redisTemplate.setKeySerializer(new StringRedisSerializer());
-        //序列化redis的value，按照上文中序列化对象的具体设置来序列化value值，覆盖了redis的除hash外的其他类型
-        redisTemplate.setValueSerializer(jksonSeial);
-
-        //设置hash的key和value序列化模式
-        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-        redisTemplate.setHashValueSerializer(jksonSeial);
-        redisTemplate.afterPropertiesSet();
-
-        return redisTemplate;
+        return jksonSeial;
     }
 
 /**
@@ -0,0 +1,42 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.lock.RedisLockRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * @Description: RedisLockConfig 分布式锁配置
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(RedisLockProperties.class)
+public class RedisLockConfig {
+
+    @Bean
+    public RedisLockRegistry redisLockRegistry(RedisTemplate<String, Object> redisTemplate, RedisLockProperties properties) {
+        return new RedisLockRegistry(redisTemplate, properties);
+    }
+
+/**
+ * @Description: 订阅锁释放通知频道，唤醒本节点等待该锁的线程
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    public RedisMessageListenerContainer lockListenerContainer(RedisConnectionFactory factory, RedisLockRegistry redisLockRegistry,
+                                                               RedisLockProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(redisLockRegistry, new ChannelTopic(properties.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @Description: RedisLockProperties 分布式锁配置，前缀 redis.lock
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.lock")
+public class RedisLockProperties {
+
+    /**
+     * 未指定租期时的租期，持有期间由看门狗每 1/3 租期续期一次，进程宕机后最多这么久锁自动释放
+     */
+    private Duration leaseTime = Duration.ofSeconds(30);
+
+    /**
+     * 释放锁时通知等待者的频道
+     */
+    private String channel = "redis-lock:release";
+
+    public Duration getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(Duration leaseTime) {
+        this.leaseTime = leaseTime;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+}
@@ -0,0 +1,110 @@
+package com.mujio.redisdemo.config;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * @Description: RedisPoolStats 读取 LettuceConnectionFactory 内部 commons-pool2 连接池的统计
+ * spring-data-redis 没有公开连接池，这里按 connectionProvider -> delegate -> pools 的路径反射取出
+ * 连接池在第一次借连接时才创建，每种连接类型一个池，统计值为所有池之和；shared 模式或取不到时为 0
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisPoolStats {
+
+    private final LettuceConnectionFactory factory;
+
+    private volatile Map<?, GenericObjectPool<?>> pools;
+
+    public RedisPoolStats(LettuceConnectionFactory factory) {
+        this.factory = factory;
+    }
+
+    public double active() {
+        return sum(GenericObjectPool::getNumActive);
+    }
+
+    public double idle() {
+        return sum(GenericObjectPool::getNumIdle);
+    }
+
+    public double waiting() {
+        return sum(GenericObjectPool::getNumWaiters);
+    }
+
+    public double borrowed() {
+        return sum(GenericObjectPool::getBorrowedCount);
+    }
+
+    public double created() {
+        return sum(GenericObjectPool::getCreatedCount);
+    }
+
+    /**
+     * @Description: maxBorrowWaitMillis 借连接的最长等待时间，接近 redis.pool.max-wait 说明连接池偏小
+     * @Param: []
+     * @return: double
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public double maxBorrowWaitMillis() {
+        double max = 0;
+        for (GenericObjectPool<?> pool : pools()) {
+            max = Math.max(max, pool.getMaxBorrowWaitTimeMillis());
+        }
+        return max;
+    }
+
+    public double meanBorrowWaitMillis() {
+        double total = 0;
+        int count = 0;
+        for (GenericObjectPool<?> pool : pools()) {
+            total += pool.getMeanBorrowWaitTimeMillis();
+            count++;
+        }
+        return count == 0 ? 0 : total / count;
+    }
+
+    private double sum(ToDoubleFunction<GenericObjectPool<?>> stat) {
+        double sum = 0;
+        for (GenericObjectPool<?> pool : pools()) {
+            sum += stat.applyAsDouble(pool);
+        }
+        return sum;
+    }
+
+    private Collection<GenericObjectPool<?>> pools() {
+        if (pools == null) {
+            pools = lookup();
+        }
+        return pools == null ? Collections.emptyList() : pools.values();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<?, GenericObjectPool<?>> lookup() {
+        Object provider = field(factory, "connectionProvider");
+        //afterPropertiesSet 之后 provider 外层包了一层异常转换
+        Object delegate = field(provider, "delegate");
+        Object pools = field(delegate != null ? delegate : provider, "pools");
+        return pools instanceof Map ? (Map<?, GenericObjectPool<?>>) pools : null;
+    }
+
+    private static Object field(Object target, String name) {
+        if (target == null) {
+            return null;
+        }
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            return null;
+        }
+        ReflectionUtils.makeAccessible(field);
+        return ReflectionUtils.getField(field, target);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.pubsub.RedisPublisher;
+import com.mujio.redisdemo.pubsub.RedisSubscriber;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * @Description: RedisPubSubConfig 发布订阅配置，redis.pubsub.enabled=true 时创建订阅端，
+ * redis.pubsub.batch-publish=true 时 RedisUtil.convertAndSend 改为合并发布
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(RedisPubSubProperties.class)
+public class RedisPubSubConfig {
+
+/**
+ * @Description: 消息监听容器，回调在收到消息的线程中同步执行（只入队），不为每条消息创建任务
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean
+    @ConditionalOnProperty(prefix = "redis.pubsub", name = "enabled", havingValue = "true")
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.setTaskExecutor(new SyncTaskExecutor());
+        container.setSubscriptionExecutor(new SimpleAsyncTaskExecutor("redis-subscription-"));
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "redis.pubsub", name = "enabled", havingValue = "true")
+    public RedisSubscriber redisSubscriber(RedisMessageListenerContainer redisMessageListenerContainer,
+                                           RedisTemplate<String, Object> redisTemplate, RedisPubSubProperties properties,
+                                           RedisMetrics redisMetrics) {
+        return new RedisSubscriber(redisMessageListenerContainer, redisTemplate, properties, redisMetrics);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "redis.pubsub", name = "batch-publish", havingValue = "true")
+    public RedisPublisher redisPublisher(RedisTemplate<String, Object> redisTemplate, RedisPubSubProperties properties,
+                                         RedisMetrics redisMetrics) {
+        return new RedisPublisher(redisTemplate, properties, redisMetrics);
+    }
+}
@@ -0,0 +1,129 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @Description: RedisPubSubProperties 发布订阅配置，前缀 redis.pubsub
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.pubsub")
+public class RedisPubSubProperties {
+
+    /**
+     * 是否启用订阅端（RedisSubscriber）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 分发处理器的线程数，所有订阅共用
+     */
+    private int dispatchThreads = 4;
+
+    /**
+     * 运行在 Java 21 及以上时用虚拟线程分发，低版本时忽略并使用 dispatchThreads 个平台线程
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * 每个订阅本地缓冲的消息数，处理跟不上时超出的消息被丢弃并计入 redis.pubsub.dropped
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 每次交给处理器的最多消息数
+     */
+    private int batchSize = 100;
+
+    /**
+     * 每个订阅默认的并行度，按频道分到不同通道，同一频道的消息保持顺序
+     */
+    private int concurrency = 1;
+
+    /**
+     * 是否合并发布：RedisUtil.convertAndSend 只入队，由后台线程把积累的消息用一个 pipeline 发布
+     */
+    private boolean batchPublish = false;
+
+    /**
+     * 合并发布时单个 pipeline 最多的消息数
+     */
+    private int publishBatchSize = 500;
+
+    /**
+     * 合并发布时最多排队的消息数，队列满时 convertAndSend 等待
+     */
+    private int publishQueueCapacity = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getDispatchThreads() {
+        return dispatchThreads;
+    }
+
+    public void setDispatchThreads(int dispatchThreads) {
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public boolean isBatchPublish() {
+        return batchPublish;
+    }
+
+    public void setBatchPublish(boolean batchPublish) {
+        this.batchPublish = batchPublish;
+    }
+
+    public int getPublishBatchSize() {
+        return publishBatchSize;
+    }
+
+    public void setPublishBatchSize(int publishBatchSize) {
+        this.publishBatchSize = publishBatchSize;
+    }
+
+    public int getPublishQueueCapacity() {
+        return publishQueueCapacity;
+    }
+
+    public void setPublishQueueCapacity(int publishQueueCapacity) {
+        this.publishQueueCapacity = publishQueueCapacity;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.resilience.RedisResilience;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @Description: RedisResilienceConfig 熔断与隔离舱配置，redis.resilience.enabled=true 时 redisTemplate 的连接经过 RedisResilience
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(RedisResilienceProperties.class)
+@ConditionalOnProperty(prefix = "redis.resilience", name = "enabled", havingValue = "true")
+public class RedisResilienceConfig {
+
+    @Bean
+    public RedisResilience redisResilience(RedisResilienceProperties properties, RedisMetrics redisMetrics) {
+        return new RedisResilience(properties, redisMetrics);
+    }
+}
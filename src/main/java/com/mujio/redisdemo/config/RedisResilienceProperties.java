@@ -0,0 +1,200 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description: RedisResilienceProperties 熔断、隔离舱与降级配置，前缀 redis.resilience
+ * 单条命令的超时见 redis.timeout 与 redis.command-timeouts
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.resilience")
+public class RedisResilienceProperties {
+
+    /**
+     * 是否启用熔断与隔离舱
+     */
+    private boolean enabled = false;
+
+    private final Circuit circuit = new Circuit();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    private final Fallback fallback = new Fallback();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Circuit getCircuit() {
+        return circuit;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public Fallback getFallback() {
+        return fallback;
+    }
+
+    public static class Circuit {
+
+        /**
+         * 统计失败率的最近调用数
+         */
+        private int windowSize = 100;
+
+        /**
+         * 窗口内至少有这么多次调用才计算失败率
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * 失败率（百分比）达到该值时熔断
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * 熔断后拒绝所有调用的时间，之后放行少量试探调用
+         */
+        private Duration openDuration = Duration.ofSeconds(5);
+
+        /**
+         * 半开状态放行的试探调用数，全部成功后恢复
+         */
+        private int halfOpenCalls = 5;
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+
+    public static class Bulkhead {
+
+        /**
+         * 每个命令分组（string、hash、list、set、zset、key、scripting、stream 等）同时进行的最多调用数
+         */
+        private int maxConcurrent = 64;
+
+        /**
+         * 按分组单独设置的最多调用数
+         */
+        private Map<String, Integer> groups = new LinkedHashMap<>();
+
+        /**
+         * 分组已满时最多等待的时间，0 表示立即拒绝
+         */
+        private Duration maxWait = Duration.ZERO;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public Map<String, Integer> getGroups() {
+            return groups;
+        }
+
+        public void setGroups(Map<String, Integer> groups) {
+            this.groups = groups;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    public static class Fallback {
+
+        /**
+         * get/hget 失败时是否返回本地保留的最近一次读取结果
+         */
+        private boolean enabled = false;
+
+        /**
+         * 本地保留的最多 key 数
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * 最近一次读取结果的保留时间，超过后不再用于降级
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.queue.RedisQueueRegistry;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+
+/**
+ * @Description: RedisStreamConfig 基于 Stream 的消息队列配置
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Configuration
+@EnableConfigurationProperties(RedisStreamProperties.class)
+public class RedisStreamConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStreamConfig.class);
+
+/**
+ * @Description: Stream 消息监听容器，每个消费者占用一个线程循环 XREADGROUP BLOCK，消息值用 redisTemplate 的 value 序列化器
+ * 容器的 isAutoStartup 为 false，不会随上下文自动启动，创建后即启动，之后注册的订阅立即开始读取
+ * @Param:
+ * @return:
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @SuppressWarnings("unchecked")
+    public StreamMessageListenerContainer<String, MapRecord<String, String, Object>> streamListenerContainer(
+            RedisConnectionFactory factory, RedisTemplate<String, Object> redisTemplate, RedisStreamProperties properties) {
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, Object>> options = StreamMessageListenerContainerOptions
+                .builder()
+                .batchSize(properties.getBatchSize())
+                .pollTimeout(properties.getPollTimeout())
+                .executor(new SimpleAsyncTaskExecutor("redis-stream-"))
+                .errorHandler(e -> log.error("stream listener failed", e))
+                .keySerializer(RedisSerializer.string())
+                .<String, Object>hashKeySerializer(RedisSerializer.string())
+                .<String, Object>hashValueSerializer((RedisSerializer<Object>) redisTemplate.getValueSerializer())
+                .build();
+        return StreamMessageListenerContainer.create(factory, options);
+    }
+
+    @Bean
+    public RedisQueueRegistry redisQueueRegistry(RedisTemplate<String, Object> redisTemplate,
+                                                 StreamMessageListenerContainer<String, MapRecord<String, String, Object>> streamListenerContainer,
+                                                 RedisStreamProperties properties, RedisMetrics redisMetrics) {
+        return new RedisQueueRegistry(redisTemplate, streamListenerContainer, properties, redisMetrics);
+    }
+}
@@ -0,0 +1,144 @@
+package com.mujio.redisdemo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @Description: RedisStreamProperties 基于 Stream 的消息队列配置，前缀 redis.stream
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.stream")
+public class RedisStreamProperties {
+
+    /**
+     * 每个队列最多保留的消息数，XADD 时按 MAXLEN 裁剪，已确认的旧消息被淘汰
+     */
+    private long maxLen = 1000000;
+
+    /**
+     * 每次 XREADGROUP 最多读取的消息数
+     */
+    private int batchSize = 100;
+
+    /**
+     * XREADGROUP 阻塞等待新消息的时间，没有消息时消费者阻塞在 Redis 上而不是轮询
+     */
+    private Duration pollTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 每个节点上每个队列的消费者数，消费组内的消费者分摊消息
+     */
+    private int concurrency = 1;
+
+    /**
+     * 攒够这么多条确认后立即发送一次 XACK
+     */
+    private int ackBatchSize = 100;
+
+    /**
+     * 未攒够 ackBatchSize 时定期发送 XACK 的间隔
+     */
+    private Duration ackInterval = Duration.ofMillis(100);
+
+    /**
+     * 检查其他消费者未确认消息的间隔
+     */
+    private Duration reclaimInterval = Duration.ofSeconds(30);
+
+    /**
+     * 消息投递后超过这么久仍未确认，视为消费者已宕机或处理失败，由其他消费者接管
+     */
+    private Duration minIdle = Duration.ofMinutes(5);
+
+    /**
+     * 投递次数达到后不再重试，转入死信队列（队列名加 deadLetterSuffix）
+     */
+    private int maxDeliveries = 5;
+
+    /**
+     * 死信队列名后缀
+     */
+    private String deadLetterSuffix = ":dlq";
+
+    public long getMaxLen() {
+        return maxLen;
+    }
+
+    public void setMaxLen(long maxLen) {
+        this.maxLen = maxLen;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollTimeout() {
+        return pollTimeout;
+    }
+
+    public void setPollTimeout(Duration pollTimeout) {
+        this.pollTimeout = pollTimeout;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getAckBatchSize() {
+        return ackBatchSize;
+    }
+
+    public void setAckBatchSize(int ackBatchSize) {
+        this.ackBatchSize = ackBatchSize;
+    }
+
+    public Duration getAckInterval() {
+        return ackInterval;
+    }
+
+    public void setAckInterval(Duration ackInterval) {
+        this.ackInterval = ackInterval;
+    }
+
+    public Duration getReclaimInterval() {
+        return reclaimInterval;
+    }
+
+    public void setReclaimInterval(Duration reclaimInterval) {
+        this.reclaimInterval = reclaimInterval;
+    }
+
+    public Duration getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(Duration minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public int getMaxDeliveries() {
+        return maxDeliveries;
+    }
+
+    public void setMaxDeliveries(int maxDeliveries) {
+        this.maxDeliveries = maxDeliveries;
+    }
+
+    public String getDeadLetterSuffix() {
+        return deadLetterSuffix;
+    }
+
+    public void setDeadLetterSuffix(String deadLetterSuffix) {
+        this.deadLetterSuffix = deadLetterSuffix;
+    }
+}
@@ -0,0 +1,105 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.serializer.CompressionCodec;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description: SerializerProperties 序列化配置，前缀 redis.serializer
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@ConfigurationProperties(prefix = "redis.serializer")
+public class SerializerProperties {
+
+    /**
+     * 主 redisTemplate 写入 value 的格式，读取时两种格式都能识别
+     */
+    private Format value = Format.JSON;
+
+    /**
+     * 紧凑格式的类型注册表，类型ID -> 类
+     */
+    private Map<Integer, Class<?>> types = new LinkedHashMap<>();
+
+    /**
+     * 大 value 压缩
+     */
+    private final Compression compression = new Compression();
+
+    public Format getValue() {
+        return value;
+    }
+
+    public void setValue(Format value) {
+        this.value = value;
+    }
+
+    public Map<Integer, Class<?>> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Map<Integer, Class<?>> types) {
+        this.types = types;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public enum Format {
+        /**
+         * Jackson JSON，带 @class 类型信息
+         */
+        JSON,
+        /**
+         * 紧凑二进制，见 CompactRedisSerializer
+         */
+        COMPACT
+    }
+
+    public static class Compression {
+
+        /**
+         * 压缩算法 deflate/lz4/snappy，不配置时不压缩写入，但仍能读取已压缩的值
+         */
+        private CompressionCodec codec;
+
+        /**
+         * 序列化结果达到该大小才压缩，小值压缩收益低且浪费 CPU
+         */
+        private DataSize threshold = DataSize.ofKilobytes(4);
+
+        /**
+         * 压缩后至少节省的比例，达不到时按原样存储
+         */
+        private double minSaving = 0.1;
+
+        public CompressionCodec getCodec() {
+            return codec;
+        }
+
+        public void setCodec(CompressionCodec codec) {
+            this.codec = codec;
+        }
+
+        public DataSize getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+
+        public double getMinSaving() {
+            return minSaving;
+        }
+
+        public void setMinSaving(double minSaving) {
+            this.minSaving = minSaving;
+        }
+    }
+}
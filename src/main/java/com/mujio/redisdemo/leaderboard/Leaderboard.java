@@ -0,0 +1,297 @@
+package com.mujio.redisdemo.leaderboard;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mujio.redisdemo.config.LeaderboardProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.data.redis.connection.DefaultTuple;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+/**
+ * @Description: Leaderboard 基于有序集合的排行榜，分数高的排在前面，成员以字符串原样存储
+ * 前 cachedPages 页在本地缓存 pageTtl，榜首查询大多不访问 Redis；每页同时只有一个加载中的 future，
+ * 回源在 Caffeine 的线程池中执行，其他线程等待同一个 future；有效期过半后被查询的页在后台刷新，热门页不会因过期阻塞查询
+ * 写入不会使本地缓存失效，缓存页最多落后 pageTtl
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class Leaderboard {
+
+    private static final int ADD_BATCH_SIZE = 1000;
+
+    private static final RedisSerializer<String> SERIALIZER = RedisSerializer.string();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMetrics metrics;
+
+    private final String name;
+
+    private final byte[] rawKey;
+
+    private final int pageSize;
+
+    private final int cachedPages;
+
+    private final AsyncLoadingCache<Integer, List<Entry>> pages;
+
+    Leaderboard(RedisTemplate<String, Object> redisTemplate, String name, LeaderboardProperties properties, RedisMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.metrics = metrics;
+        this.name = name;
+        this.rawKey = SERIALIZER.serialize(name);
+        this.pageSize = properties.getPageSize();
+        this.cachedPages = properties.getCachedPages();
+        Duration pageTtl = properties.getPageTtl();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().expireAfterWrite(pageTtl);
+        if (pageTtl.toNanos() > 1) {
+            builder.refreshAfterWrite(pageTtl.dividedBy(2));
+        }
+        this.pages = builder.buildAsync(page -> range((long) page * pageSize, (long) page * pageSize + pageSize - 1));
+    }
+
+    /**
+     * @Description: add 设置成员的分数
+     * @Param: [member, score]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void add(String member, double score) {
+        long begin = metrics.start();
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.zAdd(rawKey, score, SERIALIZER.serialize(member)));
+        } catch (RuntimeException e) {
+            metrics.error("leaderboardAdd", e);
+            throw e;
+        } finally {
+            metrics.record("leaderboardAdd", begin);
+        }
+    }
+
+    /**
+     * @Description: addAll 批量设置成员的分数，每 1000 个成员一条 ZADD，在一个 pipeline 中发送
+     * @Param: [scores]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void addAll(Map<String, Double> scores) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        long begin = metrics.start();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                Set<RedisZSetCommands.Tuple> batch = new LinkedHashSet<>();
+                for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                    batch.add(new DefaultTuple(SERIALIZER.serialize(entry.getKey()), entry.getValue()));
+                    if (batch.size() >= ADD_BATCH_SIZE) {
+                        connection.zAdd(rawKey, batch);
+                        batch = new LinkedHashSet<>();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    connection.zAdd(rawKey, batch);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            metrics.error("leaderboardAdd", e);
+            throw e;
+        } finally {
+            metrics.record("leaderboardAdd", begin);
+        }
+    }
+
+    /**
+     * @Description: incr 增加成员的分数
+     * @Param: [member, delta]
+     * @return: double 增加后的分数
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public double incr(String member, double delta) {
+        long begin = metrics.start();
+        try {
+            Double score = redisTemplate.execute((RedisCallback<Double>) connection ->
+                    connection.zIncrBy(rawKey, delta, SERIALIZER.serialize(member)));
+            return score == null ? 0 : score;
+        } catch (RuntimeException e) {
+            metrics.error("leaderboardIncr", e);
+            throw e;
+        } finally {
+            metrics.record("leaderboardIncr", begin);
+        }
+    }
+
+    /**
+     * @Description: remove 移除成员
+     * @Param: [member]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean remove(String member) {
+        Long removed = redisTemplate.execute((RedisCallback<Long>) connection -> connection.zRem(rawKey, SERIALIZER.serialize(member)));
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * @Description: size 榜单成员数
+     * @Param: []
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long size() {
+        Long size = redisTemplate.execute((RedisCallback<Long>) connection -> connection.zCard(rawKey));
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * @Description: get 成员的名次与分数，ZREVRANK 与 ZSCORE 在一个 pipeline 中一次往返
+     * @Param: [member]
+     * @return: com.mujio.redisdemo.leaderboard.Leaderboard.Entry 成员不在榜上时为 null
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Entry get(String member) {
+        long begin = metrics.start();
+        try {
+            byte[] rawMember = SERIALIZER.serialize(member);
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.zRevRank(rawKey, rawMember);
+                connection.zScore(rawKey, rawMember);
+                return null;
+            });
+            if (results.size() < 2 || results.get(0) == null || results.get(1) == null) {
+                return null;
+            }
+            return new Entry(member, ((Number) results.get(1)).doubleValue(), ((Number) results.get(0)).longValue() + 1);
+        } catch (RuntimeException e) {
+            metrics.error("leaderboardGet", e);
+            throw e;
+        } finally {
+            metrics.record("leaderboardGet", begin);
+        }
+    }
+
+    /**
+     * @Description: top 前 n 名，落在缓存页内时从本地缓存取
+     * @Param: [n]
+     * @return: java.util.List<com.mujio.redisdemo.leaderboard.Leaderboard.Entry>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public List<Entry> top(int n) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        if (n > pageSize * cachedPages) {
+            return range(0, n - 1);
+        }
+        List<Entry> top = new ArrayList<>(n);
+        for (int page = 0; top.size() < n; page++) {
+            List<Entry> entries = page(page);
+            top.addAll(entries.subList(0, Math.min(entries.size(), n - top.size())));
+            if (entries.size() < pageSize) {
+                break;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * @Description: page 第 page 页（从 0 开始），前 cachedPages 页从本地缓存取
+     * @Param: [page]
+     * @return: java.util.List<com.mujio.redisdemo.leaderboard.Leaderboard.Entry>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public List<Entry> page(int page) {
+        long start = (long) page * pageSize;
+        if (page >= cachedPages) {
+            return range(start, start + pageSize - 1);
+        }
+        try {
+            return pages.get(page).join();
+        } catch (CompletionException e) {
+            //加载失败的 future 已从缓存中移除，按原异常抛出
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private List<Entry> range(long start, long end) {
+        long begin = metrics.start();
+        try {
+            Set<RedisZSetCommands.Tuple> tuples = redisTemplate.execute((RedisCallback<Set<RedisZSetCommands.Tuple>>) connection ->
+                    connection.zRevRangeWithScores(rawKey, start, end));
+            if (tuples == null) {
+                return Collections.emptyList();
+            }
+            List<Entry> entries = new ArrayList<>(tuples.size());
+            long rank = start + 1;
+            for (RedisZSetCommands.Tuple tuple : tuples) {
+                entries.add(new Entry(SERIALIZER.deserialize(tuple.getValue()), tuple.getScore(), rank++));
+            }
+            return Collections.unmodifiableList(entries);
+        } catch (RuntimeException e) {
+            metrics.error("leaderboardRange", e);
+            throw e;
+        } finally {
+            metrics.record("leaderboardRange", begin);
+        }
+    }
+
+    /**
+     * 榜单中的一项，rank 为名次，从 1 开始
+     */
+    public static final class Entry {
+
+        private final String member;
+
+        private final double score;
+
+        private final long rank;
+
+        public Entry(String member, double score, long rank) {
+            this.member = member;
+            this.score = score;
+            this.rank = rank;
+        }
+
+        public String getMember() {
+            return member;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public long getRank() {
+            return rank;
+        }
+
+        @Override
+        public String toString() {
+            return rank + ":" + member + "=" + score;
+        }
+    }
+}
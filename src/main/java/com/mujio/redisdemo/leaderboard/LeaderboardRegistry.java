@@ -0,0 +1,41 @@
+package com.mujio.redisdemo.leaderboard;
+
+import com.mujio.redisdemo.config.LeaderboardProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @Description: LeaderboardRegistry 创建并缓存 Leaderboard，同一个名字在本进程内共用一份页缓存
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class LeaderboardRegistry {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final LeaderboardProperties properties;
+
+    private final RedisMetrics metrics;
+
+    private final ConcurrentMap<String, Leaderboard> leaderboards = new ConcurrentHashMap<>();
+
+    public LeaderboardRegistry(RedisTemplate<String, Object> redisTemplate, LeaderboardProperties properties, RedisMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @Description: getLeaderboard 以 name 为有序集合键的排行榜
+     * @Param: [name]
+     * @return: com.mujio.redisdemo.leaderboard.Leaderboard
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Leaderboard getLeaderboard(String name) {
+        return leaderboards.computeIfAbsent(name, n -> new Leaderboard(redisTemplate, n, properties, metrics));
+    }
+}
@@ -0,0 +1,108 @@
+package com.mujio.redisdemo.limit;
+
+import com.mujio.redisdemo.config.RateLimiterProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import com.mujio.redisdemo.utils.RedisScripts;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @Description: RedisRateLimiter 滑动窗口限流，每次检查是一次 EVALSHA 往返
+ * 按固定窗口计数，并用上一窗口的计数按剩余比例加权估算滑动窗口内的请求数（假设上一窗口内请求均匀分布），
+ * 每个限流键只占一个很小的 hash，与限额大小无关，适合大量限流键
+ * 时间取调用方的时钟，多个节点的时钟偏差会使窗口边界相应偏移
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisRateLimiter {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMetrics metrics;
+
+    private final String keyPrefix;
+
+    public RedisRateLimiter(RedisTemplate<String, Object> redisTemplate, RateLimiterProperties properties, RedisMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.metrics = metrics;
+        this.keyPrefix = properties.getKeyPrefix();
+    }
+
+    /**
+     * @Description: tryAcquire 在 window 内最多允许 limit 次请求，本次请求是否放行
+     * @Param: [key, limit, window]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean tryAcquire(String key, long limit, Duration window) {
+        return acquire(key, limit, window, 1).isAllowed();
+    }
+
+    /**
+     * @Description: acquire 申请 permits 个许可，返回是否放行、剩余许可数以及被拒绝时建议的等待时间
+     * Redis 不可用时抛出异常，由调用方决定放行还是拒绝
+     * @Param: [key, limit, window, permits]
+     * @return: com.mujio.redisdemo.limit.RedisRateLimiter.Result
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @SuppressWarnings("unchecked")
+    public Result acquire(String key, long limit, Duration window, int permits) {
+        if (permits <= 0 || window.toMillis() <= 0) {
+            throw new IllegalArgumentException("permits and window must be positive");
+        }
+        long begin = metrics.start();
+        try {
+            List<Long> result = redisTemplate.execute(RedisScripts.RATE_LIMIT, RedisSerializer.string(), null,
+                    Collections.singletonList(keyPrefix + key), String.valueOf(window.toMillis()), String.valueOf(limit),
+                    String.valueOf(permits), String.valueOf(System.currentTimeMillis()));
+            if (result == null || result.size() < 3) {
+                throw new IllegalStateException("unexpected rate limit script result: " + result);
+            }
+            return new Result(result.get(0) == 1, result.get(1), result.get(2));
+        } catch (RuntimeException e) {
+            metrics.error("rateLimit", e);
+            throw e;
+        } finally {
+            metrics.record("rateLimit", begin);
+        }
+    }
+
+    /**
+     * 一次限流检查的结果
+     */
+    public static final class Result {
+
+        private final boolean allowed;
+
+        private final long remaining;
+
+        private final long retryAfterMillis;
+
+        private Result(boolean allowed, long remaining, long retryAfterMillis) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        public long getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * 被拒绝时建议的重试等待毫秒数，放行时为 0
+         */
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.mujio.redisdemo.lock;
+
+import com.mujio.redisdemo.utils.RedisScripts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * @Description: RedisLock 基于 SET NX PX 的可重入分布式锁
+ * 每次加锁成功返回一个递增的 fencing token，写下游存储时带上 token，存储拒绝比已见过的更小的 token，
+ * 可防止租期过期后旧持有者的延迟写入覆盖新持有者的数据
+ * 不指定租期时由看门狗定期续期，直到 unlock；指定租期时到期自动释放，不续期
+ * 等待者通过 pub/sub 被唤醒，另外每隔 MAX_WAIT_SLICE_MILLIS 重试一次，防止通知丢失
+ * 公平模式下等待者在 Redis 中排队，锁空闲时只有队首能拿到锁
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisLock implements Lock {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisLock.class);
+
+    /**
+     * 单次等待通知的最长时间
+     */
+    private static final long MAX_WAIT_SLICE_MILLIS = 1000;
+
+    /**
+     * 公平队列中等待者的存活时间，等待者每次重试时刷新，宕机的等待者超时后被移出队列
+     */
+    private static final long QUEUE_TTL_MILLIS = 5 * MAX_WAIT_SLICE_MILLIS;
+
+    private final RedisLockRegistry registry;
+
+    private final String name;
+
+    private final boolean fair;
+
+    private final String lockKey;
+
+    private final List<String> keys;
+
+    private final ConcurrentMap<Long, Hold> holds = new ConcurrentHashMap<>();
+
+    RedisLock(RedisLockRegistry registry, String name, boolean fair) {
+        this.registry = registry;
+        this.name = name;
+        this.fair = fair;
+        //hash tag 保证集群模式下锁、计数器和队列在同一个 slot，可以在一个脚本中访问
+        this.lockKey = "lock:{" + name + "}";
+        this.keys = Arrays.asList(lockKey, lockKey + ":fence", lockKey + ":queue", lockKey + ":timeouts");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @Description: lock 加锁，拿不到时一直等待，持有期间看门狗自动续期；等待期间的中断在拿到锁后恢复中断标记
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @Override
+    public void lock() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                acquire(-1, defaultLeaseMillis(), true);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        acquire(-1, defaultLeaseMillis(), true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        try {
+            return acquire(0, defaultLeaseMillis(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return acquire(unit.toMillis(time), defaultLeaseMillis(), true);
+    }
+
+    /**
+     * @Description: tryLock 指定租期加锁，不续期，租期到后锁自动释放
+     * @Param: [waitTime, leaseTime, unit]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return acquire(unit.toMillis(waitTime), unit.toMillis(leaseTime), false);
+    }
+
+    /**
+     * @Description: unlock 释放锁，重入时只减少计数，最后一次释放时删除 Redis 中的锁并通知等待者
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @Override
+    public void unlock() {
+        long threadId = Thread.currentThread().getId();
+        Hold hold = holds.get(threadId);
+        if (hold == null) {
+            throw new IllegalMonitorStateException("lock " + name + " is not held by current thread");
+        }
+        if (--hold.count > 0) {
+            return;
+        }
+        holds.remove(threadId);
+        if (hold.renewal != null) {
+            hold.renewal.cancel(false);
+        }
+        Long released = registry.redisTemplate().execute(RedisScripts.UNLOCK, RedisSerializer.string(), null,
+                Collections.singletonList(lockKey), hold.owner, registry.properties().getChannel());
+        if (released == null || released == 0) {
+            log.warn("lock lease expired before unlock, lock={}, token={}", name, hold.token);
+        }
+    }
+
+    /**
+     * @Description: getFencingToken 当前线程持有的锁的 fencing token
+     * @Param: []
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long getFencingToken() {
+        Hold hold = holds.get(Thread.currentThread().getId());
+        if (hold == null) {
+            throw new IllegalMonitorStateException("lock " + name + " is not held by current thread");
+        }
+        return hold.token;
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return holds.containsKey(Thread.currentThread().getId());
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("RedisLock does not support conditions");
+    }
+
+    /**
+     * @Description: acquire 加锁，waitMillis<0 表示一直等待
+     * @Param: [waitMillis, leaseMillis, watchdog]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private boolean acquire(long waitMillis, long leaseMillis, boolean watchdog) throws InterruptedException {
+        long threadId = Thread.currentThread().getId();
+        Hold held = holds.get(threadId);
+        if (held != null) {
+            held.count++;
+            return true;
+        }
+        String owner = registry.owner();
+        long deadline = System.currentTimeMillis() + waitMillis;
+        RedisLockRegistry.Signal signal = null;
+        try {
+            while (true) {
+                //先读版本再加锁，加锁失败后到开始等待之间的释放通知不会丢失
+                long version = signal == null ? 0 : signal.version();
+                long ttl = attempt(owner, leaseMillis, watchdog);
+                if (ttl < 0) {
+                    return true;
+                }
+                long remaining = waitMillis < 0 ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    leaveQueue(owner);
+                    return false;
+                }
+                if (signal == null) {
+                    //第一次失败后才登记等待，登记后立即重试一次
+                    signal = registry.enter(lockKey);
+                    continue;
+                }
+                signal.await(version, Math.min(Math.min(ttl > 0 ? ttl : MAX_WAIT_SLICE_MILLIS, MAX_WAIT_SLICE_MILLIS), remaining));
+            }
+        } catch (InterruptedException e) {
+            leaveQueue(owner);
+            throw e;
+        } finally {
+            if (signal != null) {
+                registry.leave(lockKey, signal);
+            }
+        }
+    }
+
+    /**
+     * @Description: attempt 执行一次加锁脚本，成功时登记持有状态并返回 -1，失败时返回锁的剩余时间
+     * @Param: [owner, leaseMillis, watchdog]
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @SuppressWarnings("unchecked")
+    private long attempt(String owner, long leaseMillis, boolean watchdog) {
+        List<Long> result = registry.redisTemplate().execute(RedisScripts.LOCK, RedisSerializer.string(), null, keys,
+                owner, String.valueOf(leaseMillis), fair ? "1" : "0", String.valueOf(System.currentTimeMillis()),
+                String.valueOf(QUEUE_TTL_MILLIS));
+        if (result == null || result.size() < 2) {
+            throw new IllegalStateException("unexpected lock script result: " + result);
+        }
+        if (result.get(0) == 1) {
+            Hold hold = new Hold(owner, result.get(1));
+            if (watchdog) {
+                long period = Math.max(leaseMillis / 3, 1);
+                hold.renewal = registry.watchdog().scheduleAtFixedRate(() -> renew(hold, leaseMillis),
+                        period, period, TimeUnit.MILLISECONDS);
+            }
+            holds.put(Thread.currentThread().getId(), hold);
+            return -1;
+        }
+        return result.get(1);
+    }
+
+    private void renew(Hold hold, long leaseMillis) {
+        try {
+            Long renewed = registry.redisTemplate().execute(RedisScripts.RENEW, RedisSerializer.string(), null,
+                    Collections.singletonList(lockKey), hold.owner, String.valueOf(leaseMillis));
+            if (renewed == null || renewed == 0) {
+                log.warn("lock lost before renewal, lock={}, token={}", name, hold.token);
+                hold.renewal.cancel(false);
+            }
+        } catch (RuntimeException e) {
+            //Redis 暂时不可用时下一个周期再试，租期内恢复则不会丢锁
+            log.warn("lock renewal failed, lock={}", name, e);
+        }
+    }
+
+    private void leaveQueue(String owner) {
+        if (fair) {
+            //队列中存的是原始字符串，不能走模板的值序列化
+            byte[] member = owner.getBytes(StandardCharsets.UTF_8);
+            registry.redisTemplate().execute((RedisCallback<Object>) connection -> {
+                connection.lRem(keys.get(2).getBytes(StandardCharsets.UTF_8), 0, member);
+                connection.zRem(keys.get(3).getBytes(StandardCharsets.UTF_8), member);
+                return null;
+            });
+        }
+    }
+
+    private long defaultLeaseMillis() {
+        return registry.properties().getLeaseTime().toMillis();
+    }
+
+    /**
+     * 当前线程持有锁的状态
+     */
+    private static final class Hold {
+
+        private final String owner;
+
+        private final long token;
+
+        private int count = 1;
+
+        private volatile ScheduledFuture<?> renewal;
+
+        private Hold(String owner, long token) {
+            this.owner = owner;
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mujio.redisdemo.lock;
+
+import com.mujio.redisdemo.config.RedisLockProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * @Description: RedisLockRegistry 创建并缓存 RedisLock，负责看门狗续期和释放通知
+ * 同一个名字在本进程内只有一个 RedisLock 实例，持有者 ID 为 节点ID:线程ID
+ * 释放锁时 Lua 脚本向 redis.lock.channel 发布锁的键，本类收到后唤醒等待该锁的线程，等待者无需轮询
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisLockRegistry implements MessageListener, DisposableBean {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisLockProperties properties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, RedisLock> locks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Signal> signals = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-lock-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisLockRegistry(RedisTemplate<String, Object> redisTemplate, RedisLockProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * @Description: getLock 非公平锁，释放后等待者同时竞争
+     * @Param: [name]
+     * @return: com.mujio.redisdemo.lock.RedisLock
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisLock getLock(String name) {
+        return locks.computeIfAbsent(name, n -> new RedisLock(this, n, false));
+    }
+
+    /**
+     * @Description: getFairLock 公平锁，等待者在 Redis 中排队，按排队顺序获得锁
+     * @Param: [name]
+     * @return: com.mujio.redisdemo.lock.RedisLock
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisLock getFairLock(String name) {
+        return locks.computeIfAbsent("fair:" + name, n -> new RedisLock(this, name, true));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Signal signal = signals.get(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (signal != null) {
+            signal.signal();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    RedisTemplate<String, Object> redisTemplate() {
+        return redisTemplate;
+    }
+
+    RedisLockProperties properties() {
+        return properties;
+    }
+
+    ScheduledExecutorService watchdog() {
+        return watchdog;
+    }
+
+    String owner() {
+        return nodeId + ":" + Thread.currentThread().getId();
+    }
+
+    Signal enter(String lockKey) {
+        return signals.compute(lockKey, (key, signal) -> {
+            Signal current = signal == null ? new Signal() : signal;
+            current.waiters++;
+            return current;
+        });
+    }
+
+    void leave(String lockKey, Signal signal) {
+        signals.computeIfPresent(lockKey, (key, current) -> current == signal && --current.waiters == 0 ? null : current);
+    }
+
+    /**
+     * 某个锁的释放通知，version 用于避免在加锁失败和开始等待之间错过通知
+     */
+    static final class Signal {
+
+        private long version;
+
+        /**
+         * 只在 ConcurrentHashMap.compute 中读写
+         */
+        private int waiters;
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void signal() {
+            version++;
+            notifyAll();
+        }
+
+        synchronized void await(long seen, long millis) throws InterruptedException {
+            if (version == seen && millis > 0) {
+                wait(millis);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mujio.redisdemo.namespace;
+
+/**
+ * @Description: KeyNamespace 一个逻辑数据集的 key 命名空间，key 的形式为 前缀:v版本号:id
+ * 版本号保存在 前缀:version 中，由 KeyNamespaceRegistry 缓存在本地，拼 key 不访问 Redis
+ * invalidate 递增版本号后整个命名空间的旧 key 不再被读到，代替 keys + del 的全量清理
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class KeyNamespace {
+
+    private final KeyNamespaceRegistry registry;
+
+    private final String name;
+
+    private final String prefix;
+
+    KeyNamespace(KeyNamespaceRegistry registry, String name, String prefix) {
+        this.registry = registry;
+        this.name = name;
+        this.prefix = prefix;
+    }
+
+    /**
+     * @Description: key 当前版本下 id 对应的完整 key
+     * @Param: [id]
+     * @return: java.lang.String
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public String key(String id) {
+        return versionPrefix(version()) + id;
+    }
+
+    /**
+     * @Description: version 本地缓存的当前版本号
+     * @Param: []
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long version() {
+        return registry.version(name);
+    }
+
+    /**
+     * @Description: invalidate 递增版本号使整个命名空间失效，并通知其他节点
+     * @Param: []
+     * @return: long 新的版本号
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long invalidate() {
+        return registry.invalidate(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /** 保存版本号的 key */
+    String versionKey() {
+        return prefix + ":version";
+    }
+
+    /** 某个版本下所有 key 的公共前缀 */
+    String versionPrefix(long version) {
+        return prefix + ":v" + version + ":";
+    }
+}
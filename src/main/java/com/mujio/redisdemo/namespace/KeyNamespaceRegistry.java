@@ -0,0 +1,251 @@
+package com.mujio.redisdemo.namespace;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mujio.redisdemo.config.KeyNamespaceProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import com.mujio.redisdemo.utils.RedisScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @Description: KeyNamespaceRegistry 创建并缓存 KeyNamespace，维护各命名空间的版本号
+ * 版本号首次使用时从 Redis 读取后缓存在本地，versionRefresh 后在后台重新读取，读取期间仍返回旧值，拼 key 不增加往返
+ * 本节点递增版本号后立即更新本地缓存并广播通知，其他节点收到后更新各自的缓存；错过的通知由后台刷新兜底
+ * 旧版本的 key 在 reclaimDelay 后由后台线程 SCAN + UNLINK 回收，也可以只依靠 key 自身的过期时间
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class KeyNamespaceRegistry implements MessageListener, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyNamespaceRegistry.class);
+
+    private static final char SEPARATOR = '|';
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final KeyNamespaceProperties properties;
+
+    private final RedisMetrics metrics;
+
+    private final RedisScanner scanner;
+
+    private final ConcurrentMap<String, KeyNamespace> namespaces = new ConcurrentHashMap<>();
+
+    /**
+     * 命名空间名 -> 版本号
+     */
+    private final LoadingCache<String, Long> versions;
+
+    private final ScheduledExecutorService reclaimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-namespace-reclaim");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public KeyNamespaceRegistry(RedisTemplate<String, Object> redisTemplate, KeyNamespaceProperties properties, RedisMetrics metrics) {
+        this(redisTemplate, properties, metrics, new RedisScanner(redisTemplate));
+    }
+
+    public KeyNamespaceRegistry(RedisTemplate<String, Object> redisTemplate, KeyNamespaceProperties properties, RedisMetrics metrics,
+                                RedisScanner scanner) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.scanner = scanner;
+        this.versions = Caffeine.newBuilder()
+                .refreshAfterWrite(properties.getVersionRefresh())
+                .build(this::loadVersion);
+    }
+
+    /**
+     * @Description: getNamespace 名为 name 的命名空间，前缀按 redis.namespace.prefixes 配置，未配置时为 name
+     * @Param: [name]
+     * @return: com.mujio.redisdemo.namespace.KeyNamespace
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public KeyNamespace getNamespace(String name) {
+        return namespaces.computeIfAbsent(name, n -> new KeyNamespace(this, n, properties.getPrefixes().getOrDefault(n, n)));
+    }
+
+    /**
+     * @Description: key 命名空间当前版本下 id 对应的完整 key
+     * @Param: [namespace, id]
+     * @return: java.lang.String
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public String key(String namespace, String id) {
+        return getNamespace(namespace).key(id);
+    }
+
+    /**
+     * @Description: invalidate 递增命名空间的版本号，O(1) 使其下所有 key 失效
+     * @Param: [namespace]
+     * @return: long 新的版本号
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long invalidate(String namespace) {
+        KeyNamespace keyNamespace = getNamespace(namespace);
+        long begin = metrics.start();
+        try {
+            Long version = redisTemplate.opsForValue().increment(keyNamespace.versionKey());
+            versions.asMap().merge(namespace, version, Math::max);
+            redisTemplate.convertAndSend(properties.getChannel(), namespace + SEPARATOR + version);
+            if (properties.isReclaim()) {
+                reclaimer.schedule(() -> reclaimQuietly(namespace), properties.getReclaimDelay().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return version;
+        } catch (RuntimeException e) {
+            metrics.error("invalidateNamespace", e);
+            throw e;
+        } finally {
+            metrics.record("invalidateNamespace", begin);
+        }
+    }
+
+    /**
+     * @Description: reclaim 用 SCAN 找出低于当前版本的 key 并分批 UNLINK，不阻塞 Redis
+     * @Param: [namespace]
+     * @return: long 删除的 key 数
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long reclaim(String namespace) {
+        KeyNamespace keyNamespace = getNamespace(namespace);
+        //以 Redis 中的版本号为准，本地缓存可能还没收到通知
+        long current = loadVersion(namespace);
+        String versionsPrefix = keyNamespace.getPrefix() + ":v";
+        int batchSize = properties.getReclaimBatch();
+        long begin = metrics.start();
+        long deleted = 0;
+        try (Stream<String> keys = scanner.scan(escape(versionsPrefix) + "*", batchSize)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            for (String key : (Iterable<String>) keys::iterator) {
+                long version = versionOf(key, versionsPrefix.length());
+                if (version < 0 || version >= current) {
+                    continue;
+                }
+                batch.add(key);
+                if (batch.size() >= batchSize) {
+                    deleted += unlink(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                deleted += unlink(batch);
+            }
+            return deleted;
+        } catch (RuntimeException e) {
+            metrics.error("reclaimNamespace", e);
+            throw e;
+        } finally {
+            metrics.record("reclaimNamespace", begin);
+        }
+    }
+
+    /** 本地缓存的版本号 */
+    long version(String namespace) {
+        return versions.get(namespace);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof String)) {
+            return;
+        }
+        String text = (String) body;
+        int index = text.lastIndexOf(SEPARATOR);
+        if (index < 0) {
+            return;
+        }
+        long version;
+        try {
+            version = Long.parseLong(text.substring(index + 1));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        //通知可能乱序，只升不降；本地没有缓存的命名空间下次使用时再读取
+        versions.asMap().computeIfPresent(text.substring(0, index), (name, current) -> Math.max(current, version));
+    }
+
+    @Override
+    public void destroy() {
+        reclaimer.shutdownNow();
+    }
+
+    private Long loadVersion(String namespace) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        byte[] rawKey = keySerializer.serialize(getNamespace(namespace).versionKey());
+        //INCR 写入的是纯数字字符串，不经过 value 序列化
+        byte[] raw = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey));
+        return raw == null ? 0L : Long.parseLong(new String(raw, StandardCharsets.UTF_8));
+    }
+
+    private void reclaimQuietly(String namespace) {
+        try {
+            long deleted = reclaim(namespace);
+            log.info("namespace {} reclaimed, deleted={}", namespace, deleted);
+        } catch (RuntimeException e) {
+            log.warn("namespace {} reclaim failed", namespace, e);
+        }
+    }
+
+    private long unlink(List<String> keys) {
+        //集群模式下跨 slot 的 key 由 Lettuce 按 slot 拆分后分别发往对应节点
+        Long count = redisTemplate.unlink(keys);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 前缀:v版本号:id 中的版本号，不是这种形式时返回 -1
+     */
+    private static long versionOf(String key, int offset) {
+        int end = key.indexOf(':', offset);
+        if (end <= offset) {
+            return -1;
+        }
+        long version = 0;
+        for (int i = offset; i < end; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9' || version > (Long.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            version = version * 10 + (c - '0');
+        }
+        return version;
+    }
+
+    /** 转义 SCAN MATCH 的通配符 */
+    private static String escape(String prefix) {
+        StringBuilder builder = new StringBuilder(prefix.length());
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mujio.redisdemo.pubsub;
+
+import java.util.List;
+
+/**
+ * @Description: BatchMessageHandler 订阅消息的批量处理器，同一订阅同一频道的消息按收到的顺序交付
+ * 抛出异常时记录日志后继续处理后续消息，发布订阅不重投
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@FunctionalInterface
+public interface BatchMessageHandler {
+
+    /**
+     * @Description: handle 处理一批消息，批大小随负载变化，空闲时通常为 1
+     * @Param: [messages]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    void handle(List<PubSubMessage> messages) throws Exception;
+}
@@ -0,0 +1,47 @@
+package com.mujio.redisdemo.pubsub;
+
+/**
+ * @Description: PubSubMessage 收到的一条发布订阅消息
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public final class PubSubMessage {
+
+    private final String channel;
+
+    private final String topic;
+
+    private final Object payload;
+
+    public PubSubMessage(String channel, String topic, Object payload) {
+        this.channel = channel;
+        this.topic = topic;
+        this.payload = payload;
+    }
+
+    /**
+     * 消息实际发布到的频道
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * 订阅时使用的频道名或模式
+     */
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * 用 redisTemplate 的 value 序列化器反序列化后的消息内容
+     */
+    public Object getPayload() {
+        return payload;
+    }
+
+    @Override
+    public String toString() {
+        return channel + ":" + payload;
+    }
+}
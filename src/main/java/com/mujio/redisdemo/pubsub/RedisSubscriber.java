@@ -0,0 +1,254 @@
+package com.mujio.redisdemo.pubsub;
+
+import com.mujio.redisdemo.config.RedisPubSubProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Description: RedisSubscriber 发布订阅的订阅端：监听容器的回调只把原始消息放入订阅的有界队列，
+ * 反序列化和处理在共用的分发线程池中进行，队列中积累的消息一次交给处理器，负载越高批越大
+ * 每个订阅按频道分为 concurrency 个通道，通道之间并行，同一通道同时只有一个任务，因此同一频道的消息保持顺序，
+ * 线程池中排队的任务数也不超过通道总数
+ * 队列满时丢弃新消息（发布订阅本身不保证送达，阻塞回调会拖住 Lettuce 的 IO 线程）
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisSubscriber implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSubscriber.class);
+
+    private static final RedisSerializer<String> CHANNEL_SERIALIZER = RedisSerializer.string();
+
+    private final RedisMessageListenerContainer container;
+
+    private final RedisSerializer<?> valueSerializer;
+
+    private final RedisMetrics metrics;
+
+    private final int queueCapacity;
+
+    private final int batchSize;
+
+    private final int concurrency;
+
+    private final ExecutorService executor;
+
+    public RedisSubscriber(RedisMessageListenerContainer container, RedisTemplate<String, Object> redisTemplate,
+                           RedisPubSubProperties properties, RedisMetrics metrics) {
+        this.container = container;
+        this.valueSerializer = redisTemplate.getValueSerializer();
+        this.metrics = metrics;
+        this.queueCapacity = properties.getQueueCapacity();
+        this.batchSize = properties.getBatchSize();
+        this.concurrency = properties.getConcurrency();
+        this.executor = dispatchExecutor(properties);
+    }
+
+    /**
+     * @Description: subscribe 订阅频道或模式（包含 * ? [ 时按模式订阅），并行度为配置的 concurrency
+     * @Param: [topic, handler]
+     * @return: com.mujio.redisdemo.pubsub.RedisSubscriber.Subscription
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Subscription subscribe(String topic, BatchMessageHandler handler) {
+        return subscribe(topic, concurrency, handler);
+    }
+
+    /**
+     * @Description: subscribe 订阅频道或模式，按频道分到 concurrency 个通道并行处理
+     * @Param: [topic, concurrency, handler]
+     * @return: com.mujio.redisdemo.pubsub.RedisSubscriber.Subscription
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Subscription subscribe(String topic, int concurrency, BatchMessageHandler handler) {
+        Subscription subscription = new Subscription(topic, Math.max(1, concurrency), handler);
+        container.addMessageListener(subscription, subscription.topic);
+        return subscription;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static boolean isPattern(String topic) {
+        return topic.indexOf('*') >= 0 || topic.indexOf('?') >= 0 || topic.indexOf('[') >= 0;
+    }
+
+    private static ExecutorService dispatchExecutor(RedisPubSubProperties properties) {
+        if (properties.isVirtualThreads()) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.warn("virtual threads are not available on this JVM, using {} dispatch threads", properties.getDispatchThreads());
+            }
+        }
+        AtomicInteger index = new AtomicInteger();
+        int threads = Math.max(1, properties.getDispatchThreads());
+        //每个通道同时最多一个任务，任务队列长度不超过通道总数
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "redis-pubsub-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 一个订阅，cancel 后不再收到消息
+     */
+    public final class Subscription implements MessageListener {
+
+        private final String name;
+
+        private final Topic topic;
+
+        private final BatchMessageHandler handler;
+
+        private final Lane[] lanes;
+
+        private volatile boolean cancelled;
+
+        private Subscription(String name, int concurrency, BatchMessageHandler handler) {
+            this.name = name;
+            this.topic = isPattern(name) ? new PatternTopic(name) : new ChannelTopic(name);
+            this.handler = handler;
+            this.lanes = new Lane[concurrency];
+            int capacity = Math.max(1, queueCapacity / concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                lanes[i] = new Lane(capacity);
+            }
+        }
+
+        /**
+         * 在监听容器的回调线程中执行，只做入队
+         */
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            if (cancelled) {
+                return;
+            }
+            byte[] channel = message.getChannel();
+            Lane lane = lanes[(Arrays.hashCode(channel) & Integer.MAX_VALUE) % lanes.length];
+            if (!lane.queue.offer(new Envelope(channel, message.getBody(), System.nanoTime()))) {
+                metrics.dropped(name);
+                return;
+            }
+            lane.schedule();
+        }
+
+        public String getTopic() {
+            return name;
+        }
+
+        /**
+         * @Description: cancel 取消订阅，已在本地队列中的消息不再处理
+         * @Param: []
+         * @return: void
+         * @Author: GZY
+         * @Date: 2026/10/17 0017
+         */
+        public void cancel() {
+            cancelled = true;
+            container.removeMessageListener(this, topic);
+            for (Lane lane : lanes) {
+                lane.queue.clear();
+            }
+        }
+
+        private final class Lane {
+
+            private final BlockingQueue<Envelope> queue;
+
+            private final AtomicBoolean scheduled = new AtomicBoolean();
+
+            private Lane(int capacity) {
+                this.queue = new ArrayBlockingQueue<>(capacity);
+            }
+
+            private void schedule() {
+                if (scheduled.compareAndSet(false, true)) {
+                    executor.execute(this::drain);
+                }
+            }
+
+            /**
+             * 处理一批后若还有消息则重新提交，让其他通道的任务有机会执行
+             */
+            private void drain() {
+                List<Envelope> envelopes = new ArrayList<>(Math.min(batchSize, queue.size()));
+                queue.drainTo(envelopes, batchSize);
+                if (!envelopes.isEmpty() && !cancelled) {
+                    dispatch(envelopes);
+                }
+                scheduled.set(false);
+                if (!queue.isEmpty() && !cancelled) {
+                    schedule();
+                }
+            }
+
+            private void dispatch(List<Envelope> envelopes) {
+                List<PubSubMessage> messages = new ArrayList<>(envelopes.size());
+                for (Envelope envelope : envelopes) {
+                    String channel = CHANNEL_SERIALIZER.deserialize(envelope.channel);
+                    //按订阅计数，模式订阅匹配到的频道数量不影响指标数量
+                    metrics.received(name, envelope.receivedAt);
+                    try {
+                        messages.add(new PubSubMessage(channel, name, valueSerializer.deserialize(envelope.body)));
+                    } catch (RuntimeException e) {
+                        metrics.error("subscribe", e);
+                        log.error("pubsub message deserialization failed, channel={}", channel, e);
+                    }
+                }
+                if (messages.isEmpty()) {
+                    return;
+                }
+                try {
+                    handler.handle(messages);
+                } catch (Exception e) {
+                    metrics.error("subscribe", e);
+                    log.error("pubsub handler failed, topic={}, messages={}", name, messages.size(), e);
+                }
+            }
+        }
+    }
+
+    private static final class Envelope {
+
+        private final byte[] channel;
+
+        private final byte[] body;
+
+        private final long receivedAt;
+
+        private Envelope(byte[] channel, byte[] body, long receivedAt) {
+            this.channel = channel;
+            this.body = body;
+            this.receivedAt = receivedAt;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mujio.redisdemo.queue;
+
+/**
+ * @Description: MessageHandler 队列消息处理器，正常返回后消息被确认；抛出异常时消息保持未确认，
+ * 超过 minIdle 后重新投递，投递次数达到 maxDeliveries 后转入死信队列
+ * 同一条消息可能被投递多次，处理逻辑需要幂等
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+    /**
+     * @Description: handle 处理一条消息
+     * @Param: [id, payload] 消息ID，消息内容
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    void handle(String id, Object payload) throws Exception;
+}
@@ -0,0 +1,102 @@
+package com.mujio.redisdemo.queue;
+
+import com.mujio.redisdemo.config.RedisStreamProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * @Description: RedisQueueRegistry 创建并缓存 RedisStreamQueue，负责定期发送批量确认和接管超时未确认的消息
+ * 消费者名为 节点ID-序号，同一节点重启后使用新的名字，旧名字下未确认的消息由 reclaim 接管
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisQueueRegistry implements DisposableBean {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final StreamMessageListenerContainer<String, MapRecord<String, String, Object>> container;
+
+    private final RedisStreamProperties properties;
+
+    private final RedisMetrics metrics;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final ConcurrentMap<String, RedisStreamQueue> queues = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "redis-stream-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisQueueRegistry(RedisTemplate<String, Object> redisTemplate,
+                              StreamMessageListenerContainer<String, MapRecord<String, String, Object>> container,
+                              RedisStreamProperties properties, RedisMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.container = container;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @Description: getQueue 以 name 为 Stream 键的队列
+     * @Param: [name]
+     * @return: com.mujio.redisdemo.queue.RedisStreamQueue
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisStreamQueue getQueue(String name) {
+        return queues.computeIfAbsent(name, n -> new RedisStreamQueue(this, n));
+    }
+
+    /**
+     * @Description: destroy 先停止消息监听容器（stop 可重复调用），不再读取新消息，再发送剩余的确认，最后关闭定时任务
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @Override
+    public void destroy() {
+        container.stop();
+        for (RedisStreamQueue queue : queues.values()) {
+            queue.close();
+        }
+        scheduler.shutdownNow();
+    }
+
+    RedisTemplate<String, Object> redisTemplate() {
+        return redisTemplate;
+    }
+
+    StreamMessageListenerContainer<String, MapRecord<String, String, Object>> container() {
+        return container;
+    }
+
+    RedisStreamProperties properties() {
+        return properties;
+    }
+
+    RedisMetrics metrics() {
+        return metrics;
+    }
+
+    ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,417 @@
+package com.mujio.redisdemo.queue;
+
+import com.mujio.redisdemo.config.RedisStreamProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.data.redis.stream.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Description: RedisStreamQueue 基于 Redis Stream 的工作队列，代替 addToListRight/rifhtPop
+ * 生产者 XADD 并按 MAXLEN 裁剪；消费者以消费组读取（XREADGROUP BLOCK），没有消息时阻塞在 Redis 上，不轮询
+ * 同一消费组内的消费者分摊消息，增加节点或 concurrency 即可扩展吞吐；不同消费组各自收到全部消息
+ * 处理成功的消息攒批后一次 XACK；消费者宕机或处理失败留下的未确认消息超过 minIdle 后由其他消费者 XCLAIM 接管，
+ * 投递次数达到 maxDeliveries 的消息转入死信队列
+ * 消息以单个字段 payload 存储，值用 redisTemplate 的 value 序列化器
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisStreamQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStreamQueue.class);
+
+    static final String PAYLOAD = "payload";
+
+    private static final byte[] RAW_PAYLOAD = RedisSerializer.string().serialize(PAYLOAD);
+
+    private static final byte[] RAW_SOURCE_ID = RedisSerializer.string().serialize("source-id");
+
+    private final RedisQueueRegistry registry;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisStreamProperties properties;
+
+    private final RedisMetrics metrics;
+
+    private final String name;
+
+    private final byte[] rawKey;
+
+    private final List<GroupConsumer> consumers = new CopyOnWriteArrayList<>();
+
+    RedisStreamQueue(RedisQueueRegistry registry, String name) {
+        this.registry = registry;
+        this.redisTemplate = registry.redisTemplate();
+        this.properties = registry.properties();
+        this.metrics = registry.metrics();
+        this.name = name;
+        this.rawKey = RedisSerializer.string().serialize(name);
+    }
+
+    /**
+     * @Description: add 发送一条消息
+     * @Param: [payload]
+     * @return: java.lang.String 消息ID
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public String add(Object payload) {
+        long begin = metrics.start();
+        try {
+            RecordId id = redisTemplate.execute((RedisCallback<RecordId>) connection -> connection.streamCommands()
+                    .xAdd(record(rawKey, payload), XAddOptions.maxlen(properties.getMaxLen())));
+            return id == null ? null : id.getValue();
+        } catch (RuntimeException e) {
+            metrics.error("xadd", e);
+            throw e;
+        } finally {
+            metrics.record("xadd", begin);
+        }
+    }
+
+    /**
+     * @Description: addAll 在一个 pipeline 中发送多条消息
+     * @Param: [payloads]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void addAll(Collection<?> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        long begin = metrics.start();
+        try {
+            XAddOptions options = XAddOptions.maxlen(properties.getMaxLen());
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Object payload : payloads) {
+                    connection.streamCommands().xAdd(record(rawKey, payload), options);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            metrics.error("xadd", e);
+            throw e;
+        } finally {
+            metrics.record("xadd", begin);
+        }
+    }
+
+    /**
+     * @Description: size 队列中的消息数（含已确认但尚未被 MAXLEN 裁剪的消息）
+     * @Param: []
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long size() {
+        Long size = redisTemplate.execute((RedisCallback<Long>) connection -> connection.streamCommands().xLen(rawKey));
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * @Description: pending 消费组中已投递但尚未确认的消息数
+     * @Param: [group]
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long pending(String group) {
+        Long pending = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.streamCommands().xPending(rawKey, group).getTotalPendingMessages());
+        return pending == null ? 0 : pending;
+    }
+
+    /**
+     * @Description: subscribe 以消费组 group 消费队列，本节点启动 concurrency 个消费者；
+     * 消费组不存在时创建，从队列中最早的消息开始消费
+     * @Param: [group, handler]
+     * @return: com.mujio.redisdemo.queue.RedisStreamQueue.GroupConsumer
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public GroupConsumer subscribe(String group, MessageHandler handler) {
+        createGroup(group);
+        GroupConsumer consumer = new GroupConsumer(group, handler);
+        consumers.add(consumer);
+        consumer.start();
+        return consumer;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void close() {
+        for (GroupConsumer consumer : consumers) {
+            consumer.cancel();
+        }
+    }
+
+    private void createGroup(String group) {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(rawKey, group, ReadOffset.from("0"), true));
+        } catch (DataAccessException e) {
+            if (!isError(e, "BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    private MapRecord<byte[], byte[], byte[]> record(byte[] key, Object payload) {
+        byte[] value = serializer().serialize(payload);
+        return MapRecord.create(key, Collections.singletonMap(RAW_PAYLOAD, value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> serializer() {
+        return (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    }
+
+    /**
+     * ByteRecord 的字段名为 byte[]，不能用 Map.get 按内容查找
+     */
+    private static byte[] payload(ByteRecord record) {
+        for (Map.Entry<byte[], byte[]> field : record.getValue().entrySet()) {
+            if (Arrays.equals(field.getKey(), RAW_PAYLOAD)) {
+                return field.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isError(Throwable e, String code) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一个消费组在本节点上的消费者，cancel 后停止读取并发送剩余的确认
+     */
+    public final class GroupConsumer {
+
+        private final String group;
+
+        private final MessageHandler handler;
+
+        private final List<Subscription> subscriptions = new ArrayList<>();
+
+        private final ConcurrentLinkedQueue<RecordId> acks = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger ackCount = new AtomicInteger();
+
+        private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+        private GroupConsumer(String group, MessageHandler handler) {
+            this.group = group;
+            this.handler = handler;
+        }
+
+        private void start() {
+            for (int i = 0; i < properties.getConcurrency(); i++) {
+                StreamReadRequest<String> request = StreamReadRequest.builder(StreamOffset.create(name, ReadOffset.lastConsumed()))
+                        .consumer(Consumer.from(group, consumerName(i)))
+                        .autoAcknowledge(false)
+                        .cancelOnError(this::cancelOnError)
+                        .build();
+                subscriptions.add(registry.container().register(request,
+                        record -> dispatch(record.getId(), record.getValue().get(PAYLOAD))));
+            }
+            long ackInterval = properties.getAckInterval().toMillis();
+            long reclaimInterval = properties.getReclaimInterval().toMillis();
+            tasks.add(registry.scheduler().scheduleWithFixedDelay(this::flushAcks, ackInterval, ackInterval, TimeUnit.MILLISECONDS));
+            tasks.add(registry.scheduler().scheduleWithFixedDelay(this::reclaim, reclaimInterval, reclaimInterval, TimeUnit.MILLISECONDS));
+        }
+
+        /**
+         * @Description: cancel 停止本节点上该消费组的消费者，已处理的消息全部确认；未确认的消息留给其他消费者接管
+         * @Param: []
+         * @return: void
+         * @Author: GZY
+         * @Date: 2026/10/17 0017
+         */
+        public void cancel() {
+            for (Subscription subscription : subscriptions) {
+                subscription.cancel();
+            }
+            for (ScheduledFuture<?> task : tasks) {
+                task.cancel(false);
+            }
+            consumers.remove(this);
+            flushAcks();
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        private String consumerName(int index) {
+            return registry.nodeId() + "-" + index;
+        }
+
+        /**
+         * @Description: cancelOnError 读取出错时不取消订阅，连接恢复后继续消费；消费组被删除（NOGROUP）时重新创建
+         * @Param: [e]
+         * @return: boolean
+         * @Author: GZY
+         * @Date: 2026/10/17 0017
+         */
+        private boolean cancelOnError(Throwable e) {
+            log.error("stream read failed, queue={}, group={}", name, group, e);
+            if (isError(e, "NOGROUP")) {
+                try {
+                    createGroup(group);
+                } catch (RuntimeException createFailure) {
+                    log.error("recreate group failed, queue={}, group={}", name, group, createFailure);
+                }
+            }
+            return false;
+        }
+
+        private void dispatch(RecordId id, Object payload) {
+            long begin = metrics.start();
+            try {
+                handler.handle(id.getValue(), payload);
+                ack(id);
+            } catch (Exception e) {
+                metrics.error("streamHandle", e);
+                log.error("message handling failed, queue={}, group={}, id={}", name, group, id, e);
+            } finally {
+                metrics.record("streamHandle", begin);
+            }
+        }
+
+        private void ack(RecordId id) {
+            acks.add(id);
+            if (ackCount.incrementAndGet() >= properties.getAckBatchSize()) {
+                flushAcks();
+            }
+        }
+
+        /**
+         * @Description: flushAcks 把攒下的确认合并为一条 XACK；失败时放回，下次再发
+         * @Param: []
+         * @return: void
+         * @Author: GZY
+         * @Date: 2026/10/17 0017
+         */
+        private void flushAcks() {
+            List<RecordId> ids = new ArrayList<>();
+            RecordId id;
+            while ((id = acks.poll()) != null) {
+                ids.add(id);
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            ackCount.addAndGet(-ids.size());
+            long begin = metrics.start();
+            try {
+                redisTemplate.execute((RedisCallback<Long>) connection ->
+                        connection.streamCommands().xAck(rawKey, group, ids.toArray(new RecordId[0])));
+            } catch (RuntimeException e) {
+                metrics.error("xack", e);
+                log.error("xack failed, queue={}, group={}, count={}", name, group, ids.size(), e);
+                acks.addAll(ids);
+                ackCount.addAndGet(ids.size());
+            } finally {
+                metrics.record("xack", begin);
+            }
+        }
+
+        /**
+         * @Description: reclaim 检查消费组中最早的 batchSize 条未确认消息，空闲超过 minIdle 的由本节点接管并处理，
+         * 投递次数达到 maxDeliveries 的转入死信队列；XCLAIM 带 minIdle，多个节点同时接管时只有一个成功
+         * @Param: []
+         * @return: void
+         * @Author: GZY
+         * @Date: 2026/10/17 0017
+         */
+        private void reclaim() {
+            try {
+                String claimer = consumerName(0);
+                PendingMessages pending = redisTemplate.execute((RedisCallback<PendingMessages>) connection -> connection.streamCommands()
+                        .xPending(rawKey, group, Range.unbounded(), (long) properties.getBatchSize()));
+                if (pending == null) {
+                    return;
+                }
+                List<RecordId> idle = new ArrayList<>();
+                List<RecordId> dead = new ArrayList<>();
+                for (PendingMessage message : pending) {
+                    if (message.getElapsedTimeSinceLastDelivery().compareTo(properties.getMinIdle()) < 0) {
+                        continue;
+                    }
+                    (message.getTotalDeliveryCount() >= properties.getMaxDeliveries() ? dead : idle).add(message.getId());
+                }
+                if (!dead.isEmpty()) {
+                    deadLetter(claim(claimer, dead));
+                }
+                if (!idle.isEmpty()) {
+                    for (ByteRecord record : claim(claimer, idle)) {
+                        byte[] value = payload(record);
+                        dispatch(record.getId(), value == null ? null : serializer().deserialize(value));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("reclaim failed, queue={}, group={}", name, group, e);
+            }
+        }
+
+        private List<ByteRecord> claim(String claimer, List<RecordId> ids) {
+            List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection -> connection.streamCommands()
+                    .xClaim(rawKey, group, claimer, XClaimOptions.minIdle(properties.getMinIdle()).ids(ids)));
+            return records == null ? Collections.emptyList() : records;
+        }
+
+        private void deadLetter(List<ByteRecord> records) {
+            if (records.isEmpty()) {
+                return;
+            }
+            byte[] deadLetterKey = RedisSerializer.string().serialize(name + properties.getDeadLetterSuffix());
+            redisTemplate.execute((RedisCallback<Long>) connection -> {
+                for (ByteRecord record : records) {
+                    Map<byte[], byte[]> body = new LinkedHashMap<>(record.getValue());
+                    body.put(RAW_SOURCE_ID, RedisSerializer.string().serialize(record.getId().getValue()));
+                    connection.streamCommands().xAdd(MapRecord.create(deadLetterKey, body), XAddOptions.maxlen(properties.getMaxLen()));
+                }
+                return connection.streamCommands().xAck(rawKey, group, records.stream().map(ByteRecord::getId).toArray(RecordId[]::new));
+            });
+            log.warn("moved {} messages to dead letter queue, queue={}, group={}", records.size(), name, group);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.mujio.redisdemo.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * @Description: CircuitBreaker 按最近 windowSize 次调用的失败率熔断，无锁
+ * CLOSED：正常放行；窗口内调用数达到 minimumCalls 且失败率达到阈值时转为 OPEN
+ * OPEN：全部拒绝，openDuration 后转为 HALF_OPEN
+ * HALF_OPEN：只放行 halfOpenCalls 次试探调用，全部成功转为 CLOSED，任一失败重新 OPEN
+ * 只有连接失败和超时计为失败，命令本身的错误（如 WRONGTYPE）说明 Redis 可用，计为成功
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final int failureRateThreshold;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final LongSupplier clock;
+
+    private final BiConsumer<State, State> listener;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    /**
+     * 环形窗口，1 为失败，0 为成功
+     */
+    private final AtomicIntegerArray outcomes;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private volatile long openedAt;
+
+    /**
+     * @Description: CircuitBreaker
+     * @Param: [windowSize, minimumCalls, failureRateThreshold, openNanos, halfOpenCalls, clock, listener]
+     * 失败率阈值为百分比，clock 返回纳秒，listener 在每次状态变化时以 (from, to) 调用
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openNanos, int halfOpenCalls,
+                          LongSupplier clock, BiConsumer<State, State> listener) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        this.listener = listener;
+        this.outcomes = new AtomicIntegerArray(this.windowSize);
+    }
+
+    /**
+     * @Description: tryAcquire 是否放行本次调用，放行后必须调用 onSuccess 或 onFailure
+     * @Param: []
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            halfOpen();
+        }
+        return state.get() == State.HALF_OPEN && halfOpenPermits.getAndDecrement() > 0;
+    }
+
+    public void onSuccess() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            record(0);
+        } else if (current == State.HALF_OPEN && halfOpenSuccesses.incrementAndGet() >= halfOpenCalls) {
+            close();
+        }
+    }
+
+    public void onFailure() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            record(1);
+            long total = Math.min(calls.get(), windowSize);
+            if (total >= minimumCalls && failures.get() * 100L >= failureRateThreshold * total) {
+                open(State.CLOSED);
+            }
+        } else if (current == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        }
+    }
+
+    /**
+     * @Description: onIgnored 已放行但未发出的调用，不计入窗口，半开状态下归还试探许可
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void onIgnored() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * 窗口内的失败率（百分比），调用数未达到 minimumCalls 时为 0
+     */
+    public int getFailureRate() {
+        long total = Math.min(calls.get(), windowSize);
+        return total < minimumCalls ? 0 : (int) (failures.get() * 100L / total);
+    }
+
+    private void record(int outcome) {
+        int index = (int) (calls.getAndIncrement() % windowSize);
+        int previous = outcomes.getAndSet(index, outcome);
+        if (previous != outcome) {
+            failures.addAndGet(outcome - previous);
+        }
+    }
+
+    private void open(State from) {
+        //先写打开时间再切换状态，其他线程看到 OPEN 时不会读到上一次的打开时间
+        openedAt = clock.getAsLong();
+        if (state.compareAndSet(from, State.OPEN)) {
+            halfOpenPermits.set(0);
+            listener.accept(from, State.OPEN);
+        }
+    }
+
+    private void halfOpen() {
+        //只有切换成功的线程发放许可，切换与发放之间到来的调用被拒绝
+        if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            halfOpenSuccesses.set(0);
+            halfOpenPermits.set(halfOpenCalls);
+            listener.accept(State.OPEN, State.HALF_OPEN);
+        }
+    }
+
+    private void close() {
+        for (int i = 0; i < windowSize; i++) {
+            outcomes.set(i, 0);
+        }
+        failures.set(0);
+        calls.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            listener.accept(State.HALF_OPEN, State.CLOSED);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mujio.redisdemo.resilience;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * @Description: RedisRejectedException 熔断打开或隔离舱已满时命令未发出即失败，
+ * 继承 DataAccessResourceFailureException，RedisUtil 中按连接失败处理的分支同样适用
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisRejectedException extends DataAccessResourceFailureException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String reason;
+
+    private final String group;
+
+    public RedisRejectedException(String reason, String group) {
+        super("redis call rejected by " + reason + ", group=" + group);
+        this.reason = reason;
+        this.group = group;
+    }
+
+    /**
+     * circuit 熔断打开，bulkhead 隔离舱已满
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * 命令所属的分组，如 string、hash、scripting
+     */
+    public String getGroup() {
+        return group;
+    }
+}
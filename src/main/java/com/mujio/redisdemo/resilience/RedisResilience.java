@@ -0,0 +1,234 @@
+package com.mujio.redisdemo.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mujio.redisdemo.config.RedisResilienceProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisConnectionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionCommands;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisHyperLogLogCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.connection.RedisPubSubCommands;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.RedisServerCommands;
+import org.springframework.data.redis.connection.RedisSetCommands;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisTxCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description: RedisResilience 熔断与隔离舱，包在 RedisTemplate 使用的每条连接外面
+ * 每个命令先经过熔断器（打开时立即失败），再占用所属分组（string、hash、scripting 等）的隔离舱许可，
+ * 某类慢命令占满许可时只影响同组命令，不会拖住所有 Web 线程
+ * pipeline/事务中的命令只入队不发出，不单独计入，closePipeline/exec 作为一次调用计入
+ * 可选保留 get/hget 最近一次读取的结果，Redis 不可用时由 RedisUtil 用于降级
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisResilience {
+
+    private static final String NONE = "";
+
+    private static final String PIPELINE = "pipeline";
+
+    private static final String TX = "tx";
+
+    private static final Map<Class<?>, String> GROUPS = new LinkedHashMap<>();
+
+    static {
+        GROUPS.put(RedisStringCommands.class, "string");
+        GROUPS.put(RedisHashCommands.class, "hash");
+        GROUPS.put(RedisListCommands.class, "list");
+        GROUPS.put(RedisSetCommands.class, "set");
+        GROUPS.put(RedisZSetCommands.class, "zset");
+        GROUPS.put(RedisKeyCommands.class, "key");
+        GROUPS.put(RedisScriptingCommands.class, "scripting");
+        GROUPS.put(RedisStreamCommands.class, "stream");
+        GROUPS.put(RedisGeoCommands.class, "geo");
+        GROUPS.put(RedisHyperLogLogCommands.class, "hll");
+        GROUPS.put(RedisTxCommands.class, TX);
+        GROUPS.put(RedisServerCommands.class, "server");
+        GROUPS.put(RedisPubSubCommands.class, "pubsub");
+        GROUPS.put(RedisConnectionCommands.class, "connection");
+    }
+
+    private static final ConcurrentMap<Method, String> METHOD_GROUPS = new ConcurrentHashMap<>();
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final RedisMetrics metrics;
+
+    private final int maxConcurrent;
+
+    private final Map<String, Integer> groupLimits;
+
+    private final long maxWaitNanos;
+
+    private final ConcurrentMap<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    private final Cache<String, Object> lastKnown;
+
+    public RedisResilience(RedisResilienceProperties properties, RedisMetrics metrics) {
+        RedisResilienceProperties.Circuit circuit = properties.getCircuit();
+        this.metrics = metrics;
+        this.circuitBreaker = new CircuitBreaker(circuit.getWindowSize(), circuit.getMinimumCalls(), circuit.getFailureRateThreshold(),
+                circuit.getOpenDuration().toNanos(), circuit.getHalfOpenCalls(), System::nanoTime,
+                (from, to) -> metrics.circuitTransition(from.name(), to.name()));
+        metrics.bindCircuit(circuitBreaker, breaker -> breaker.getState().ordinal(), CircuitBreaker::getFailureRate);
+        this.maxConcurrent = properties.getBulkhead().getMaxConcurrent();
+        this.groupLimits = properties.getBulkhead().getGroups();
+        this.maxWaitNanos = properties.getBulkhead().getMaxWait().toNanos();
+        RedisResilienceProperties.Fallback fallback = properties.getFallback();
+        this.lastKnown = fallback.isEnabled()
+                ? Caffeine.newBuilder().maximumSize(fallback.getMaximumSize()).expireAfterWrite(fallback.getTtl().toNanos(), TimeUnit.NANOSECONDS).build()
+                : null;
+    }
+
+    /**
+     * @Description: wrap 返回经过熔断与隔离舱的连接代理，集群连接代理同时实现 RedisClusterConnection
+     * @Param: [connection]
+     * @return: org.springframework.data.redis.connection.RedisConnection
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisConnection wrap(RedisConnection connection) {
+        Class<?>[] interfaces = connection instanceof RedisClusterConnection
+                ? new Class<?>[]{RedisClusterConnection.class} : new Class<?>[]{RedisConnection.class};
+        return (RedisConnection) Proxy.newProxyInstance(RedisResilience.class.getClassLoader(), interfaces, (proxy, method, args) -> {
+            String group = groupOf(method);
+            if (NONE.equals(group) || (!PIPELINE.equals(group) && !TX.equals(group) && (connection.isPipelined() || connection.isQueueing()))) {
+                return invoke(connection, method, args);
+            }
+            return call(group, connection, method, args);
+        });
+    }
+
+    /**
+     * @Description: remember 记录一次成功读取的结果，未启用降级时忽略
+     * @Param: [key, value]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void remember(String key, Object value) {
+        if (lastKnown != null && value != null) {
+            lastKnown.put(key, value);
+        }
+    }
+
+    /**
+     * @Description: fallback 最近一次成功读取的结果，没有或未启用降级时为 null
+     * @Param: [key]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Object fallback(String key) {
+        return lastKnown == null ? null : lastKnown.getIfPresent(key);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private Object call(String group, RedisConnection connection, Method method, Object[] args) throws Throwable {
+        if (!circuitBreaker.tryAcquire()) {
+            metrics.rejected("circuit", group);
+            throw new RedisRejectedException("circuit", group);
+        }
+        Semaphore bulkhead = bulkhead(group);
+        boolean acquired;
+        try {
+            acquired = maxWaitNanos > 0 ? bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) : bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            //未发出命令，不计入熔断窗口
+            circuitBreaker.onIgnored();
+            metrics.rejected("bulkhead", group);
+            throw new RedisRejectedException("bulkhead", group);
+        }
+        try {
+            Object result = invoke(connection, method, args);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (Throwable e) {
+            if (isUnavailable(e)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private Semaphore bulkhead(String group) {
+        Semaphore bulkhead = bulkheads.get(group);
+        if (bulkhead == null) {
+            bulkhead = bulkheads.computeIfAbsent(group, g -> new Semaphore(groupLimits.getOrDefault(g, maxConcurrent)));
+        }
+        return bulkhead;
+    }
+
+    private static Object invoke(RedisConnection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 连接失败与超时说明 Redis 不可用，计为熔断失败
+     */
+    static boolean isUnavailable(Throwable e) {
+        return e instanceof DataAccessResourceFailureException || e instanceof QueryTimeoutException
+                || e instanceof RedisConnectionException || e instanceof RedisCommandTimeoutException;
+    }
+
+    static String groupOf(Method method) {
+        String group = METHOD_GROUPS.get(method);
+        if (group == null) {
+            group = METHOD_GROUPS.computeIfAbsent(method, RedisResilience::resolveGroup);
+        }
+        return group;
+    }
+
+    private static String resolveGroup(Method method) {
+        if ("closePipeline".equals(method.getName())) {
+            return PIPELINE;
+        }
+        for (Map.Entry<Class<?>, String> entry : GROUPS.entrySet()) {
+            try {
+                entry.getKey().getMethod(method.getName(), method.getParameterTypes());
+                return entry.getValue();
+            } catch (NoSuchMethodException e) {
+                //不属于该分组
+            }
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,25 @@
+package com.mujio.redisdemo.resilience;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * @Description: ResilientRedisTemplate 每次执行回调前把连接包上熔断与隔离舱
+ * 连接工厂保持不变，依赖 LettuceConnectionFactory 类型的代码（集群判断、并行扫描）不受影响；
+ * executeWithStickyConnection（SCAN 游标）不经过该处理
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class ResilientRedisTemplate<K, V> extends RedisTemplate<K, V> {
+
+    private final RedisResilience resilience;
+
+    public ResilientRedisTemplate(RedisResilience resilience) {
+        this.resilience = resilience;
+    }
+
+    @Override
+    protected RedisConnection preProcessConnection(RedisConnection connection, boolean existingConnection) {
+        return resilience.wrap(super.preProcessConnection(connection, existingConnection));
+    }
+}
@@ -0,0 +1,425 @@
+package com.mujio.redisdemo.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @Description: CompactRedisSerializer 紧凑二进制序列化
+ * 格式：魔数 + 带标签的值；整数、长度使用 varint，注册过的类型写类型ID而不是类名，字段按顺序写值不写字段名
+ * 未注册的对象退回到 fallback（原 Jackson JSON）并内嵌在二进制中
+ * 反序列化时首字节不是魔数的数据按 fallback 解析，迁移期间已有的 JSON 值可以直接读取
+ * writeCompact 为 false 时仍按 fallback 写入，只用来在 JSON 模板上兼容读取紧凑格式
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 魔数，合法的 JSON 不会以该字节开头
+     */
+    static final byte MAGIC = (byte) 0xB1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte STRING = 7;
+    private static final byte BYTES = 8;
+    private static final byte LIST = 9;
+    private static final byte SET = 10;
+    private static final byte MAP = 11;
+    private static final byte OBJECT = 12;
+    private static final byte JSON = 13;
+    private static final byte SHORT = 14;
+    private static final byte BYTE = 15;
+    private static final byte CHAR = 16;
+    private static final byte BIG_DECIMAL = 17;
+    private static final byte BIG_INTEGER = 18;
+    private static final byte DATE = 19;
+    private static final byte ENUM = 20;
+
+    /**
+     * 线程缓冲区超过该大小时用完即丢弃，避免偶发的大值长期占用内存
+     */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<Output> BUFFER = ThreadLocal.withInitial(Output::new);
+
+    private final TypeRegistry registry;
+
+    private final RedisSerializer<Object> fallback;
+
+    private final boolean writeCompact;
+
+    public CompactRedisSerializer(TypeRegistry registry, RedisSerializer<Object> fallback) {
+        this(registry, fallback, true);
+    }
+
+    public CompactRedisSerializer(TypeRegistry registry, RedisSerializer<Object> fallback, boolean writeCompact) {
+        this.registry = registry;
+        this.fallback = fallback;
+        this.writeCompact = writeCompact;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (!writeCompact) {
+            return fallback.serialize(value);
+        }
+        Output out = BUFFER.get();
+        try {
+            out.writeByte(MAGIC);
+            write(out, value);
+            return out.toByteArray();
+        } catch (ReflectiveOperationException e) {
+            throw new SerializationException("Could not write " + value.getClass().getName(), e);
+        } finally {
+            out.reset();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            Input in = new Input(bytes, 1);
+            return read(in);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new SerializationException("Could not read compact value", e);
+        }
+    }
+
+    private void write(Output out, Object value) throws ReflectiveOperationException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeVarLong(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeVarLong(zigzag((Long) value));
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeVarLong(Float.floatToRawIntBits((Float) value) & 0xFFFFFFFFL);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeVarLong(zigzag((Short) value));
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeVarLong((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            out.writeString(value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            out.writeString(value.toString());
+        } else if (value instanceof Date) {
+            out.writeByte(DATE);
+            out.writeVarLong(zigzag(((Date) value).getTime()));
+        } else if (value instanceof List) {
+            out.writeByte(LIST);
+            writeCollection(out, (Collection<?>) value);
+        } else if (value instanceof Set) {
+            out.writeByte(SET);
+            writeCollection(out, (Collection<?>) value);
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(out, entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else {
+            writeObject(out, value);
+        }
+    }
+
+    private void writeCollection(Output out, Collection<?> values) throws ReflectiveOperationException {
+        out.writeVarLong(values.size());
+        for (Object item : values) {
+            write(out, item);
+        }
+    }
+
+    private void writeObject(Output out, Object value) throws ReflectiveOperationException {
+        TypeRegistry.TypeInfo info = registry.get(value.getClass());
+        if (info == null) {
+            byte[] json = fallback.serialize(value);
+            out.writeByte(JSON);
+            out.writeVarLong(json.length);
+            out.writeBytes(json, 0, json.length);
+        } else if (info.type.isEnum()) {
+            out.writeByte(ENUM);
+            out.writeVarLong(info.id);
+            out.writeVarLong(((Enum<?>) value).ordinal());
+        } else {
+            out.writeByte(OBJECT);
+            out.writeVarLong(info.id);
+            out.writeVarLong(info.fields.length);
+            for (Field field : info.fields) {
+                write(out, field.get(value));
+            }
+        }
+    }
+
+    private Object read(Input in) throws ReflectiveOperationException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) unzigzag(in.readVarLong());
+            case LONG:
+                return unzigzag(in.readVarLong());
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readFixedLong());
+            case FLOAT:
+                return Float.intBitsToFloat((int) in.readVarLong());
+            case STRING:
+                return in.readString();
+            case BYTES:
+                return in.readBytes((int) in.readVarLong());
+            case SHORT:
+                return (short) unzigzag(in.readVarLong());
+            case BYTE:
+                return in.readByte();
+            case CHAR:
+                return (char) in.readVarLong();
+            case BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case BIG_INTEGER:
+                return new BigInteger(in.readString());
+            case DATE:
+                return new Date(unzigzag(in.readVarLong()));
+            case LIST: {
+                int size = (int) in.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(in));
+                }
+                return list;
+            }
+            case SET: {
+                int size = (int) in.readVarLong();
+                Set<Object> set = new LinkedHashSet<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    set.add(read(in));
+                }
+                return set;
+            }
+            case MAP: {
+                int size = (int) in.readVarLong();
+                Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    map.put(read(in), read(in));
+                }
+                return map;
+            }
+            case OBJECT:
+                return readObject(in);
+            case ENUM: {
+                TypeRegistry.TypeInfo info = registry.get((int) in.readVarLong());
+                return info.type.getEnumConstants()[(int) in.readVarLong()];
+            }
+            case JSON:
+                return fallback.deserialize(in.readBytes((int) in.readVarLong()));
+            default:
+                throw new SerializationException("Unknown compact tag " + tag);
+        }
+    }
+
+    private Object readObject(Input in) throws ReflectiveOperationException {
+        TypeRegistry.TypeInfo info = registry.get((int) in.readVarLong());
+        int count = (int) in.readVarLong();
+        Object value = info.constructor.newInstance();
+        for (int i = 0; i < count; i++) {
+            Object fieldValue = read(in);
+            if (i < info.fields.length) {
+                info.fields[i].set(value, info.adapt(i, fieldValue));
+            }
+        }
+        return value;
+    }
+
+    private static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f + 1);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 可复用的输出缓冲区，每个线程一个
+     */
+    private static final class Output {
+
+        private byte[] buffer = new byte[256];
+
+        private int position;
+
+        void writeByte(int b) {
+            ensure(1);
+            buffer[position++] = (byte) b;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeFixedLong(long value) {
+            ensure(8);
+            for (int i = 56; i >= 0; i -= 8) {
+                buffer[position++] = (byte) (value >>> i);
+            }
+        }
+
+        void writeString(String value) {
+            int length = value.length();
+            //ASCII 字符串直接写入缓冲区，不额外分配字节数组
+            ensure(length + 5);
+            int start = position;
+            writeVarLong(length);
+            int offset = position;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    position = start;
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(bytes.length);
+                    writeBytes(bytes, 0, bytes.length);
+                    return;
+                }
+                buffer[offset + i] = (byte) c;
+            }
+            position = offset + length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        void reset() {
+            position = 0;
+            if (buffer.length > MAX_RETAINED_BUFFER) {
+                buffer = new byte[256];
+            }
+        }
+
+        private void ensure(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readFixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
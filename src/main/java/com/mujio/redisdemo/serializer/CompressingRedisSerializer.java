@@ -0,0 +1,116 @@
+package com.mujio.redisdemo.serializer;
+
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * @Description: CompressingRedisSerializer 包装 value 序列化器，序列化结果达到阈值时压缩
+ * 格式：codec 标识字节 + varint 原始长度 + 压缩数据；压缩后节省不到 minSaving 的值按原样存储
+ * 读取时按首字节识别，未压缩的旧值直接交给 delegate，因此开启、切换或关闭压缩都不需要迁移数据
+ * codec 为 null 时只写未压缩的值，仍能读取已压缩的值
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class CompressingRedisSerializer<T> implements RedisSerializer<T> {
+
+    /**
+     * 原始长度上限，与 Redis 字符串上限一致，防止损坏的数据导致超大分配
+     */
+    private static final int MAX_LENGTH = 512 * 1024 * 1024;
+
+    private final RedisSerializer<T> delegate;
+
+    private final CompressionCodec codec;
+
+    private final int threshold;
+
+    private final double minSaving;
+
+    private final RedisMetrics metrics;
+
+    public CompressingRedisSerializer(RedisSerializer<T> delegate, CompressionCodec codec, int threshold, double minSaving,
+                                      RedisMetrics metrics) {
+        this.delegate = delegate;
+        this.codec = codec;
+        this.threshold = threshold;
+        this.minSaving = minSaving;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (codec == null || bytes == null || bytes.length < threshold) {
+            return bytes;
+        }
+        long begin = metrics.start();
+        byte[] compressed;
+        try {
+            compressed = codec.compress(bytes);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("compress failed, codec=" + codec, e);
+        }
+        int headerLength = 1 + varintLength(bytes.length);
+        if (headerLength + compressed.length > bytes.length * (1 - minSaving)) {
+            metrics.compressed(codec.name(), bytes.length, bytes.length, begin);
+            return bytes;
+        }
+        byte[] result = new byte[headerLength + compressed.length];
+        result[0] = codec.getHeader();
+        int position = 1;
+        for (int length = bytes.length; ; length >>>= 7) {
+            if ((length & ~0x7F) == 0) {
+                result[position++] = (byte) length;
+                break;
+            }
+            result[position++] = (byte) ((length & 0x7F) | 0x80);
+        }
+        System.arraycopy(compressed, 0, result, position, compressed.length);
+        metrics.compressed(codec.name(), bytes.length, result.length, begin);
+        return result;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        CompressionCodec stored = bytes == null || bytes.length == 0 ? null : CompressionCodec.of(bytes[0]);
+        if (stored == null) {
+            return delegate.deserialize(bytes);
+        }
+        long begin = metrics.start();
+        int position = 1;
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (position >= bytes.length || shift > 28) {
+                throw new SerializationException("corrupt compressed value");
+            }
+            byte b = bytes[position++];
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new SerializationException("corrupt compressed value, length=" + length);
+        }
+        byte[] raw;
+        try {
+            raw = stored.decompress(bytes, position, length);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("decompress failed, codec=" + stored, e);
+        }
+        metrics.decompressed(stored.name(), begin);
+        return delegate.deserialize(raw);
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mujio.redisdemo.serializer;
+
+import net.jpountz.lz4.LZ4Factory;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @Description: CompressionCodec CompressingRedisSerializer 支持的压缩算法，header 为写在压缩数据前的标识字节
+ * 标识字节取 0xF5 以上，这些字节不会出现在 UTF-8 文本的开头，也不同于 CompactRedisSerializer 的魔数，
+ * 因此未压缩的 JSON、紧凑格式和普通字符串都不会被误认为压缩数据
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public enum CompressionCodec {
+
+    /**
+     * JDK 自带，压缩率最高，速度最慢；使用 BEST_SPEED 级别
+     */
+    DEFLATE((byte) 0xF5) {
+        @Override
+        byte[] compress(byte[] data) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int originalLength) throws IOException {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, offset, data.length - offset);
+                byte[] result = new byte[originalLength];
+                int read = 0;
+                while (read < originalLength && !inflater.finished()) {
+                    int n = inflater.inflate(result, read, originalLength - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != originalLength) {
+                    throw new IOException("truncated deflate data");
+                }
+                return result;
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+        }
+    },
+
+    /**
+     * 压缩与解压最快，压缩率略低于 DEFLATE
+     */
+    LZ4((byte) 0xF6) {
+        @Override
+        byte[] compress(byte[] data) {
+            return LZ4Factory.fastestInstance().fastCompressor().compress(data);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int originalLength) throws IOException {
+            //safeDecompressor 按压缩数据的实际长度解码，不会越界读取；损坏的数据抛出 LZ4Exception
+            byte[] result = new byte[originalLength];
+            int read = LZ4Factory.fastestInstance().safeDecompressor()
+                    .decompress(data, offset, data.length - offset, result, 0, originalLength);
+            if (read != originalLength) {
+                throw new IOException("truncated lz4 data");
+            }
+            return result;
+        }
+    },
+
+    /**
+     * 速度与 LZ4 接近，依赖本地库
+     */
+    SNAPPY((byte) 0xF7) {
+        @Override
+        byte[] compress(byte[] data) throws IOException {
+            return Snappy.compress(data);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int originalLength) throws IOException {
+            byte[] result = new byte[originalLength];
+            Snappy.uncompress(data, offset, data.length - offset, result, 0);
+            return result;
+        }
+    };
+
+    private final byte header;
+
+    CompressionCodec(byte header) {
+        this.header = header;
+    }
+
+    public byte getHeader() {
+        return header;
+    }
+
+    abstract byte[] compress(byte[] data) throws IOException;
+
+    abstract byte[] decompress(byte[] data, int offset, int originalLength) throws IOException;
+
+    /**
+     * @Description: of 根据标识字节找到压缩算法
+     * @Param: [header]
+     * @return: com.mujio.redisdemo.serializer.CompressionCodec 不是压缩数据时为 null
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    static CompressionCodec of(byte header) {
+        for (CompressionCodec codec : values()) {
+            if (codec.header == header) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
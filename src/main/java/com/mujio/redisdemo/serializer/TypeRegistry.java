@@ -0,0 +1,180 @@
+package com.mujio.redisdemo.serializer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @Description: TypeRegistry 类型注册表，紧凑格式中用注册的数字ID代替类名
+ * 注册后的类按字段名排序依次写入字段值，不写字段名；类的字段发生增删时应换一个新的ID注册
+ * 集合字段解码为 ArrayList/LinkedHashSet/LinkedHashMap，声明为其他类型（TreeSet、SortedMap 等）时按声明类型重建，
+ * 无法创建实例的集合类型（EnumSet、抽象类等）在注册时拒绝；TreeSet/TreeMap 重建时使用自然顺序
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class TypeRegistry {
+
+    private final Map<Integer, TypeInfo> byId = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, TypeInfo> byType = new ConcurrentHashMap<>();
+
+    /**
+     * @Description: register 注册类型，ID 必须为非负数且全局唯一，多个节点之间必须保持一致
+     * 含有无法重建的集合类型字段时抛出 IllegalArgumentException
+     * @Param: [id, type]
+     * @return: com.mujio.redisdemo.serializer.TypeRegistry
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public TypeRegistry register(int id, Class<?> type) {
+        if (id < 0) {
+            throw new IllegalArgumentException("type id must not be negative: " + id);
+        }
+        TypeInfo info = new TypeInfo(id, type);
+        TypeInfo previous = byId.putIfAbsent(id, info);
+        if (previous != null && previous.type != type) {
+            throw new IllegalStateException("type id " + id + " already registered for " + previous.type.getName());
+        }
+        byType.putIfAbsent(type, info);
+        return this;
+    }
+
+    TypeInfo get(Class<?> type) {
+        return byType.get(type);
+    }
+
+    TypeInfo get(int id) {
+        TypeInfo info = byId.get(id);
+        if (info == null) {
+            throw new IllegalStateException("unknown type id " + id);
+        }
+        return info;
+    }
+
+    static final class TypeInfo {
+
+        final int id;
+
+        final Class<?> type;
+
+        final Field[] fields;
+
+        final Constructor<?> constructor;
+
+        /**
+         * 与 fields 一一对应，字段的集合类型无法直接接收解码结果时用于创建声明类型的实例，其余为 null
+         */
+        final Supplier<?>[] containers;
+
+        TypeInfo(int id, Class<?> type) {
+            this.id = id;
+            this.type = type;
+            if (type.isEnum()) {
+                this.fields = new Field[0];
+                this.constructor = null;
+                this.containers = new Supplier<?>[0];
+                return;
+            }
+            List<Field> list = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    list.add(field);
+                }
+            }
+            list.sort(Comparator.comparing((Field f) -> f.getDeclaringClass().getName()).thenComparing(Field::getName));
+            this.fields = list.toArray(new Field[0]);
+            this.containers = new Supplier<?>[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                containers[i] = container(fields[i]);
+            }
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor to be registered", e);
+            }
+        }
+
+        /**
+         * @Description: adapt 把解码出的集合转换为字段声明的类型
+         * @Param: [index, value]
+         * @return: java.lang.Object
+         * @Author: GZY
+         * @Date: 2026/10/17 0017
+         */
+        @SuppressWarnings("unchecked")
+        Object adapt(int index, Object value) {
+            Supplier<?> container = containers[index];
+            if (container == null || value == null || fields[index].getType().isInstance(value)) {
+                return value;
+            }
+            Object adapted = container.get();
+            if (adapted instanceof Map) {
+                ((Map<Object, Object>) adapted).putAll((Map<Object, Object>) value);
+            } else {
+                ((Collection<Object>) adapted).addAll((Collection<Object>) value);
+            }
+            return adapted;
+        }
+
+        private static Supplier<?> container(Field field) {
+            Class<?> declared = field.getType();
+            boolean collection = Collection.class.isAssignableFrom(declared);
+            if (!collection && !Map.class.isAssignableFrom(declared)) {
+                return null;
+            }
+            if (declared.isAssignableFrom(ArrayList.class) || declared.isAssignableFrom(LinkedHashSet.class)
+                    || declared.isAssignableFrom(LinkedHashMap.class)) {
+                return null;
+            }
+            if (declared == SortedSet.class || declared == NavigableSet.class) {
+                return TreeSet::new;
+            }
+            if (declared == SortedMap.class || declared == NavigableMap.class) {
+                return TreeMap::new;
+            }
+            if (declared == Queue.class || declared == Deque.class) {
+                return LinkedList::new;
+            }
+            if (!declared.isInterface() && !Modifier.isAbstract(declared.getModifiers())) {
+                try {
+                    Constructor<?> constructor = declared.getConstructor();
+                    return () -> {
+                        try {
+                            return constructor.newInstance();
+                        } catch (ReflectiveOperationException e) {
+                            throw new IllegalStateException("Could not create " + declared.getName(), e);
+                        }
+                    };
+                } catch (NoSuchMethodException e) {
+                    //落到下面的异常
+                }
+            }
+            throw new IllegalArgumentException(field.getDeclaringClass().getName() + "." + field.getName() + " is declared as "
+                    + declared.getName() + ", which cannot be rebuilt when decoding; use an interface type or a collection with a public no-arg constructor");
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.config.RedisAsyncProperties;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @Description: AsyncRedisUtil 返回 CompletableFuture 的 RedisUtil，介于阻塞的 RedisUtil 和 ReactiveRedisUtil 之间
+ * 基于独占的 Lettuce 异步连接并关闭自动 flush：各线程发出的命令先进入连接的缓冲，
+ * flushInterval 内或积累到 maxBatch 条时一次写出，高并发时多条命令共用一次系统调用和一个 TCP 包
+ * 批量读取（get(Collection) 等）的所有命令发出后立即 flush，一次往返拿到全部结果，而不是依次等待 N 次
+ * 序列化与 RedisTemplate 一致；返回 boolean/数值的方法出错时记录日志并返回 false/0，与 RedisUtil 一致
+ * 启用近端缓存时，写入成功后清除本地副本，失效通知随下一次 flush 发出
+ * future 在 Lettuce 的 I/O 线程上完成，后续的耗时处理应使用 thenXxxAsync 切换线程
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class AsyncRedisUtil implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncRedisUtil.class);
+
+    private final StatefulConnection<byte[], byte[]> connection;
+
+    private final RedisClusterAsyncCommands<byte[], byte[]> commands;
+
+    private final RedisSerializer<String> keySerializer;
+
+    private final RedisSerializer<Object> valueSerializer;
+
+    private final RedisSerializer<Object> hashKeySerializer;
+
+    private final RedisSerializer<Object> hashValueSerializer;
+
+    private final RedisMetrics metrics;
+
+    private final long flushIntervalNanos;
+
+    private final int maxBatch;
+
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * 已写入连接缓冲、尚未 flush 的命令数
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * 近端缓存，redis.near-cache.enabled=true 时注入
+     */
+    @Autowired(required = false)
+    private NearCache nearCache;
+
+    @SuppressWarnings("unchecked")
+    public AsyncRedisUtil(StatefulConnection<byte[], byte[]> connection, RedisTemplate<String, Object> redisTemplate,
+                          RedisAsyncProperties properties, RedisMetrics metrics) {
+        this.connection = connection;
+        this.commands = connection instanceof StatefulRedisClusterConnection
+                ? ((StatefulRedisClusterConnection<byte[], byte[]>) connection).async()
+                : ((StatefulRedisConnection<byte[], byte[]>) connection).async();
+        this.keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        this.hashKeySerializer = (RedisSerializer<Object>) redisTemplate.getHashKeySerializer();
+        this.hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        this.metrics = metrics;
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.maxBatch = Math.max(1, properties.getMaxBatch());
+        if (flushIntervalNanos > 0) {
+            connection.setAutoFlushCommands(false);
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "redis-async-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    //=========key============
+
+    public CompletableFuture<Boolean> expire(String key, long time) {
+        if (time <= 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return fallback("expire", key, commands.expire(key(key), time), false);
+    }
+
+    public CompletableFuture<Long> getExpire(String key) {
+        return timed("getExpire", commands.ttl(key(key)));
+    }
+
+    public CompletableFuture<Boolean> hasKey(String key) {
+        return fallback("hasKey", key, commands.exists(key(key)), 0L).thenApply(count -> count > 0);
+    }
+
+    public CompletableFuture<Long> del(String... keys) {
+        byte[][] rawKeys = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            rawKeys[i] = key(keys[i]);
+        }
+        return timed("del", written(commands.del(rawKeys), keys));
+    }
+
+    //=========value============
+
+    public CompletableFuture<Object> get(String key) {
+        return timed("get", commands.get(key(key))).thenApply(valueSerializer::deserialize);
+    }
+
+    /**
+     * @Description: get 批量读取，每个 key 一条 GET，全部发出后一次 flush；按 keys 的顺序返回，不存在的 key 对应 null
+     * 集群模式下各 key 分别发往所在节点，不受 MGET 同槽位的限制
+     * @Param: [keys]
+     * @return: java.util.concurrent.CompletableFuture<java.util.List<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public CompletableFuture<List<Object>> get(Collection<String> keys) {
+        return fanOut("get", keys, key -> commands.get(key(key)), valueSerializer::deserialize);
+    }
+
+    public CompletableFuture<Boolean> set(String key, Object value) {
+        return fallback("set", key, written(commands.set(key(key), valueSerializer.serialize(value)), key), null).thenApply("OK"::equals);
+    }
+
+    public CompletableFuture<Boolean> set(String key, Object value, long time) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        return fallback("setWithTime", key, written(commands.setex(key(key), time, valueSerializer.serialize(value)), key), null)
+                .thenApply("OK"::equals);
+    }
+
+    public CompletableFuture<Long> incr(String key, long step) {
+        return timed("incr", written(commands.incrby(key(key), step), key));
+    }
+
+    //=========hash============
+
+    public CompletableFuture<Object> hget(String key, String item) {
+        return timed("hget", commands.hget(key(key), hashKeySerializer.serialize(item))).thenApply(hashValueSerializer::deserialize);
+    }
+
+    /**
+     * @Description: hget 读取多个 hash 的同一 item，全部发出后一次 flush，按 keys 的顺序返回，不存在的对应 null
+     * @Param: [keys, item]
+     * @return: java.util.concurrent.CompletableFuture<java.util.List<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public CompletableFuture<List<Object>> hget(Collection<String> keys, String item) {
+        byte[] rawItem = hashKeySerializer.serialize(item);
+        return fanOut("hget", keys, key -> commands.hget(key(key), rawItem), hashValueSerializer::deserialize);
+    }
+
+    public CompletableFuture<Boolean> hset(String key, String item, Object value) {
+        //HSET 覆盖已有字段时返回 false，写入成功即为 true；先转换再降级，失败时仍返回 false
+        return fallback("hset", key, written(commands.hset(key(key), hashKeySerializer.serialize(item), hashValueSerializer.serialize(value)), key)
+                .thenApply(added -> true), false);
+    }
+
+    /**
+     * @Description: hset 放入 hash 并设置过期时间，与 RedisUtil.hsetAtomic 使用同一个 Lua 脚本
+     * @Param: [key, item, value, time]
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public CompletableFuture<Boolean> hset(String key, String item, Object value, long time) {
+        byte[][] args = {ttl(time), hashKeySerializer.serialize(item), hashValueSerializer.serialize(value)};
+        return fallback("hsetWithTime", key, invalidating(script(RedisScripts.HSET_EX, key(key), args), key), 0L).thenApply(count -> count > 0);
+    }
+
+    public CompletableFuture<Boolean> hset(String key, Map<String, Object> map, long time) {
+        byte[][] args = new byte[map.size() * 2 + 1][];
+        args[0] = ttl(time);
+        int i = 1;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            args[i++] = hashKeySerializer.serialize(entry.getKey());
+            args[i++] = hashValueSerializer.serialize(entry.getValue());
+        }
+        return fallback("hmsetWithTime", key, invalidating(script(RedisScripts.HSET_EX, key(key), args), key), -1L).thenApply(count -> count >= 0);
+    }
+
+    public CompletableFuture<Long> hdel(String key, Object... items) {
+        byte[][] rawItems = new byte[items.length][];
+        for (int i = 0; i < items.length; i++) {
+            rawItems[i] = hashKeySerializer.serialize(items[i]);
+        }
+        return timed("hdel", written(commands.hdel(key(key), rawItems), key));
+    }
+
+    public CompletableFuture<Double> hincr(String key, String item, double step) {
+        return timed("hincr", written(commands.hincrbyfloat(key(key), hashKeySerializer.serialize(item), step), key));
+    }
+
+    //=========set============
+
+    public CompletableFuture<Boolean> sHasKey(String key, Object value) {
+        return fallback("sHasKey", key, commands.sismember(key(key), valueSerializer.serialize(value)), false);
+    }
+
+    public CompletableFuture<Long> sSet(String key, Object... values) {
+        return fallback("sSet", key, commands.sadd(key(key), values(values)), 0L);
+    }
+
+    public CompletableFuture<Long> sSetAndTime(String key, long time, Object... values) {
+        byte[][] args = new byte[values.length + 1][];
+        args[0] = ttl(time);
+        System.arraycopy(values(values), 0, args, 1, values.length);
+        return fallback("sSetAndTime", key, script(RedisScripts.SADD_EX, key(key), args), 0L);
+    }
+
+    public CompletableFuture<Long> sGetSetSize(String key) {
+        return fallback("sGetSetSize", key, commands.scard(key(key)), 0L);
+    }
+
+    //=========list============
+
+    public CompletableFuture<Long> lGetListSize(String key) {
+        return fallback("lGetListSize", key, commands.llen(key(key)), 0L);
+    }
+
+    public CompletableFuture<Object> lGetIndex(String key, long index) {
+        return timed("lGetIndex", commands.lindex(key(key), index)).thenApply(valueSerializer::deserialize);
+    }
+
+    public CompletableFuture<Long> lSet(String key, Object value) {
+        return fallback("lSet", key, commands.rpush(key(key), valueSerializer.serialize(value)), 0L);
+    }
+
+    public CompletableFuture<Object> rightPop(String key) {
+        return timed("rightPop", commands.rpop(key(key))).thenApply(valueSerializer::deserialize);
+    }
+
+    //=========zset============
+
+    public CompletableFuture<Boolean> zAdd(String key, Object value, double score) {
+        return fallback("zAdd", key, commands.zadd(key(key), score, valueSerializer.serialize(value)), 0L).thenApply(added -> added > 0);
+    }
+
+    public CompletableFuture<Double> zIncr(String key, Object value, double step) {
+        return timed("zIncr", commands.zincrby(key(key), step, valueSerializer.serialize(value)));
+    }
+
+    public CompletableFuture<Double> zScore(String key, Object value) {
+        return timed("zScore", commands.zscore(key(key), valueSerializer.serialize(value)));
+    }
+
+    /**
+     * @Description: zRank 成员按分数排名（从 0 开始），reverse 为 true 时分数高的排在前面
+     * @Param: [key, value, reverse]
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 成员不存在时为 null
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public CompletableFuture<Long> zRank(String key, Object value, boolean reverse) {
+        byte[] rawKey = key(key);
+        byte[] rawValue = valueSerializer.serialize(value);
+        return timed("zRank", reverse ? commands.zrevrank(rawKey, rawValue) : commands.zrank(rawKey, rawValue));
+    }
+
+    //=========pub/sub============
+
+    public CompletableFuture<Long> convertAndSend(String channel, Object message) {
+        return timed("convertAndSend", commands.publish(channel.getBytes(StandardCharsets.UTF_8), valueSerializer.serialize(message)));
+    }
+
+    /**
+     * @Description: flush 立即发出缓冲中的命令，不等 flushInterval
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void flush() {
+        int count = pending.getAndSet(0);
+        if (count > 0) {
+            //先记录再发出，回复可能在 flushCommands 返回前就完成了调用方的 future
+            metrics.flushed(count);
+            connection.flushCommands();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flush();
+        }
+        connection.close();
+    }
+
+    /**
+     * 命令已写入连接缓冲：达到 maxBatch 时在当前线程 flush，否则确保 flushInterval 后有一次 flush
+     */
+    private <T> RedisFuture<T> dispatched(RedisFuture<T> future) {
+        if (flusher == null) {
+            return future;
+        }
+        if (pending.incrementAndGet() >= maxBatch) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::scheduledFlush, flushIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    private void scheduledFlush() {
+        //先清除标记再 flush，flush 之后写入的命令会重新安排一次
+        flushScheduled.set(false);
+        flush();
+    }
+
+    private <T> CompletableFuture<List<Object>> fanOut(String command, Collection<String> keys, Function<String, RedisFuture<T>> call,
+                                                       Function<T, Object> mapper) {
+        long begin = metrics.start();
+        List<CompletableFuture<T>> futures = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            futures.add(call.apply(key).toCompletableFuture());
+        }
+        if (flusher != null) {
+            pending.addAndGet(futures.size());
+            flush();
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<Object> values = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> future : futures) {
+                        values.add(mapper.apply(future.join()));
+                    }
+                    return values;
+                })
+                .whenComplete((values, e) -> {
+                    if (e != null) {
+                        metrics.error(command, unwrap(e));
+                    }
+                    metrics.record(command, begin);
+                });
+    }
+
+    /**
+     * 先用 EVALSHA，脚本未加载（如 Redis 重启后）时改用 EVAL
+     */
+    private CompletableFuture<Long> script(RedisScript<Long> script, byte[] key, byte[][] args) {
+        byte[][] keys = {key};
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        dispatched(commands.<Long>evalsha(script.getSha1(), ScriptOutputType.INTEGER, keys, args)).whenComplete((value, e) -> {
+            if (e instanceof RedisNoScriptException) {
+                dispatched(commands.<Long>eval(script.getScriptAsString(), ScriptOutputType.INTEGER, keys, args)).whenComplete((retried, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(retried);
+                    }
+                });
+            } else if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    private <T> CompletableFuture<T> written(RedisFuture<T> future, String... keys) {
+        return invalidating(dispatched(future).toCompletableFuture(), keys);
+    }
+
+    /**
+     * 写入成功后清除近端缓存的本地副本，失效通知与其他命令一起合并发出，不等待其结果
+     */
+    private <T> CompletableFuture<T> invalidating(CompletableFuture<T> future, String... keys) {
+        if (nearCache == null) {
+            return future;
+        }
+        byte[] channel = nearCache.getChannel().getBytes(StandardCharsets.UTF_8);
+        return future.thenApply(value -> {
+            for (String key : keys) {
+                nearCache.invalidateLocal(key);
+                dispatched(commands.publish(channel, valueSerializer.serialize(nearCache.notification(key))));
+            }
+            return value;
+        });
+    }
+
+    private <T> CompletableFuture<T> timed(String command, RedisFuture<T> future) {
+        return timed(command, dispatched(future).toCompletableFuture());
+    }
+
+    private <T> CompletableFuture<T> timed(String command, CompletableFuture<T> future) {
+        long begin = metrics.start();
+        return future.whenComplete((value, e) -> {
+            if (e != null) {
+                metrics.error(command, unwrap(e));
+            }
+            metrics.record(command, begin);
+        });
+    }
+
+    private <T> CompletableFuture<T> fallback(String command, String key, RedisFuture<T> future, T fallback) {
+        return fallback(command, key, dispatched(future).toCompletableFuture(), fallback);
+    }
+
+    private <T> CompletableFuture<T> fallback(String command, String key, CompletableFuture<T> future, T fallback) {
+        return timed(command, future).exceptionally(e -> {
+            log.error("{} failed, key={}", command, key, unwrap(e));
+            return fallback;
+        });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private byte[] key(String key) {
+        return keySerializer.serialize(key);
+    }
+
+    private byte[][] values(Object... values) {
+        byte[][] raw = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            raw[i] = valueSerializer.serialize(values[i]);
+        }
+        return raw;
+    }
+
+    private static byte[] ttl(long time) {
+        return String.valueOf(Math.max(time, 0)).getBytes(StandardCharsets.UTF_8);
+    }
+}
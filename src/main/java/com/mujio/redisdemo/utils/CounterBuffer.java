@@ -0,0 +1,393 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.config.CounterBufferProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Description: CounterBuffer 高频计数器的合并写：incr/hincr 只累加到本地的 LongAdder/DoubleAdder，
+ * 定期（或本地计数器个数达到上限时）把每个 key 的累计增量用 INCRBY/HINCRBYFLOAT 在一个 pipeline 中写入 Redis
+ * 代价是 Redis 中的值最多落后一个 flushInterval，进程宕机时丢失未提交的增量；关闭时会提交剩余增量
+ * 提交失败后指数退避，退避期间只累加不提交；积压的计数器个数达到 maxPendingKeys 后丢弃新 key 的增量
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class CounterBuffer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterBuffer.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMetrics metrics;
+
+    private final int maxKeys;
+
+    private final int maxPendingKeys;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long maxBackoffNanos;
+
+    /**
+     * 当前退避时长，0 表示上次提交成功；只在持有 flush 监视器时修改
+     */
+    private long backoffNanos;
+
+    /**
+     * 退避结束的时刻（System.nanoTime），退避期间写入线程和定时任务都不提交
+     */
+    private volatile long retryAt;
+
+    /**
+     * 正在接收增量的一代计数器
+     */
+    private volatile Generation current = new Generation();
+
+    /**
+     * 正在提交的一代计数器，提交完成前仍计入 pending
+     */
+    private volatile Generation flushing;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-counter-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CounterBuffer(RedisTemplate<String, Object> redisTemplate, CounterBufferProperties properties, RedisMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.metrics = metrics;
+        this.maxKeys = properties.getMaxKeys();
+        this.maxPendingKeys = Math.max(properties.getMaxPendingKeys(), maxKeys);
+        this.batchSize = properties.getBatchSize();
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.maxBackoffNanos = Math.max(properties.getMaxBackoff().toNanos(), flushIntervalNanos);
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @Description: incr 累加 key 的增量，稍后以 INCRBY 写入
+     * @Param: [key, delta]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void incr(String key, long delta) {
+        checkSize(add(Delta.counter(key, delta)));
+    }
+
+    /**
+     * @Description: hincr 累加 hash 中 item 的增量，稍后以 HINCRBYFLOAT 写入
+     * @Param: [key, item, delta]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void hincr(String key, String item, double delta) {
+        checkSize(add(Delta.hashItem(key, item, delta)));
+    }
+
+    /**
+     * @Description: pending 本地累计但尚未写入 Redis 的增量，Redis 中的值加上它即为最新值
+     * @Param: [key]
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long pending(String key) {
+        return pending(current, key) + pending(flushing, key);
+    }
+
+    /**
+     * @Description: pending 本地累计但尚未写入 Redis 的 hash item 增量
+     * @Param: [key, item]
+     * @return: double
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public double pending(String key, String item) {
+        HashItem hashItem = new HashItem(key, item);
+        return pending(current, hashItem) + pending(flushing, hashItem);
+    }
+
+    /**
+     * @Description: flush 立即提交所有累计的增量；换上新的一代接收增量，等正在写旧一代的线程退出后再提交旧一代
+     * 提交失败时增量并回当前一代，下次再提交；显式调用不受退避限制
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public synchronized void flush() {
+        Generation old = current;
+        if (old.size() == 0) {
+            return;
+        }
+        flushing = old;
+        current = new Generation();
+        old.close();
+        List<Delta> deltas = old.deltas();
+        long begin = metrics.start();
+        int written = 0;
+        try {
+            while (written < deltas.size()) {
+                List<Delta> batch = deltas.subList(written, Math.min(written + batchSize, deltas.size()));
+                pipeline(batch);
+                written += batch.size();
+            }
+            backoffNanos = 0;
+            retryAt = 0;
+        } catch (RuntimeException e) {
+            metrics.error("counterFlush", e);
+            backoffNanos = backoffNanos == 0 ? flushIntervalNanos : Math.min(backoffNanos * 2, maxBackoffNanos);
+            retryAt = System.nanoTime() + backoffNanos;
+            log.error("counter flush failed, pending={}, retry in {}ms", deltas.size() - written,
+                    TimeUnit.NANOSECONDS.toMillis(backoffNanos), e);
+            //失败批次及之后的增量并回当前一代，下次再提交；失败批次中已执行的命令可能被重复累加
+            for (Delta delta : deltas.subList(written, deltas.size())) {
+                add(delta);
+            }
+        } finally {
+            flushing = null;
+            metrics.record("counterFlush", begin);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void flushQuietly() {
+        if (backingOff()) {
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("counter flush failed", e);
+        }
+    }
+
+    /**
+     * @Description: checkSize 本地计数器个数达到上限时由写入线程直接提交，提交期间其他写入线程在 flush 上等待，起到限流作用
+     * 上次提交失败后的退避期间不提交，避免每次写入都在监视器上执行一次注定失败的 pipeline
+     * @Param: [generation]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private void checkSize(Generation generation) {
+        if (generation.size() >= maxKeys && generation == current && !backingOff()) {
+            flush();
+        }
+    }
+
+    private boolean backingOff() {
+        long until = retryAt;
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+
+    private Generation add(Delta delta) {
+        while (true) {
+            Generation generation = current;
+            if (generation.enter()) {
+                try {
+                    if (delta.item == null) {
+                        LongAdder adder = generation.counters.get(delta.key);
+                        if (adder == null) {
+                            if (full(generation, "counter")) {
+                                return generation;
+                            }
+                            adder = generation.counters.computeIfAbsent(delta.key, k -> new LongAdder());
+                        }
+                        adder.add(delta.count);
+                    } else {
+                        HashItem hashItem = new HashItem(delta.key, delta.item);
+                        DoubleAdder adder = generation.hashCounters.get(hashItem);
+                        if (adder == null) {
+                            if (full(generation, "hash")) {
+                                return generation;
+                            }
+                            adder = generation.hashCounters.computeIfAbsent(hashItem, k -> new DoubleAdder());
+                        }
+                        adder.add(delta.amount);
+                    }
+                } finally {
+                    generation.leave();
+                }
+                return generation;
+            }
+        }
+    }
+
+    /** 达到硬上限时丢弃新 key 的增量 */
+    private boolean full(Generation generation, String type) {
+        if (generation.size() < maxPendingKeys) {
+            return false;
+        }
+        metrics.counterDropped(type);
+        return true;
+    }
+
+    private void pipeline(List<Delta> batch) {
+        RedisSerializer<String> serializer = RedisSerializer.string();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Delta delta : batch) {
+                if (delta.item == null) {
+                    connection.incrBy(serializer.serialize(delta.key), delta.count);
+                } else {
+                    connection.hIncrBy(serializer.serialize(delta.key), serializer.serialize(delta.item), delta.amount);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static long pending(Generation generation, String key) {
+        if (generation == null) {
+            return 0;
+        }
+        LongAdder adder = generation.counters.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static double pending(Generation generation, HashItem hashItem) {
+        if (generation == null) {
+            return 0;
+        }
+        DoubleAdder adder = generation.hashCounters.get(hashItem);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 一代计数器。关闭后新的写入转到下一代，关闭前已进入的写入完成后才提交，保证增量不丢失
+     */
+    private static final class Generation {
+
+        private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+        private final ConcurrentHashMap<HashItem, DoubleAdder> hashCounters = new ConcurrentHashMap<>();
+
+        private final LongAdder writers = new LongAdder();
+
+        private volatile boolean closed;
+
+        private boolean enter() {
+            writers.increment();
+            if (closed) {
+                writers.decrement();
+                return false;
+            }
+            return true;
+        }
+
+        private void leave() {
+            writers.decrement();
+        }
+
+        private void close() {
+            closed = true;
+            while (writers.sum() > 0) {
+                Thread.yield();
+            }
+        }
+
+        private int size() {
+            return counters.size() + hashCounters.size();
+        }
+
+        private List<Delta> deltas() {
+            List<Delta> deltas = new ArrayList<>(size());
+            counters.forEach((key, adder) -> {
+                long sum = adder.sum();
+                if (sum != 0) {
+                    deltas.add(Delta.counter(key, sum));
+                }
+            });
+            hashCounters.forEach((hashItem, adder) -> {
+                double sum = adder.sum();
+                if (sum != 0) {
+                    deltas.add(Delta.hashItem(hashItem.key, hashItem.item, sum));
+                }
+            });
+            return deltas;
+        }
+    }
+
+    /**
+     * 一个 key（item 为 null）或 hash item 的增量
+     */
+    private static final class Delta {
+
+        private final String key;
+
+        private final String item;
+
+        private final long count;
+
+        private final double amount;
+
+        private Delta(String key, String item, long count, double amount) {
+            this.key = key;
+            this.item = item;
+            this.count = count;
+            this.amount = amount;
+        }
+
+        private static Delta counter(String key, long count) {
+            return new Delta(key, null, count, 0);
+        }
+
+        private static Delta hashItem(String key, String item, double amount) {
+            return new Delta(key, item, 0, amount);
+        }
+    }
+
+    private static final class HashItem {
+
+        private final String key;
+
+        private final String item;
+
+        private HashItem(String key, String item) {
+            this.key = key;
+            this.item = item;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HashItem)) {
+                return false;
+            }
+            HashItem other = (HashItem) o;
+            return key.equals(other.key) && item.equals(other.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, item);
+        }
+    }
+}
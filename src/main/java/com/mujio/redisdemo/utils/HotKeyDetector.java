@@ -0,0 +1,314 @@
+package com.mujio.redisdemo.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mujio.redisdemo.config.HotKeyProperties;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * @Description: HotKeyDetector 客户端热点 key 探测
+ * 访问按 sampleRate 采样后计入当前窗口的 Count-Min sketch（AtomicLongArray，无锁），
+ * 估算次数超过候选集最小值的 key 进入大小为 topK 的候选集；窗口结束时把候选集换算为 QPS，
+ * 达到 threshold 的 key 成为热点，下一个窗口内由 localTtl 的本地副本提供读取，避免单个分片被打满
+ * 本节点写入时清除本地副本；其他节点的写入最多 localTtl 后可见
+ * 与 NearCache 相同，每次失效递增 key 所在分段的失效计数，加载期间计数变化时读到的值不留在本地
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class HotKeyDetector implements DisposableBean {
+
+    /**
+     * hash item 的统计 key 为 key#item
+     */
+    static final char ITEM_SEPARATOR = '#';
+
+    /**
+     * 失效计数的分段数，hash item 与所属 key 落在同一分段
+     */
+    private static final int EPOCH_STRIPES = 1024;
+
+    private final int sampleRate;
+
+    private final long windowMillis;
+
+    private final double threshold;
+
+    private final int topK;
+
+    private final int sketchWidth;
+
+    private final int sketchDepth;
+
+    private volatile Window current;
+
+    private volatile Map<String, Double> hotKeys = Collections.emptyMap();
+
+    private volatile List<HotKey> lastTop = Collections.emptyList();
+
+    private final Cache<String, Object> local;
+
+    private final AtomicLongArray epochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-hot-key");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HotKeyDetector(HotKeyProperties properties) {
+        this.sampleRate = Math.max(1, properties.getSampleRate());
+        this.windowMillis = properties.getWindow().toMillis();
+        this.threshold = properties.getThreshold();
+        this.topK = properties.getTopK();
+        this.sketchWidth = Integer.highestOneBit(Math.max(16, properties.getSketchWidth()));
+        this.sketchDepth = Math.max(1, properties.getSketchDepth());
+        this.current = new Window();
+        this.local = Caffeine.newBuilder()
+                .maximumSize(topK * 4L)
+                .expireAfterWrite(properties.getLocalTtl().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+        scheduler.scheduleAtFixedRate(this::rotate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @Description: record 记录一次访问，按采样率跳过大部分访问
+     * @Param: [key]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void record(String key) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        Window window = current;
+        window.offer(key, window.increment(key));
+    }
+
+    public boolean isHot(String key) {
+        return hotKeys.containsKey(key);
+    }
+
+    /**
+     * @Description: get 热点 key 的本地副本，过期或不存在时通过 loader 读取，同一 key 并发只加载一次；null 值不缓存
+     * 加载期间 key 被失效时返回读到的值，但不保留本地副本
+     * @Param: [key, loader]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Object get(String key, Supplier<Object> loader) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long epoch = epoch(key);
+        value = local.get(key, k -> loader.get());
+        if (value != null && epoch(key) != epoch) {
+            //加载完成后才检查计数；失效在检查之后发生时，其删除一定能看到这里写入的副本
+            local.asMap().remove(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * @Description: invalidate 本节点写入后清除 key 及其 hash item 的本地副本
+     * @Param: [keys]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void invalidate(String... keys) {
+        //先递增计数：进行中的加载还未计入 estimatedSize，靠计数发现失效
+        for (String key : keys) {
+            epochs.incrementAndGet(stripe(key));
+        }
+        if (local.estimatedSize() == 0) {
+            return;
+        }
+        for (String key : keys) {
+            local.invalidate(key);
+            String prefix = key + ITEM_SEPARATOR;
+            local.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+        }
+    }
+
+    /**
+     * @Description: topKeys 上一个窗口访问最多的 key 及估算 QPS，按 QPS 从高到低
+     * @Param: []
+     * @return: java.util.List<com.mujio.redisdemo.utils.HotKeyDetector.HotKey>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public List<HotKey> topKeys() {
+        return lastTop;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @Description: rotate 换上新窗口，把旧窗口的候选集换算为 QPS 并重新评估热点
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    void rotate() {
+        Window old = current;
+        current = new Window();
+        double scale = sampleRate * 1000.0 / windowMillis;
+        List<HotKey> top = new ArrayList<>(old.candidates.size());
+        for (Map.Entry<String, Long> entry : old.candidates.entrySet()) {
+            double qps = entry.getValue() * scale;
+            top.add(new HotKey(entry.getKey(), qps, qps >= threshold));
+        }
+        top.sort(Comparator.comparingDouble(HotKey::getQps).reversed());
+        Map<String, Double> hot = new HashMap<>();
+        for (HotKey hotKey : top) {
+            if (hotKey.isHot()) {
+                hot.put(hotKey.getKey(), hotKey.getQps());
+            }
+        }
+        lastTop = Collections.unmodifiableList(top);
+        hotKeys = hot;
+    }
+
+    /**
+     * 一个统计窗口：Count-Min sketch 与候选集
+     */
+    private final class Window {
+
+        private final AtomicLongArray counters = new AtomicLongArray(sketchWidth * sketchDepth);
+
+        private final ConcurrentHashMap<String, Long> candidates = new ConcurrentHashMap<>();
+
+        /**
+         * 候选集已满时其中的最小估算次数，不超过它的 key 不需要加锁
+         */
+        private volatile long minimum;
+
+        private long increment(String key) {
+            int hash = spread(key.hashCode());
+            int step = spread(hash * 0x9E3779B9) | 1;
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < sketchDepth; row++) {
+                int column = (hash + row * step) & (sketchWidth - 1);
+                estimate = Math.min(estimate, counters.incrementAndGet(row * sketchWidth + column));
+            }
+            return estimate;
+        }
+
+        private void offer(String key, long estimate) {
+            if (candidates.computeIfPresent(key, (k, previous) -> Math.max(previous, estimate)) != null) {
+                return;
+            }
+            if (estimate <= minimum) {
+                return;
+            }
+            synchronized (this) {
+                candidates.merge(key, estimate, Math::max);
+                if (candidates.size() > topK) {
+                    String smallest = null;
+                    long smallestCount = Long.MAX_VALUE;
+                    for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+                        if (entry.getValue() < smallestCount) {
+                            smallest = entry.getKey();
+                            smallestCount = entry.getValue();
+                        }
+                    }
+                    candidates.remove(smallest);
+                }
+                if (candidates.size() >= topK) {
+                    long min = Long.MAX_VALUE;
+                    for (long count : candidates.values()) {
+                        min = Math.min(min, count);
+                    }
+                    minimum = min;
+                }
+            }
+        }
+    }
+
+    private long epoch(String key) {
+        return epochs.get(stripe(key));
+    }
+
+    /**
+     * 按第一个 # 之前的部分分段，key#item 与 key 共用计数
+     */
+    private static int stripe(String key) {
+        int separator = key.indexOf(ITEM_SEPARATOR);
+        int hash = (separator < 0 ? key : key.substring(0, separator)).hashCode();
+        return (hash ^ (hash >>> 16)) & (EPOCH_STRIPES - 1);
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 一个 key 的估算访问频率
+     */
+    public static final class HotKey {
+
+        private final String key;
+
+        private final double qps;
+
+        private final boolean hot;
+
+        public HotKey(String key, double qps, boolean hot) {
+            this.key = key;
+            this.qps = qps;
+            this.hot = hot;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public double getQps() {
+            return qps;
+        }
+
+        /**
+         * 是否达到阈值，当前窗口内由本地副本提供读取
+         */
+        public boolean isHot() {
+            return hot;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.mujio.redisdemo.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * @Description: KeyReport 一次 key 分析的结果：按前缀与类型汇总的占用、大 key 以及没有过期时间的 key
+ * 由分析线程逐批写入，完成后只读
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class KeyReport {
+
+    private final String pattern;
+
+    private final int maxReportedKeys;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private long finishedAt;
+
+    private long scanned;
+
+    private long totalBytes;
+
+    private long noTtlCount;
+
+    private long bigKeyCount;
+
+    private String error;
+
+    private final Map<String, Group> groups = new HashMap<>();
+
+    /**
+     * 按占用从小到大，满时淘汰最小的，保留最大的 maxReportedKeys 个
+     */
+    private final PriorityQueue<KeyInfo> bigKeys = new PriorityQueue<>(Comparator.comparingLong(KeyInfo::getBytes));
+
+    private final List<String> noTtlKeys = new ArrayList<>();
+
+    KeyReport(String pattern, int maxReportedKeys) {
+        this.pattern = pattern;
+        this.maxReportedKeys = maxReportedKeys;
+    }
+
+    void add(KeyInfo info, String prefix, boolean big) {
+        scanned++;
+        totalBytes += info.getBytes();
+        groups.computeIfAbsent(prefix + ' ' + info.getType(), k -> new Group(prefix, info.getType())).add(info);
+        if (info.getTtlMillis() < 0) {
+            noTtlCount++;
+            if (noTtlKeys.size() < maxReportedKeys) {
+                noTtlKeys.add(info.getKey());
+            }
+        }
+        if (big) {
+            bigKeyCount++;
+            bigKeys.add(info);
+            if (bigKeys.size() > maxReportedKeys) {
+                bigKeys.poll();
+            }
+        }
+    }
+
+    void finish(String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * 分析结束时间，0 表示仍在进行
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getNoTtlCount() {
+        return noTtlCount;
+    }
+
+    public long getBigKeyCount() {
+        return bigKeyCount;
+    }
+
+    /**
+     * 分析中途失败的原因，报告只包含失败前已分析的 key
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @Description: getGroups 按前缀与类型汇总，占用从高到低
+     * @Param: []
+     * @return: java.util.List<com.mujio.redisdemo.utils.KeyReport.Group>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public List<Group> getGroups() {
+        List<Group> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparingLong(Group::getBytes).reversed());
+        return sorted;
+    }
+
+    /**
+     * @Description: getBigKeys 占用最大的大 key，从高到低，最多 maxReportedKeys 个
+     * @Param: []
+     * @return: java.util.List<com.mujio.redisdemo.utils.KeyReport.KeyInfo>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public List<KeyInfo> getBigKeys() {
+        List<KeyInfo> sorted = new ArrayList<>(bigKeys);
+        sorted.sort(Comparator.comparingLong(KeyInfo::getBytes).reversed());
+        return sorted;
+    }
+
+    /**
+     * 没有过期时间的 key，最多 maxReportedKeys 个，总数见 noTtlCount
+     */
+    public List<String> getNoTtlKeys() {
+        return Collections.unmodifiableList(noTtlKeys);
+    }
+
+    /**
+     * @Description: format 文本报告，用于日志
+     * @Param: []
+     * @return: java.lang.String
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("key analysis pattern=%s scanned=%d bytes=%d noTtl=%d bigKeys=%d elapsed=%dms%n",
+                pattern, scanned, totalBytes, noTtlCount, bigKeyCount, (finishedAt == 0 ? System.currentTimeMillis() : finishedAt) - startedAt));
+        if (error != null) {
+            report.append("incomplete: ").append(error).append(System.lineSeparator());
+        }
+        report.append(String.format("%-40s %-8s %10s %14s %12s %8s%n", "prefix", "type", "keys", "bytes", "maxBytes", "noTtl"));
+        for (Group group : getGroups()) {
+            report.append(String.format("%-40s %-8s %10d %14d %12d %8d%n",
+                    group.getPrefix(), group.getType(), group.getCount(), group.getBytes(), group.getMaxBytes(), group.getNoTtl()));
+        }
+        if (!bigKeys.isEmpty()) {
+            report.append("big keys:").append(System.lineSeparator());
+            for (KeyInfo info : getBigKeys()) {
+                report.append("  ").append(info).append(System.lineSeparator());
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * 一个前缀下某种类型的 key 的汇总
+     */
+    public static final class Group {
+
+        private final String prefix;
+
+        private final String type;
+
+        private long count;
+
+        private long bytes;
+
+        private long maxBytes;
+
+        private long noTtl;
+
+        private Group(String prefix, String type) {
+            this.prefix = prefix;
+            this.type = type;
+        }
+
+        private void add(KeyInfo info) {
+            count++;
+            bytes += info.getBytes();
+            maxBytes = Math.max(maxBytes, info.getBytes());
+            if (info.getTtlMillis() < 0) {
+                noTtl++;
+            }
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public long getNoTtl() {
+            return noTtl;
+        }
+    }
+
+    /**
+     * 单个 key 的类型、编码、占用、元素数与剩余过期时间
+     */
+    public static final class KeyInfo {
+
+        private final String key;
+
+        private final String type;
+
+        private final String encoding;
+
+        private final long bytes;
+
+        private final long elements;
+
+        private final long ttlMillis;
+
+        public KeyInfo(String key, String type, String encoding, long bytes, long elements, long ttlMillis) {
+            this.key = key;
+            this.type = type;
+            this.encoding = encoding;
+            this.bytes = bytes;
+            this.elements = elements;
+            this.ttlMillis = ttlMillis;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * MEMORY USAGE 的结果，集合类型为抽样估算值
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * 集合类型的元素数，string 为 -1
+         */
+        public long getElements() {
+            return elements;
+        }
+
+        /**
+         * 剩余过期毫秒数，-1 表示没有过期时间
+         */
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        @Override
+        public String toString() {
+            return key + " " + type + "/" + encoding + " bytes=" + bytes
+                    + (elements >= 0 ? " elements=" + elements : "") + (ttlMillis < 0 ? " noTtl" : " ttl=" + ttlMillis + "ms");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.mujio.redisdemo.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mujio.redisdemo.config.NearCacheProperties;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @Description: NearCache 近端（进程内）缓存，放在 ValueOperations/HashOperations 前面，缓存反序列化后的对象
+ * 本地写入时清除本地副本并通过 convertAndSend 广播失效通知，其他节点收到后清除各自的副本
+ * 只缓存非 null 值；Redis 端过期不会通知，本地副本最长保留 ttl 秒
+ * 每次失效递增 key 所在分段的失效计数，加载期间计数变化说明读到的可能是旧值，此时只返回不缓存
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class NearCache implements MessageListener {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 失效计数的分段数，不同 key 落在同一分段只会多跳过几次缓存
+     */
+    private static final int EPOCH_STRIPES = 1024;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final String channel;
+
+    private final int maximumHashItems;
+
+    private final Cache<String, Object> values;
+
+    private final Cache<String, Map<String, Object>> hashes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final AtomicLongArray epochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    public NearCache(RedisTemplate<String, Object> redisTemplate, NearCacheProperties properties, RedisMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.channel = properties.getChannel();
+        this.maximumHashItems = properties.getMaximumHashItems();
+        this.values = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.hashes = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        metrics.bindNearCache(this, NearCache::hitCount, NearCache::missCount, NearCache::evictionCount, NearCache::size);
+    }
+
+    /**
+     * @Description: get 先查本地，未命中时通过 loader 从 Redis 读取，加载期间 key 未被失效时放入本地
+     * loader 在调用线程执行，不持有缓存内部的锁
+     * @Param: [key, loader]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Object get(String key, Supplier<Object> loader) {
+        Object value = values.getIfPresent(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        long epoch = epoch(key);
+        Object loaded = loader.get();
+        if (loaded != null) {
+            //判断与写入在同一个 compute 中；失效在判断之后发生时，其 invalidate 会等 compute 结束再删除
+            values.asMap().compute(key, (k, current) -> epoch(k) == epoch ? loaded : current);
+        }
+        return loaded;
+    }
+
+    /**
+     * @Description: hget 先查本地 hash 副本，未命中时通过 loader 读取
+     * @Param: [key, item, loader]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Object hget(String key, String item, Supplier<Object> loader) {
+        Map<String, Object> items = hashes.get(key, k -> new ConcurrentHashMap<>());
+        Object value = items.get(item);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        long epoch = epoch(key);
+        Object loaded = loader.get();
+        if (loaded != null && items.size() < maximumHashItems) {
+            items.compute(item, (i, current) -> epoch(key) == epoch ? loaded : current);
+        }
+        return loaded;
+    }
+
+    /**
+     * @Description: invalidate 写入后调用，清除本地副本并通知其他节点；多个 key 的通知在一个 pipeline 中一次往返
+     * @Param: [keys]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @SuppressWarnings("unchecked")
+    public void invalidate(String... keys) {
+        for (String key : keys) {
+            invalidateLocal(key);
+        }
+        if (keys.length == 0) {
+            return;
+        }
+        if (keys.length == 1) {
+            redisTemplate.convertAndSend(channel, notification(keys[0]));
+            return;
+        }
+        byte[] rawChannel = RedisSerializer.string().serialize(channel);
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.publish(rawChannel, serializer.serialize(notification(key)));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @Description: invalidateLocal 只清除本地副本
+     * @Param: [key]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void invalidateLocal(String key) {
+        //先递增计数再删除，保证进行中的加载要么看到计数变化，要么写入的副本被这里删除
+        epochs.incrementAndGet(stripe(key));
+        values.invalidate(key);
+        hashes.invalidate(key);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof String)) {
+            return;
+        }
+        String text = (String) body;
+        int index = text.indexOf(SEPARATOR);
+        //自己发出的通知在写入时已经清除过
+        if (index < 0 || index == nodeId.length() && text.startsWith(nodeId)) {
+            return;
+        }
+        invalidateLocal(text.substring(index + 1));
+    }
+
+    /**
+     * @Description: notification 发往失效频道的消息内容，供不经过 RedisTemplate 发布的调用方使用
+     * @Param: [key]
+     * @return: java.lang.String
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public String notification(String key) {
+        return nodeId + SEPARATOR + key;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return values.stats().evictionCount() + hashes.stats().evictionCount();
+    }
+
+    public long size() {
+        return values.estimatedSize() + hashes.estimatedSize();
+    }
+
+    private long epoch(String key) {
+        return epochs.get(stripe(key));
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (EPOCH_STRIPES - 1);
+    }
+}
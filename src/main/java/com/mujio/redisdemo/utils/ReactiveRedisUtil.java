@@ -0,0 +1,397 @@
+package com.mujio.redisdemo.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: ReactiveRedisUtil RedisUtil 的响应式版本，基于 ReactiveRedisTemplate，不阻塞调用线程
+ * 方法与 RedisUtil 一一对应；返回 boolean/数值的方法出错时记录日志并返回 false/0，与 RedisUtil 一致
+ * 批量方法接收 Flux，在少量事件循环线程上以有限并发执行
+ * 启用近端缓存时，写入成功后清除本地副本并以非阻塞方式发布失效通知
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+@Component
+public class ReactiveRedisUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveRedisUtil.class);
+
+    /**
+     * Flux 批量操作时同时在途的命令数
+     */
+    public static final int DEFAULT_CONCURRENCY = 64;
+
+    private static final RedisElementWriter<byte[]> BYTES_WRITER = RedisElementWriter.from(RedisSerializer.byteArray());
+
+    private static final RedisElementReader<Long> LONG_READER = RedisElementReader.from(new GenericToStringSerializer<>(Long.class));
+
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    private final RedisMetrics metrics;
+
+    /**
+     * 近端缓存，redis.near-cache.enabled=true 时注入
+     */
+    @Autowired(required = false)
+    private NearCache nearCache;
+
+    public ReactiveRedisUtil(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate, RedisMetrics metrics) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.metrics = metrics;
+    }
+
+    //=========key============
+
+    /**
+     * @Description: expire 设置过期时间
+     * @Param: [key, time] 键，时间（秒）
+     * @return: reactor.core.publisher.Mono<java.lang.Boolean>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Mono<Boolean> expire(String key, long time) {
+        if (time <= 0) {
+            return Mono.just(true);
+        }
+        return fallback("expire", key, reactiveRedisTemplate.expire(key, Duration.ofSeconds(time)), false);
+    }
+
+    /**
+     * @Description: getExpire 获取剩余过期时间（秒）
+     * @Param: [key]
+     * @return: reactor.core.publisher.Mono<java.lang.Long>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Mono<Long> getExpire(String key) {
+        return timed("getExpire", reactiveRedisTemplate.getExpire(key).map(Duration::getSeconds));
+    }
+
+    public Mono<Boolean> hasKey(String key) {
+        return fallback("hasKey", key, reactiveRedisTemplate.hasKey(key), false);
+    }
+
+    public Mono<Long> del(String... keys) {
+        return timed("del", invalidating(reactiveRedisTemplate.delete(keys), keys));
+    }
+
+    //=========value============
+
+    public Mono<Object> get(String key) {
+        return timed("get", reactiveRedisTemplate.opsForValue().get(key));
+    }
+
+    /**
+     * @Description: get 批量读取，每 batchSize 个 key 合并成一次 MGET，每批发出一个与该批 key 一一对应的列表
+     * 不存在的 key 在列表中对应位置为 null（Reactor 的元素不能为 null，所以按批发出而不是逐个发出）
+     * @Param: [keys, batchSize]
+     * @return: reactor.core.publisher.Flux<java.util.List<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Flux<List<Object>> get(Flux<String> keys, int batchSize) {
+        return keys.buffer(batchSize)
+                .flatMapSequential(batch -> timed("mget", reactiveRedisTemplate.opsForValue().multiGet(batch)), DEFAULT_CONCURRENCY);
+    }
+
+    public Mono<Boolean> set(String key, Object value) {
+        return fallback("set", key, invalidating(reactiveRedisTemplate.opsForValue().set(key, value), key), false);
+    }
+
+    public Mono<Boolean> set(String key, Object value, long time) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        return fallback("setWithTime", key, invalidating(reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofSeconds(time)), key), false);
+    }
+
+    /**
+     * @Description: set 批量写入并设置过期时间，最多 DEFAULT_CONCURRENCY 条命令同时在途，返回成功写入的条数
+     * @Param: [entries, time]
+     * @return: reactor.core.publisher.Mono<java.lang.Long>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Mono<Long> set(Flux<Map.Entry<String, Object>> entries, long time) {
+        return entries.flatMap(entry -> set(entry.getKey(), entry.getValue(), time), DEFAULT_CONCURRENCY)
+                .filter(Boolean::booleanValue)
+                .count();
+    }
+
+    public Mono<Boolean> mset(Map<String, Object> map) {
+        return fallback("mset", null, invalidating(reactiveRedisTemplate.opsForValue().multiSet(map), map.keySet().toArray(new String[0])), false);
+    }
+
+    public Mono<Long> incr(String key, long step) {
+        return timed("incr", invalidating(reactiveRedisTemplate.opsForValue().increment(key, step), key));
+    }
+
+    //=========hash============
+
+    public Mono<Object> hget(String key, String item) {
+        return timed("hget", reactiveRedisTemplate.opsForHash().get(key, item));
+    }
+
+    public Flux<Map.Entry<Object, Object>> hget(String key) {
+        return reactiveRedisTemplate.opsForHash().entries(key);
+    }
+
+    public Mono<Boolean> hset(String key, Map<String, Object> map) {
+        return fallback("hmset", key, invalidating(reactiveRedisTemplate.opsForHash().putAll(key, map), key), false);
+    }
+
+    /**
+     * @Description: hset 批量放入 hash 并设置过期时间，与 RedisUtil.hsetAtomic 使用同一个 Lua 脚本
+     * @Param: [key, map, time]
+     * @return: reactor.core.publisher.Mono<java.lang.Boolean>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Mono<Boolean> hset(String key, Map<String, Object> map, long time) {
+        List<byte[]> args = new ArrayList<>(map.size() * 2 + 1);
+        args.add(ttl(time));
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            args.add(hashKey(entry.getKey()));
+            args.add(hashValue(entry.getValue()));
+        }
+        return fallback("hmsetWithTime", key, invalidating(script(RedisScripts.HSET_EX, key, args).map(count -> true), key), false);
+    }
+
+    public Mono<Boolean> hset(String key, String item, Object value) {
+        return fallback("hset", key, invalidating(reactiveRedisTemplate.opsForHash().put(key, item, value), key), false);
+    }
+
+    public Mono<Boolean> hset(String key, String item, Object value, long time) {
+        List<byte[]> args = new ArrayList<>(3);
+        args.add(ttl(time));
+        args.add(hashKey(item));
+        args.add(hashValue(value));
+        return fallback("hsetWithTime", key, invalidating(script(RedisScripts.HSET_EX, key, args).map(count -> true), key), false);
+    }
+
+    public Mono<Long> hdel(String key, Object... item) {
+        return timed("hdel", invalidating(reactiveRedisTemplate.opsForHash().remove(key, item), key));
+    }
+
+    public Mono<Boolean> hHasKey(String key, String item) {
+        return fallback("hHasKey", key, reactiveRedisTemplate.opsForHash().hasKey(key, item), false);
+    }
+
+    public Mono<Double> hincr(String key, String item, double step) {
+        return timed("hincr", invalidating(reactiveRedisTemplate.opsForHash().increment(key, item, step), key));
+    }
+
+    //=========set============
+
+    public Flux<Object> sGet(String key) {
+        return reactiveRedisTemplate.opsForSet().members(key);
+    }
+
+    public Mono<Boolean> sHasKey(String key, Object value) {
+        return fallback("sHasKey", key, reactiveRedisTemplate.opsForSet().isMember(key, value), false);
+    }
+
+    public Mono<Long> sSet(String key, Object... values) {
+        return fallback("sSet", key, reactiveRedisTemplate.opsForSet().add(key, values), 0L);
+    }
+
+    public Mono<Long> sSetAndTime(String key, long time, Object... values) {
+        List<byte[]> args = new ArrayList<>(values.length + 1);
+        args.add(ttl(time));
+        for (Object value : values) {
+            args.add(value(value));
+        }
+        return fallback("sSetAndTime", key, script(RedisScripts.SADD_EX, key, args), 0L);
+    }
+
+    public Mono<Long> sGetSetSize(String key) {
+        return fallback("sGetSetSize", key, reactiveRedisTemplate.opsForSet().size(key), 0L);
+    }
+
+    public Mono<Long> setRemove(String key, Object... values) {
+        return fallback("setRemove", key, reactiveRedisTemplate.opsForSet().remove(key, values), 0L);
+    }
+
+    //=========list============
+
+    public Flux<Object> lGet(String key, long start, long end) {
+        return reactiveRedisTemplate.opsForList().range(key, start, end);
+    }
+
+    public Mono<Long> lGetListSize(String key) {
+        return fallback("lGetListSize", key, reactiveRedisTemplate.opsForList().size(key), 0L);
+    }
+
+    public Mono<Object> lGetIndex(String key, long index) {
+        return timed("lGetIndex", reactiveRedisTemplate.opsForList().index(key, index));
+    }
+
+    public Mono<Long> lSet(String key, Object value) {
+        return fallback("lSet", key, reactiveRedisTemplate.opsForList().rightPush(key, value), 0L);
+    }
+
+    public Mono<Long> lSet(String key, Collection<Object> values) {
+        return fallback("lSetAll", key, reactiveRedisTemplate.opsForList().rightPushAll(key, values), 0L);
+    }
+
+    public Mono<Long> lSet(String key, Collection<Object> values, long time) {
+        List<byte[]> args = new ArrayList<>(values.size() + 1);
+        args.add(ttl(time));
+        for (Object value : values) {
+            args.add(value(value));
+        }
+        return fallback("lSetAllWithTime", key, script(RedisScripts.RPUSH_EX, key, args), 0L);
+    }
+
+    public Mono<Boolean> lUpdateIndex(String key, long index, Object value) {
+        return fallback("lUpdateIndex", key, reactiveRedisTemplate.opsForList().set(key, index, value), false);
+    }
+
+    public Mono<Long> lRemove(String key, long count, Object value) {
+        return fallback("lRemove", key, reactiveRedisTemplate.opsForList().remove(key, count, value), 0L);
+    }
+
+    public Mono<Object> rightPop(String key) {
+        return timed("rightPop", reactiveRedisTemplate.opsForList().rightPop(key));
+    }
+
+    //=========zset============
+
+    public Mono<Boolean> zAdd(String key, Object value, double score) {
+        return fallback("zAdd", key, reactiveRedisTemplate.opsForZSet().add(key, value, score), false);
+    }
+
+    public Mono<Double> zIncr(String key, Object value, double step) {
+        return timed("zIncr", reactiveRedisTemplate.opsForZSet().incrementScore(key, value, step));
+    }
+
+    public Mono<Double> zScore(String key, Object value) {
+        return timed("zScore", reactiveRedisTemplate.opsForZSet().score(key, value));
+    }
+
+    /**
+     * @Description: zRank 成员按分数排名（从 0 开始），reverse 为 true 时分数高的排在前面
+     * @Param: [key, value, reverse]
+     * @return: reactor.core.publisher.Mono<java.lang.Long> 成员不存在时为空
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Mono<Long> zRank(String key, Object value, boolean reverse) {
+        return timed("zRank", reverse ? reactiveRedisTemplate.opsForZSet().reverseRank(key, value)
+                : reactiveRedisTemplate.opsForZSet().rank(key, value));
+    }
+
+    /**
+     * @Description: zRange 按分数从高到低取排名 [start, end] 的成员
+     * @Param: [key, start, end]
+     * @return: reactor.core.publisher.Flux<org.springframework.data.redis.core.ZSetOperations.TypedTuple<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Flux<ZSetOperations.TypedTuple<Object>> zRange(String key, long start, long end) {
+        return reactiveRedisTemplate.opsForZSet().reverseRangeWithScores(key, Range.closed(start, end));
+    }
+
+    public Mono<Long> zRemove(String key, Object... values) {
+        return fallback("zRemove", key, reactiveRedisTemplate.opsForZSet().remove(key, values), 0L);
+    }
+
+    //=========pub/sub============
+
+    public Mono<Long> convertAndSend(String channel, Object message) {
+        return timed("convertAndSend", reactiveRedisTemplate.convertAndSend(channel, message));
+    }
+
+    /**
+     * @Description: listen 订阅频道，取消订阅时自动退订
+     * @Param: [channel]
+     * @return: reactor.core.publisher.Flux<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Flux<Object> listen(String channel) {
+        return reactiveRedisTemplate.listenTo(ChannelTopic.of(channel)).map(ReactiveSubscription.Message::getMessage);
+    }
+
+    private Mono<Long> script(RedisScript<Long> script, String key, List<byte[]> args) {
+        return reactiveRedisTemplate.execute(script, Collections.singletonList(key), args, BYTES_WRITER, LONG_READER).next();
+    }
+
+    /**
+     * 写入成功后清除近端缓存的本地副本并发布失效通知，通知发出后才下发结果
+     */
+    private <T> Mono<T> invalidating(Mono<T> mono, String... keys) {
+        if (nearCache == null) {
+            return mono;
+        }
+        return mono.flatMap(value -> Flux.fromArray(keys)
+                .concatMap(key -> {
+                    nearCache.invalidateLocal(key);
+                    return reactiveRedisTemplate.convertAndSend(nearCache.getChannel(), nearCache.notification(key));
+                })
+                .then(Mono.just(value)));
+    }
+
+    private <T> Mono<T> timed(String command, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long begin = metrics.start();
+            return mono.doOnError(e -> metrics.error(command, e))
+                    .doFinally(signal -> metrics.record(command, begin));
+        });
+    }
+
+    private <T> Mono<T> fallback(String command, String key, Mono<T> mono, T fallback) {
+        return timed(command, mono).onErrorResume(e -> {
+            log.error("{} failed, key={}", command, key, e);
+            return Mono.just(fallback);
+        });
+    }
+
+    private static byte[] ttl(long time) {
+        return String.valueOf(Math.max(time, 0)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] value(Object value) {
+        return bytes(reactiveRedisTemplate.getSerializationContext().getValueSerializationPair().write(value));
+    }
+
+    private byte[] hashKey(String item) {
+        RedisSerializationContext.SerializationPair<String> pair = reactiveRedisTemplate.getSerializationContext().getHashKeySerializationPair();
+        return bytes(pair.write(item));
+    }
+
+    private byte[] hashValue(Object value) {
+        RedisSerializationContext.SerializationPair<Object> pair = reactiveRedisTemplate.getSerializationContext().getHashValueSerializationPair();
+        return bytes(pair.write(value));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,361 @@
+package com.mujio.redisdemo.utils;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @Description: RedisBatch 批量操作，收集 get/set/hset/sadd/rpush/expire 等命令，通过 executePipelined 一次往返提交
+ * 非线程安全，一个批次只应在一个线程中使用；结果按加入顺序一一对应（每个操作一个结果）
+ * 通过 RedisUtil.batch 创建时，set/hset/del 写入的 key 在每段 pipeline 提交后从近端缓存与热点副本中清除
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisBatch {
+
+    /**
+     * 单次 pipeline 最多提交的操作数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * 累积到该数量后自动提交，<=0 表示只在 execute 时提交
+     */
+    public static final int DEFAULT_AUTO_FLUSH_SIZE = 10000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final int batchSize;
+
+    private final int autoFlushSize;
+
+    private final List<BatchOp> pending = new ArrayList<>();
+
+    private final List<Object> results = new ArrayList<>();
+
+    /**
+     * 写入的 key 提交后调用，用于清除本地副本
+     */
+    private final Consumer<String[]> invalidator;
+
+    public RedisBatch(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, DEFAULT_BATCH_SIZE, DEFAULT_AUTO_FLUSH_SIZE);
+    }
+
+    public RedisBatch(RedisTemplate<String, Object> redisTemplate, int batchSize, int autoFlushSize) {
+        this(redisTemplate, batchSize, autoFlushSize, keys -> {
+        });
+    }
+
+    RedisBatch(RedisTemplate<String, Object> redisTemplate, int batchSize, int autoFlushSize, Consumer<String[]> invalidator) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.redisTemplate = redisTemplate;
+        this.batchSize = batchSize;
+        this.autoFlushSize = autoFlushSize;
+        this.invalidator = invalidator;
+    }
+
+    /**
+     * @Description: get 获取指定key的值
+     * @Param: [key]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch get(String key) {
+        return add(1, ops -> ops.opsForValue().get(key));
+    }
+
+    /**
+     * @Description: set 存值
+     * @Param: [key, value]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch set(String key, Object value) {
+        return add(1, key, ops -> ops.opsForValue().set(key, value));
+    }
+
+    /**
+     * @Description: set 存值并设置过期时间，time>0 时使用 SETEX 单条命令
+     * @Param: [key, value, time] 键，值，时间（秒）
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch set(String key, Object value, long time) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        return add(1, key, ops -> ops.opsForValue().set(key, value, time, TimeUnit.SECONDS));
+    }
+
+    /**
+     * @Description: hget 获取hash中指定项的值
+     * @Param: [key, item]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch hget(String key, String item) {
+        return add(1, ops -> ops.opsForHash().get(key, item));
+    }
+
+    /**
+     * @Description: hset 向hash表中放入 (item,value)
+     * @Param: [key, item, value]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch hset(String key, String item, Object value) {
+        return add(1, key, ops -> ops.opsForHash().put(key, item, value));
+    }
+
+    /**
+     * @Description: hset 向hash表中放入 (item,value) 并设置过期时间
+     * @Param: [key, item, value, time]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch hset(String key, String item, Object value, long time) {
+        if (time <= 0) {
+            return hset(key, item, value);
+        }
+        return add(2, key, ops -> {
+            ops.opsForHash().put(key, item, value);
+            ops.expire(key, time, TimeUnit.SECONDS);
+        });
+    }
+
+    /**
+     * @Description: hset 批量放入hash表（HMSET 为状态回复，pipeline 中不返回结果，成功时记为 true）
+     * @Param: [key, map]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch hset(String key, Map<String, Object> map) {
+        return add(0, key, ops -> ops.opsForHash().putAll(key, map));
+    }
+
+    /**
+     * @Description: hset 批量放入hash表并设置过期时间
+     * @Param: [key, map, time]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch hset(String key, Map<String, Object> map, long time) {
+        if (time <= 0) {
+            return hset(key, map);
+        }
+        return add(1, key, ops -> {
+            ops.opsForHash().putAll(key, map);
+            ops.expire(key, time, TimeUnit.SECONDS);
+        });
+    }
+
+    /**
+     * @Description: sSet 向set存值
+     * @Param: [key, values]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch sSet(String key, Object... values) {
+        return add(1, ops -> ops.opsForSet().add(key, values));
+    }
+
+    /**
+     * @Description: sSetAndTime 向set存值并设置过期时间
+     * @Param: [key, time, values]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch sSetAndTime(String key, long time, Object... values) {
+        if (time <= 0) {
+            return sSet(key, values);
+        }
+        return add(2, ops -> {
+            ops.opsForSet().add(key, values);
+            ops.expire(key, time, TimeUnit.SECONDS);
+        });
+    }
+
+    /**
+     * @Description: lSet 从右侧向列表存多个值
+     * @Param: [key, values]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch lSet(String key, Object... values) {
+        return add(1, ops -> ops.opsForList().rightPushAll(key, values));
+    }
+
+    /**
+     * @Description: lSet 从右侧向列表存多个值并设置过期时间
+     * @Param: [key, values, time]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch lSet(String key, List<Object> values, long time) {
+        if (time <= 0) {
+            return add(1, ops -> ops.opsForList().rightPushAll(key, values));
+        }
+        return add(2, ops -> {
+            ops.opsForList().rightPushAll(key, values);
+            ops.expire(key, time, TimeUnit.SECONDS);
+        });
+    }
+
+    /**
+     * @Description: expire 设置过期时间
+     * @Param: [key, time] 键，时间（秒）
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch expire(String key, long time) {
+        return add(1, ops -> ops.expire(key, time, TimeUnit.SECONDS));
+    }
+
+    /**
+     * @Description: del 删除key
+     * @Param: [key]
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch del(String key) {
+        return add(1, key, ops -> ops.delete(key));
+    }
+
+    /**
+     * @Description: size 当前未提交的操作数
+     * @Param: []
+     * @return: int
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * @Description: flush 提交所有未提交的操作，按 batchSize 分段 pipeline，结果暂存到批次中
+     * @Param: []
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch flush() {
+        int from = 0;
+        while (from < pending.size()) {
+            int to = Math.min(from + batchSize, pending.size());
+            List<BatchOp> ops = pending.subList(from, to);
+            results.addAll(pipeline(ops));
+            invalidate(ops);
+            from = to;
+        }
+        pending.clear();
+        return this;
+    }
+
+    /**
+     * @Description: execute 提交剩余操作并返回自上次 execute 以来所有操作的结果，顺序与加入顺序一致
+     * @Param: []
+     * @return: java.util.List<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public List<Object> execute() {
+        flush();
+        List<Object> all = new ArrayList<>(results);
+        results.clear();
+        return all;
+    }
+
+    private RedisBatch add(int replies, Consumer<RedisOperations<String, Object>> command) {
+        return add(replies, null, command);
+    }
+
+    private RedisBatch add(int replies, String writtenKey, Consumer<RedisOperations<String, Object>> command) {
+        pending.add(new BatchOp(replies, writtenKey, command));
+        if (autoFlushSize > 0 && pending.size() >= autoFlushSize) {
+            flush();
+        }
+        return this;
+    }
+
+    private void invalidate(List<BatchOp> ops) {
+        List<String> keys = new ArrayList<>();
+        for (BatchOp op : ops) {
+            if (op.writtenKey != null) {
+                keys.add(op.writtenKey);
+            }
+        }
+        if (!keys.isEmpty()) {
+            invalidator.accept(keys.toArray(new String[0]));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> pipeline(List<BatchOp> ops) {
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                for (BatchOp op : ops) {
+                    op.command.accept(redisOperations);
+                }
+                return null;
+            }
+        });
+        //每个操作可能产生 0~2 个回复，取第一个回复作为该操作的结果；HMSET 没有回复，成功时记为 true
+        List<Object> mapped = new ArrayList<>(ops.size());
+        int index = 0;
+        for (BatchOp op : ops) {
+            if (op.replies == 0) {
+                mapped.add(Boolean.TRUE);
+            } else {
+                mapped.add(index < replies.size() ? replies.get(index) : null);
+                index += op.replies;
+            }
+        }
+        return Collections.unmodifiableList(mapped);
+    }
+
+    private static final class BatchOp {
+
+        private final int replies;
+
+        /**
+         * 写操作的 key，读操作为 null
+         */
+        private final String writtenKey;
+
+        private final Consumer<RedisOperations<String, Object>> command;
+
+        private BatchOp(int replies, String writtenKey, Consumer<RedisOperations<String, Object>> command) {
+            this.replies = replies;
+            this.writtenKey = writtenKey;
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.mujio.redisdemo.utils;
+
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @Description: RedisBloomFilter 基于 Redis 位图的布隆过滤器，用于拦截不存在的 ID，避免缓存穿透到数据库
+ * 按预期元素数和误判率计算位数 m 与哈希函数个数 k；元素按 String.valueOf 转为 UTF-8 后做 murmur3 128 位哈希，
+ * 由两个 64 位哈希组合出 k 个位置。每个元素的 k 个位用一条 BITFIELD 读写，批量操作在一个 pipeline 中发送
+ * mightContain 返回 false 时元素一定不存在，返回 true 时有约 fpp 的概率误判；元素数超过预期后误判率上升，不支持删除
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisBloomFilter {
+
+    /**
+     * Redis 字符串最大 512MB，即 2^32 位
+     */
+    static final long MAX_BITS = 1L << 32;
+
+    private static final BitFieldSubCommands.BitFieldType BIT = BitFieldSubCommands.BitFieldType.unsigned(1);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMetrics metrics;
+
+    private final String key;
+
+    private final byte[] rawKey;
+
+    private final long bits;
+
+    private final int hashes;
+
+    RedisBloomFilter(RedisTemplate<String, Object> redisTemplate, RedisMetrics metrics, String key, long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be positive and fpp must be in (0, 1)");
+        }
+        this.redisTemplate = redisTemplate;
+        this.metrics = metrics;
+        this.key = key;
+        this.rawKey = RedisSerializer.string().serialize(key);
+        this.bits = optimalBits(expectedInsertions, fpp);
+        this.hashes = optimalHashes(expectedInsertions, bits);
+    }
+
+    /**
+     * @Description: add 加入元素
+     * @Param: [element]
+     * @return: boolean 至少有一位由 0 变 1，即元素之前一定不存在
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean add(Object element) {
+        long begin = metrics.start();
+        try {
+            List<Long> previous = redisTemplate.execute((RedisCallback<List<Long>>) connection ->
+                    connection.bitField(rawKey, commands(element, true)));
+            return previous != null && previous.contains(0L);
+        } catch (RuntimeException e) {
+            metrics.error("bfAdd", e);
+            throw e;
+        } finally {
+            metrics.record("bfAdd", begin);
+        }
+    }
+
+    /**
+     * @Description: addAll 批量加入元素，一个 pipeline 一次往返
+     * @Param: [elements]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void addAll(Collection<?> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        long begin = metrics.start();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Object element : elements) {
+                    connection.bitField(rawKey, commands(element, true));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            metrics.error("bfAdd", e);
+            throw e;
+        } finally {
+            metrics.record("bfAdd", begin);
+        }
+    }
+
+    /**
+     * @Description: mightContain 元素是否可能存在，false 表示一定不存在
+     * @Param: [element]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean mightContain(Object element) {
+        long begin = metrics.start();
+        try {
+            List<Long> values = redisTemplate.execute((RedisCallback<List<Long>>) connection ->
+                    connection.bitField(rawKey, commands(element, false)));
+            return allSet(values);
+        } catch (RuntimeException e) {
+            metrics.error("bfExists", e);
+            throw e;
+        } finally {
+            metrics.record("bfExists", begin);
+        }
+    }
+
+    /**
+     * @Description: mightContainAll 批量检查，一个 pipeline 一次往返，结果与 elements 的遍历顺序一致
+     * @Param: [elements]
+     * @return: java.util.List<java.lang.Boolean>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @SuppressWarnings("unchecked")
+    public List<Boolean> mightContainAll(Collection<?> elements) {
+        if (elements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long begin = metrics.start();
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Object element : elements) {
+                    connection.bitField(rawKey, commands(element, false));
+                }
+                return null;
+            });
+            List<Boolean> contains = new ArrayList<>(results.size());
+            for (Object result : results) {
+                contains.add(allSet((List<Long>) result));
+            }
+            return contains;
+        } catch (RuntimeException e) {
+            metrics.error("bfExists", e);
+            throw e;
+        } finally {
+            metrics.record("bfExists", begin);
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 位图的位数
+     */
+    public long getBits() {
+        return bits;
+    }
+
+    /**
+     * 每个元素占用的位数，即哈希函数个数
+     */
+    public int getHashes() {
+        return hashes;
+    }
+
+    /**
+     * @Description: positions 元素的 k 个位置，Kirsch-Mitzenmacher 组合：h1 + i * h2
+     * @Param: [element]
+     * @return: long[]
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    long[] positions(Object element) {
+        long[] hash = murmur3(String.valueOf(element).getBytes(StandardCharsets.UTF_8));
+        long[] positions = new long[hashes];
+        long combined = hash[0];
+        for (int i = 0; i < hashes; i++) {
+            positions[i] = (combined & Long.MAX_VALUE) % bits;
+            combined += hash[1];
+        }
+        return positions;
+    }
+
+    private BitFieldSubCommands commands(Object element, boolean set) {
+        BitFieldSubCommands commands = BitFieldSubCommands.create();
+        for (long position : positions(element)) {
+            commands = set ? commands.set(BIT).valueAt(position).to(1) : commands.get(BIT).valueAt(position);
+        }
+        return commands;
+    }
+
+    private static boolean allSet(List<Long> values) {
+        if (values == null || values.isEmpty()) {
+            return false;
+        }
+        for (Long value : values) {
+            if (value == null || value == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * m = -n * ln(p) / (ln2)^2，不超过 MAX_BITS
+     */
+    static long optimalBits(long expectedInsertions, double fpp) {
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        return Math.max(1, Math.min(bits, MAX_BITS));
+    }
+
+    /**
+     * k = m / n * ln2，至少为 1
+     */
+    static int optimalHashes(long expectedInsertions, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * MurmurHash3 x64 128 位，seed 为 0
+     */
+    static long[] murmur3(byte[] data) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        long h1 = 0;
+        long h2 = 0;
+        int blocks = data.length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = littleEndian(data, i * 16);
+            long k2 = littleEndian(data, i * 16 + 8);
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= c2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= c1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        int tail = blocks * 16;
+        int remaining = data.length - tail;
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = remaining - 1; i >= 8; i--) {
+            k2 ^= (long) (data[tail + i] & 0xff) << ((i - 8) * 8);
+        }
+        if (remaining > 8) {
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= c1;
+            h2 ^= k2;
+        }
+        for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+            k1 ^= (long) (data[tail + i] & 0xff) << (i * 8);
+        }
+        if (remaining > 0) {
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= c2;
+            h1 ^= k1;
+        }
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long littleEndian(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,364 @@
+package com.mujio.redisdemo.utils;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @Description: RedisChunkReader 分块读取大 list/hash/set，代替一次取回整个集合的 LRANGE 0 -1、HGETALL、SMEMBERS
+ * list 按 LRANGE 窗口分块，hash/set 按 HSCAN/SSCAN 游标分块；每块只保存原始字节，元素被消费时才反序列化
+ * prefetch>0 时由后台线程提前取后面的 prefetch 块，消费者处理当前块时下一块已在路上；
+ * 内存中最多有 prefetch+1 块，与集合大小无关
+ * 返回的 Stream 必须关闭（try-with-resources），关闭后后台读取停止并释放连接；未关闭就被丢弃的 Stream 在被 GC 回收后，
+ * 后台线程不再等待消费者，关闭游标退出；destroy 时停止所有后台读取，未读完的 Stream 抛出 IllegalStateException
+ * 遍历期间集合被修改时：list 可能重复或漏掉元素，hash/set 遵循 SCAN 的语义（可能重复，不会漏掉始终存在的元素）
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisChunkReader implements DisposableBean {
+
+    /**
+     * 默认每块的元素数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * 默认提前读取的块数
+     */
+    public static final int DEFAULT_PREFETCH = 1;
+
+    private static final List<Object> END = Collections.emptyList();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private ExecutorService executor;
+
+    public RedisChunkReader(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @Description: list 按 LRANGE 窗口分块读取整个 list
+     * @Param: [key, chunkSize, prefetch]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> list(String key, int chunkSize, int prefetch) {
+        byte[] rawKey = rawKey(key);
+        RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+        ChunkSource<byte[]> source = new ChunkSource<byte[]>() {
+
+            private long start;
+
+            private boolean done;
+
+            @Override
+            public List<byte[]> next() {
+                if (done) {
+                    return Collections.emptyList();
+                }
+                List<byte[]> chunk = redisTemplate.execute(
+                        (RedisCallback<List<byte[]>>) connection -> connection.lRange(rawKey, start, start + chunkSize - 1));
+                if (chunk == null || chunk.size() < chunkSize) {
+                    done = true;
+                }
+                start += chunkSize;
+                return chunk == null ? Collections.emptyList() : chunk;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        return stream(source, chunkSize, prefetch).map(valueSerializer::deserialize);
+    }
+
+    /**
+     * @Description: hash 按 HSCAN 游标分块读取整个 hash
+     * @Param: [key, chunkSize, prefetch]
+     * @return: java.util.stream.Stream<java.util.Map.Entry<java.lang.Object,java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Map.Entry<Object, Object>> hash(String key, int chunkSize, int prefetch) {
+        byte[] rawKey = rawKey(key);
+        RedisSerializer<?> hashKeySerializer = redisTemplate.getHashKeySerializer();
+        RedisSerializer<?> hashValueSerializer = redisTemplate.getHashValueSerializer();
+        ChunkSource<Map.Entry<byte[], byte[]>> source = new CursorSource<>(chunkSize,
+                connection -> connection.hScan(rawKey, options(chunkSize)));
+        return stream(source, chunkSize, prefetch).map(entry -> new AbstractMap.SimpleImmutableEntry<>(
+                (Object) hashKeySerializer.deserialize(entry.getKey()), (Object) hashValueSerializer.deserialize(entry.getValue())));
+    }
+
+    /**
+     * @Description: set 按 SSCAN 游标分块读取整个 set
+     * @Param: [key, chunkSize, prefetch]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> set(String key, int chunkSize, int prefetch) {
+        byte[] rawKey = rawKey(key);
+        RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+        ChunkSource<byte[]> source = new CursorSource<>(chunkSize, connection -> connection.sScan(rawKey, options(chunkSize)));
+        return stream(source, chunkSize, prefetch).map(valueSerializer::deserialize);
+    }
+
+    /**
+     * @Description: stream 把按块读取的数据展开为元素流，prefetch>0 时由后台线程提前读取
+     * @Param: [source, chunkSize, prefetch]
+     * @return: java.util.stream.Stream<T>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private <T> Stream<T> stream(ChunkSource<T> source, int chunkSize, int prefetch) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (prefetch <= 0) {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(direct(source), Spliterator.NONNULL), false)
+                    .flatMap(List::stream)
+                    .onClose(source::close);
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(prefetching(source, prefetch, closed), Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .onClose(() -> closed.set(true));
+    }
+
+    private static <T> Iterator<List<T>> direct(ChunkSource<T> source) {
+        return new Iterator<List<T>>() {
+
+            private List<T> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = source.next();
+                }
+                return !next.isEmpty();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> chunk = next;
+                next = null;
+                return chunk;
+            }
+        };
+    }
+
+    /**
+     * @Description: prefetching 后台线程依次读取各块放入容量为 prefetch 的队列，队列满时等待消费者；
+     * 游标只在后台线程中使用，Stream 关闭或迭代器被回收后后台线程停止读取并关闭游标
+     * 后台线程只持有迭代器的弱引用，消费者丢弃未关闭的 Stream 时不会一直占着线程和连接
+     * @Param: [source, prefetch, closed]
+     * @return: java.util.Iterator<java.util.List<T>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Iterator<List<T>> prefetching(ChunkSource<T> source, int prefetch, AtomicBoolean closed) {
+        BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(prefetch);
+        List<T> end = (List<T>) END;
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicBoolean finished = new AtomicBoolean();
+        Iterator<List<T>> iterator = new Iterator<List<T>>() {
+
+            private List<T> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = take(queue, end, finished);
+                    if (next == end && failure.get() != null) {
+                        throw failure.get();
+                    }
+                }
+                return next != end;
+            }
+
+            @Override
+            public List<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> chunk = next;
+                next = null;
+                return chunk;
+            }
+        };
+        Reference<Iterator<List<T>>> consumer = new WeakReference<>(iterator);
+        executor().execute(() -> {
+            try {
+                List<T> chunk;
+                do {
+                    chunk = source.next();
+                } while (!chunk.isEmpty() && put(queue, chunk, closed, consumer));
+            } catch (RuntimeException e) {
+                failure.set(e);
+            } finally {
+                if (Thread.currentThread().isInterrupted()) {
+                    failure.compareAndSet(null, new IllegalStateException("chunk reader is shut down"));
+                }
+                try {
+                    source.close();
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+                put(queue, end, closed, consumer);
+                finished.set(true);
+            }
+        });
+        return iterator;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** 预读线程池，只有 prefetch>0 才需要，按需创建 */
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "redis-chunk-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * 放入队列，返回 false 表示不必继续读取：Stream 已关闭、迭代器已被回收或线程被中断
+     */
+    private static <T> boolean put(BlockingQueue<List<T>> queue, List<T> chunk, AtomicBoolean closed, Reference<?> consumer) {
+        try {
+            while (!closed.get()) {
+                if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                if (consumer.get() == null) {
+                    return false;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 后台线程结束但结束标记没能入队时（线程被中断），按队列已空判断结束
+     */
+    private static <T> List<T> take(BlockingQueue<List<T>> queue, List<T> end, AtomicBoolean finished) {
+        try {
+            while (true) {
+                List<T> chunk = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    return chunk;
+                }
+                if (finished.get() && queue.isEmpty()) {
+                    return end;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return end;
+        }
+    }
+
+    private static ScanOptions options(int count) {
+        return ScanOptions.scanOptions().count(count).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    /**
+     * 按块提供数据，返回空列表表示结束
+     */
+    private interface ChunkSource<T> {
+
+        List<T> next();
+
+        void close();
+    }
+
+    /**
+     * 从 HSCAN/SSCAN 游标中每次取 chunkSize 个元素，游标占用一条连接，关闭时释放
+     */
+    private final class CursorSource<T> implements ChunkSource<T> {
+
+        private final int chunkSize;
+
+        private final RedisCallback<Cursor<T>> open;
+
+        private Cursor<T> cursor;
+
+        private CursorSource(int chunkSize, RedisCallback<Cursor<T>> open) {
+            this.chunkSize = chunkSize;
+            this.open = open;
+        }
+
+        @Override
+        public List<T> next() {
+            if (cursor == null) {
+                cursor = redisTemplate.executeWithStickyConnection(open);
+            }
+            List<T> chunk = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize && !cursor.isClosed() && cursor.hasNext()) {
+                chunk.add(cursor.next());
+            }
+            return chunk;
+        }
+
+        @Override
+        public void close() {
+            Cursor<T> current = cursor;
+            if (current != null && !current.isClosed()) {
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.config.KeyAnalyzerProperties;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * @Description: RedisKeyAnalyzer 大 key 与内存分析，SCAN 遍历 key，每批用 TYPE、PTTL、MEMORY USAGE、OBJECT ENCODING
+ * 以及集合长度命令一次往返取回，按前缀与类型汇总，找出大 key 和没有过期时间的 key（如 hset 后 expire 未执行）
+ * 按 keysPerSecond 限速，单批往返变慢时额外暂停，可在线上运行；数据量大时建议指向从节点
+ * 命令通过 Lettuce 原生异步连接发送，SDR 的通用 execute 无法解析 MEMORY USAGE 的整数回复
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisKeyAnalyzer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisKeyAnalyzer.class);
+
+    private static final Duration BATCH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisScanner scanner;
+
+    private final int batchSize;
+
+    private final long batchIntervalNanos;
+
+    private final long slowBatchNanos;
+
+    private final long bigKeyBytes;
+
+    private final long bigKeyElements;
+
+    private final int prefixDepth;
+
+    private final int maxReportedKeys;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-key-analyzer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile KeyReport current;
+
+    private volatile KeyReport lastReport;
+
+    public RedisKeyAnalyzer(RedisTemplate<String, Object> redisTemplate, KeyAnalyzerProperties properties, RedisScanner scanner) {
+        this.redisTemplate = redisTemplate;
+        this.scanner = scanner;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.batchIntervalNanos = TimeUnit.SECONDS.toNanos(batchSize) / Math.max(1, properties.getKeysPerSecond());
+        this.slowBatchNanos = properties.getSlowBatch().toNanos();
+        this.bigKeyBytes = properties.getBigKeyBytes().toBytes();
+        this.bigKeyElements = properties.getBigKeyElements();
+        this.prefixDepth = Math.max(1, properties.getPrefixDepth());
+        this.maxReportedKeys = properties.getMaxReportedKeys();
+    }
+
+    /**
+     * @Description: analyze 在当前线程分析匹配 pattern 的 key，pattern 为 null 时分析全部
+     * 分析中途失败时返回已分析部分的报告，失败原因见 KeyReport.getError
+     * @Param: [pattern]
+     * @return: com.mujio.redisdemo.utils.KeyReport
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public KeyReport analyze(String pattern) {
+        KeyReport report = new KeyReport(pattern, maxReportedKeys);
+        current = report;
+        try (Stream<String> keys = scanner.scanParallel(pattern, batchSize)) {
+            Iterator<String> iterator = keys.iterator();
+            List<String> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize) {
+                    analyzeBatch(batch, report);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                analyzeBatch(batch, report);
+            }
+            report.finish(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.finish("interrupted");
+        } catch (RuntimeException e) {
+            log.error("key analysis failed, pattern={}", pattern, e);
+            report.finish(e.toString());
+        } finally {
+            current = null;
+        }
+        lastReport = report;
+        log.info(report.format());
+        return report;
+    }
+
+    /**
+     * @Description: start 在后台线程开始分析，已有分析在进行时不重复开始
+     * @Param: [pattern]
+     * @return: boolean 是否开始了新的分析
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public synchronized boolean start(String pattern) {
+        if (current != null) {
+            return false;
+        }
+        current = new KeyReport(pattern, maxReportedKeys);
+        executor.execute(() -> analyze(pattern));
+        return true;
+    }
+
+    /**
+     * 正在进行的分析的部分结果，没有进行中的分析时为 null
+     */
+    public KeyReport getCurrent() {
+        return current;
+    }
+
+    /**
+     * 最近一次完成的分析报告
+     */
+    public KeyReport getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void analyzeBatch(List<String> keys, KeyReport report) throws InterruptedException {
+        long begin = System.nanoTime();
+        List<KeyReport.KeyInfo> infos = inspect(keys);
+        long elapsed = System.nanoTime() - begin;
+        for (KeyReport.KeyInfo info : infos) {
+            boolean big = info.getBytes() >= bigKeyBytes || info.getElements() >= bigKeyElements;
+            report.add(info, prefixOf(info.getKey(), prefixDepth), big);
+        }
+        long pause = Math.max(batchIntervalNanos - elapsed, 0);
+        if (elapsed > slowBatchNanos) {
+            pause += elapsed;
+        }
+        TimeUnit.NANOSECONDS.sleep(pause);
+    }
+
+    /**
+     * @Description: inspect 一批 key 的类型、过期时间、占用和编码在一轮中发出，集合类型的长度在第二轮发出
+     * 扫描后已被删除的 key 不出现在结果中
+     * @Param: [keys]
+     * @return: java.util.List<com.mujio.redisdemo.utils.KeyReport.KeyInfo>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @SuppressWarnings("unchecked")
+    private List<KeyReport.KeyInfo> inspect(List<String> keys) {
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        return redisTemplate.execute((RedisCallback<List<KeyReport.KeyInfo>>) connection -> {
+            RedisClusterAsyncCommands<byte[], byte[]> commands = (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            int size = keys.size();
+            byte[][] rawKeys = new byte[size][];
+            List<RedisFuture<String>> types = new ArrayList<>(size);
+            List<RedisFuture<Long>> ttls = new ArrayList<>(size);
+            List<RedisFuture<Long>> usages = new ArrayList<>(size);
+            List<RedisFuture<String>> encodings = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                rawKeys[i] = keySerializer.serialize(keys.get(i));
+                types.add(commands.type(rawKeys[i]));
+                ttls.add(commands.pttl(rawKeys[i]));
+                usages.add(commands.memoryUsage(rawKeys[i]));
+                encodings.add(commands.objectEncoding(rawKeys[i]));
+            }
+            await(types, ttls, usages, encodings);
+            List<RedisFuture<Long>> lengths = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                lengths.add(length(commands, get(types.get(i)), rawKeys[i]));
+            }
+            await(lengths);
+            List<KeyReport.KeyInfo> infos = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String type = get(types.get(i));
+                if (type == null || "none".equals(type)) {
+                    continue;
+                }
+                Long ttl = get(ttls.get(i));
+                Long usage = get(usages.get(i));
+                Long length = lengths.get(i) == null ? null : get(lengths.get(i));
+                infos.add(new KeyReport.KeyInfo(keys.get(i), type, get(encodings.get(i)), usage == null ? 0 : usage,
+                        length == null ? -1 : length, ttl == null || ttl < 0 ? -1 : ttl));
+            }
+            return infos;
+        });
+    }
+
+    private static RedisFuture<Long> length(RedisClusterAsyncCommands<byte[], byte[]> commands, String type, byte[] key) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case "list":
+                return commands.llen(key);
+            case "hash":
+                return commands.hlen(key);
+            case "set":
+                return commands.scard(key);
+            case "zset":
+                return commands.zcard(key);
+            case "stream":
+                return commands.xlen(key);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 等待一轮命令全部完成；单个命令失败不影响其他 key，由 get 视为 null
+     */
+    @SafeVarargs
+    private static void await(List<? extends RedisFuture<?>>... futures) {
+        long deadline = System.nanoTime() + BATCH_TIMEOUT.toNanos();
+        try {
+            for (List<? extends RedisFuture<?>> list : futures) {
+                for (RedisFuture<?> future : list) {
+                    if (future != null && !future.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        throw new IllegalStateException("key analysis batch timed out after " + BATCH_TIMEOUT);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("key analysis interrupted", e);
+        }
+    }
+
+    /**
+     * 已完成的 future 的结果，单个 key 的命令失败（如 key 在两轮之间被删除或改变类型）时视为 null
+     */
+    private static <T> T get(RedisFuture<T> future) {
+        try {
+            return future.get(0, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @Description: prefixOf 汇总用的前缀：按 ':' 分段，包含数字的段替换为 *，最多保留 depth 段
+     * 例如 user:1001:profile 在 depth 为 2 时为 user:*
+     * @Param: [key, depth]
+     * @return: java.lang.String
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    static String prefixOf(String key, int depth) {
+        String[] segments = key.split(":", depth + 1);
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < Math.min(depth, segments.length); i++) {
+            if (i > 0) {
+                prefix.append(':');
+            }
+            prefix.append(hasDigit(segments[i]) ? "*" : segments[i]);
+        }
+        return prefix.toString();
+    }
+
+    private static boolean hasDigit(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
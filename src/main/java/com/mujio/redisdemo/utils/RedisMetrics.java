@@ -0,0 +1,422 @@
+package com.mujio.redisdemo.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * @Description: RedisMetrics RedisUtil 命令级别的指标，通过 Micrometer 暴露
+ * redis.command           每个命令的耗时，带 p50/p99/p999
+ * redis.command.errors    每个命令按异常类型计数
+ * redis.payload.bytes     序列化写出/读入的字节数
+ * redis.pool.*            连接池 active/idle/waiting
+ * redis.near-cache.*      近端缓存命中/未命中、淘汰次数与本地副本数
+ * redis.codec             每种压缩算法的压缩/解压耗时
+ * redis.compression.bytes 参与压缩的值压缩前/后的字节数，两者之比为压缩率
+ * redis.pubsub.messages   发布按频道、收到按订阅的频道或模式计数；频道超过 200 个后其余频道合并为 topic=other
+ * redis.pubsub.lag        每个订阅的消息从收到到交给处理器的排队耗时
+ * redis.pubsub.dropped    订阅的本地队列已满而丢弃的消息数
+ * redis.circuit.state     熔断器状态，0 关闭 1 打开 2 半开；redis.circuit.failure.rate 窗口内失败率
+ * redis.circuit.transitions 熔断器状态变化次数
+ * redis.rejected          被熔断或隔离舱拒绝的调用数，按原因与命令分组
+ * redis.fallback          Redis 不可用时由本地保留的结果降级返回的次数
+ * redis.async.batch       AsyncRedisUtil 每次 flush 合并发出的命令数
+ * redis.counter-buffer.dropped CounterBuffer 本地计数器达到硬上限后丢弃的增量数，按 counter/hash 分组
+ * 正常路径只有一次 Map 查找和一次 Timer 记录，不产生对象分配
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisMetrics {
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, ConcurrentMap<Class<?>, Counter>> errors = new ConcurrentHashMap<>();
+
+    private final LongAdder bytesOut = new LongAdder();
+
+    private final LongAdder bytesIn = new LongAdder();
+
+    private final ConcurrentMap<String, CodecMeters> codecs = new ConcurrentHashMap<>();
+
+    private static final int MAX_TOPICS = 200;
+
+    private static final String OTHER_TOPIC = "other";
+
+    private final ConcurrentMap<String, ChannelMeters> channels = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Counter> dropped = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Counter>> transitions = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Counter>> rejections = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Counter> fallbacks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Counter> bufferDropped = new ConcurrentHashMap<>();
+
+    private final DistributionSummary asyncBatch;
+
+    public RedisMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        FunctionCounter.builder("redis.payload.bytes", bytesOut, LongAdder::sum)
+                .tag("direction", "out")
+                .baseUnit("bytes")
+                .description("序列化后写往 Redis 的字节数")
+                .register(registry);
+        FunctionCounter.builder("redis.payload.bytes", bytesIn, LongAdder::sum)
+                .tag("direction", "in")
+                .baseUnit("bytes")
+                .description("从 Redis 读入并反序列化的字节数")
+                .register(registry);
+        asyncBatch = DistributionSummary.builder("redis.async.batch").description("每次 flush 合并发出的命令数")
+                .publishPercentiles(0.5, 0.99).register(registry);
+    }
+
+    /**
+     * @Description: noop 不接入 Spring 时使用的独立实例
+     * @Param: []
+     * @return: com.mujio.redisdemo.utils.RedisMetrics
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public static RedisMetrics noop() {
+        return new RedisMetrics(new SimpleMeterRegistry());
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @Description: record 记录命令耗时
+     * @Param: [command, start] 命令名，start() 的返回值
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void record(String command, long start) {
+        timer(command).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @Description: error 按异常类型记录命令失败次数
+     * @Param: [command, e]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void error(String command, Throwable e) {
+        errors.computeIfAbsent(command, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(e.getClass(), type -> Counter.builder("redis.command.errors")
+                        .tag("command", command)
+                        .tag("exception", type.getSimpleName())
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * @Description: compressed 记录一次压缩，stored 等于 raw 表示压缩收益不足、按原样存储
+     * @Param: [codec, raw, stored, start] 算法，压缩前字节数，实际存储的字节数，start() 的返回值
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void compressed(String codec, int raw, int stored, long start) {
+        CodecMeters meters = codec(codec);
+        meters.compress.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meters.raw.add(raw);
+        meters.stored.add(stored);
+    }
+
+    /**
+     * @Description: decompressed 记录一次解压耗时
+     * @Param: [codec, start]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void decompressed(String codec, long start) {
+        codec(codec).decompress.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @Description: published 记录向频道发布的消息数
+     * @Param: [channel, count]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void published(String channel, int count) {
+        channel(channel).published.increment(count);
+    }
+
+    /**
+     * @Description: received 记录订阅收到的一条消息及其排队耗时
+     * @Param: [topic, receivedAt] 订阅的频道或模式，收到消息时 start() 的返回值
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void received(String topic, long receivedAt) {
+        ChannelMeters meters = channel(topic);
+        meters.received.increment();
+        meters.lag.record(System.nanoTime() - receivedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @Description: dropped 记录订阅因本地队列已满丢弃的消息
+     * @Param: [topic]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void dropped(String topic) {
+        Counter counter = dropped.get(topic);
+        if (counter == null) {
+            counter = dropped.computeIfAbsent(topic, t -> Counter.builder("redis.pubsub.dropped").tag("topic", t)
+                    .description("订阅的本地队列已满而丢弃的消息数").register(registry));
+        }
+        counter.increment();
+    }
+
+    /**
+     * @Description: meter 包装序列化器，统计写出和读入的字节数
+     * @Param: [serializer]
+     * @return: org.springframework.data.redis.serializer.RedisSerializer<T>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public <T> RedisSerializer<T> meter(RedisSerializer<T> serializer) {
+        return new RedisSerializer<T>() {
+            @Override
+            public byte[] serialize(T value) throws SerializationException {
+                byte[] bytes = serializer.serialize(value);
+                if (bytes != null) {
+                    bytesOut.add(bytes.length);
+                }
+                return bytes;
+            }
+
+            @Override
+            public T deserialize(byte[] bytes) throws SerializationException {
+                if (bytes != null) {
+                    bytesIn.add(bytes.length);
+                }
+                return serializer.deserialize(bytes);
+            }
+        };
+    }
+
+    /**
+     * @Description: bindPool 注册连接池的 active/idle/waiting 指标
+     * @Param: [pool, active, idle, waiting]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public <T> void bindPool(T pool, ToDoubleFunction<T> active, ToDoubleFunction<T> idle, ToDoubleFunction<T> waiting) {
+        Gauge.builder("redis.pool.active", pool, active).description("借出中的连接数").register(registry);
+        Gauge.builder("redis.pool.idle", pool, idle).description("空闲连接数").register(registry);
+        Gauge.builder("redis.pool.waiting", pool, waiting).description("等待借出连接的线程数").register(registry);
+    }
+
+    /**
+     * @Description: bindNearCache 注册近端缓存的命中、未命中、淘汰次数与本地副本数
+     * @Param: [cache, hits, misses, evictions, size]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public <T> void bindNearCache(T cache, ToDoubleFunction<T> hits, ToDoubleFunction<T> misses, ToDoubleFunction<T> evictions,
+                                  ToDoubleFunction<T> size) {
+        FunctionCounter.builder("redis.near-cache.requests", cache, hits).tag("result", "hit")
+                .description("近端缓存查询次数").register(registry);
+        FunctionCounter.builder("redis.near-cache.requests", cache, misses).tag("result", "miss")
+                .description("近端缓存查询次数").register(registry);
+        FunctionCounter.builder("redis.near-cache.evictions", cache, evictions).description("近端缓存按容量或过期淘汰的次数").register(registry);
+        Gauge.builder("redis.near-cache.size", cache, size).description("近端缓存的本地副本数").register(registry);
+    }
+
+    /**
+     * @Description: bindCircuit 注册熔断器状态与失败率指标
+     * @Param: [breaker, state, failureRate]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public <T> void bindCircuit(T breaker, ToDoubleFunction<T> state, ToDoubleFunction<T> failureRate) {
+        Gauge.builder("redis.circuit.state", breaker, state).description("熔断器状态，0 关闭 1 打开 2 半开").register(registry);
+        Gauge.builder("redis.circuit.failure.rate", breaker, failureRate).baseUnit("percent")
+                .description("熔断窗口内的失败率").register(registry);
+    }
+
+    /**
+     * @Description: circuitTransition 记录熔断器状态变化
+     * @Param: [from, to]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void circuitTransition(String from, String to) {
+        counter(transitions, "redis.circuit.transitions", "from", from, "to", to).increment();
+    }
+
+    /**
+     * @Description: rejected 记录被熔断（circuit）或隔离舱（bulkhead）拒绝的调用
+     * @Param: [reason, group]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void rejected(String reason, String group) {
+        counter(rejections, "redis.rejected", "reason", reason, "group", group).increment();
+    }
+
+    /**
+     * @Description: fallback 记录一次降级返回
+     * @Param: [command]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void fallback(String command) {
+        counter(fallbacks, "redis.fallback", "command", command).increment();
+    }
+
+    /**
+     * @Description: counterDropped 记录一次 CounterBuffer 因达到硬上限丢弃的增量
+     * @Param: [type] counter 或 hash
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void counterDropped(String type) {
+        counter(bufferDropped, "redis.counter-buffer.dropped", "type", type).increment();
+    }
+
+    /**
+     * @Description: flushed 记录 AsyncRedisUtil 一次 flush 合并发出的命令数
+     * @Param: [commands]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void flushed(int commands) {
+        asyncBatch.record(commands);
+    }
+
+    /**
+     * 单个标签的计数器按标签值缓存，已注册时只做一次 get
+     */
+    private Counter counter(ConcurrentMap<String, Counter> counters, String name, String tag, String value) {
+        Counter counter = counters.get(value);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(value, v -> Counter.builder(name).tag(tag, v).register(registry));
+        }
+        return counter;
+    }
+
+    /**
+     * 两个标签的计数器按 value1 -> value2 两级缓存，与 error 相同，不拼接字符串
+     */
+    private Counter counter(ConcurrentMap<String, ConcurrentMap<String, Counter>> counters, String name,
+                            String tag1, String value1, String tag2, String value2) {
+        ConcurrentMap<String, Counter> byValue1 = counters.get(value1);
+        if (byValue1 == null) {
+            byValue1 = counters.computeIfAbsent(value1, v -> new ConcurrentHashMap<>());
+        }
+        Counter counter = byValue1.get(value2);
+        if (counter == null) {
+            counter = byValue1.computeIfAbsent(value2, v -> Counter.builder(name).tag(tag1, value1).tag(tag2, v).register(registry));
+        }
+        return counter;
+    }
+
+    private CodecMeters codec(String codec) {
+        CodecMeters meters = codecs.get(codec);
+        if (meters == null) {
+            meters = codecs.computeIfAbsent(codec, c -> new CodecMeters(registry, c));
+        }
+        return meters;
+    }
+
+    /**
+     * 频道名可能带有用户 ID 等无界的部分，超过 MAX_TOPICS 后新的频道计入 other，避免指标数量无限增长
+     */
+    private ChannelMeters channel(String topic) {
+        ChannelMeters meters = channels.get(topic);
+        if (meters == null) {
+            String tag = channels.size() < MAX_TOPICS ? topic : OTHER_TOPIC;
+            meters = channels.computeIfAbsent(tag, t -> new ChannelMeters(registry, t));
+        }
+        return meters;
+    }
+
+    private Timer timer(String command) {
+        Timer timer = timers.get(command);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(command, c -> Timer.builder("redis.command")
+                    .tag("command", c)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(registry));
+        }
+        return timer;
+    }
+
+    private static final class CodecMeters {
+
+        private final Timer compress;
+
+        private final Timer decompress;
+
+        private final LongAdder raw = new LongAdder();
+
+        private final LongAdder stored = new LongAdder();
+
+        private CodecMeters(MeterRegistry registry, String codec) {
+            compress = Timer.builder("redis.codec").tag("codec", codec).tag("operation", "compress")
+                    .publishPercentiles(0.5, 0.99).register(registry);
+            decompress = Timer.builder("redis.codec").tag("codec", codec).tag("operation", "decompress")
+                    .publishPercentiles(0.5, 0.99).register(registry);
+            FunctionCounter.builder("redis.compression.bytes", raw, LongAdder::sum)
+                    .tag("codec", codec).tag("stage", "raw").baseUnit("bytes")
+                    .description("参与压缩的值压缩前的字节数").register(registry);
+            FunctionCounter.builder("redis.compression.bytes", stored, LongAdder::sum)
+                    .tag("codec", codec).tag("stage", "stored").baseUnit("bytes")
+                    .description("参与压缩的值实际存储的字节数").register(registry);
+        }
+    }
+
+    private static final class ChannelMeters {
+
+        private final Counter published;
+
+        private final Counter received;
+
+        private final Timer lag;
+
+        private ChannelMeters(MeterRegistry registry, String topic) {
+            published = Counter.builder("redis.pubsub.messages").tag("topic", topic).tag("direction", "out")
+                    .description("向频道发布的消息数").register(registry);
+            received = Counter.builder("redis.pubsub.messages").tag("topic", topic).tag("direction", "in")
+                    .description("订阅收到并交给处理器的消息数").register(registry);
+            lag = Timer.builder("redis.pubsub.lag").tag("topic", topic)
+                    .description("消息从收到到交给处理器的排队耗时")
+                    .publishPercentiles(0.5, 0.99).register(registry);
+        }
+    }
+}
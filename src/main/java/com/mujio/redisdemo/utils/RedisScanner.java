@@ -0,0 +1,270 @@
+package com.mujio.redisdemo.utils;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @Description: RedisScanner 基于 SCAN/HSCAN/SSCAN/ZSCAN 游标的流式遍历，代替阻塞的 KEYS
+ * 返回的 Stream 是惰性的：消费完当前一批才向 Redis 取下一批，消费者处理多快就取多快
+ * Stream 持有连接，用完必须关闭（try-with-resources）
+ * 作为单例 bean 共享，并行扫描的线程池在首次 scanParallel 时创建，容器关闭时销毁
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public class RedisScanner implements DisposableBean {
+
+    /**
+     * 每次 SCAN 的 COUNT 提示值
+     */
+    public static final int DEFAULT_COUNT = 1000;
+
+    /**
+     * 并行扫描时每个节点最多缓冲的批次数，缓冲满时扫描线程等待消费者
+     */
+    private static final int PARALLEL_BUFFER_BATCHES = 4;
+
+    private static final List<String> END = Collections.emptyList();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private ExecutorService executor;
+
+    public RedisScanner(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @Description: scan 按 pattern 遍历 key
+     * @Param: [pattern, count]
+     * @return: java.util.stream.Stream<java.lang.String>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<String> scan(String pattern, int count) {
+        ScanOptions options = options(pattern, count);
+        Cursor<byte[]> cursor = redisTemplate.executeWithStickyConnection(
+                (RedisCallback<Cursor<byte[]>>) connection -> connection.scan(options));
+        RedisSerializer<String> keySerializer = keySerializer();
+        return stream(cursor).map(keySerializer::deserialize);
+    }
+
+    /**
+     * @Description: hscan 遍历 hash 的 (item,value)
+     * @Param: [key, pattern, count]
+     * @return: java.util.stream.Stream<java.util.Map.Entry<java.lang.Object,java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Map.Entry<Object, Object>> hscan(String key, String pattern, int count) {
+        return stream(redisTemplate.opsForHash().scan(key, options(pattern, count)));
+    }
+
+    /**
+     * @Description: sscan 遍历 set 成员
+     * @Param: [key, pattern, count]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> sscan(String key, String pattern, int count) {
+        return stream(redisTemplate.opsForSet().scan(key, options(pattern, count)));
+    }
+
+    /**
+     * @Description: zscan 遍历 zset 成员及分数
+     * @Param: [key, pattern, count]
+     * @return: java.util.stream.Stream<org.springframework.data.redis.core.ZSetOperations.TypedTuple<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<ZSetOperations.TypedTuple<Object>> zscan(String key, String pattern, int count) {
+        return stream(redisTemplate.opsForZSet().scan(key, options(pattern, count)));
+    }
+
+    /**
+     * @Description: scanParallel 集群模式下同时扫描所有 master 节点，非集群时等同于 scan
+     * 每个节点一个扫描线程，结果经有界队列交给消费者，消费者跟不上时扫描线程阻塞；关闭 Stream 会停止扫描
+     * @Param: [pattern, count]
+     * @return: java.util.stream.Stream<java.lang.String>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<String> scanParallel(String pattern, int count) {
+        RedisConnectionFactory factory = redisTemplate.getRequiredConnectionFactory();
+        if (!(factory instanceof LettuceConnectionFactory) || !((LettuceConnectionFactory) factory).isClusterAware()) {
+            return scan(pattern, count);
+        }
+        List<RedisClusterNode> masters = new ArrayList<>();
+        try (RedisClusterConnection connection = factory.getClusterConnection()) {
+            for (RedisClusterNode node : connection.clusterGetNodes()) {
+                if (node.isMaster()) {
+                    masters.add(node);
+                }
+            }
+        }
+        if (masters.isEmpty()) {
+            return Stream.empty();
+        }
+        ScanOptions options = options(pattern, count);
+        RedisSerializer<String> keySerializer = keySerializer();
+        BlockingQueue<List<String>> queue = new ArrayBlockingQueue<>(PARALLEL_BUFFER_BATCHES * masters.size() + 1);
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicInteger running = new AtomicInteger(masters.size());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ExecutorService executor = executor();
+        for (RedisClusterNode node : masters) {
+            executor.execute(() -> {
+                try (RedisClusterConnection connection = factory.getClusterConnection();
+                     Cursor<byte[]> cursor = connection.scan(node, options)) {
+                    List<String> batch = new ArrayList<>(count);
+                    while (!closed.get() && cursor.hasNext()) {
+                        batch.add(keySerializer.deserialize(cursor.next()));
+                        if (batch.size() >= count) {
+                            put(queue, batch, closed);
+                            batch = new ArrayList<>(count);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        put(queue, batch, closed);
+                    }
+                } catch (IOException e) {
+                    failure.compareAndSet(null, new UncheckedIOException(e));
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    if (running.decrementAndGet() == 0) {
+                        put(queue, END, closed);
+                    }
+                }
+            });
+        }
+        Iterator<String> iterator = new Iterator<String>() {
+
+            private Iterator<String> current = Collections.emptyIterator();
+
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && !done) {
+                    List<String> batch = take(queue);
+                    if (batch == END) {
+                        done = true;
+                        //任一节点扫描失败时不能当作正常结束，否则调用方会拿到不完整的结果
+                        if (failure.get() != null) {
+                            throw failure.get();
+                        }
+                    } else {
+                        current = batch.iterator();
+                    }
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    closed.set(true);
+                    queue.clear();
+                });
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** 并行扫描线程池，只有集群并行扫描才需要，按需创建 */
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "redis-scanner");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private static void put(BlockingQueue<List<String>> queue, List<String> batch, AtomicBoolean closed) {
+        try {
+            while (!closed.get() && !queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                //消费者未取走时等待，关闭后放弃
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<String> take(BlockingQueue<List<String>> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return END;
+        }
+    }
+
+    private static ScanOptions options(String pattern, int count) {
+        ScanOptions.ScanOptionsBuilder builder = ScanOptions.scanOptions().count(count);
+        if (pattern != null) {
+            builder.match(pattern);
+        }
+        return builder.build();
+    }
+
+    private static <T> Stream<T> stream(Cursor<T> cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        cursor.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<String> keySerializer() {
+        return (RedisSerializer<String>) redisTemplate.getKeySerializer();
+    }
+}
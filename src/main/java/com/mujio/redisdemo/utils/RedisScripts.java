@@ -0,0 +1,80 @@
+package com.mujio.redisdemo.utils;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @Description: RedisScripts 预置的 Lua 脚本，写入与设置过期时间、比较后删除等多步操作在服务端一步完成
+ * 通过 RedisTemplate.execute 执行时先走 EVALSHA，服务端返回 NOSCRIPT 时自动退回 EVAL 重新加载
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public abstract class RedisScripts {
+
+    /**
+     * HSET/HMSET + EXPIRE
+     */
+    public static final DefaultRedisScript<Long> HSET_EX = script("lua/hset_ex.lua");
+
+    /**
+     * SADD + EXPIRE
+     */
+    public static final DefaultRedisScript<Long> SADD_EX = script("lua/sadd_ex.lua");
+
+    /**
+     * RPUSH + EXPIRE
+     */
+    public static final DefaultRedisScript<Long> RPUSH_EX = script("lua/rpush_ex.lua");
+
+    /**
+     * 比较 token 后 DEL，用于释放锁，可选地 PUBLISH 通知等待者
+     */
+    public static final DefaultRedisScript<Long> UNLOCK = script("lua/unlock.lua");
+
+    /**
+     * SET NX PX + INCR fencing token，可选公平队列
+     */
+    @SuppressWarnings("rawtypes")
+    public static final DefaultRedisScript<List> LOCK = script("lua/lock.lua", List.class);
+
+    /**
+     * 比较持有者后 PEXPIRE，用于续期
+     */
+    public static final DefaultRedisScript<Long> RENEW = script("lua/renew.lua");
+
+    /**
+     * 滑动窗口限流，一次检查一次往返
+     */
+    @SuppressWarnings("rawtypes")
+    public static final DefaultRedisScript<List> RATE_LIMIT = script("lua/rate_limit.lua", List.class);
+
+    private static final List<DefaultRedisScript<?>> ALL = Collections.unmodifiableList(
+            Arrays.asList(HSET_EX, SADD_EX, RPUSH_EX, UNLOCK, LOCK, RENEW, RATE_LIMIT));
+
+    /**
+     * @Description: all 所有预置脚本，用于启动时 SCRIPT LOAD
+     * @Param: []
+     * @return: java.util.List<org.springframework.data.redis.core.script.DefaultRedisScript<?>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public static List<DefaultRedisScript<?>> all() {
+        return ALL;
+    }
+
+    private static DefaultRedisScript<Long> script(String path) {
+        return script(path, Long.class);
+    }
+
+    private static <T> DefaultRedisScript<T> script(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
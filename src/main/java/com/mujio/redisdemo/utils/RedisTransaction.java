@@ -0,0 +1,31 @@
+package com.mujio.redisdemo.utils;
+
+import org.springframework.data.redis.core.RedisOperations;
+
+/**
+ * @Description: RedisTransaction 乐观事务，由 RedisUtil.transaction 在 WATCH 之后执行 read，在 MULTI 与 EXEC 之间执行 write
+ * 被 WATCH 的 key 在 read 之后被其他客户端修改时 EXEC 放弃执行，RedisUtil 退避后从 read 重新开始
+ * write 中的命令只是排队，返回值没有意义，结果在 EXEC 后按顺序返回；write 没有排队命令时结果为空列表
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public interface RedisTransaction<T> {
+
+    /**
+     * @Description: read 读取当前状态，命令立即执行
+     * @Param: [operations]
+     * @return: T 传给 write 的状态
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    T read(RedisOperations<String, Object> operations);
+
+    /**
+     * @Description: write 根据 read 的结果排队写命令
+     * @Param: [operations, state]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    void write(RedisOperations<String, Object> operations, T state);
+}
@@ -1,15 +1,47 @@
 package com.mujio.redisdemo.utils;
 
+import com.mujio.redisdemo.pubsub.RedisPublisher;
+import com.mujio.redisdemo.resilience.RedisResilience;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnectionCommands;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.BoundListOperations;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @Description: RedisUtils封装了redis的常用方法
@@ -17,13 +49,87 @@ import java.util.concurrent.TimeUnit;
  * @Date: 2020/4/21 0021
  */
 @Component
-public class RedisUtil {
+public class RedisUtil implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisUtil.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    /**
+     * 乐观事务默认最多尝试次数
+     */
+    public static final int DEFAULT_TRANSACTION_ATTEMPTS = 5;
+
+    private static final long TRANSACTION_BASE_BACKOFF_MILLIS = 5;
+
+    private static final long TRANSACTION_MAX_BACKOFF_MILLIS = 200;
+
+    /**
+     * 批量 ZADD 时单条命令最多携带的成员数
+     */
+    private static final int ZADD_BATCH_SIZE = 1000;
 
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * 近端缓存，redis.near-cache.enabled=true 时注入
+     */
+    @Autowired(required = false)
+    private NearCache nearCache;
+
+    /**
+     * 计数器合并写，redis.counter-buffer.enabled=true 时注入
+     */
+    @Autowired(required = false)
+    private CounterBuffer counterBuffer;
+
+    /**
+     * 热点 key 探测，redis.hot-key.enabled=true 时注入
+     */
+    @Autowired(required = false)
+    private HotKeyDetector hotKeys;
+
+    /**
+     * 合并发布，redis.pubsub.batch-publish=true 时注入
+     */
+    @Autowired(required = false)
+    private RedisPublisher publisher;
+
+    /**
+     * 熔断与隔离舱，redis.resilience.enabled=true 时注入，get/hget 失败时用于降级
+     */
+    @Autowired(required = false)
+    private RedisResilience resilience;
+
+    private final RedisMetrics metrics;
+
+    private final RedisScanner scanner;
+
+    private final RedisChunkReader chunkReader;
+
     public RedisUtil(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, RedisMetrics.noop());
+    }
+
+    public RedisUtil(RedisTemplate<String, Object> redisTemplate, RedisMetrics metrics) {
+        this(redisTemplate, metrics, new RedisScanner(redisTemplate));
+    }
+
+    @Autowired
+    public RedisUtil(RedisTemplate<String, Object> redisTemplate, RedisMetrics metrics, RedisScanner scanner) {
         this.redisTemplate = redisTemplate;
+        this.metrics = metrics;
+        this.scanner = scanner;
+        this.chunkReader = new RedisChunkReader(redisTemplate);
+    }
+
+    /**
+     * 分块读取的预读线程归 RedisUtil 所有，随容器关闭一起停止
+     */
+    @Override
+    public void destroy() {
+        chunkReader.destroy();
     }
 
     /**
@@ -34,19 +140,31 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean expire(String key, long time) {
+        long begin = metrics.start();
         try {
             if (time > 0) {
                 redisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("expire", e);
+            log.error("expire failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("expire", begin);
         }
     }
 
     public long getExpire(String key) {
-        return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        long begin = metrics.start();
+        try {
+            return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            metrics.error("getExpire", e);
+            throw e;
+        } finally {
+            metrics.record("getExpire", begin);
+        }
     }
 
     /**
@@ -57,11 +175,15 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean hasKey(String key) {
+        long begin = metrics.start();
         try {
             return redisTemplate.hasKey(key);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("hasKey", e);
+            log.error("hasKey failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("hasKey", begin);
         }
     }
 
@@ -74,12 +196,21 @@ public class RedisUtil {
      */
     @SuppressWarnings("unchecked")//告诉编译器忽略 unchecked 警告信息，如使用List，ArrayList等未进行参数化产生的警告信息
     public void del(String... key) {
-        if (key != null && key.length > 0) {
-            if (key.length == 1) {
-                redisTemplate.delete(key[0]);
-            } else {
-                redisTemplate.delete(CollectionUtils.arrayToList(key));
+        long begin = metrics.start();
+        try {
+            if (key != null && key.length > 0) {
+                if (key.length == 1) {
+                    redisTemplate.delete(key[0]);
+                } else {
+                    redisTemplate.delete(CollectionUtils.arrayToList(key));
+                }
+                invalidate(key);
             }
+        } catch (RuntimeException e) {
+            metrics.error("del", e);
+            throw e;
+        } finally {
+            metrics.record("del", begin);
         }
     }
 
@@ -91,7 +222,29 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public Object get(String key) {
-        return key == null ? null : redisTemplate.opsForValue().get(key);
+        long begin = metrics.start();
+        try {
+            if (key == null) {
+                return null;
+            }
+            if (hotKeys != null) {
+                hotKeys.record(key);
+            }
+            Object value = hotKeys != null && hotKeys.isHot(key) ? hotKeys.get(key, () -> load(key)) : load(key);
+            if (resilience != null) {
+                resilience.remember(key, value);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            metrics.error("get", e);
+            Object stale = fallback("get", key, e);
+            if (stale != null) {
+                return stale;
+            }
+            throw e;
+        } finally {
+            metrics.record("get", begin);
+        }
     }
 
     /**
@@ -102,12 +255,17 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean set(String key, Object value) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForValue().set(key, value);
+            invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("set", e);
+            log.error("set failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("set", begin);
         }
     }
 
@@ -119,19 +277,127 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean set(String key, Object value, long time) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        long begin = metrics.start();
         try {
-            if (time > 0) {
-                redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
-            } else {
-                set(key, value);
+            redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
+            invalidate(key);
+            return true;
+        } catch (Exception e) {
+            metrics.error("setWithTime", e);
+            log.error("setWithTime failed, key={}", key, e);
+            return false;
+        } finally {
+            metrics.record("setWithTime", begin);
+        }
+    }
+
+    /**
+     * @Description: mget 一次获取多个key的值，结果顺序与 keys 一致，不存在的key对应 null
+     * @Param: [keys]
+     * @return: java.util.List<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public List<Object> mget(Collection<String> keys) {
+        long begin = metrics.start();
+        try {
+            return redisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            metrics.error("mget", e);
+            log.error("mget failed, size={}", keys.size(), e);
+            return null;
+        } finally {
+            metrics.record("mget", begin);
+        }
+    }
+
+    /**
+     * @Description: mset 一次存多个值
+     * @Param: [map]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean mset(Map<String, Object> map) {
+        long begin = metrics.start();
+        try {
+            redisTemplate.opsForValue().multiSet(map);
+            invalidate(map.keySet().toArray(new String[0]));
+            return true;
+        } catch (Exception e) {
+            metrics.error("mset", e);
+            log.error("mset failed, size={}", map.size(), e);
+            return false;
+        } finally {
+            metrics.record("mset", begin);
+        }
+    }
+
+    /**
+     * @Description: mset 一次存多个值并设置过期时间，MSET 不支持过期时间，这里在一个 pipeline 中逐个 SETEX
+     * @Param: [map, time]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean mset(Map<String, Object> map, long time) {
+        if (time <= 0) {
+            return mset(map);
+        }
+        long begin = metrics.start();
+        try {
+            RedisBatch batch = batch();
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                batch.set(entry.getKey(), entry.getValue(), time);
             }
+            //批次提交后已清除写入的 key
+            batch.execute();
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("msetWithTime", e);
+            log.error("msetWithTime failed, size={}", map.size(), e);
             return false;
+        } finally {
+            metrics.record("msetWithTime", begin);
         }
     }
 
+    /**
+     * @Description: batch 创建一个批量操作，收集的命令通过 pipeline 一次往返提交
+     * @Param: []
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch batch() {
+        return new RedisBatch(redisTemplate, RedisBatch.DEFAULT_BATCH_SIZE, RedisBatch.DEFAULT_AUTO_FLUSH_SIZE, this::invalidate);
+    }
+
+    /**
+     * @Description: batch 创建一个批量操作
+     * @Param: [batchSize, autoFlushSize] 单次 pipeline 的操作数，累积多少操作后自动提交（<=0 不自动提交）
+     * @return: com.mujio.redisdemo.utils.RedisBatch
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBatch batch(int batchSize, int autoFlushSize) {
+        return new RedisBatch(redisTemplate, batchSize, autoFlushSize, this::invalidate);
+    }
+
+    /**
+     * @Description: bloomFilter 以 key 为位图的布隆过滤器，同一个 key 的 expectedInsertions 与 fpp 必须保持一致
+     * @Param: [key, expectedInsertions, fpp] 键，预期元素数，误判率
+     * @return: com.mujio.redisdemo.utils.RedisBloomFilter
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public RedisBloomFilter bloomFilter(String key, long expectedInsertions, double fpp) {
+        return new RedisBloomFilter(redisTemplate, metrics, key, expectedInsertions, fpp);
+    }
+
     /**
      * @Description: incr设置键按 step 递增（step 小于0时，则为递减）
      * @Param: [key, delta]
@@ -140,7 +406,32 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public long incr(String key, long step) {
-        return redisTemplate.opsForValue().increment(key, step);
+        long begin = metrics.start();
+        try {
+            long value = redisTemplate.opsForValue().increment(key, step);
+            invalidate(key);
+            return value;
+        } catch (RuntimeException e) {
+            metrics.error("incr", e);
+            throw e;
+        } finally {
+            metrics.record("incr", begin);
+        }
+    }
+
+    /**
+     * @Description: incrBuffered 合并写的递增：只累加到本地，定期批量 INCRBY，不返回新值；未启用合并写时等同于 incr
+     * @Param: [key, step]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void incrBuffered(String key, long step) {
+        if (counterBuffer != null) {
+            counterBuffer.incr(key, step);
+        } else {
+            incr(key, step);
+        }
     }
 
 
@@ -152,18 +443,46 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public Object hget(String key, String item) {
-        return redisTemplate.opsForHash().get(key, item);
+        long begin = metrics.start();
+        try {
+            String itemKey = key + HotKeyDetector.ITEM_SEPARATOR + item;
+            if (hotKeys != null) {
+                hotKeys.record(itemKey);
+            }
+            Object value = hotKeys != null && hotKeys.isHot(itemKey) ? hotKeys.get(itemKey, () -> load(key, item)) : load(key, item);
+            if (resilience != null) {
+                resilience.remember(itemKey, value);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            metrics.error("hget", e);
+            Object stale = fallback("hget", key + HotKeyDetector.ITEM_SEPARATOR + item, e);
+            if (stale != null) {
+                return stale;
+            }
+            throw e;
+        } finally {
+            metrics.record("hget", begin);
+        }
     }
 
     /**
-     * @Description: hget
+     * @Description: hget 一次取回整个 hash（HGETALL），大 hash 用 hStream 分块读取
      * @Param: [key]
      * @return: java.util.Map<java.lang.Object, java.lang.Object>
      * @Author: GZY
      * @Date: 2020/4/21 0021
      */
     public Map<Object, Object> hget(String key) {
-        return redisTemplate.opsForHash().entries(key);
+        long begin = metrics.start();
+        try {
+            return redisTemplate.opsForHash().entries(key);
+        } catch (RuntimeException e) {
+            metrics.error("hgetAll", e);
+            throw e;
+        } finally {
+            metrics.record("hgetAll", begin);
+        }
     }
 
     /**
@@ -174,12 +493,17 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean hset(String key, Map<String, Object> map) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForHash().putAll(key, map);
+            invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("hmset", e);
+            log.error("hmset failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("hmset", begin);
         }
     }
 
@@ -191,15 +515,20 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean hset(String key, Map<String, Object> map, long time) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForHash().putAll(key, map);
+            invalidate(key);
             if (time > 0) {
-                expire(key, time);
+                redisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("hmsetWithTime", e);
+            log.error("hmsetWithTime failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("hmsetWithTime", begin);
         }
     }
 
@@ -211,12 +540,17 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean hset(String key, String item, Object value) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForHash().put(key, item, value);
+            invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("hset", e);
+            log.error("hset failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("hset", begin);
         }
     }
 
@@ -229,15 +563,70 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean hset(String key, String item, Object value, long time) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForHash().put(key, item, value);
+            invalidate(key);
             if (time > 0) {
-                expire(key, time);
+                redisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("hsetWithTime", e);
+            log.error("hsetWithTime failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("hsetWithTime", begin);
+        }
+    }
+
+    /**
+     * @Description: hsetAtomic 向hash表中放入 (item,value) 并设置过期时间，通过 Lua 脚本一次往返原子完成
+     * @Param: [key, item, value, time]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean hsetAtomic(String key, String item, Object value, long time) {
+        long begin = metrics.start();
+        try {
+            execute(RedisScripts.HSET_EX, key, time, hashKeySerializer().serialize(item), hashValueSerializer().serialize(value));
+            invalidate(key);
+            return true;
+        } catch (Exception e) {
+            metrics.error("hsetAtomic", e);
+            log.error("hsetAtomic failed, key={}", key, e);
+            return false;
+        } finally {
+            metrics.record("hsetAtomic", begin);
+        }
+    }
+
+    /**
+     * @Description: hsetAtomic 批量放入hash表并设置过期时间，通过 Lua 脚本一次往返原子完成
+     * @Param: [key, map, time]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean hsetAtomic(String key, Map<String, Object> map, long time) {
+        long begin = metrics.start();
+        try {
+            Object[] pairs = new Object[map.size() * 2];
+            int i = 0;
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                pairs[i++] = hashKeySerializer().serialize(entry.getKey());
+                pairs[i++] = hashValueSerializer().serialize(entry.getValue());
+            }
+            execute(RedisScripts.HSET_EX, key, time, pairs);
+            invalidate(key);
+            return true;
+        } catch (Exception e) {
+            metrics.error("hmsetAtomic", e);
+            log.error("hmsetAtomic failed, key={}", key, e);
+            return false;
+        } finally {
+            metrics.record("hmsetAtomic", begin);
         }
     }
 
@@ -249,7 +638,16 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public void hdel(String key, Object... item) {
-        redisTemplate.opsForHash().delete(key, item);
+        long begin = metrics.start();
+        try {
+            redisTemplate.opsForHash().delete(key, item);
+            invalidate(key);
+        } catch (RuntimeException e) {
+            metrics.error("hdel", e);
+            throw e;
+        } finally {
+            metrics.record("hdel", begin);
+        }
     }
 
     /**
@@ -260,7 +658,15 @@ public class RedisUtil {
      * @Date: 2020/4/21 0021
      */
     public boolean hHasKey(String key, String item) {
-        return redisTemplate.opsForHash().hasKey(key, item);
+        long begin = metrics.start();
+        try {
+            return redisTemplate.opsForHash().hasKey(key, item);
+        } catch (RuntimeException e) {
+            metrics.error("hHasKey", e);
+            throw e;
+        } finally {
+            metrics.record("hHasKey", begin);
+        }
     }
 
     /**
@@ -271,22 +677,51 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public double hincr(String key, String item, double step) {
-        return redisTemplate.opsForHash().increment(key, item, step);
+        long begin = metrics.start();
+        try {
+            double value = redisTemplate.opsForHash().increment(key, item, step);
+            invalidate(key);
+            return value;
+        } catch (RuntimeException e) {
+            metrics.error("hincr", e);
+            throw e;
+        } finally {
+            metrics.record("hincr", begin);
+        }
+    }
+
+    /**
+     * @Description: hincrBuffered 合并写的 hash 递增：只累加到本地，定期批量 HINCRBYFLOAT；未启用合并写时等同于 hincr
+     * @Param: [key, item, step]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void hincrBuffered(String key, String item, double step) {
+        if (counterBuffer != null) {
+            counterBuffer.hincr(key, item, step);
+        } else {
+            hincr(key, item, step);
+        }
     }
 
     /**
-     * @Description: sGet 根据key获取Set中的所有值
+     * @Description: sGet 根据key获取Set中的所有值，大 set 用 sStream 分块读取
      * @Param: [key]
      * @return: java.util.Set<java.lang.Object>
      * @Author: GZY
      * @Date: 2020/4/22 0022
      */
     public Set<Object> sGet(String key) {
+        long begin = metrics.start();
         try {
             return redisTemplate.opsForSet().members(key);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("sGet", e);
+            log.error("sGet failed, key={}", key, e);
             return null;
+        } finally {
+            metrics.record("sGet", begin);
         }
     }
 
@@ -298,11 +733,15 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public boolean sHasKey(String key, Object value) {
+        long begin = metrics.start();
         try {
             return redisTemplate.opsForSet().isMember(key, value);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("sHasKey", e);
+            log.error("sHasKey failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("sHasKey", begin);
         }
     }
 
@@ -314,11 +753,15 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public long sSet(String key, Object... values) {
+        long begin = metrics.start();
         try {
             return redisTemplate.opsForSet().add(key, values);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("sSet", e);
+            log.error("sSet failed, key={}", key, e);
             return 0;
+        } finally {
+            metrics.record("sSet", begin);
         }
     }
 
@@ -330,31 +773,59 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public long sSetAndTime(String key, long time, Object... values) {
+        long begin = metrics.start();
         try {
             Long count = redisTemplate.opsForSet().add(key, values);
             if (time > 0) {
-                expire(key, time);
+                redisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return count;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("sSetAndTime", e);
+            log.error("sSetAndTime failed, key={}", key, e);
+            return 0;
+        } finally {
+            metrics.record("sSetAndTime", begin);
+        }
+    }
+
+    /**
+     * @Description: sSetAndTimeAtomic 存值并设置过期时间，通过 Lua 脚本一次往返原子完成
+     * @Param: [key, time, values]
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long sSetAndTimeAtomic(String key, long time, Object... values) {
+        long begin = metrics.start();
+        try {
+            return execute(RedisScripts.SADD_EX, key, time, serializeValues(values));
+        } catch (Exception e) {
+            metrics.error("sSetAndTimeAtomic", e);
+            log.error("sSetAndTimeAtomic failed, key={}", key, e);
             return 0;
+        } finally {
+            metrics.record("sSetAndTimeAtomic", begin);
         }
     }
 
     /**
-     * @Description: sGetSetSize 获取set大小
+     * @Description: sGetSetSize 获取set大小，只需要去重计数时用 pfAdd/pfCount
      * @Param: [key]
      * @return: long
      * @Author: GZY
      * @Date: 2020/4/22 0022
      */
     public long sGetSetSize(String key) {
+        long begin = metrics.start();
         try {
             return redisTemplate.opsForSet().size(key);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("sGetSetSize", e);
+            log.error("sGetSetSize failed, key={}", key, e);
             return 0;
+        } finally {
+            metrics.record("sGetSetSize", begin);
         }
     }
 
@@ -366,28 +837,315 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public long setRemove(String key, Object... values) {
+        long begin = metrics.start();
         try {
             Long count = redisTemplate.opsForSet().remove(key, values);
             return count;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("setRemove", e);
+            log.error("setRemove failed, key={}", key, e);
+            return 0;
+        } finally {
+            metrics.record("setRemove", begin);
+        }
+    }
+
+    /**
+     * @Description: pfAdd 向 HyperLogLog 加入元素，用于去重计数，每个键最多占 12KB，误差约 0.81%；
+     * 代替只为计数而 sSet + sGetSetSize 的用法
+     * @Param: [key, values]
+     * @return: boolean 估算的基数是否变化
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean pfAdd(String key, Object... values) {
+        long begin = metrics.start();
+        try {
+            Long changed = redisTemplate.opsForHyperLogLog().add(key, values);
+            return changed != null && changed > 0;
+        } catch (Exception e) {
+            metrics.error("pfAdd", e);
+            log.error("pfAdd failed, key={}", key, e);
+            return false;
+        } finally {
+            metrics.record("pfAdd", begin);
+        }
+    }
+
+    /**
+     * @Description: pfCount 估算的去重元素数，多个键时为并集的基数
+     * @Param: [keys]
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long pfCount(String... keys) {
+        long begin = metrics.start();
+        try {
+            Long count = redisTemplate.opsForHyperLogLog().size(keys);
+            return count == null ? 0 : count;
+        } catch (Exception e) {
+            metrics.error("pfCount", e);
+            log.error("pfCount failed, keys={}", Arrays.toString(keys), e);
+            return 0;
+        } finally {
+            metrics.record("pfCount", begin);
+        }
+    }
+
+    /**
+     * @Description: pfMerge 把多个 HyperLogLog 合并到 destination，例如把按天统计合并为按周统计
+     * @Param: [destination, sourceKeys]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean pfMerge(String destination, String... sourceKeys) {
+        long begin = metrics.start();
+        try {
+            redisTemplate.opsForHyperLogLog().union(destination, sourceKeys);
+            return true;
+        } catch (Exception e) {
+            metrics.error("pfMerge", e);
+            log.error("pfMerge failed, key={}", destination, e);
+            return false;
+        } finally {
+            metrics.record("pfMerge", begin);
+        }
+    }
+
+    /**
+     * @Description: zAdd 向有序集合加入一个成员，成员已存在时更新分数
+     * @Param: [key, value, score]
+     * @return: boolean 是否新加入
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean zAdd(String key, Object value, double score) {
+        long begin = metrics.start();
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForZSet().add(key, value, score));
+        } catch (Exception e) {
+            metrics.error("zAdd", e);
+            log.error("zAdd failed, key={}", key, e);
+            return false;
+        } finally {
+            metrics.record("zAdd", begin);
+        }
+    }
+
+    /**
+     * @Description: zAdd 批量加入成员，每 ZADD_BATCH_SIZE 个成员一条 ZADD，多条在一个 pipeline 中发送
+     * @Param: [key, scores] 成员 -> 分数
+     * @return: long 新加入的成员数
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long zAdd(String key, Map<?, Double> scores) {
+        if (scores.isEmpty()) {
+            return 0;
+        }
+        long begin = metrics.start();
+        try {
+            List<Set<ZSetOperations.TypedTuple<Object>>> batches = new ArrayList<>();
+            Set<ZSetOperations.TypedTuple<Object>> batch = new LinkedHashSet<>();
+            for (Map.Entry<?, Double> entry : scores.entrySet()) {
+                batch.add(new DefaultTypedTuple<>(entry.getKey(), entry.getValue()));
+                if (batch.size() >= ZADD_BATCH_SIZE) {
+                    batches.add(batch);
+                    batch = new LinkedHashSet<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.add(batch);
+            }
+            if (batches.size() == 1) {
+                Long added = redisTemplate.opsForZSet().add(key, batches.get(0));
+                return added == null ? 0 : added;
+            }
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    ZSetOperations<String, Object> zSet = (ZSetOperations<String, Object>) operations.opsForZSet();
+                    for (Set<ZSetOperations.TypedTuple<Object>> tuples : batches) {
+                        zSet.add(key, tuples);
+                    }
+                    return null;
+                }
+            });
+            return results.stream().mapToLong(result -> result instanceof Long ? (Long) result : 0).sum();
+        } catch (Exception e) {
+            metrics.error("zAdd", e);
+            log.error("zAdd failed, key={}, size={}", key, scores.size(), e);
+            return 0;
+        } finally {
+            metrics.record("zAdd", begin);
+        }
+    }
+
+    /**
+     * @Description: zIncrBy 增加成员的分数，成员不存在时以 delta 加入
+     * @Param: [key, value, delta]
+     * @return: double 增加后的分数
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public double zIncrBy(String key, Object value, double delta) {
+        long begin = metrics.start();
+        try {
+            Double score = redisTemplate.opsForZSet().incrementScore(key, value, delta);
+            return score == null ? 0 : score;
+        } catch (RuntimeException e) {
+            metrics.error("zIncrBy", e);
+            throw e;
+        } finally {
+            metrics.record("zIncrBy", begin);
+        }
+    }
+
+    /**
+     * @Description: zScore 成员的分数
+     * @Param: [key, value]
+     * @return: java.lang.Double 成员不存在时为 null
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Double zScore(String key, Object value) {
+        long begin = metrics.start();
+        try {
+            return redisTemplate.opsForZSet().score(key, value);
+        } catch (Exception e) {
+            metrics.error("zScore", e);
+            log.error("zScore failed, key={}", key, e);
+            return null;
+        } finally {
+            metrics.record("zScore", begin);
+        }
+    }
+
+    /**
+     * @Description: zRank 成员按分数排名（从 0 开始），reverse 为 true 时分数高的排在前面
+     * @Param: [key, value, reverse]
+     * @return: java.lang.Long 成员不存在时为 null
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Long zRank(String key, Object value, boolean reverse) {
+        long begin = metrics.start();
+        try {
+            return reverse ? redisTemplate.opsForZSet().reverseRank(key, value) : redisTemplate.opsForZSet().rank(key, value);
+        } catch (Exception e) {
+            metrics.error("zRank", e);
+            log.error("zRank failed, key={}", key, e);
+            return null;
+        } finally {
+            metrics.record("zRank", begin);
+        }
+    }
+
+    /**
+     * @Description: zRange 按排名区间取成员及分数，reverse 为 true 时分数高的排在前面；end 为 -1 表示到最后
+     * @Param: [key, start, end, reverse]
+     * @return: java.util.Set<org.springframework.data.redis.core.ZSetOperations.TypedTuple<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Set<ZSetOperations.TypedTuple<Object>> zRange(String key, long start, long end, boolean reverse) {
+        long begin = metrics.start();
+        try {
+            return reverse ? redisTemplate.opsForZSet().reverseRangeWithScores(key, start, end)
+                    : redisTemplate.opsForZSet().rangeWithScores(key, start, end);
+        } catch (Exception e) {
+            metrics.error("zRange", e);
+            log.error("zRange failed, key={}", key, e);
+            return null;
+        } finally {
+            metrics.record("zRange", begin);
+        }
+    }
+
+    /**
+     * @Description: zRangeByScore 按分数区间取成员及分数，offset/count 分页，reverse 为 true 时从 max 往 min 取
+     * @Param: [key, min, max, offset, count, reverse]
+     * @return: java.util.Set<org.springframework.data.redis.core.ZSetOperations.TypedTuple<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Set<ZSetOperations.TypedTuple<Object>> zRangeByScore(String key, double min, double max, long offset, long count,
+                                                                boolean reverse) {
+        long begin = metrics.start();
+        try {
+            return reverse ? redisTemplate.opsForZSet().reverseRangeByScoreWithScores(key, min, max, offset, count)
+                    : redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max, offset, count);
+        } catch (Exception e) {
+            metrics.error("zRangeByScore", e);
+            log.error("zRangeByScore failed, key={}", key, e);
+            return null;
+        } finally {
+            metrics.record("zRangeByScore", begin);
+        }
+    }
+
+    /**
+     * @Description: zRemove 移除成员
+     * @Param: [key, values]
+     * @return: long 移除的个数
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long zRemove(String key, Object... values) {
+        long begin = metrics.start();
+        try {
+            Long removed = redisTemplate.opsForZSet().remove(key, values);
+            return removed == null ? 0 : removed;
+        } catch (Exception e) {
+            metrics.error("zRemove", e);
+            log.error("zRemove failed, key={}", key, e);
             return 0;
+        } finally {
+            metrics.record("zRemove", begin);
         }
     }
 
     /**
-     * @Description: lGet 获取列表
+     * @Description: zCard 有序集合的成员数
+     * @Param: [key]
+     * @return: long
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public long zCard(String key) {
+        long begin = metrics.start();
+        try {
+            Long size = redisTemplate.opsForZSet().zCard(key);
+            return size == null ? 0 : size;
+        } catch (Exception e) {
+            metrics.error("zCard", e);
+            log.error("zCard failed, key={}", key, e);
+            return 0;
+        } finally {
+            metrics.record("zCard", begin);
+        }
+    }
+
+    /**
+     * @Description: lGet 获取列表，读取整个大 list 时用 lStream 分块读取
      * @Param: [key, start, end]
      * @return: java.util.List<java.lang.Object>
      * @Author: GZY
      * @Date: 2020/4/22 0022
      */
     public List<Object> lGet(String key, long start, long end) {
+        long begin = metrics.start();
         try {
             return redisTemplate.opsForList().range(key, start, end);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lGet", e);
+            log.error("lGet failed, key={}", key, e);
             return null;
+        } finally {
+            metrics.record("lGet", begin);
         }
     }
 
@@ -399,11 +1157,15 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public long lGetListSize(String key) {
+        long begin = metrics.start();
         try {
             return redisTemplate.opsForList().size(key);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lGetListSize", e);
+            log.error("lGetListSize failed, key={}", key, e);
             return 0;
+        } finally {
+            metrics.record("lGetListSize", begin);
         }
     }
 
@@ -415,11 +1177,15 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public Object lGetIndex(String key, long index) {
+        long begin = metrics.start();
         try {
             return redisTemplate.opsForList().index(key, index);
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lGetIndex", e);
+            log.error("lGetIndex failed, key={}", key, e);
             return null;
+        } finally {
+            metrics.record("lGetIndex", begin);
         }
     }
 
@@ -431,12 +1197,16 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public boolean lSet(String key, Object value) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForList().rightPush(key, value);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lSet", e);
+            log.error("lSet failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("lSet", begin);
         }
     }
 
@@ -448,15 +1218,19 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public boolean lSet(String key, Object value, long time) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForList().rightPush(key, value);
             if (time > 0) {
-                expire(key, time);
+                redisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lSetWithTime", e);
+            log.error("lSetWithTime failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("lSetWithTime", begin);
         }
     }
 
@@ -468,12 +1242,16 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public boolean lSet(String key, List<Object> value) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForList().rightPushAll(key, value);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lSetAll", e);
+            log.error("lSetAll failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("lSetAll", begin);
         }
     }
 
@@ -485,15 +1263,61 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public boolean lSet(String key, List<Object> value, long time) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForList().rightPushAll(key, value);
             if (time > 0) {
-                expire(key, time);
+                redisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lSetAllWithTime", e);
+            log.error("lSetAllWithTime failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("lSetAllWithTime", begin);
+        }
+    }
+
+    /**
+     * @Description: lSetAtomic 存值并设置过期时间，通过 Lua 脚本一次往返原子完成
+     * @Param: [key, value, time]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean lSetAtomic(String key, Object value, long time) {
+        long begin = metrics.start();
+        try {
+            execute(RedisScripts.RPUSH_EX, key, time, serializeValues(value));
+            return true;
+        } catch (Exception e) {
+            metrics.error("lSetAtomic", e);
+            log.error("lSetAtomic failed, key={}", key, e);
+            return false;
+        } finally {
+            metrics.record("lSetAtomic", begin);
+        }
+    }
+
+    /**
+     * @Description: lSetAtomic 存多个值并设置过期时间，通过 Lua 脚本一次往返原子完成
+     * @Param: [key, value, time]
+     * @return: boolean
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public boolean lSetAtomic(String key, List<Object> value, long time) {
+        long begin = metrics.start();
+        try {
+            execute(RedisScripts.RPUSH_EX, key, time, serializeValues(value.toArray()));
+            return true;
+        } catch (Exception e) {
+            metrics.error("lSetAllAtomic", e);
+            log.error("lSetAllAtomic failed, key={}", key, e);
+            return false;
+        } finally {
+            metrics.record("lSetAllAtomic", begin);
         }
     }
 
@@ -505,12 +1329,16 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public boolean lUpdateIndex(String key, long index, Object value) {
+        long begin = metrics.start();
         try {
             redisTemplate.opsForList().set(key, index, value);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lUpdateIndex", e);
+            log.error("lUpdateIndex failed, key={}", key, e);
             return false;
+        } finally {
+            metrics.record("lUpdateIndex", begin);
         }
     }
 
@@ -522,35 +1350,225 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public long lRemove(String key, long count, Object value) {
+        long begin = metrics.start();
         try {
             Long remove = redisTemplate.opsForList().remove(key, count, value);
             return remove;
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.error("lRemove", e);
+            log.error("lRemove failed, key={}", key, e);
             return 0;
+        } finally {
+            metrics.record("lRemove", begin);
         }
     }
 
     /**
-     * @Description: keys 根据正则查找
+     * @Description: keys 根据正则查找，内部使用 SCAN 分批遍历，不会像 KEYS 一样阻塞 Redis
+     * 结果仍然全部放在一个 Set 中，key 很多时请直接使用 scan 流式处理
      * @Param: [pattern]
      * @return: java.util.Set
      * @Author: GZY
      * @Date: 2020/4/22 0022
      */
     public Set keys(String pattern) {
-        return redisTemplate.keys(pattern);
+        long begin = metrics.start();
+        try (Stream<String> keys = scanner.scan(pattern, RedisScanner.DEFAULT_COUNT)) {
+            //SCAN 可能返回重复的 key，收集到 Set 中去重
+            return keys.collect(Collectors.toSet());
+        } catch (RuntimeException e) {
+            metrics.error("keys", e);
+            throw e;
+        } finally {
+            metrics.record("keys", begin);
+        }
+    }
+
+    /**
+     * @Description: scan 按 pattern 流式遍历 key，返回的 Stream 必须关闭
+     * @Param: [pattern]
+     * @return: java.util.stream.Stream<java.lang.String>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<String> scan(String pattern) {
+        return scanner.scan(pattern, RedisScanner.DEFAULT_COUNT);
+    }
+
+    /**
+     * @Description: scan 按 pattern 流式遍历 key，count 为每批 SCAN 的 COUNT
+     * @Param: [pattern, count]
+     * @return: java.util.stream.Stream<java.lang.String>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<String> scan(String pattern, int count) {
+        return scanner.scan(pattern, count);
+    }
+
+    /**
+     * @Description: scanParallel 集群模式下并发扫描所有 master 节点，返回的 Stream 必须关闭
+     * @Param: [pattern, count]
+     * @return: java.util.stream.Stream<java.lang.String>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<String> scanParallel(String pattern, int count) {
+        return scanner.scanParallel(pattern, count);
+    }
+
+    /**
+     * @Description: hscan 流式遍历 hash，返回的 Stream 必须关闭
+     * @Param: [key, count]
+     * @return: java.util.stream.Stream<java.util.Map.Entry<java.lang.Object,java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Map.Entry<Object, Object>> hscan(String key, int count) {
+        return scanner.hscan(key, null, count);
+    }
+
+    /**
+     * @Description: sscan 流式遍历 set，返回的 Stream 必须关闭
+     * @Param: [key, count]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> sscan(String key, int count) {
+        return scanner.sscan(key, null, count);
+    }
+
+    /**
+     * @Description: zscan 流式遍历 zset，返回的 Stream 必须关闭
+     * @Param: [key, count]
+     * @return: java.util.stream.Stream<org.springframework.data.redis.core.ZSetOperations.TypedTuple<java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<ZSetOperations.TypedTuple<Object>> zscan(String key, int count) {
+        return scanner.zscan(key, null, count);
+    }
+
+    /**
+     * @Description: lStream 按 LRANGE 窗口分块读取整个 list，代替 lGet(key, 0, -1)，返回的 Stream 必须关闭
+     * @Param: [key]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> lStream(String key) {
+        return lStream(key, RedisChunkReader.DEFAULT_CHUNK_SIZE, RedisChunkReader.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * @Description: lStream 按 LRANGE 窗口分块读取整个 list，prefetch 为提前读取的块数（0 不预取），返回的 Stream 必须关闭
+     * @Param: [key, chunkSize, prefetch]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> lStream(String key, int chunkSize, int prefetch) {
+        return chunkReader.list(key, chunkSize, prefetch);
     }
 
     /**
-     * @Description: convertAndSend 向指定频道发布消息
+     * @Description: hStream 按 HSCAN 游标分块读取整个 hash，代替 hget(key)，返回的 Stream 必须关闭
+     * @Param: [key]
+     * @return: java.util.stream.Stream<java.util.Map.Entry<java.lang.Object,java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Map.Entry<Object, Object>> hStream(String key) {
+        return hStream(key, RedisChunkReader.DEFAULT_CHUNK_SIZE, RedisChunkReader.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * @Description: hStream 按 HSCAN 游标分块读取整个 hash，prefetch 为提前读取的块数（0 不预取），返回的 Stream 必须关闭
+     * @Param: [key, chunkSize, prefetch]
+     * @return: java.util.stream.Stream<java.util.Map.Entry<java.lang.Object,java.lang.Object>>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Map.Entry<Object, Object>> hStream(String key, int chunkSize, int prefetch) {
+        return chunkReader.hash(key, chunkSize, prefetch);
+    }
+
+    /**
+     * @Description: sStream 按 SSCAN 游标分块读取整个 set，代替 sGet，返回的 Stream 必须关闭
+     * @Param: [key]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> sStream(String key) {
+        return sStream(key, RedisChunkReader.DEFAULT_CHUNK_SIZE, RedisChunkReader.DEFAULT_PREFETCH);
+    }
+
+    /**
+     * @Description: sStream 按 SSCAN 游标分块读取整个 set，prefetch 为提前读取的块数（0 不预取），返回的 Stream 必须关闭
+     * @Param: [key, chunkSize, prefetch]
+     * @return: java.util.stream.Stream<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Stream<Object> sStream(String key, int chunkSize, int prefetch) {
+        return chunkReader.set(key, chunkSize, prefetch);
+    }
+
+    /**
+     * @Description: convertAndSend 向指定频道发布消息，启用合并发布时只入队，由后台线程批量发送
      * @Param: [channel, message]
      * @return: void
      * @Author: GZY
      * @Date: 2020/4/22 0022
      */
     public void convertAndSend(String channel, Object message) {
-        redisTemplate.convertAndSend(channel, message);
+        if (publisher != null) {
+            publisher.publish(channel, message);
+            return;
+        }
+        long begin = metrics.start();
+        try {
+            redisTemplate.convertAndSend(channel, message);
+            metrics.published(channel, 1);
+        } catch (RuntimeException e) {
+            metrics.error("convertAndSend", e);
+            throw e;
+        } finally {
+            metrics.record("convertAndSend", begin);
+        }
+    }
+
+    /**
+     * @Description: convertAndSendAll 向指定频道发布多条消息，在一个 pipeline 中一次往返，顺序与 messages 的遍历顺序一致
+     * @Param: [channel, messages]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @SuppressWarnings("unchecked")
+    public void convertAndSendAll(String channel, Collection<?> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        long begin = metrics.start();
+        try {
+            byte[] rawChannel = RedisSerializer.string().serialize(channel);
+            RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Object message : messages) {
+                    connection.publish(rawChannel, valueSerializer.serialize(message));
+                }
+                return null;
+            });
+            metrics.published(channel, messages.size());
+        } catch (RuntimeException e) {
+            metrics.error("convertAndSend", e);
+            throw e;
+        } finally {
+            metrics.record("convertAndSend", begin);
+        }
     }
 
 
@@ -562,12 +1580,20 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public void addToListRight(String listKey, Status.ExpireEnum expireEnum, Object... values) {
-        //绑定操作
-        BoundListOperations<String, Object> boundValueOperations = redisTemplate.boundListOps(listKey);
-        //插入数据
-        boundValueOperations.rightPushAll(values);
-        //设置过期时间
-        boundValueOperations.expire(expireEnum.getTime(), expireEnum.getTimeUnit());
+        long begin = metrics.start();
+        try {
+            //绑定操作
+            BoundListOperations<String, Object> boundValueOperations = redisTemplate.boundListOps(listKey);
+            //插入数据
+            boundValueOperations.rightPushAll(values);
+            //设置过期时间
+            boundValueOperations.expire(expireEnum.getTime(), expireEnum.getTimeUnit());
+        } catch (RuntimeException e) {
+            metrics.error("addToListRight", e);
+            throw e;
+        } finally {
+            metrics.record("addToListRight", begin);
+        }
     }
 
     /**
@@ -578,32 +1604,288 @@ public class RedisUtil {
      * @Date: 2020/4/22 0022
      */
     public List<Object> rangeList(String listKey, long start, long end) {
-        //绑定操作
-        BoundListOperations<String, Object> boundValueOperations = redisTemplate.boundListOps(listKey);
-        //查询数据
-        return boundValueOperations.range(start, end);
+        long begin = metrics.start();
+        try {
+            //绑定操作
+            BoundListOperations<String, Object> boundValueOperations = redisTemplate.boundListOps(listKey);
+            //查询数据
+            return boundValueOperations.range(start, end);
+        } catch (RuntimeException e) {
+            metrics.error("rangeList", e);
+            throw e;
+        } finally {
+            metrics.record("rangeList", begin);
+        }
     }
 
     /**
-     * @Description: rifhtPop 弹出指定key对应列表的最右边值
+     * @Description: rifhtPop 弹出指定key对应列表的最右边值，不阻塞；作为队列消费时用 brpop/blmove 或 RedisStreamQueue
      * @Param: [listKey]
      * @return: java.lang.Object
      * @Author: GZY
      * @Date: 2020/4/22 0022
      */
     public Object rifhtPop(String listKey) {
-        //绑定操作
-        BoundListOperations<String, Object> boundValueOperations = redisTemplate.boundListOps(listKey);
-        return boundValueOperations.rightPop();
+        long begin = metrics.start();
+        try {
+            //绑定操作
+            BoundListOperations<String, Object> boundValueOperations = redisTemplate.boundListOps(listKey);
+            return boundValueOperations.rightPop();
+        } catch (RuntimeException e) {
+            metrics.error("rifhtPop", e);
+            throw e;
+        } finally {
+            metrics.record("rifhtPop", begin);
+        }
+    }
+
+    /**
+     * @Description: brpop 弹出列表最右边的值，列表为空时阻塞等待（BRPOP），代替轮询 rifhtPop；
+     * 阻塞命令使用独占连接，timeout 应小于连接的命令超时
+     * @Param: [listKey, timeout, unit]
+     * @return: java.lang.Object 超时返回 null
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Object brpop(String listKey, long timeout, TimeUnit unit) {
+        long begin = metrics.start();
+        try {
+            return redisTemplate.opsForList().rightPop(listKey, timeout, unit);
+        } catch (RuntimeException e) {
+            metrics.error("brpop", e);
+            throw e;
+        } finally {
+            metrics.record("brpop", begin);
+        }
+    }
+
+    /**
+     * @Description: blmove 把 sourceKey 最右边的值原子地移到 processingKey 最左边，sourceKey 为空时阻塞等待（BRPOPLPUSH，
+     * 即 BLMOVE RIGHT LEFT）；处理完成后用 lRemove(processingKey, 1, value) 确认，消费者宕机时值仍留在 processingKey 中
+     * @Param: [sourceKey, processingKey, timeout, unit]
+     * @return: java.lang.Object 超时返回 null
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public Object blmove(String sourceKey, String processingKey, long timeout, TimeUnit unit) {
+        long begin = metrics.start();
+        try {
+            return redisTemplate.opsForList().rightPopAndLeftPush(sourceKey, processingKey, timeout, unit);
+        } catch (RuntimeException e) {
+            metrics.error("blmove", e);
+            throw e;
+        } finally {
+            metrics.record("blmove", begin);
+        }
     }
 
     //=========BoundListOperations 用法 End============
 
+    /**
+     * @Description: loadScripts 启动时预加载 Lua 脚本，之后的调用直接走 EVALSHA；加载失败不影响启动，调用时会按需 EVAL
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    @PostConstruct
+    public void loadScripts() {
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                for (DefaultRedisScript<?> script : RedisScripts.all()) {
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("script load failed, scripts will be loaded on first use", e);
+        }
+    }
+
+    /**
+     * Redis 不可用（连接失败、超时、被熔断或隔离舱拒绝）时返回最近一次读取的结果，没有时为 null
+     */
+    private Object fallback(String command, String key, RuntimeException e) {
+        if (resilience == null || !(e instanceof DataAccessResourceFailureException || e instanceof QueryTimeoutException)) {
+            return null;
+        }
+        Object stale = resilience.fallback(key);
+        if (stale != null) {
+            metrics.fallback(command);
+            log.warn("{} served stale value, key={}, cause={}", command, key, e.toString());
+        }
+        return stale;
+    }
+
+    private Object load(String key) {
+        if (nearCache != null) {
+            return nearCache.get(key, () -> redisTemplate.opsForValue().get(key));
+        }
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    private Object load(String key, String item) {
+        if (nearCache != null) {
+            return nearCache.hget(key, item, () -> redisTemplate.opsForHash().get(key, item));
+        }
+        return redisTemplate.opsForHash().get(key, item);
+    }
+
+    private void invalidate(String... keys) {
+        if (hotKeys != null) {
+            hotKeys.invalidate(keys);
+        }
+        if (nearCache != null) {
+            nearCache.invalidate(keys);
+        }
+    }
+
+    private long execute(RedisScript<Long> script, String key, long time, Object... values) {
+        Object[] args = new Object[values.length + 1];
+        args[0] = String.valueOf(Math.max(time, 0)).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(values, 0, args, 1, values.length);
+        Long result = redisTemplate.execute(script, RedisSerializer.byteArray(), LONG_SERIALIZER, Collections.singletonList(key), args);
+        return result == null ? 0 : result;
+    }
+
+    private Object[] serializeValues(Object... values) {
+        RedisSerializer<Object> serializer = valueSerializer();
+        Object[] serialized = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            serialized[i] = serializer.serialize(values[i]);
+        }
+        return serialized;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<String> keySerializer() {
+        return (RedisSerializer<String>) redisTemplate.getKeySerializer();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> valueSerializer() {
+        return (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> hashKeySerializer() {
+        return (RedisSerializer<Object>) redisTemplate.getHashKeySerializer();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> hashValueSerializer() {
+        return (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+    }
+
+    /**
+     * @Description: transaction 乐观事务：WATCH keys -> read -> MULTI -> write -> EXEC，
+     * keys 被其他客户端修改导致 EXEC 放弃时按指数退避（带随机抖动）重试
+     * 所有命令在同一条连接上执行；集群模式不支持 MULTI，调用时抛出 InvalidDataAccessApiUsageException，需要原子性时改用 Lua 脚本
+     * @Param: [watchKeys, transaction]
+     * @return: java.util.List<java.lang.Object> write 中各命令的结果
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public <T> List<Object> transaction(Collection<String> watchKeys, RedisTransaction<T> transaction) {
+        return transaction(watchKeys, DEFAULT_TRANSACTION_ATTEMPTS, transaction);
+    }
+
+    /**
+     * @Description: transaction 乐观事务，指定最多尝试次数，用尽后抛出 OptimisticLockingFailureException
+     * @Param: [watchKeys, maxAttempts, transaction]
+     * @return: java.util.List<java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public <T> List<Object> transaction(Collection<String> watchKeys, int maxAttempts, RedisTransaction<T> transaction) {
+        RedisConnectionFactory factory = redisTemplate.getRequiredConnectionFactory();
+        if (factory instanceof LettuceConnectionFactory && ((LettuceConnectionFactory) factory).isClusterAware()) {
+            throw new InvalidDataAccessApiUsageException("transaction is not supported in cluster mode, use a Lua script instead");
+        }
+        long begin = metrics.start();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                        RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                        ops.watch(watchKeys);
+                        T state = transaction.read(ops);
+                        ops.multi();
+                        transaction.write(ops, state);
+                        //spring-data-redis 把 EXEC 放弃（nil）和空结果都转成空列表，末尾排队一条 PING 作为标记：
+                        //提交成功时结果至少有 PONG，为空说明被放弃
+                        ops.execute((RedisCallback<Object>) RedisConnectionCommands::ping);
+                        return ops.exec();
+                    }
+                });
+                if (results != null && !results.isEmpty()) {
+                    invalidate(watchKeys.toArray(new String[0]));
+                    return new ArrayList<>(results.subList(0, results.size() - 1));
+                }
+                if (attempt >= maxAttempts) {
+                    throw new OptimisticLockingFailureException("transaction aborted after " + attempt + " attempts, keys=" + watchKeys);
+                }
+                backoff(attempt);
+            }
+        } catch (RuntimeException e) {
+            metrics.error("transaction", e);
+            throw e;
+        } finally {
+            metrics.record("transaction", begin);
+        }
+    }
+
+    private static void backoff(int attempt) {
+        long cap = Math.min(TRANSACTION_MAX_BACKOFF_MILLIS, TRANSACTION_BASE_BACKOFF_MILLIS << Math.min(attempt, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("transaction interrupted during backoff", e);
+        }
+    }
+
+    /**
+     * @Description: watch 在模板自己获取的连接上执行 WATCH，执行后连接即被释放，对后续命令不起作用
+     * @Param: [key]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     * @deprecated 使用 {@link #transaction(Collection, RedisTransaction)}，WATCH/MULTI/EXEC 需要在同一条连接上执行
+     */
+    @Deprecated
     public void watch(String key) {
-        redisTemplate.watch(key);
+        long begin = metrics.start();
+        try {
+            redisTemplate.watch(key);
+        } catch (RuntimeException e) {
+            metrics.error("watch", e);
+            throw e;
+        } finally {
+            metrics.record("watch", begin);
+        }
     }
 
+    /**
+     * @Description: unwatch Redis 的 UNWATCH 没有参数，取消当前连接上所有被 WATCH 的 key，key 参数不起作用
+     * @Param: [key]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     * @deprecated 使用 {@link #transaction(Collection, RedisTransaction)}，事务结束时自动 UNWATCH
+     */
+    @Deprecated
     public void unwatch(String key) {
-        redisTemplate.unwatch();
+        long begin = metrics.start();
+        try {
+            redisTemplate.unwatch();
+        } catch (RuntimeException e) {
+            metrics.error("unwatch", e);
+            throw e;
+        } finally {
+            metrics.record("unwatch", begin);
+        }
     }
 }
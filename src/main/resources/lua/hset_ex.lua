@@ -0,0 +1,17 @@
+-- HSET + EXPIRE
+-- KEYS[1] hash 键
+-- ARGV[1] 过期时间（秒），ARGV[2..n] item1, value1, item2, value2 ...
+-- 返回写入的 item 数
+local ttl = tonumber(ARGV[1])
+local n = #ARGV
+local i = 2
+while i <= n do
+    -- 分段 unpack，避免大 map 超出 Lua 栈限制，段长为偶数保证 item/value 不被拆开
+    local j = math.min(i + 999, n)
+    redis.call('HMSET', KEYS[1], unpack(ARGV, i, j))
+    i = j + 1
+end
+if ttl > 0 then
+    redis.call('EXPIRE', KEYS[1], ttl)
+end
+return (n - 1) / 2
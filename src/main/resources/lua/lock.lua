@@ -0,0 +1,40 @@
+-- 加锁：SET NX PX，成功时递增并返回 fencing token
+-- KEYS[1] 锁，KEYS[2] fencing token 计数器，KEYS[3] 公平模式的等待队列（list），KEYS[4] 队列中各等待者的过期时间（zset）
+-- ARGV[1] 持有者 ID，ARGV[2] 租期（毫秒），ARGV[3] 1 为公平模式，ARGV[4] 当前时间（毫秒），ARGV[5] 等待者在队列中的存活时间（毫秒）
+-- 返回 {1, token} 表示加锁成功，{0, 锁的剩余时间（毫秒）} 表示失败
+local owner = ARGV[1]
+local fair = ARGV[3] == '1'
+local now = tonumber(ARGV[4])
+if fair then
+    -- 清理队首已放弃或已宕机的等待者，避免队列被卡住
+    while true do
+        local head = redis.call('LINDEX', KEYS[3], 0)
+        if not head then
+            break
+        end
+        local deadline = redis.call('ZSCORE', KEYS[4], head)
+        if deadline and tonumber(deadline) >= now then
+            break
+        end
+        redis.call('LPOP', KEYS[3])
+        redis.call('ZREM', KEYS[4], head)
+    end
+end
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    local head = fair and redis.call('LINDEX', KEYS[3], 0) or false
+    if not head or head == owner then
+        if head then
+            redis.call('LPOP', KEYS[3])
+            redis.call('ZREM', KEYS[4], owner)
+        end
+        redis.call('SET', KEYS[1], owner, 'PX', ARGV[2])
+        return {1, redis.call('INCR', KEYS[2])}
+    end
+end
+if fair then
+    if not redis.call('ZSCORE', KEYS[4], owner) then
+        redis.call('RPUSH', KEYS[3], owner)
+    end
+    redis.call('ZADD', KEYS[4], now + tonumber(ARGV[5]), owner)
+end
+return {0, math.max(redis.call('PTTL', KEYS[1]), 0)}
@@ -0,0 +1,29 @@
+-- 滑动窗口限流：按固定窗口计数，用上一窗口计数按剩余比例加权估算滑动窗口内的请求数
+-- 每个限流键只有一个最多三个字段的小 hash，内存和耗时与限额无关
+-- KEYS[1] 限流键
+-- ARGV[1] 窗口长度（毫秒），ARGV[2] 窗口内允许的请求数，ARGV[3] 本次请求的许可数，ARGV[4] 当前时间（毫秒）
+-- 返回 {是否允许 1/0, 剩余许可数, 被拒绝时建议的重试等待毫秒数}
+local window = tonumber(ARGV[1])
+local limit = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+local now = tonumber(ARGV[4])
+local current = math.floor(now / window)
+local offset = now - current * window
+local count = tonumber(redis.call('HGET', KEYS[1], tostring(current))) or 0
+local previous = tonumber(redis.call('HGET', KEYS[1], tostring(current - 1))) or 0
+local estimated = previous * (window - offset) / window + count
+if estimated + permits > limit then
+    local retry = window - offset
+    local room = limit - count - permits
+    if previous > 0 and room >= 0 then
+        -- 上一窗口的权重降到 room / previous 时即可放行
+        retry = math.max(math.ceil(window * (1 - room / previous)) - offset, 1)
+    end
+    return {0, math.max(math.floor(limit - estimated), 0), retry}
+end
+if redis.call('HINCRBY', KEYS[1], tostring(current), permits) == permits then
+    -- 新窗口的第一次请求：删除更早的窗口，两个窗口后无请求则整个键过期
+    redis.call('HDEL', KEYS[1], tostring(current - 2))
+    redis.call('PEXPIRE', KEYS[1], window * 2)
+end
+return {1, math.floor(limit - estimated - permits), 0}
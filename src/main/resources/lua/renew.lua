@@ -0,0 +1,8 @@
+-- 续期：只有持有者才能延长租期
+-- KEYS[1] 锁
+-- ARGV[1] 持有者 ID，ARGV[2] 新的租期（毫秒）
+-- 返回 1 表示已续期，0 表示锁已不属于调用方
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
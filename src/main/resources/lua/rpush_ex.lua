@@ -0,0 +1,17 @@
+-- RPUSH + EXPIRE
+-- KEYS[1] list 键
+-- ARGV[1] 过期时间（秒），ARGV[2..n] 元素
+-- 返回写入后列表长度
+local ttl = tonumber(ARGV[1])
+local n = #ARGV
+local size = redis.call('LLEN', KEYS[1])
+local i = 2
+while i <= n do
+    local j = math.min(i + 999, n)
+    size = redis.call('RPUSH', KEYS[1], unpack(ARGV, i, j))
+    i = j + 1
+end
+if ttl > 0 then
+    redis.call('EXPIRE', KEYS[1], ttl)
+end
+return size
@@ -0,0 +1,17 @@
+-- SADD + EXPIRE
+-- KEYS[1] set 键
+-- ARGV[1] 过期时间（秒），ARGV[2..n] 成员
+-- 返回新增成员数
+local ttl = tonumber(ARGV[1])
+local n = #ARGV
+local count = 0
+local i = 2
+while i <= n do
+    local j = math.min(i + 999, n)
+    count = count + redis.call('SADD', KEYS[1], unpack(ARGV, i, j))
+    i = j + 1
+end
+if ttl > 0 then
+    redis.call('EXPIRE', KEYS[1], ttl)
+end
+return count
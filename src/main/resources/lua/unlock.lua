@@ -0,0 +1,12 @@
+-- 释放锁：只有持有者才能删除，避免锁过期后被他人获取时误删
+-- KEYS[1] 锁的键
+-- ARGV[1] 加锁时写入的 token，ARGV[2] 可选，释放后通知等待者的频道，消息为锁的键
+-- 返回 1 表示已释放，0 表示锁已不属于调用方
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    if ARGV[2] then
+        redis.call('PUBLISH', ARGV[2], KEYS[1])
+    end
+    return 1
+end
+return 0
@@ -1,16 +1,63 @@
 package com.mujio.redisdemo;
 
+import com.mujio.redisdemo.embedded.EmbeddedRedisServer;
+import com.mujio.redisdemo.lock.RedisLock;
+import com.mujio.redisdemo.lock.RedisLockRegistry;
+import com.mujio.redisdemo.utils.RedisScanner;
+import com.mujio.redisdemo.utils.RedisTransaction;
 import com.mujio.redisdemo.utils.RedisUtil;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class RedisdemoApplicationTests {
 
     @Resource
     RedisUtil redisUtil;
+
+    @Resource
+    RedisLockRegistry redisLockRegistry;
+
+    @Resource
+    RedisScanner redisScanner;
+
+    /**
+     * 默认连接进程内的 EmbeddedRedisServer，-Dredis.embedded=false 时连接 application.yml 中配置的 Redis
+     */
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        if (!"false".equals(System.getProperty("redis.embedded"))) {
+            EmbeddedRedisServer server = EmbeddedRedisServer.shared();
+            registry.add("redis.host", server::getHost);
+            registry.add("redis.port", server::getPort);
+        }
+    }
+
     @Test
     void contextLoads() {
         boolean set = redisUtil.set("test", "this is a test");
@@ -19,4 +66,161 @@ class RedisdemoApplicationTests {
         System.out.println(test);
     }
 
+    @Test
+    void batch() {
+        List<Object> results = redisUtil.batch()
+                .set("test:batch:1", "a", 60)
+                .set("test:batch:2", "b")
+                .get("test:batch:1")
+                .sSetAndTime("test:batch:set", 60, "x", "y")
+                .execute();
+        assertEquals(4, results.size());
+        assertEquals("a", results.get(2));
+        assertEquals(Arrays.asList("a", "b"), redisUtil.mget(Arrays.asList("test:batch:1", "test:batch:2")));
+        redisUtil.del("test:batch:1", "test:batch:2", "test:batch:set");
+    }
+
+    @Test
+    void atomicWithTime() {
+        assertTrue(redisUtil.hsetAtomic("test:atomic:hash", "item", "value", 60));
+        assertEquals(2, redisUtil.sSetAndTimeAtomic("test:atomic:set", 60, "x", "y"));
+        assertEquals("value", redisUtil.hget("test:atomic:hash", "item"));
+        assertTrue(redisUtil.getExpire("test:atomic:hash") > 0);
+        assertTrue(redisUtil.getExpire("test:atomic:set") > 0);
+        redisUtil.del("test:atomic:hash", "test:atomic:set");
+    }
+
+    @Test
+    void scannerIsShared() {
+        assertSame(redisScanner, ReflectionTestUtils.getField(redisUtil, "scanner"));
+        redisUtil.set("test:scan:1", 1);
+        try (Stream<String> keys = redisUtil.scanParallel("test:scan:*", 10)) {
+            assertEquals(Collections.singletonList("test:scan:1"), keys.collect(Collectors.toList()));
+        }
+        //非集群时并行扫描退化为当前线程扫描，不创建线程池
+        assertNull(ReflectionTestUtils.getField(redisScanner, "executor"));
+        redisUtil.del("test:scan:1");
+    }
+
+    @Test
+    void lock() throws Exception {
+        RedisLock lock = redisLockRegistry.getLock("test");
+        assertTrue(lock.tryLock(1, TimeUnit.SECONDS));
+        long token = lock.getFencingToken();
+        //可重入
+        assertTrue(lock.tryLock());
+        lock.unlock();
+        AtomicBoolean acquiredByOther = new AtomicBoolean(true);
+        Thread other = new Thread(() -> acquiredByOther.set(lock.tryLock()));
+        other.start();
+        other.join();
+        assertFalse(acquiredByOther.get());
+        lock.unlock();
+        assertTrue(lock.tryLock());
+        assertTrue(lock.getFencingToken() > token);
+        lock.unlock();
+    }
+
+    @Test
+    void transaction() {
+        redisUtil.set("test:tx", 1);
+        List<Object> results = redisUtil.transaction(Collections.singletonList("test:tx"), new RedisTransaction<Integer>() {
+            @Override
+            public Integer read(RedisOperations<String, Object> operations) {
+                return (Integer) operations.opsForValue().get("test:tx");
+            }
+
+            @Override
+            public void write(RedisOperations<String, Object> operations, Integer state) {
+                operations.opsForValue().set("test:tx", state + 1);
+            }
+        });
+        assertEquals(1, results.size());
+        assertEquals(2, redisUtil.get("test:tx"));
+        redisUtil.del("test:tx");
+    }
+
+    @Test
+    void transactionRetriesWhenWatchedKeyChanges() {
+        redisUtil.set("test:tx:retry", 1);
+        AtomicInteger reads = new AtomicInteger();
+        List<Object> results = redisUtil.transaction(Collections.singletonList("test:tx:retry"), new RedisTransaction<Integer>() {
+            @Override
+            public Integer read(RedisOperations<String, Object> operations) {
+                Integer value = (Integer) operations.opsForValue().get("test:tx:retry");
+                if (reads.incrementAndGet() == 1) {
+                    //其他客户端在 WATCH 之后修改，第一次 EXEC 被放弃
+                    redisUtil.set("test:tx:retry", 10);
+                }
+                return value;
+            }
+
+            @Override
+            public void write(RedisOperations<String, Object> operations, Integer state) {
+                operations.opsForValue().increment("test:tx:retry", state);
+            }
+        });
+        assertEquals(2, reads.get());
+        assertEquals(Collections.singletonList(20L), results);
+        redisUtil.del("test:tx:retry");
+    }
+
+    @Test
+    void transactionWithoutCommandsIsNotAborted() {
+        AtomicInteger reads = new AtomicInteger();
+        List<Object> results = redisUtil.transaction(Collections.singletonList("test:tx:empty"), new RedisTransaction<Object>() {
+            @Override
+            public Object read(RedisOperations<String, Object> operations) {
+                reads.incrementAndGet();
+                return null;
+            }
+
+            @Override
+            public void write(RedisOperations<String, Object> operations, Object state) {
+            }
+        });
+        assertEquals(Collections.emptyList(), results);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void transactionIsRejectedInClusterMode() {
+        RedisTemplate<String, Object> clusterTemplate = new RedisTemplate<>();
+        clusterTemplate.setConnectionFactory(new LettuceConnectionFactory(new RedisClusterConfiguration(Collections.singletonList("localhost:7000"))));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> new RedisUtil(clusterTemplate).transaction(
+                Collections.singletonList("test:tx"), new RedisTransaction<Object>() {
+                    @Override
+                    public Object read(RedisOperations<String, Object> operations) {
+                        return null;
+                    }
+
+                    @Override
+                    public void write(RedisOperations<String, Object> operations, Object state) {
+                    }
+                }));
+    }
+
+    @Test
+    void blockingPopWaitsForProducer() throws Exception {
+        assertNull(redisUtil.brpop("test:queue", 1, TimeUnit.SECONDS));
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            redisUtil.lSet("test:queue", "a");
+        });
+        producer.start();
+        assertEquals("a", redisUtil.brpop("test:queue", 5, TimeUnit.SECONDS));
+        producer.join();
+
+        //blmove 把值移到处理中列表，处理完成后 lRemove 确认
+        redisUtil.lSet("test:queue", "b");
+        assertEquals("b", redisUtil.blmove("test:queue", "test:queue:processing", 1, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("b"), redisUtil.lGet("test:queue:processing", 0, -1));
+        assertEquals(1, redisUtil.lRemove("test:queue:processing", 1, "b"));
+        assertNull(redisUtil.blmove("test:queue", "test:queue:processing", 1, TimeUnit.SECONDS));
+    }
+
 }
@@ -0,0 +1,153 @@
+package com.mujio.redisdemo.cache;
+
+import com.mujio.redisdemo.config.RedisCacheProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import com.mujio.redisdemo.utils.RedisScanner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisTtlCacheTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisCacheProperties properties;
+
+    private RedisTtlCacheManager cacheManager;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        redisTemplate = redis.redisTemplate();
+        properties = new RedisCacheProperties();
+        properties.setJitter(0);
+    }
+
+    @AfterEach
+    void stop() {
+        if (cacheManager != null) {
+            cacheManager.destroy();
+        }
+        redis.close();
+    }
+
+    @Test
+    void ttlIsConfiguredPerCache() {
+        properties.setTtls(Collections.singletonMap("short", Duration.ofSeconds(20)));
+        Cache shortCache = manager().getCache("short");
+        Cache other = manager().getCache("other");
+        shortCache.put("a", 1);
+        other.put("a", 2);
+
+        long shortTtl = redisTemplate.getExpire("short::a");
+        long otherTtl = redisTemplate.getExpire("other::a");
+        assertTrue(shortTtl > 10 && shortTtl <= 20, "short: " + shortTtl);
+        assertTrue(otherTtl > 500 && otherTtl <= 600, "other: " + otherTtl);
+        assertEquals(1, shortCache.get("a").get());
+    }
+
+    @Test
+    void jitterSpreadsExpiry() {
+        properties.setDefaultTtl(Duration.ofSeconds(100));
+        properties.setJitter(0.5);
+        Cache cache = manager().getCache("jitter");
+        Set<Long> ttls = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+            long ttl = redisTemplate.getExpire("jitter::" + i);
+            assertTrue(ttl >= 49 && ttl <= 150, "ttl: " + ttl);
+            ttls.add(ttl);
+        }
+        assertTrue(ttls.size() > 5, "ttls: " + ttls);
+    }
+
+    @Test
+    void syncLoadRunsLoaderOnce() throws Exception {
+        Cache cache = manager().getCache("sync");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                ready.await();
+                return cache.get("k", () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(200);
+                    return "v";
+                });
+            }));
+        }
+        ready.countDown();
+        for (Future<String> result : results) {
+            assertEquals("v", result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+        //加载完成后分布式锁已释放
+        assertFalse(redisTemplate.hasKey("lock:sync::k"));
+    }
+
+    @Test
+    void expiredValueIsServedWhileRefreshing() throws Exception {
+        properties.setDefaultTtl(Duration.ofMillis(200));
+        properties.setStaleWhileRevalidate(true);
+        properties.setStaleTtl(Duration.ofSeconds(10));
+        Cache cache = manager().getCache("stale");
+        assertEquals("v1", cache.get("k", () -> "v1"));
+        Thread.sleep(300);
+
+        //没有 loader 时逻辑过期按未命中处理
+        assertNull(cache.get("k"));
+        assertEquals("v1", cache.get("k", () -> "v2"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Object value = null;
+        while (System.nanoTime() < deadline && !"v2".equals(value)) {
+            Thread.sleep(20);
+            value = cache.get("k", () -> "v3");
+        }
+        assertEquals("v2", value);
+    }
+
+    @Test
+    void clearRemovesOnlyThisCache() {
+        Cache cache = manager().getCache("clear");
+        for (int i = 0; i < 2500; i++) {
+            cache.put(i, i);
+        }
+        manager().getCache("kept").put("a", 1);
+        cache.clear();
+        assertFalse(redisTemplate.hasKey("clear::0"));
+        assertEquals(Collections.singleton("kept::a"), redisTemplate.keys("*"));
+    }
+
+    private RedisTtlCacheManager manager() {
+        if (cacheManager == null) {
+            cacheManager = new RedisTtlCacheManager(redisTemplate, properties, new RedisScanner(redisTemplate));
+            cacheManager.afterPropertiesSet();
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,127 @@
+package com.mujio.redisdemo.config;
+
+import com.mujio.redisdemo.embedded.EmbeddedRedisServer;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.resource.ClientResources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisClientConfigTests {
+
+    private EmbeddedRedisServer server;
+
+    private RedisClientProperties properties;
+
+    private ClientResources clientResources;
+
+    @BeforeEach
+    void start() {
+        server = new EmbeddedRedisServer().start();
+        properties = new RedisClientProperties();
+        properties.setHost(server.getHost());
+        properties.setPort(server.getPort());
+        properties.setIoThreads(1);
+        properties.setComputationThreads(1);
+        clientResources = new RedisClientConfig().lettuceClientResources(properties);
+    }
+
+    @AfterEach
+    void stop() {
+        clientResources.shutdown();
+        server.close();
+    }
+
+    @Test
+    void pooledModeBorrowsFromPool() {
+        properties.setMode(RedisClientProperties.Mode.POOLED);
+        properties.getPool().setMaxActive(4);
+        LettuceConnectionFactory factory = new RedisClientConfig().redisConnectionFactory(properties, clientResources);
+        factory.afterPropertiesSet();
+        try {
+            assertFalse(factory.getShareNativeConnection());
+            assertTrue(factory.getClientConfiguration() instanceof LettucePoolingClientConfiguration);
+            assertEquals(4, ((LettucePoolingClientConfiguration) factory.getClientConfiguration()).getPoolConfig().getMaxTotal());
+
+            //RedisPoolStats 反射读取 connectionProvider -> delegate -> pools，升级 spring-data-redis 后字段改名时这里统计为 0
+            RedisPoolStats stats = new RedisPoolStats(factory);
+            try (RedisConnection connection = factory.getConnection()) {
+                connection.ping();
+                assertEquals(1.0, stats.active());
+            }
+            assertEquals(0.0, stats.active());
+            assertEquals(1.0, stats.idle());
+            assertEquals(1.0, stats.created());
+            assertEquals(1.0, stats.borrowed());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void sharedModeHasNoPool() {
+        LettuceConnectionFactory factory = new RedisClientConfig().redisConnectionFactory(properties, clientResources);
+        factory.afterPropertiesSet();
+        try {
+            assertTrue(factory.getShareNativeConnection());
+            assertFalse(factory.getClientConfiguration() instanceof LettucePoolingClientConfiguration);
+            try (RedisConnection connection = factory.getConnection()) {
+                connection.ping();
+            }
+            RedisPoolStats stats = new RedisPoolStats(factory);
+            assertEquals(0.0, stats.active());
+            assertEquals(0.0, stats.created());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void clusterTopologyAndReadFrom() {
+        properties.setTopology(RedisClientProperties.Topology.CLUSTER);
+        properties.setNodes(Arrays.asList("10.0.0.1:7000", "10.0.0.2:7000"));
+        properties.setReadFrom(RedisClientProperties.ReadMode.REPLICA_PREFERRED);
+        properties.getCluster().setMaxRedirects(3);
+        LettuceConnectionFactory factory = new RedisClientConfig().redisConnectionFactory(properties, clientResources);
+
+        assertTrue(factory.isClusterAware());
+        assertEquals(2, factory.getClusterConfiguration().getClusterNodes().size());
+        assertEquals(ReadFrom.REPLICA_PREFERRED, factory.getClientConfiguration().getReadFrom().orElse(null));
+        ClientOptions options = factory.getClientConfiguration().getClientOptions().orElse(null);
+        assertTrue(options instanceof ClusterClientOptions);
+        assertEquals(3, ((ClusterClientOptions) options).getMaxRedirects());
+        assertTrue(((ClusterClientOptions) options).getTopologyRefreshOptions().useDynamicRefreshSources());
+    }
+
+    @Test
+    void sentinelAndMasterReplicaTopology() {
+        properties.setTopology(RedisClientProperties.Topology.SENTINEL);
+        properties.setNodes(Collections.singletonList("10.0.0.1:26379"));
+        properties.getSentinel().setMaster("mymaster");
+        LettuceConnectionFactory sentinel = new RedisClientConfig().redisConnectionFactory(properties, clientResources);
+        assertTrue(sentinel.isRedisSentinelAware());
+        assertEquals("mymaster", sentinel.getSentinelConfiguration().getMaster().getName());
+        assertFalse(sentinel.getClientConfiguration().getReadFrom().isPresent());
+
+        properties.setTopology(RedisClientProperties.Topology.MASTER_REPLICA);
+        properties.setNodes(Collections.singletonList("10.0.0.2:6380"));
+        properties.setReadFrom(RedisClientProperties.ReadMode.REPLICA);
+        LettuceConnectionFactory masterReplica = new RedisClientConfig().redisConnectionFactory(properties, clientResources);
+        assertFalse(masterReplica.isClusterAware());
+        assertNotNull(masterReplica.getStandaloneConfiguration());
+        assertEquals(ReadFrom.REPLICA, masterReplica.getClientConfiguration().getReadFrom().orElse(null));
+    }
+}
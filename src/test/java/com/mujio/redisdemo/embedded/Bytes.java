@@ -0,0 +1,52 @@
+package com.mujio.redisdemo.embedded;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @Description: Bytes 以字节内容比较的键/成员，按无符号字节字典序排序，与 Redis 的比较方式一致
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class Bytes implements Comparable<Bytes> {
+
+    final byte[] data;
+
+    private final int hash;
+
+    Bytes(byte[] data) {
+        this.data = data;
+        this.hash = Arrays.hashCode(data);
+    }
+
+    static Bytes of(String value) {
+        return new Bytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Bytes && hash == ((Bytes) o).hash && Arrays.equals(data, ((Bytes) o).data));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public int compareTo(Bytes other) {
+        int length = Math.min(data.length, other.data.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (data[i] & 0xff) - (other.data[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return data.length - other.data.length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,2356 @@
+package com.mujio.redisdemo.embedded;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * @Description: Commands 命令表和各命令的实现，只在事件循环线程中执行
+ * 回复用 Java 对象表示：byte[] 为 bulk string，null 为 nil，String 为 status，Long 为 integer，List 为 array，
+ * RespError 为错误，NULL_ARRAY 为 nil array（被放弃的 EXEC）
+ * 阻塞命令没有数据时回复 BLOCKED，由网络连接挂起并在之后重试，事务和脚本中立即返回超时的回复
+ * 未实现的命令（geo、HyperLogLog 等）回复 unknown command
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class Commands {
+
+    /**
+     * 命令已自行推送回复（SUBSCRIBE 等每个频道一条）
+     */
+    static final Object NO_REPLY = new Object();
+
+    static final Object NULL_ARRAY = new Object();
+
+    /**
+     * 阻塞命令暂时没有数据，等待时间和超时的回复记录在 Session 中
+     */
+    static final Object BLOCKED = new Object();
+
+    private static final String OK = "OK";
+
+    private static final int DATABASES = 16;
+
+    private static final int WRITE = 1;
+
+    /**
+     * 事务中不排队，立即执行
+     */
+    private static final int NO_QUEUE = 2;
+
+    /**
+     * 订阅状态下允许执行
+     */
+    private static final int PUBSUB = 4;
+
+    private static final int MAX_SCANS = 1024;
+
+    private static final byte[] MESSAGE = bulk("message");
+
+    private static final byte[] PMESSAGE = bulk("pmessage");
+
+    private final Database[] dbs = new Database[DATABASES];
+
+    private final TimerWheel<Database.Expiring> wheel;
+
+    private final Map<String, Command> table = new HashMap<>();
+
+    private final Map<Bytes, Set<Session>> channels = new HashMap<>();
+
+    private final Map<Bytes, Set<Session>> patterns = new HashMap<>();
+
+    private final Map<String, EmbeddedRedisServer.Script> scripts;
+
+    private final Supplier<String> serverInfo;
+
+    /**
+     * 进行中的 SCAN，游标到剩余元素的快照，过多时丢弃最早的
+     */
+    private final Map<Long, Iterator<Bytes>> scans = new LinkedHashMap<Long, Iterator<Bytes>>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Iterator<Bytes>> eldest) {
+            return size() > MAX_SCANS;
+        }
+    };
+
+    private long nextCursor = 1;
+
+    /**
+     * 正在执行 EXEC 中排队的命令，阻塞命令不挂起
+     */
+    private boolean inExec;
+
+    private final Session scriptSession = new Session(0);
+
+    Commands(Map<String, EmbeddedRedisServer.Script> scripts, Supplier<String> serverInfo, long now) {
+        this.scripts = scripts;
+        this.serverInfo = serverInfo;
+        this.wheel = new TimerWheel<>(10, 1024, now);
+        for (int i = 0; i < DATABASES; i++) {
+            dbs[i] = new Database(i, wheel);
+        }
+        registerConnection();
+        registerKeys();
+        registerStrings();
+        registerHashes();
+        registerLists();
+        registerSets();
+        registerSortedSets();
+        registerStreams();
+        registerTransactions();
+        registerPubSub();
+        registerScripting();
+    }
+
+    /**
+     * @Description: execute 执行一条命令，事务中的命令排队，返回回复对象
+     * @Param: [session, argv, now]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    Object execute(Session session, List<byte[]> argv, long now) {
+        Command command = table.get(upper(argv.get(0)));
+        RespError error = check(command, argv);
+        if (session.queued != null && (command == null || (command.flags & NO_QUEUE) == 0)) {
+            if (error != null) {
+                session.queueError = true;
+                return error;
+            }
+            session.queued.add(argv);
+            return "QUEUED";
+        }
+        if (error != null) {
+            return error;
+        }
+        if (session.subscribed() && (command.flags & PUBSUB) == 0) {
+            return new RespError("ERR only (P)SUBSCRIBE / (P)UNSUBSCRIBE / PING / QUIT allowed in this context");
+        }
+        return call(command, session, argv, now);
+    }
+
+    /**
+     * 时间轮推进，删除到期的键
+     */
+    void expire(long now) {
+        wheel.advance(now, expiring -> expiring.db.expireIfDue(expiring.key, now));
+    }
+
+    /**
+     * 连接关闭，取消 WATCH 和订阅
+     */
+    void disconnect(Session session) {
+        unwatch(session);
+        for (Bytes channel : session.channels) {
+            unsubscribe(channels, channel, session);
+        }
+        for (Bytes pattern : session.patterns) {
+            unsubscribe(patterns, pattern, session);
+        }
+        session.channels.clear();
+        session.patterns.clear();
+    }
+
+    void flushAll() {
+        for (Database db : dbs) {
+            db.clear();
+        }
+    }
+
+    private Object call(Command command, Session session, List<byte[]> argv, long now) {
+        Object reply;
+        try {
+            reply = command.handler.run(session, argv, now);
+        } catch (RespError e) {
+            return e;
+        } catch (RuntimeException e) {
+            //脚本实现等出现的意外异常只影响本条命令，不能中断事件循环
+            return new RespError("ERR " + command.name + " failed: " + e);
+        }
+        if ((command.flags & WRITE) != 0) {
+            touch(command, dbs[session.db], argv);
+        }
+        return reply;
+    }
+
+    private static RespError check(Command command, List<byte[]> argv) {
+        if (command == null) {
+            return new RespError("ERR unknown command '" + str(argv.get(0)) + "'");
+        }
+        int size = argv.size();
+        if (command.arity > 0 ? size != command.arity : size < -command.arity) {
+            return wrongArguments(command.name);
+        }
+        return null;
+    }
+
+    private static void touch(Command command, Database db, List<byte[]> argv) {
+        if (!db.hasWatchers() || command.firstKey == 0) {
+            return;
+        }
+        int last = command.lastKey < 0 ? argv.size() + command.lastKey : command.lastKey;
+        for (int i = command.firstKey; i <= last && i < argv.size(); i += command.step) {
+            db.touch(new Bytes(argv.get(i)));
+        }
+    }
+
+    // ---------------------------------------------------------------- connection / server
+
+    private void registerConnection() {
+        add("PING", -1, PUBSUB, (session, argv, now) -> {
+            if (session.subscribed()) {
+                return Arrays.asList(bulk("pong"), argv.size() > 1 ? argv.get(1) : new byte[0]);
+            }
+            return argv.size() > 1 ? argv.get(1) : "PONG";
+        });
+        add("ECHO", 2, 0, (session, argv, now) -> argv.get(1));
+        add("QUIT", 1, NO_QUEUE | PUBSUB, (session, argv, now) -> OK);
+        add("AUTH", -2, 0, (session, argv, now) -> OK);
+        add("SELECT", 2, 0, (session, argv, now) -> {
+            long index = integer(argv.get(1));
+            if (index < 0 || index >= DATABASES) {
+                throw new RespError("ERR DB index is out of range");
+            }
+            session.db = (int) index;
+            return OK;
+        });
+        add("CLIENT", -2, 0, (session, argv, now) -> {
+            String sub = upper(argv.get(1));
+            if ("SETNAME".equals(sub) && argv.size() == 3) {
+                session.name = str(argv.get(2));
+                return OK;
+            }
+            if ("GETNAME".equals(sub)) {
+                return session.name == null ? null : bulk(session.name);
+            }
+            if ("ID".equals(sub)) {
+                return session.id;
+            }
+            if ("LIST".equals(sub)) {
+                return bulk("id=" + session.id + " name=" + (session.name == null ? "" : session.name) + " db=" + session.db + "\n");
+            }
+            throw new RespError("ERR Unknown subcommand or wrong number of arguments for '" + str(argv.get(1)) + "'");
+        });
+        add("COMMAND", -1, 0, (session, argv, now) -> Collections.emptyList());
+        add("INFO", -1, 0, (session, argv, now) -> {
+            StringBuilder info = new StringBuilder(serverInfo.get()).append("# Keyspace\r\n");
+            for (Database db : dbs) {
+                if (db.size() > 0) {
+                    info.append("db").append(db.index).append(":keys=").append(db.size())
+                            .append(",expires=").append(db.expires()).append(",avg_ttl=0\r\n");
+                }
+            }
+            return bulk(info.toString());
+        });
+        add("TIME", 1, 0, (session, argv, now) -> {
+            long micros = System.currentTimeMillis() * 1000 + (System.nanoTime() / 1000) % 1000;
+            return Arrays.asList(bytes(micros / 1_000_000), bytes(micros % 1_000_000));
+        });
+        add("DBSIZE", 1, 0, (session, argv, now) -> (long) db(session).keys(now).size());
+        add("FLUSHDB", -1, 0, (session, argv, now) -> {
+            db(session).clear();
+            return OK;
+        });
+        add("FLUSHALL", -1, 0, (session, argv, now) -> {
+            flushAll();
+            return OK;
+        });
+    }
+
+    // ---------------------------------------------------------------- keys
+
+    private void registerKeys() {
+        write("DEL", -2, 1, -1, 1, this::del);
+        write("UNLINK", -2, 1, -1, 1, this::del);
+        add("EXISTS", -2, 0, (session, argv, now) -> {
+            long count = 0;
+            for (int i = 1; i < argv.size(); i++) {
+                if (db(session).lookup(key(argv, i), now) != null) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        write("EXPIRE", 3, (session, argv, now) -> expire(session, argv, now, multiply(integer(argv.get(2)), 1000) + now));
+        write("PEXPIRE", 3, (session, argv, now) -> expire(session, argv, now, integer(argv.get(2)) + now));
+        write("EXPIREAT", 3, (session, argv, now) -> expire(session, argv, now, multiply(integer(argv.get(2)), 1000)));
+        write("PEXPIREAT", 3, (session, argv, now) -> expire(session, argv, now, integer(argv.get(2))));
+        add("TTL", 2, 0, (session, argv, now) -> {
+            long ttl = pttl(session, argv, now);
+            return ttl < 0 ? ttl : (ttl + 500) / 1000;
+        });
+        add("PTTL", 2, 0, this::pttl);
+        write("PERSIST", 2, (session, argv, now) -> {
+            Database.Entry entry = db(session).lookup(key(argv, 1), now);
+            if (entry == null || entry.expireAt == 0) {
+                return 0L;
+            }
+            entry.expireAt = 0;
+            return 1L;
+        });
+        add("TYPE", 2, 0, (session, argv, now) -> {
+            Database.Entry entry = db(session).lookup(key(argv, 1), now);
+            return entry == null ? "none" : typeName(entry.value);
+        });
+        add("KEYS", 2, 0, (session, argv, now) -> {
+            List<byte[]> keys = new ArrayList<>();
+            for (Bytes key : db(session).keys(now)) {
+                if (match(argv.get(1), key.data)) {
+                    keys.add(key.data);
+                }
+            }
+            return keys;
+        });
+        add("SCAN", -2, 0, (session, argv, now) -> scan(db(session), null, 'k', argv, 1, now));
+        add("MEMORY", -2, 0, (session, argv, now) -> {
+            if (!"USAGE".equals(upper(argv.get(1))) || argv.size() < 3) {
+                throw new RespError("ERR Unknown subcommand or wrong number of arguments for '" + str(argv.get(1)) + "'");
+            }
+            Database.Entry entry = db(session).lookup(key(argv, 2), now);
+            return entry == null ? null : memoryUsage(argv.get(2), entry.value);
+        });
+        add("OBJECT", -2, 0, (session, argv, now) -> {
+            if (!"ENCODING".equals(upper(argv.get(1))) || argv.size() != 3) {
+                throw new RespError("ERR Unknown subcommand or wrong number of arguments for '" + str(argv.get(1)) + "'");
+            }
+            Database.Entry entry = db(session).lookup(key(argv, 2), now);
+            return entry == null ? null : bulk(encoding(entry.value));
+        });
+        write("RENAME", 3, 1, 2, 1, (session, argv, now) -> {
+            Database db = db(session);
+            Bytes from = key(argv, 1);
+            Database.Entry entry = db.lookup(from, now);
+            if (entry == null) {
+                throw new RespError("ERR no such key");
+            }
+            db.rename(from, key(argv, 2), entry);
+            return OK;
+        });
+    }
+
+    private Object del(Session session, List<byte[]> argv, long now) {
+        long count = 0;
+        for (int i = 1; i < argv.size(); i++) {
+            if (db(session).remove(key(argv, i), now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Object expire(Session session, List<byte[]> argv, long now, long at) {
+        Database db = db(session);
+        Bytes key = key(argv, 1);
+        Database.Entry entry = db.lookup(key, now);
+        if (entry == null) {
+            return 0L;
+        }
+        if (at <= now) {
+            db.remove(key, now);
+        } else {
+            db.expireAt(key, entry, at);
+        }
+        return 1L;
+    }
+
+    private long pttl(Session session, List<byte[]> argv, long now) {
+        Database.Entry entry = db(session).lookup(key(argv, 1), now);
+        if (entry == null) {
+            return -2;
+        }
+        return entry.expireAt == 0 ? -1 : entry.expireAt - now;
+    }
+
+    private static String typeName(Object value) {
+        if (value instanceof byte[]) {
+            return "string";
+        }
+        if (value instanceof HashMap) {
+            return "hash";
+        }
+        if (value instanceof ArrayList) {
+            return "list";
+        }
+        if (value instanceof HashSet) {
+            return "set";
+        }
+        return value instanceof Stream ? "stream" : "zset";
+    }
+
+    private static String encoding(Object value) {
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            try {
+                integer(bytes);
+                return "int";
+            } catch (RespError e) {
+                return bytes.length <= 44 ? "embstr" : "raw";
+            }
+        }
+        if (value instanceof ArrayList) {
+            return "quicklist";
+        }
+        if (value instanceof Stream) {
+            return "stream";
+        }
+        return value instanceof ZSet ? "skiplist" : "hashtable";
+    }
+
+    /**
+     * MEMORY USAGE 的粗略估算：键和元素的字节数加上每个元素固定的结构开销，只用于大 key 分析的相对比较
+     */
+    @SuppressWarnings("unchecked")
+    private static long memoryUsage(byte[] key, Object value) {
+        long size = 56 + key.length;
+        if (value instanceof byte[]) {
+            return size + ((byte[]) value).length;
+        }
+        if (value instanceof HashMap) {
+            for (Map.Entry<Bytes, byte[]> entry : ((Map<Bytes, byte[]>) value).entrySet()) {
+                size += 32 + entry.getKey().data.length + entry.getValue().length;
+            }
+        } else if (value instanceof ArrayList) {
+            for (byte[] element : (List<byte[]>) value) {
+                size += 16 + element.length;
+            }
+        } else if (value instanceof HashSet) {
+            for (Bytes member : (Set<Bytes>) value) {
+                size += 24 + member.data.length;
+            }
+        } else if (value instanceof Stream) {
+            for (List<byte[]> fields : ((Stream) value).entries.values()) {
+                size += 16;
+                for (byte[] field : fields) {
+                    size += field.length;
+                }
+            }
+        } else {
+            for (ZSet.Item item : ((ZSet) value).items()) {
+                size += 48 + item.member.data.length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * SCAN/HSCAN/SSCAN/ZSCAN：游标为 0 时对键或成员做快照，之后按游标继续遍历快照，
+     * 遍历期间一直存在的元素一定返回，已删除的跳过
+     */
+    private Object scan(Database db, Bytes key, char kind, List<byte[]> argv, int cursorIndex, long now) {
+        long cursor;
+        try {
+            cursor = Long.parseLong(str(argv.get(cursorIndex)));
+        } catch (NumberFormatException e) {
+            throw new RespError("ERR invalid cursor");
+        }
+        byte[] pattern = null;
+        long count = 10;
+        String type = null;
+        for (int i = cursorIndex + 1; i < argv.size(); i += 2) {
+            if (i + 1 >= argv.size()) {
+                throw RespError.SYNTAX;
+            }
+            String option = upper(argv.get(i));
+            if ("MATCH".equals(option)) {
+                pattern = argv.get(i + 1);
+            } else if ("COUNT".equals(option)) {
+                count = integer(argv.get(i + 1));
+                if (count < 1) {
+                    throw RespError.SYNTAX;
+                }
+            } else if ("TYPE".equals(option) && kind == 'k') {
+                type = str(argv.get(i + 1)).toLowerCase(Locale.ROOT);
+            } else {
+                throw RespError.SYNTAX;
+            }
+        }
+        Object container = kind == 'k' ? null : db.get(key, Object.class, now);
+        if (container != null && !typeName(container).equals(kind == 'h' ? "hash" : kind == 's' ? "set" : "zset")) {
+            throw RespError.WRONG_TYPE;
+        }
+        Iterator<Bytes> iterator;
+        if (cursor == 0) {
+            iterator = snapshot(db, container, kind, now);
+        } else {
+            iterator = scans.remove(cursor);
+            if (iterator == null) {
+                throw new RespError("ERR invalid cursor");
+            }
+        }
+        List<byte[]> items = new ArrayList<>();
+        for (long visited = 0; visited < count && iterator.hasNext(); visited++) {
+            Bytes element = iterator.next();
+            if (pattern != null && !match(pattern, element.data)) {
+                continue;
+            }
+            addScanned(db, container, kind, type, element, items, now);
+        }
+        long next = 0;
+        if (iterator.hasNext()) {
+            next = nextCursor++;
+            scans.put(next, iterator);
+        }
+        return Arrays.asList(bytes(next), items);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Iterator<Bytes> snapshot(Database db, Object container, char kind, long now) {
+        if (kind == 'k') {
+            return new ArrayList<>(db.keys(now)).iterator();
+        }
+        if (container == null) {
+            return Collections.emptyIterator();
+        }
+        if (kind == 'h') {
+            return new ArrayList<>(((Map<Bytes, byte[]>) container).keySet()).iterator();
+        }
+        if (kind == 's') {
+            return new ArrayList<>((Set<Bytes>) container).iterator();
+        }
+        List<Bytes> members = new ArrayList<>(((ZSet) container).size());
+        for (ZSet.Item item : ((ZSet) container).items()) {
+            members.add(item.member);
+        }
+        return members.iterator();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addScanned(Database db, Object container, char kind, String type, Bytes element, List<byte[]> items, long now) {
+        switch (kind) {
+            case 'k':
+                Database.Entry entry = db.lookup(element, now);
+                if (entry != null && (type == null || type.equals(typeName(entry.value)))) {
+                    items.add(element.data);
+                }
+                break;
+            case 'h':
+                byte[] value = ((Map<Bytes, byte[]>) container).get(element);
+                if (value != null) {
+                    items.add(element.data);
+                    items.add(value);
+                }
+                break;
+            case 's':
+                if (((Set<Bytes>) container).contains(element)) {
+                    items.add(element.data);
+                }
+                break;
+            default:
+                Double score = ((ZSet) container).score(element);
+                if (score != null) {
+                    items.add(element.data);
+                    items.add(bytes(score));
+                }
+        }
+    }
+
+    // ---------------------------------------------------------------- strings
+
+    private void registerStrings() {
+        add("GET", 2, 0, (session, argv, now) -> db(session).get(key(argv, 1), byte[].class, now));
+        write("SET", -3, this::set);
+        write("SETNX", 3, (session, argv, now) -> {
+            Database db = db(session);
+            if (db.lookup(key(argv, 1), now) != null) {
+                return 0L;
+            }
+            db.put(key(argv, 1), argv.get(2));
+            return 1L;
+        });
+        write("SETEX", 4, (session, argv, now) -> setWithTtl(session, argv, multiply(integer(argv.get(2)), 1000), now));
+        write("PSETEX", 4, (session, argv, now) -> setWithTtl(session, argv, integer(argv.get(2)), now));
+        write("GETSET", 3, (session, argv, now) -> {
+            byte[] previous = db(session).get(key(argv, 1), byte[].class, now);
+            db(session).put(key(argv, 1), argv.get(2));
+            return previous;
+        });
+        add("MGET", -2, 0, (session, argv, now) -> {
+            List<byte[]> values = new ArrayList<>(argv.size() - 1);
+            for (int i = 1; i < argv.size(); i++) {
+                Database.Entry entry = db(session).lookup(key(argv, i), now);
+                values.add(entry != null && entry.value instanceof byte[] ? (byte[]) entry.value : null);
+            }
+            return values;
+        });
+        write("MSET", -3, 1, -1, 2, (session, argv, now) -> {
+            pairs(argv, 1, "mset");
+            for (int i = 1; i < argv.size(); i += 2) {
+                db(session).put(key(argv, i), argv.get(i + 1));
+            }
+            return OK;
+        });
+        write("MSETNX", -3, 1, -1, 2, (session, argv, now) -> {
+            pairs(argv, 1, "msetnx");
+            for (int i = 1; i < argv.size(); i += 2) {
+                if (db(session).lookup(key(argv, i), now) != null) {
+                    return 0L;
+                }
+            }
+            for (int i = 1; i < argv.size(); i += 2) {
+                db(session).put(key(argv, i), argv.get(i + 1));
+            }
+            return 1L;
+        });
+        write("INCR", 2, (session, argv, now) -> incrBy(session, key(argv, 1), 1, now));
+        write("DECR", 2, (session, argv, now) -> incrBy(session, key(argv, 1), -1, now));
+        write("INCRBY", 3, (session, argv, now) -> incrBy(session, key(argv, 1), integer(argv.get(2)), now));
+        write("DECRBY", 3, (session, argv, now) -> {
+            long decrement = integer(argv.get(2));
+            if (decrement == Long.MIN_VALUE) {
+                throw new RespError("ERR decrement would overflow");
+            }
+            return incrBy(session, key(argv, 1), -decrement, now);
+        });
+        write("INCRBYFLOAT", 3, (session, argv, now) -> {
+            Database db = db(session);
+            Bytes key = key(argv, 1);
+            byte[] current = db.get(key, byte[].class, now);
+            double result = (current == null ? 0 : number(current)) + number(argv.get(2));
+            if (Double.isNaN(result) || Double.isInfinite(result)) {
+                throw new RespError("ERR increment would produce NaN or Infinity");
+            }
+            return setKeepTtl(db, key, bytes(result), now);
+        });
+        write("APPEND", 3, (session, argv, now) -> {
+            Database db = db(session);
+            byte[] current = db.get(key(argv, 1), byte[].class, now);
+            byte[] value = current == null ? argv.get(2) : concat(current, argv.get(2));
+            setKeepTtl(db, key(argv, 1), value, now);
+            return (long) value.length;
+        });
+        add("STRLEN", 2, 0, (session, argv, now) -> {
+            byte[] value = db(session).get(key(argv, 1), byte[].class, now);
+            return value == null ? 0L : (long) value.length;
+        });
+        add("GETRANGE", 4, 0, (session, argv, now) -> {
+            byte[] value = db(session).get(key(argv, 1), byte[].class, now);
+            int[] range = value == null ? null : range(integer(argv.get(2)), integer(argv.get(3)), value.length);
+            return range == null ? new byte[0] : Arrays.copyOfRange(value, range[0], range[1] + 1);
+        });
+        write("SETBIT", 4, (session, argv, now) -> {
+            long offset = bitOffset(argv.get(2));
+            long bit = integer(argv.get(3));
+            if (bit != 0 && bit != 1) {
+                throw new RespError("ERR bit is not an integer or out of range");
+            }
+            Database db = db(session);
+            byte[] value = grow(db.get(key(argv, 1), byte[].class, now), offset + 1);
+            long previous = getBits(value, offset, 1);
+            setBits(value, offset, 1, bit);
+            setKeepTtl(db, key(argv, 1), value, now);
+            return previous;
+        });
+        add("GETBIT", 3, 0, (session, argv, now) -> {
+            byte[] value = db(session).get(key(argv, 1), byte[].class, now);
+            return value == null ? 0L : getBits(value, bitOffset(argv.get(2)), 1);
+        });
+        add("BITCOUNT", -2, 0, (session, argv, now) -> {
+            byte[] value = db(session).get(key(argv, 1), byte[].class, now);
+            if (value == null) {
+                return 0L;
+            }
+            int[] range = argv.size() >= 4 ? range(integer(argv.get(2)), integer(argv.get(3)), value.length) : new int[]{0, value.length - 1};
+            long count = 0;
+            for (int i = range == null ? 1 : range[0]; range != null && i <= range[1]; i++) {
+                count += Integer.bitCount(value[i] & 0xff);
+            }
+            return count;
+        });
+        write("BITFIELD", -2, this::bitField);
+    }
+
+    private Object set(Session session, List<byte[]> argv, long now) {
+        long expireAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        boolean keepTtl = false;
+        boolean get = false;
+        for (int i = 3; i < argv.size(); i++) {
+            String option = upper(argv.get(i));
+            boolean hasValue = i + 1 < argv.size();
+            if (("EX".equals(option) || "PX".equals(option) || "EXAT".equals(option) || "PXAT".equals(option)) && hasValue) {
+                long value = integer(argv.get(++i));
+                if (value <= 0) {
+                    throw new RespError("ERR invalid expire time in 'set' command");
+                }
+                expireAt = "EX".equals(option) ? now + multiply(value, 1000) : "PX".equals(option) ? now + value
+                        : "EXAT".equals(option) ? multiply(value, 1000) : value;
+            } else if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            } else if ("KEEPTTL".equals(option)) {
+                keepTtl = true;
+            } else if ("GET".equals(option)) {
+                get = true;
+            } else {
+                throw RespError.SYNTAX;
+            }
+        }
+        if ((nx && xx) || (keepTtl && expireAt != 0)) {
+            throw RespError.SYNTAX;
+        }
+        Database db = db(session);
+        Bytes key = key(argv, 1);
+        Database.Entry current = db.lookup(key, now);
+        if (get && current != null && !(current.value instanceof byte[])) {
+            throw RespError.WRONG_TYPE;
+        }
+        byte[] previous = current == null || !get ? null : (byte[]) current.value;
+        if ((nx && current != null) || (xx && current == null)) {
+            return get ? previous : null;
+        }
+        Database.Entry entry = db.put(key, argv.get(2));
+        if (expireAt != 0) {
+            db.expireAt(key, entry, expireAt);
+        } else if (keepTtl && current != null) {
+            //时间轮中原有的节点仍然有效
+            entry.expireAt = current.expireAt;
+        }
+        return get ? previous : OK;
+    }
+
+    private Object setWithTtl(Session session, List<byte[]> argv, long ttl, long now) {
+        if (ttl <= 0) {
+            throw new RespError("ERR invalid expire time in '" + str(argv.get(0)).toLowerCase(Locale.ROOT) + "' command");
+        }
+        Bytes key = key(argv, 1);
+        db(session).expireAt(key, db(session).put(key, argv.get(3)), now + ttl);
+        return OK;
+    }
+
+    private long incrBy(Session session, Bytes key, long delta, long now) {
+        Database db = db(session);
+        byte[] current = db.get(key, byte[].class, now);
+        long result;
+        try {
+            result = Math.addExact(current == null ? 0 : integer(current), delta);
+        } catch (ArithmeticException e) {
+            throw new RespError("ERR increment or decrement would overflow");
+        }
+        setKeepTtl(db, key, bytes(result), now);
+        return result;
+    }
+
+    /**
+     * 修改字符串的值，保留过期时间
+     */
+    private static byte[] setKeepTtl(Database db, Bytes key, byte[] value, long now) {
+        Database.Entry entry = db.lookup(key, now);
+        if (entry == null) {
+            db.put(key, value);
+        } else {
+            entry.value = value;
+        }
+        return value;
+    }
+
+    /**
+     * BITFIELD 的 GET/SET/INCRBY 和 OVERFLOW WRAP|SAT|FAIL，类型为 i1..i64 和 u1..u63
+     */
+    private Object bitField(Session session, List<byte[]> argv, long now) {
+        Database db = db(session);
+        Bytes key = key(argv, 1);
+        byte[] value = db.get(key, byte[].class, now);
+        boolean exists = value != null;
+        if (value == null) {
+            value = new byte[0];
+        }
+        String overflow = "WRAP";
+        boolean written = false;
+        List<Long> results = new ArrayList<>();
+        int i = 2;
+        while (i < argv.size()) {
+            String op = upper(argv.get(i));
+            if ("OVERFLOW".equals(op) && i + 1 < argv.size()) {
+                overflow = upper(argv.get(i + 1));
+                if (!"WRAP".equals(overflow) && !"SAT".equals(overflow) && !"FAIL".equals(overflow)) {
+                    throw new RespError("ERR Invalid OVERFLOW type specified");
+                }
+                i += 2;
+                continue;
+            }
+            boolean read = "GET".equals(op);
+            if ((!read && !"SET".equals(op) && !"INCRBY".equals(op)) || i + (read ? 2 : 3) >= argv.size()) {
+                throw RespError.SYNTAX;
+            }
+            String type = str(argv.get(i + 1));
+            boolean signed = type.startsWith("i") || type.startsWith("I");
+            int bits;
+            try {
+                bits = Integer.parseInt(type.substring(1));
+            } catch (RuntimeException e) {
+                bits = 0;
+            }
+            if ((!signed && !type.startsWith("u") && !type.startsWith("U")) || bits < 1 || bits > (signed ? 64 : 63)) {
+                throw new RespError("ERR Invalid bitfield type. Use something like i16 u8. Note that u64 is not supported but i64 is.");
+            }
+            String offsetArg = str(argv.get(i + 2));
+            long offset = offsetArg.startsWith("#") ? multiply(integer(bulk(offsetArg.substring(1))), bits) : integer(argv.get(i + 2));
+            if (offset < 0) {
+                throw new RespError("ERR bit offset is not an integer or out of range");
+            }
+            long raw = getBits(value, offset, bits);
+            long current = signed && bits < 64 ? (raw << (64 - bits)) >> (64 - bits) : raw;
+            if (read) {
+                results.add(current);
+                i += 3;
+                continue;
+            }
+            BigInteger operand = BigInteger.valueOf(integer(argv.get(i + 3)));
+            Long stored = fit("SET".equals(op) ? operand : BigInteger.valueOf(current).add(operand), signed, bits, overflow);
+            if (stored != null) {
+                value = grow(value, offset + bits);
+                setBits(value, offset, bits, stored);
+                written = true;
+            }
+            results.add(stored == null ? null : "SET".equals(op) ? current : stored);
+            i += 4;
+        }
+        if (written) {
+            if (exists) {
+                setKeepTtl(db, key, value, now);
+            } else {
+                db.put(key, value);
+            }
+        }
+        return results;
+    }
+
+    private static Long fit(BigInteger value, boolean signed, int bits, String overflow) {
+        BigInteger min = signed ? BigInteger.ONE.shiftLeft(bits - 1).negate() : BigInteger.ZERO;
+        BigInteger max = signed ? BigInteger.ONE.shiftLeft(bits - 1).subtract(BigInteger.ONE)
+                : BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+        if (value.compareTo(min) >= 0 && value.compareTo(max) <= 0) {
+            return value.longValue();
+        }
+        if ("SAT".equals(overflow)) {
+            return (value.signum() < 0 ? min : max).longValue();
+        }
+        if ("FAIL".equals(overflow)) {
+            return null;
+        }
+        BigInteger wrapped = value.mod(BigInteger.ONE.shiftLeft(bits));
+        if (signed && wrapped.compareTo(max) > 0) {
+            wrapped = wrapped.subtract(BigInteger.ONE.shiftLeft(bits));
+        }
+        return wrapped.longValue();
+    }
+
+    private static long bitOffset(byte[] arg) {
+        long offset;
+        try {
+            offset = integer(arg);
+        } catch (RespError e) {
+            offset = -1;
+        }
+        if (offset < 0 || offset >= 4L * 1024 * 1024 * 1024) {
+            throw new RespError("ERR bit offset is not an integer or out of range");
+        }
+        return offset;
+    }
+
+    /**
+     * 按位读取，高位在前，超出长度的位为 0
+     */
+    private static long getBits(byte[] data, long offset, int bits) {
+        long value = 0;
+        for (int i = 0; i < bits; i++) {
+            long bit = offset + i;
+            int index = (int) (bit >>> 3);
+            int b = index < data.length ? (data[index] >> (7 - (int) (bit & 7))) & 1 : 0;
+            value = (value << 1) | b;
+        }
+        return value;
+    }
+
+    private static void setBits(byte[] data, long offset, int bits, long value) {
+        for (int i = 0; i < bits; i++) {
+            long bit = offset + i;
+            int index = (int) (bit >>> 3);
+            int mask = 1 << (7 - (int) (bit & 7));
+            if (((value >>> (bits - 1 - i)) & 1) == 1) {
+                data[index] |= mask;
+            } else {
+                data[index] &= ~mask;
+            }
+        }
+    }
+
+    private static byte[] grow(byte[] value, long bits) {
+        int length = (int) ((bits + 7) >>> 3);
+        if (value == null) {
+            return new byte[length];
+        }
+        return value.length >= length ? value : Arrays.copyOf(value, length);
+    }
+
+    // ---------------------------------------------------------------- hashes
+
+    @SuppressWarnings("unchecked")
+    private static Map<Bytes, byte[]> hash(Session session, Database db, Bytes key, boolean create, long now) {
+        return create ? db.getOrCreate(key, HashMap.class, HashMap::new, now) : db.get(key, HashMap.class, now);
+    }
+
+    private void registerHashes() {
+        write("HSET", -4, (session, argv, now) -> {
+            pairs(argv, 2, "hset");
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), true, now);
+            long added = 0;
+            for (int i = 2; i < argv.size(); i += 2) {
+                if (hash.put(key(argv, i), argv.get(i + 1)) == null) {
+                    added++;
+                }
+            }
+            return added;
+        });
+        write("HMSET", -4, (session, argv, now) -> {
+            pairs(argv, 2, "hmset");
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), true, now);
+            for (int i = 2; i < argv.size(); i += 2) {
+                hash.put(key(argv, i), argv.get(i + 1));
+            }
+            return OK;
+        });
+        write("HSETNX", 4, (session, argv, now) ->
+                hash(session, db(session), key(argv, 1), true, now).putIfAbsent(key(argv, 2), argv.get(3)) == null ? 1L : 0L);
+        add("HGET", 3, 0, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), false, now);
+            return hash == null ? null : hash.get(key(argv, 2));
+        });
+        add("HMGET", -3, 0, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), false, now);
+            List<byte[]> values = new ArrayList<>(argv.size() - 2);
+            for (int i = 2; i < argv.size(); i++) {
+                values.add(hash == null ? null : hash.get(key(argv, i)));
+            }
+            return values;
+        });
+        write("HDEL", -3, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), false, now);
+            long removed = 0;
+            for (int i = 2; hash != null && i < argv.size(); i++) {
+                if (hash.remove(key(argv, i)) != null) {
+                    removed++;
+                }
+            }
+            if (hash != null) {
+                db(session).removeIfEmpty(key(argv, 1), hash.size());
+            }
+            return removed;
+        });
+        add("HEXISTS", 3, 0, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), false, now);
+            return hash != null && hash.containsKey(key(argv, 2)) ? 1L : 0L;
+        });
+        add("HLEN", 2, 0, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), false, now);
+            return hash == null ? 0L : (long) hash.size();
+        });
+        add("HSTRLEN", 3, 0, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), false, now);
+            byte[] value = hash == null ? null : hash.get(key(argv, 2));
+            return value == null ? 0L : (long) value.length;
+        });
+        add("HGETALL", 2, 0, (session, argv, now) -> hashContent(session, argv, now, true, true));
+        add("HKEYS", 2, 0, (session, argv, now) -> hashContent(session, argv, now, true, false));
+        add("HVALS", 2, 0, (session, argv, now) -> hashContent(session, argv, now, false, true));
+        write("HINCRBY", 4, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), true, now);
+            byte[] current = hash.get(key(argv, 2));
+            long result;
+            try {
+                result = Math.addExact(current == null ? 0 : hashInteger(current), integer(argv.get(3)));
+            } catch (ArithmeticException e) {
+                throw new RespError("ERR increment or decrement would overflow");
+            }
+            hash.put(key(argv, 2), bytes(result));
+            return result;
+        });
+        write("HINCRBYFLOAT", 4, (session, argv, now) -> {
+            Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), true, now);
+            byte[] current = hash.get(key(argv, 2));
+            double result = (current == null ? 0 : number(current)) + number(argv.get(3));
+            if (Double.isNaN(result) || Double.isInfinite(result)) {
+                throw new RespError("ERR increment would produce NaN or Infinity");
+            }
+            byte[] value = bytes(result);
+            hash.put(key(argv, 2), value);
+            return value;
+        });
+        add("HSCAN", -3, 0, (session, argv, now) -> scan(db(session), key(argv, 1), 'h', argv, 2, now));
+    }
+
+    private static long hashInteger(byte[] value) {
+        try {
+            return integer(value);
+        } catch (RespError e) {
+            throw new RespError("ERR hash value is not an integer");
+        }
+    }
+
+    private Object hashContent(Session session, List<byte[]> argv, long now, boolean fields, boolean values) {
+        Map<Bytes, byte[]> hash = hash(session, db(session), key(argv, 1), false, now);
+        List<byte[]> content = new ArrayList<>();
+        if (hash != null) {
+            for (Map.Entry<Bytes, byte[]> entry : hash.entrySet()) {
+                if (fields) {
+                    content.add(entry.getKey().data);
+                }
+                if (values) {
+                    content.add(entry.getValue());
+                }
+            }
+        }
+        return content;
+    }
+
+    // ---------------------------------------------------------------- lists
+
+    @SuppressWarnings("unchecked")
+    private static List<byte[]> list(Database db, Bytes key, boolean create, long now) {
+        return create ? db.getOrCreate(key, ArrayList.class, ArrayList::new, now) : db.get(key, ArrayList.class, now);
+    }
+
+    private void registerLists() {
+        write("LPUSH", -3, (session, argv, now) -> push(session, argv, true, true, now));
+        write("RPUSH", -3, (session, argv, now) -> push(session, argv, false, true, now));
+        write("LPUSHX", -3, (session, argv, now) -> push(session, argv, true, false, now));
+        write("RPUSHX", -3, (session, argv, now) -> push(session, argv, false, false, now));
+        write("LPOP", -2, (session, argv, now) -> pop(session, argv, true, now));
+        write("RPOP", -2, (session, argv, now) -> pop(session, argv, false, now));
+        add("LLEN", 2, 0, (session, argv, now) -> {
+            List<byte[]> list = list(db(session), key(argv, 1), false, now);
+            return list == null ? 0L : (long) list.size();
+        });
+        add("LRANGE", 4, 0, (session, argv, now) -> {
+            List<byte[]> list = list(db(session), key(argv, 1), false, now);
+            int[] range = list == null ? null : range(integer(argv.get(2)), integer(argv.get(3)), list.size());
+            return range == null ? Collections.emptyList() : new ArrayList<>(list.subList(range[0], range[1] + 1));
+        });
+        add("LINDEX", 3, 0, (session, argv, now) -> {
+            List<byte[]> list = list(db(session), key(argv, 1), false, now);
+            if (list == null) {
+                return null;
+            }
+            long index = integer(argv.get(2));
+            index = index < 0 ? list.size() + index : index;
+            return index < 0 || index >= list.size() ? null : list.get((int) index);
+        });
+        write("LSET", 4, (session, argv, now) -> {
+            List<byte[]> list = list(db(session), key(argv, 1), false, now);
+            if (list == null) {
+                throw new RespError("ERR no such key");
+            }
+            long index = integer(argv.get(2));
+            index = index < 0 ? list.size() + index : index;
+            if (index < 0 || index >= list.size()) {
+                throw new RespError("ERR index out of range");
+            }
+            list.set((int) index, argv.get(3));
+            return OK;
+        });
+        write("LREM", 4, (session, argv, now) -> {
+            List<byte[]> list = list(db(session), key(argv, 1), false, now);
+            if (list == null) {
+                return 0L;
+            }
+            long count = integer(argv.get(2));
+            long limit = count == 0 ? Long.MAX_VALUE : Math.abs(count);
+            byte[] element = argv.get(3);
+            long removed = 0;
+            if (count >= 0) {
+                for (Iterator<byte[]> iterator = list.iterator(); iterator.hasNext() && removed < limit; ) {
+                    if (Arrays.equals(iterator.next(), element)) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            } else {
+                for (int i = list.size() - 1; i >= 0 && removed < limit; i--) {
+                    if (Arrays.equals(list.get(i), element)) {
+                        list.remove(i);
+                        removed++;
+                    }
+                }
+            }
+            db(session).removeIfEmpty(key(argv, 1), list.size());
+            return removed;
+        });
+        write("LTRIM", 4, (session, argv, now) -> {
+            List<byte[]> list = list(db(session), key(argv, 1), false, now);
+            if (list != null) {
+                int[] range = range(integer(argv.get(2)), integer(argv.get(3)), list.size());
+                if (range == null) {
+                    list.clear();
+                } else {
+                    list.subList(range[1] + 1, list.size()).clear();
+                    list.subList(0, range[0]).clear();
+                }
+                db(session).removeIfEmpty(key(argv, 1), list.size());
+            }
+            return OK;
+        });
+        write("LINSERT", 5, (session, argv, now) -> {
+            String where = upper(argv.get(2));
+            if (!"BEFORE".equals(where) && !"AFTER".equals(where)) {
+                throw RespError.SYNTAX;
+            }
+            List<byte[]> list = list(db(session), key(argv, 1), false, now);
+            if (list == null) {
+                return 0L;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                if (Arrays.equals(list.get(i), argv.get(3))) {
+                    list.add("BEFORE".equals(where) ? i : i + 1, argv.get(4));
+                    return (long) list.size();
+                }
+            }
+            return -1L;
+        });
+        write("RPOPLPUSH", 3, 1, 2, 1, (session, argv, now) -> rpoplpush(session, argv, now));
+        write("BLPOP", -3, 1, -2, 1, (session, argv, now) -> blockingPop(session, argv, true, now));
+        write("BRPOP", -3, 1, -2, 1, (session, argv, now) -> blockingPop(session, argv, false, now));
+        write("BRPOPLPUSH", 4, 1, 2, 1, (session, argv, now) -> {
+            long timeout = timeout(argv.get(3));
+            byte[] element = rpoplpush(session, argv, now);
+            return element != null ? element : block(session, timeout, null);
+        });
+    }
+
+    private byte[] rpoplpush(Session session, List<byte[]> argv, long now) {
+        Database db = db(session);
+        List<byte[]> source = list(db, key(argv, 1), false, now);
+        if (source == null) {
+            return null;
+        }
+        //先检查目标类型，类型错误时不弹出
+        list(db, key(argv, 2), false, now);
+        byte[] element = source.remove(source.size() - 1);
+        db.removeIfEmpty(key(argv, 1), source.size());
+        list(db, key(argv, 2), true, now).add(0, element);
+        return element;
+    }
+
+    /**
+     * BLPOP/BRPOP：从第一个非空的列表弹出，回复 [key, element]，都为空时阻塞
+     */
+    private Object blockingPop(Session session, List<byte[]> argv, boolean left, long now) {
+        long timeout = timeout(argv.get(argv.size() - 1));
+        for (int i = 1; i < argv.size() - 1; i++) {
+            List<byte[]> list = list(db(session), key(argv, i), false, now);
+            if (list != null) {
+                byte[] element = left ? list.remove(0) : list.remove(list.size() - 1);
+                db(session).removeIfEmpty(key(argv, i), list.size());
+                return Arrays.asList(argv.get(i), element);
+            }
+        }
+        return block(session, timeout, NULL_ARRAY);
+    }
+
+    private Object push(Session session, List<byte[]> argv, boolean left, boolean create, long now) {
+        List<byte[]> list = list(db(session), key(argv, 1), create, now);
+        if (list == null) {
+            return 0L;
+        }
+        List<byte[]> elements = argv.subList(2, argv.size());
+        if (left) {
+            List<byte[]> reversed = new ArrayList<>(elements);
+            Collections.reverse(reversed);
+            list.addAll(0, reversed);
+        } else {
+            list.addAll(elements);
+        }
+        return (long) list.size();
+    }
+
+    private Object pop(Session session, List<byte[]> argv, boolean left, long now) {
+        if (argv.size() > 3) {
+            throw wrongArguments(str(argv.get(0)).toLowerCase(Locale.ROOT));
+        }
+        List<byte[]> list = list(db(session), key(argv, 1), false, now);
+        long count = argv.size() == 3 ? integer(argv.get(2)) : -1;
+        if (list == null) {
+            return null;
+        }
+        List<byte[]> popped = new ArrayList<>();
+        for (long i = 0; i < Math.max(count, 1) && !list.isEmpty(); i++) {
+            popped.add(left ? list.remove(0) : list.remove(list.size() - 1));
+        }
+        db(session).removeIfEmpty(key(argv, 1), list.size());
+        return count < 0 ? popped.get(0) : popped;
+    }
+
+    // ---------------------------------------------------------------- sets
+
+    @SuppressWarnings("unchecked")
+    private static Set<Bytes> set(Database db, Bytes key, boolean create, long now) {
+        return create ? db.getOrCreate(key, HashSet.class, HashSet::new, now) : db.get(key, HashSet.class, now);
+    }
+
+    private void registerSets() {
+        write("SADD", -3, (session, argv, now) -> {
+            Set<Bytes> set = set(db(session), key(argv, 1), true, now);
+            long added = 0;
+            for (int i = 2; i < argv.size(); i++) {
+                if (set.add(key(argv, i))) {
+                    added++;
+                }
+            }
+            return added;
+        });
+        write("SREM", -3, (session, argv, now) -> {
+            Set<Bytes> set = set(db(session), key(argv, 1), false, now);
+            long removed = 0;
+            for (int i = 2; set != null && i < argv.size(); i++) {
+                if (set.remove(key(argv, i))) {
+                    removed++;
+                }
+            }
+            if (set != null) {
+                db(session).removeIfEmpty(key(argv, 1), set.size());
+            }
+            return removed;
+        });
+        add("SMEMBERS", 2, 0, (session, argv, now) -> members(set(db(session), key(argv, 1), false, now)));
+        add("SISMEMBER", 3, 0, (session, argv, now) -> {
+            Set<Bytes> set = set(db(session), key(argv, 1), false, now);
+            return set != null && set.contains(key(argv, 2)) ? 1L : 0L;
+        });
+        add("SCARD", 2, 0, (session, argv, now) -> {
+            Set<Bytes> set = set(db(session), key(argv, 1), false, now);
+            return set == null ? 0L : (long) set.size();
+        });
+        write("SPOP", -2, (session, argv, now) -> {
+            Set<Bytes> set = set(db(session), key(argv, 1), false, now);
+            long count = argv.size() > 2 ? integer(argv.get(2)) : -1;
+            List<byte[]> popped = new ArrayList<>();
+            for (long i = 0; set != null && i < Math.max(count, 1) && !set.isEmpty(); i++) {
+                Bytes member = random(set);
+                set.remove(member);
+                popped.add(member.data);
+            }
+            if (set != null) {
+                db(session).removeIfEmpty(key(argv, 1), set.size());
+            }
+            return count < 0 ? (popped.isEmpty() ? null : popped.get(0)) : popped;
+        });
+        add("SRANDMEMBER", -2, 0, (session, argv, now) -> {
+            Set<Bytes> set = set(db(session), key(argv, 1), false, now);
+            if (argv.size() == 2) {
+                return set == null ? null : random(set).data;
+            }
+            long count = integer(argv.get(2));
+            if (set == null) {
+                return Collections.emptyList();
+            }
+            if (count >= set.size()) {
+                return members(set);
+            }
+            List<Bytes> candidates = new ArrayList<>(set);
+            List<byte[]> members = new ArrayList<>();
+            if (count < 0) {
+                for (long i = 0; i < -count; i++) {
+                    members.add(candidates.get(ThreadLocalRandom.current().nextInt(candidates.size())).data);
+                }
+            } else {
+                Collections.shuffle(candidates, ThreadLocalRandom.current());
+                for (int i = 0; i < count; i++) {
+                    members.add(candidates.get(i).data);
+                }
+            }
+            return members;
+        });
+        add("SINTER", -2, 0, (session, argv, now) -> combine(session, argv, now, 'i'));
+        add("SUNION", -2, 0, (session, argv, now) -> combine(session, argv, now, 'u'));
+        add("SDIFF", -2, 0, (session, argv, now) -> combine(session, argv, now, 'd'));
+        add("SSCAN", -3, 0, (session, argv, now) -> scan(db(session), key(argv, 1), 's', argv, 2, now));
+    }
+
+    private Object combine(Session session, List<byte[]> argv, long now, char op) {
+        Set<Bytes> first = set(db(session), key(argv, 1), false, now);
+        Set<Bytes> result = first == null ? new LinkedHashSet<>() : new LinkedHashSet<>(first);
+        for (int i = 2; i < argv.size(); i++) {
+            Set<Bytes> other = set(db(session), key(argv, i), false, now);
+            if (op == 'i') {
+                result.retainAll(other == null ? Collections.emptySet() : other);
+            } else if (op == 'u') {
+                if (other != null) {
+                    result.addAll(other);
+                }
+            } else if (other != null) {
+                result.removeAll(other);
+            }
+        }
+        return members(result);
+    }
+
+    private static List<byte[]> members(Set<Bytes> set) {
+        List<byte[]> members = new ArrayList<>(set == null ? 0 : set.size());
+        if (set != null) {
+            for (Bytes member : set) {
+                members.add(member.data);
+            }
+        }
+        return members;
+    }
+
+    private static Bytes random(Set<Bytes> set) {
+        int index = ThreadLocalRandom.current().nextInt(set.size());
+        Iterator<Bytes> iterator = set.iterator();
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    // ---------------------------------------------------------------- sorted sets
+
+    private static ZSet zset(Database db, Bytes key, boolean create, long now) {
+        return create ? db.getOrCreate(key, ZSet.class, ZSet::new, now) : db.get(key, ZSet.class, now);
+    }
+
+    private void registerSortedSets() {
+        write("ZADD", -4, this::zadd);
+        write("ZINCRBY", 4, (session, argv, now) -> {
+            ZSet zset = zset(db(session), key(argv, 1), true, now);
+            Bytes member = key(argv, 3);
+            Double current = zset.score(member);
+            double score = (current == null ? 0 : current) + number(argv.get(2));
+            if (Double.isNaN(score)) {
+                throw new RespError("ERR resulting score is not a number (NaN)");
+            }
+            zset.put(member, score);
+            return bytes(score);
+        });
+        add("ZSCORE", 3, 0, (session, argv, now) -> {
+            ZSet zset = zset(db(session), key(argv, 1), false, now);
+            Double score = zset == null ? null : zset.score(key(argv, 2));
+            return score == null ? null : bytes(score);
+        });
+        write("ZREM", -3, (session, argv, now) -> {
+            ZSet zset = zset(db(session), key(argv, 1), false, now);
+            long removed = 0;
+            for (int i = 2; zset != null && i < argv.size(); i++) {
+                if (zset.remove(key(argv, i))) {
+                    removed++;
+                }
+            }
+            if (zset != null) {
+                db(session).removeIfEmpty(key(argv, 1), zset.size());
+            }
+            return removed;
+        });
+        add("ZCARD", 2, 0, (session, argv, now) -> {
+            ZSet zset = zset(db(session), key(argv, 1), false, now);
+            return zset == null ? 0L : (long) zset.size();
+        });
+        add("ZCOUNT", 4, 0, (session, argv, now) -> {
+            ZSet zset = zset(db(session), key(argv, 1), false, now);
+            return zset == null ? 0L : (long) byScore(zset, argv.get(2), argv.get(3)).size();
+        });
+        add("ZRANK", 3, 0, (session, argv, now) -> rank(session, argv, false, now));
+        add("ZREVRANK", 3, 0, (session, argv, now) -> rank(session, argv, true, now));
+        add("ZRANGE", -4, 0, (session, argv, now) -> zrange(session, argv, false, now));
+        add("ZREVRANGE", -4, 0, (session, argv, now) -> zrange(session, argv, true, now));
+        add("ZRANGEBYSCORE", -4, 0, (session, argv, now) -> zrangeByScore(session, argv, false, now));
+        add("ZREVRANGEBYSCORE", -4, 0, (session, argv, now) -> zrangeByScore(session, argv, true, now));
+        write("ZREMRANGEBYRANK", 4, (session, argv, now) -> {
+            ZSet zset = zset(db(session), key(argv, 1), false, now);
+            int[] range = zset == null ? null : range(integer(argv.get(2)), integer(argv.get(3)), zset.size());
+            return range == null ? 0L : removeAll(session, argv, zset, zset.range(range[0], range[1]));
+        });
+        write("ZREMRANGEBYSCORE", 4, (session, argv, now) -> {
+            ZSet zset = zset(db(session), key(argv, 1), false, now);
+            return zset == null ? 0L : removeAll(session, argv, zset, new ArrayList<>(byScore(zset, argv.get(2), argv.get(3))));
+        });
+        add("ZSCAN", -3, 0, (session, argv, now) -> scan(db(session), key(argv, 1), 'z', argv, 2, now));
+    }
+
+    private Object zadd(Session session, List<byte[]> argv, long now) {
+        boolean nx = false;
+        boolean xx = false;
+        boolean ch = false;
+        boolean incr = false;
+        int i = 2;
+        for (; i < argv.size(); i++) {
+            String option = upper(argv.get(i));
+            if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            } else if ("CH".equals(option)) {
+                ch = true;
+            } else if ("INCR".equals(option)) {
+                incr = true;
+            } else {
+                break;
+            }
+        }
+        int pairs = argv.size() - i;
+        if (pairs == 0 || pairs % 2 != 0 || (nx && xx) || (incr && pairs != 2)) {
+            throw (nx && xx) ? new RespError("ERR XX and NX options at the same time are not compatible") : RespError.SYNTAX;
+        }
+        double[] scores = new double[pairs / 2];
+        for (int j = 0; j < scores.length; j++) {
+            scores[j] = number(argv.get(i + j * 2));
+        }
+        ZSet zset = zset(db(session), key(argv, 1), !xx, now);
+        if (zset == null) {
+            return incr ? null : 0L;
+        }
+        long added = 0;
+        long changed = 0;
+        for (int j = 0; j < scores.length; j++) {
+            Bytes member = key(argv, i + j * 2 + 1);
+            Double current = zset.score(member);
+            if ((nx && current != null) || (xx && current == null)) {
+                if (incr) {
+                    return null;
+                }
+                continue;
+            }
+            double score = incr && current != null ? current + scores[j] : scores[j];
+            if (Double.isNaN(score)) {
+                throw new RespError("ERR resulting score is not a number (NaN)");
+            }
+            zset.put(member, score);
+            if (current == null) {
+                added++;
+            } else if (current != score) {
+                changed++;
+            }
+            if (incr) {
+                return bytes(score);
+            }
+        }
+        db(session).removeIfEmpty(key(argv, 1), zset.size());
+        return ch ? added + changed : added;
+    }
+
+    private Object rank(Session session, List<byte[]> argv, boolean reverse, long now) {
+        ZSet zset = zset(db(session), key(argv, 1), false, now);
+        int rank = zset == null ? -1 : zset.rank(key(argv, 2));
+        if (rank < 0) {
+            return null;
+        }
+        return reverse ? (long) (zset.size() - 1 - rank) : (long) rank;
+    }
+
+    private Object zrange(Session session, List<byte[]> argv, boolean reverse, long now) {
+        boolean withScores = argv.size() == 5 && "WITHSCORES".equals(upper(argv.get(4)));
+        if (argv.size() > 5 || (argv.size() == 5 && !withScores)) {
+            throw RespError.SYNTAX;
+        }
+        ZSet zset = zset(db(session), key(argv, 1), false, now);
+        int[] range = zset == null ? null : range(integer(argv.get(2)), integer(argv.get(3)), zset.size());
+        if (range == null) {
+            return Collections.emptyList();
+        }
+        List<ZSet.Item> items = reverse ? zset.range(zset.size() - 1 - range[1], zset.size() - 1 - range[0]) : zset.range(range[0], range[1]);
+        if (reverse) {
+            Collections.reverse(items);
+        }
+        return items(items, withScores, 0, Long.MAX_VALUE);
+    }
+
+    private Object zrangeByScore(Session session, List<byte[]> argv, boolean reverse, long now) {
+        boolean withScores = false;
+        long offset = 0;
+        long count = Long.MAX_VALUE;
+        for (int i = 4; i < argv.size(); i++) {
+            String option = upper(argv.get(i));
+            if ("WITHSCORES".equals(option)) {
+                withScores = true;
+            } else if ("LIMIT".equals(option) && i + 2 < argv.size()) {
+                offset = integer(argv.get(i + 1));
+                count = integer(argv.get(i + 2));
+                count = count < 0 ? Long.MAX_VALUE : count;
+                i += 2;
+            } else {
+                throw RespError.SYNTAX;
+            }
+        }
+        ZSet zset = zset(db(session), key(argv, 1), false, now);
+        if (zset == null || offset < 0) {
+            return Collections.emptyList();
+        }
+        NavigableSet<ZSet.Item> items = reverse ? byScore(zset, argv.get(3), argv.get(2)).descendingSet() : byScore(zset, argv.get(2), argv.get(3));
+        return items(items, withScores, offset, count);
+    }
+
+    private static NavigableSet<ZSet.Item> byScore(ZSet zset, byte[] min, byte[] max) {
+        boolean minExclusive = min.length > 0 && min[0] == '(';
+        boolean maxExclusive = max.length > 0 && max[0] == '(';
+        return zset.rangeByScore(bound(min, minExclusive), minExclusive, bound(max, maxExclusive), maxExclusive);
+    }
+
+    private static double bound(byte[] value, boolean exclusive) {
+        try {
+            return number(exclusive ? Arrays.copyOfRange(value, 1, value.length) : value);
+        } catch (RespError e) {
+            throw new RespError("ERR min or max is not a float");
+        }
+    }
+
+    private static List<byte[]> items(Iterable<ZSet.Item> items, boolean withScores, long offset, long count) {
+        List<byte[]> reply = new ArrayList<>();
+        long index = 0;
+        for (ZSet.Item item : items) {
+            if (index++ < offset) {
+                continue;
+            }
+            if (count-- <= 0) {
+                break;
+            }
+            reply.add(item.member.data);
+            if (withScores) {
+                reply.add(bytes(item.score));
+            }
+        }
+        return reply;
+    }
+
+    private long removeAll(Session session, List<byte[]> argv, ZSet zset, List<ZSet.Item> items) {
+        for (ZSet.Item item : items) {
+            zset.remove(item.member);
+        }
+        db(session).removeIfEmpty(key(argv, 1), zset.size());
+        return items.size();
+    }
+
+    // ---------------------------------------------------------------- streams
+
+    private static Stream stream(Database db, Bytes key, boolean create, long now) {
+        return create ? db.getOrCreate(key, Stream.class, Stream::new, now) : db.get(key, Stream.class, now);
+    }
+
+    private void registerStreams() {
+        write("XADD", -5, this::xadd);
+        add("XLEN", 2, 0, (session, argv, now) -> {
+            Stream stream = stream(db(session), key(argv, 1), false, now);
+            return stream == null ? 0L : (long) stream.entries.size();
+        });
+        add("XRANGE", -4, 0, (session, argv, now) -> xrange(session, argv, argv.get(2), argv.get(3), false, now));
+        add("XREVRANGE", -4, 0, (session, argv, now) -> xrange(session, argv, argv.get(3), argv.get(2), true, now));
+        add("XGROUP", -2, 0, (session, argv, now) -> {
+            String sub = upper(argv.get(1));
+            if ("CREATE".equals(sub) && (argv.size() == 5 || argv.size() == 6)) {
+                if (argv.size() == 6 && !"MKSTREAM".equals(upper(argv.get(5)))) {
+                    throw RespError.SYNTAX;
+                }
+                Stream stream = stream(db(session), key(argv, 2), argv.size() == 6, now);
+                if (stream == null) {
+                    throw new RespError("ERR The XGROUP subcommand requires the key to exist. "
+                            + "Note that for CREATE you may want to use the MKSTREAM option to create an empty stream automatically.");
+                }
+                if (stream.groups.containsKey(key(argv, 3))) {
+                    throw new RespError("BUSYGROUP Consumer Group name already exists");
+                }
+                Stream.Id id = "$".equals(str(argv.get(4))) ? stream.lastId : Stream.Id.parse(argv.get(4), 0);
+                stream.groups.put(key(argv, 3), new Stream.Group(id));
+                return OK;
+            }
+            if ("DESTROY".equals(sub) && argv.size() == 4) {
+                Stream stream = stream(db(session), key(argv, 2), false, now);
+                return stream != null && stream.groups.remove(key(argv, 3)) != null ? 1L : 0L;
+            }
+            throw new RespError("ERR Unknown subcommand or wrong number of arguments for '" + str(argv.get(1)) + "'");
+        });
+        add("XREADGROUP", -7, 0, this::xreadgroup);
+        add("XACK", -4, 0, (session, argv, now) -> {
+            Stream stream = stream(db(session), key(argv, 1), false, now);
+            Stream.Group group = stream == null ? null : stream.groups.get(key(argv, 2));
+            long acked = 0;
+            for (int i = 3; group != null && i < argv.size(); i++) {
+                if (group.pending.remove(Stream.Id.parse(argv.get(i), 0)) != null) {
+                    acked++;
+                }
+            }
+            return acked;
+        });
+        add("XPENDING", -3, 0, this::xpending);
+        add("XCLAIM", -6, 0, this::xclaim);
+    }
+
+    /**
+     * XADD key [NOMKSTREAM] [MAXLEN [~|=] n] id field value ...
+     */
+    private Object xadd(Session session, List<byte[]> argv, long now) {
+        boolean create = true;
+        long maxLen = -1;
+        int i = 2;
+        while (i < argv.size()) {
+            String option = upper(argv.get(i));
+            if ("NOMKSTREAM".equals(option)) {
+                create = false;
+                i++;
+            } else if ("MAXLEN".equals(option) && i + 2 < argv.size()) {
+                String next = str(argv.get(i + 1));
+                i += "~".equals(next) || "=".equals(next) ? 2 : 1;
+                maxLen = integer(argv.get(i++));
+                if (maxLen < 0) {
+                    throw new RespError("ERR The MAXLEN argument must be >= 0.");
+                }
+            } else {
+                break;
+            }
+        }
+        if (argv.size() - i < 3 || (argv.size() - i - 1) % 2 != 0) {
+            throw wrongArguments("xadd");
+        }
+        Stream stream = stream(db(session), key(argv, 1), create, now);
+        if (stream == null) {
+            return null;
+        }
+        Stream.Id id = stream.nextId(argv.get(i), now);
+        stream.add(id, new ArrayList<>(argv.subList(i + 1, argv.size())));
+        if (maxLen >= 0) {
+            stream.trim(maxLen);
+        }
+        return id.bytes();
+    }
+
+    private Object xrange(Session session, List<byte[]> argv, byte[] start, byte[] end, boolean reverse, long now) {
+        long count = Long.MAX_VALUE;
+        if (argv.size() == 6 && "COUNT".equals(upper(argv.get(4)))) {
+            count = integer(argv.get(5));
+        } else if (argv.size() != 4) {
+            throw RespError.SYNTAX;
+        }
+        Stream stream = stream(db(session), key(argv, 1), false, now);
+        List<Object> entries = new ArrayList<>();
+        Stream.Id from = Stream.Id.parse(start, 0);
+        Stream.Id to = Stream.Id.parse(end, Long.MAX_VALUE);
+        if (stream == null || from.compareTo(to) > 0) {
+            return entries;
+        }
+        NavigableMap<Stream.Id, List<byte[]>> range = stream.entries.subMap(from, true, to, true);
+        for (Map.Entry<Stream.Id, List<byte[]>> entry : (reverse ? range.descendingMap() : range).entrySet()) {
+            if (entries.size() >= count) {
+                break;
+            }
+            entries.add(Arrays.asList(entry.getKey().bytes(), entry.getValue()));
+        }
+        return entries;
+    }
+
+    /**
+     * XREADGROUP GROUP group consumer [COUNT n] [BLOCK ms] [NOACK] STREAMS key ... id ...
+     * ID 为 > 时投递消费组中尚未投递的消息并加入 PEL，没有新消息时阻塞；其他 ID 读取该消费者 PEL 中之后的消息
+     */
+    private Object xreadgroup(Session session, List<byte[]> argv, long now) {
+        if (!"GROUP".equals(upper(argv.get(1)))) {
+            throw RespError.SYNTAX;
+        }
+        Bytes groupName = key(argv, 2);
+        Bytes consumer = key(argv, 3);
+        long count = Long.MAX_VALUE;
+        long block = -1;
+        boolean noAck = false;
+        int i = 4;
+        for (; i < argv.size() && !"STREAMS".equals(upper(argv.get(i))); i++) {
+            String option = upper(argv.get(i));
+            if ("COUNT".equals(option) && i + 1 < argv.size()) {
+                count = integer(argv.get(++i));
+            } else if ("BLOCK".equals(option) && i + 1 < argv.size()) {
+                block = integer(argv.get(++i));
+                if (block < 0) {
+                    throw new RespError("ERR timeout is negative");
+                }
+            } else if ("NOACK".equals(option)) {
+                noAck = true;
+            } else {
+                throw RespError.SYNTAX;
+            }
+        }
+        int keys = (argv.size() - i - 1) / 2;
+        if (keys == 0 || (argv.size() - i - 1) % 2 != 0) {
+            throw new RespError("ERR Unbalanced XREADGROUP list of streams: for each stream key an ID or '>' must be specified.");
+        }
+        List<Object> reply = new ArrayList<>();
+        for (int k = 0; k < keys; k++) {
+            Bytes key = key(argv, i + 1 + k);
+            byte[] id = argv.get(i + 1 + keys + k);
+            Stream stream = stream(db(session), key, false, now);
+            Stream.Group group = stream == null ? null : stream.groups.get(groupName);
+            if (group == null) {
+                throw new RespError("NOGROUP No such key '" + key + "' or consumer group '" + groupName + "' in XREADGROUP with GROUP option");
+            }
+            group.consumers.add(consumer);
+            if (">".equals(str(id))) {
+                List<Object> entries = deliver(stream, group, consumer, count, noAck, now);
+                if (!entries.isEmpty()) {
+                    reply.add(Arrays.asList(key.data, entries));
+                }
+            } else {
+                reply.add(Arrays.asList(key.data, history(stream, group, consumer, Stream.Id.parse(id, 0), count, now)));
+            }
+        }
+        if (!reply.isEmpty()) {
+            return reply;
+        }
+        return block < 0 ? NULL_ARRAY : block(session, block, NULL_ARRAY);
+    }
+
+    private static List<Object> deliver(Stream stream, Stream.Group group, Bytes consumer, long count, boolean noAck, long now) {
+        List<Object> entries = new ArrayList<>();
+        for (Map.Entry<Stream.Id, List<byte[]>> entry : stream.entries.tailMap(group.lastDelivered, false).entrySet()) {
+            if (entries.size() >= count) {
+                break;
+            }
+            group.lastDelivered = entry.getKey();
+            if (!noAck) {
+                group.pending.put(entry.getKey(), new Stream.Pending(consumer, now));
+            }
+            entries.add(Arrays.asList(entry.getKey().bytes(), entry.getValue()));
+        }
+        return entries;
+    }
+
+    /**
+     * 重新读取消费者自己未确认的消息，算作一次投递；条目已被删除时字段为 nil
+     */
+    private static List<Object> history(Stream stream, Stream.Group group, Bytes consumer, Stream.Id after, long count, long now) {
+        List<Object> entries = new ArrayList<>();
+        for (Map.Entry<Stream.Id, Stream.Pending> entry : group.pending.tailMap(after, false).entrySet()) {
+            if (entries.size() >= count) {
+                break;
+            }
+            Stream.Pending pending = entry.getValue();
+            if (pending.consumer.equals(consumer)) {
+                pending.deliveredAt = now;
+                pending.deliveries++;
+                entries.add(Arrays.asList(entry.getKey().bytes(), stream.entries.get(entry.getKey())));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * XPENDING key group：[总数, 最小ID, 最大ID, [[消费者, 数量]...]]
+     * XPENDING key group [IDLE ms] start end count [consumer]：[[ID, 消费者, 空闲毫秒, 投递次数]...]
+     */
+    private Object xpending(Session session, List<byte[]> argv, long now) {
+        Stream stream = stream(db(session), key(argv, 1), false, now);
+        Stream.Group group = stream == null ? null : stream.groups.get(key(argv, 2));
+        if (group == null) {
+            throw new RespError("NOGROUP No such key '" + str(argv.get(1)) + "' or consumer group '" + str(argv.get(2)) + "'");
+        }
+        if (argv.size() == 3) {
+            if (group.pending.isEmpty()) {
+                return Arrays.asList(0L, null, null, NULL_ARRAY);
+            }
+            Map<Bytes, Long> consumers = new LinkedHashMap<>();
+            for (Stream.Pending pending : group.pending.values()) {
+                consumers.merge(pending.consumer, 1L, Long::sum);
+            }
+            List<Object> counts = new ArrayList<>();
+            for (Map.Entry<Bytes, Long> entry : consumers.entrySet()) {
+                counts.add(Arrays.asList(entry.getKey().data, bytes(entry.getValue())));
+            }
+            return Arrays.asList((long) group.pending.size(), group.pending.firstKey().bytes(), group.pending.lastKey().bytes(), counts);
+        }
+        int i = 3;
+        long minIdle = 0;
+        if ("IDLE".equals(upper(argv.get(i))) && i + 1 < argv.size()) {
+            minIdle = integer(argv.get(i + 1));
+            i += 2;
+        }
+        if (argv.size() - i != 3 && argv.size() - i != 4) {
+            throw RespError.SYNTAX;
+        }
+        Stream.Id start = Stream.Id.parse(argv.get(i), 0);
+        Stream.Id end = Stream.Id.parse(argv.get(i + 1), Long.MAX_VALUE);
+        long count = integer(argv.get(i + 2));
+        Bytes consumer = argv.size() - i == 4 ? key(argv, i + 3) : null;
+        List<Object> messages = new ArrayList<>();
+        if (start.compareTo(end) > 0) {
+            return messages;
+        }
+        for (Map.Entry<Stream.Id, Stream.Pending> entry : group.pending.subMap(start, true, end, true).entrySet()) {
+            if (messages.size() >= count) {
+                break;
+            }
+            Stream.Pending pending = entry.getValue();
+            long idle = now - pending.deliveredAt;
+            if ((consumer == null || consumer.equals(pending.consumer)) && idle >= minIdle) {
+                messages.add(Arrays.asList(entry.getKey().bytes(), pending.consumer.data, idle, pending.deliveries));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * XCLAIM key group consumer min-idle id ... [JUSTID]：空闲不少于 min-idle 的消息转给 consumer 并增加投递次数，
+     * 条目已被删除的消息从 PEL 中移除
+     */
+    private Object xclaim(Session session, List<byte[]> argv, long now) {
+        Stream stream = stream(db(session), key(argv, 1), false, now);
+        Stream.Group group = stream == null ? null : stream.groups.get(key(argv, 2));
+        if (group == null) {
+            throw new RespError("NOGROUP No such key '" + str(argv.get(1)) + "' or consumer group '" + str(argv.get(2)) + "'");
+        }
+        Bytes consumer = key(argv, 3);
+        long minIdle = integer(argv.get(4));
+        List<Stream.Id> ids = new ArrayList<>();
+        boolean justId = false;
+        for (int i = 5; i < argv.size(); i++) {
+            Stream.Id id = Stream.Id.tryParse(argv.get(i), 0);
+            if (id != null && !justId) {
+                ids.add(id);
+            } else if ("JUSTID".equals(upper(argv.get(i)))) {
+                justId = true;
+            } else {
+                throw RespError.SYNTAX;
+            }
+        }
+        List<Object> claimed = new ArrayList<>();
+        for (Stream.Id id : ids) {
+            Stream.Pending pending = group.pending.get(id);
+            if (pending == null || now - pending.deliveredAt < minIdle) {
+                continue;
+            }
+            List<byte[]> fields = stream.entries.get(id);
+            if (fields == null) {
+                group.pending.remove(id);
+                continue;
+            }
+            group.consumers.add(consumer);
+            pending.consumer = consumer;
+            pending.deliveredAt = now;
+            if (!justId) {
+                pending.deliveries++;
+            }
+            claimed.add(justId ? id.bytes() : Arrays.asList(id.bytes(), fields));
+        }
+        return claimed;
+    }
+
+    // ---------------------------------------------------------------- transactions
+
+    private void registerTransactions() {
+        add("MULTI", 1, NO_QUEUE, (session, argv, now) -> {
+            if (session.queued != null) {
+                throw new RespError("ERR MULTI calls can not be nested");
+            }
+            session.queued = new ArrayList<>();
+            session.queueError = false;
+            return OK;
+        });
+        add("EXEC", 1, NO_QUEUE, (session, argv, now) -> {
+            List<List<byte[]>> queued = session.queued;
+            if (queued == null) {
+                throw new RespError("ERR EXEC without MULTI");
+            }
+            session.queued = null;
+            boolean aborted = session.queueError;
+            boolean dirty = session.dirty;
+            unwatch(session);
+            if (aborted) {
+                throw new RespError("EXECABORT Transaction discarded because of previous errors.");
+            }
+            if (dirty) {
+                return NULL_ARRAY;
+            }
+            List<Object> replies = new ArrayList<>(queued.size());
+            inExec = true;
+            try {
+                for (List<byte[]> command : queued) {
+                    replies.add(call(table.get(upper(command.get(0))), session, command, now));
+                }
+            } finally {
+                inExec = false;
+            }
+            return replies;
+        });
+        add("DISCARD", 1, NO_QUEUE, (session, argv, now) -> {
+            if (session.queued == null) {
+                throw new RespError("ERR DISCARD without MULTI");
+            }
+            session.queued = null;
+            unwatch(session);
+            return OK;
+        });
+        add("WATCH", -2, NO_QUEUE, (session, argv, now) -> {
+            if (session.queued != null) {
+                throw new RespError("ERR WATCH inside MULTI is not allowed");
+            }
+            Database db = db(session);
+            for (int i = 1; i < argv.size(); i++) {
+                Bytes key = key(argv, i);
+                //已过期的键在 WATCH 时删除，避免之后的惰性删除误判为修改
+                db.lookup(key, now);
+                db.watch(session, key);
+                session.watched.add(new Session.Watch(db, key));
+            }
+            return OK;
+        });
+        add("UNWATCH", 1, 0, (session, argv, now) -> {
+            unwatch(session);
+            return OK;
+        });
+    }
+
+    private static void unwatch(Session session) {
+        for (Session.Watch watch : session.watched) {
+            watch.db.unwatch(session, watch.key);
+        }
+        session.watched.clear();
+        session.dirty = false;
+    }
+
+    // ---------------------------------------------------------------- pub/sub
+
+    private void registerPubSub() {
+        add("SUBSCRIBE", -2, PUBSUB, (session, argv, now) -> subscribe(session, argv, channels, session.channels, "subscribe"));
+        add("PSUBSCRIBE", -2, PUBSUB, (session, argv, now) -> subscribe(session, argv, patterns, session.patterns, "psubscribe"));
+        add("UNSUBSCRIBE", -1, PUBSUB, (session, argv, now) -> unsubscribe(session, argv, channels, session.channels, "unsubscribe"));
+        add("PUNSUBSCRIBE", -1, PUBSUB, (session, argv, now) -> unsubscribe(session, argv, patterns, session.patterns, "punsubscribe"));
+        add("PUBLISH", 3, 0, (session, argv, now) -> {
+            Bytes channel = key(argv, 1);
+            long receivers = 0;
+            for (Session subscriber : channels.getOrDefault(channel, Collections.emptySet())) {
+                subscriber.push(Arrays.asList(MESSAGE, channel.data, argv.get(2)));
+                receivers++;
+            }
+            for (Map.Entry<Bytes, Set<Session>> entry : patterns.entrySet()) {
+                if (match(entry.getKey().data, channel.data)) {
+                    for (Session subscriber : entry.getValue()) {
+                        subscriber.push(Arrays.asList(PMESSAGE, entry.getKey().data, channel.data, argv.get(2)));
+                        receivers++;
+                    }
+                }
+            }
+            return receivers;
+        });
+    }
+
+    private static Object subscribe(Session session, List<byte[]> argv, Map<Bytes, Set<Session>> registry, Set<Bytes> subscribed, String kind) {
+        for (int i = 1; i < argv.size(); i++) {
+            Bytes channel = key(argv, i);
+            if (subscribed.add(channel)) {
+                registry.computeIfAbsent(channel, c -> new LinkedHashSet<>()).add(session);
+            }
+            session.push(Arrays.asList(bulk(kind), channel.data, (long) (session.channels.size() + session.patterns.size())));
+        }
+        return NO_REPLY;
+    }
+
+    private static Object unsubscribe(Session session, List<byte[]> argv, Map<Bytes, Set<Session>> registry, Set<Bytes> subscribed, String kind) {
+        List<Bytes> targets = new ArrayList<>();
+        if (argv.size() == 1) {
+            targets.addAll(subscribed);
+        } else {
+            for (int i = 1; i < argv.size(); i++) {
+                targets.add(key(argv, i));
+            }
+        }
+        if (targets.isEmpty()) {
+            session.push(Arrays.asList(bulk(kind), null, (long) (session.channels.size() + session.patterns.size())));
+        }
+        for (Bytes channel : targets) {
+            if (subscribed.remove(channel)) {
+                unsubscribe(registry, channel, session);
+            }
+            session.push(Arrays.asList(bulk(kind), channel.data, (long) (session.channels.size() + session.patterns.size())));
+        }
+        return NO_REPLY;
+    }
+
+    private static void unsubscribe(Map<Bytes, Set<Session>> registry, Bytes channel, Session session) {
+        Set<Session> sessions = registry.get(channel);
+        if (sessions != null && sessions.remove(session) && sessions.isEmpty()) {
+            registry.remove(channel);
+        }
+    }
+
+    // ---------------------------------------------------------------- scripting
+
+    private void registerScripting() {
+        add("EVALSHA", -3, 0, (session, argv, now) -> {
+            EmbeddedRedisServer.Script script = scripts.get(str(argv.get(1)).toLowerCase(Locale.ROOT));
+            if (script == null) {
+                throw new RespError("NOSCRIPT No matching script. Please use EVAL.");
+            }
+            return eval(session, script, argv, now);
+        });
+        add("EVAL", -3, 0, (session, argv, now) -> {
+            EmbeddedRedisServer.Script script = scripts.get(EmbeddedRedisServer.sha1(str(argv.get(1))));
+            if (script == null) {
+                throw new RespError("ERR Lua scripting is not supported by the embedded server, "
+                        + "register a Java implementation with EmbeddedRedisServer.registerScript");
+            }
+            return eval(session, script, argv, now);
+        });
+        add("SCRIPT", -2, 0, (session, argv, now) -> {
+            String sub = upper(argv.get(1));
+            if ("LOAD".equals(sub) && argv.size() == 3) {
+                return bulk(EmbeddedRedisServer.sha1(str(argv.get(2))));
+            }
+            if ("EXISTS".equals(sub) && argv.size() > 2) {
+                List<Long> exists = new ArrayList<>();
+                for (int i = 2; i < argv.size(); i++) {
+                    exists.add(scripts.containsKey(str(argv.get(i)).toLowerCase(Locale.ROOT)) ? 1L : 0L);
+                }
+                return exists;
+            }
+            if ("FLUSH".equals(sub)) {
+                //注册的是 Java 实现，不随 SCRIPT FLUSH 清除
+                return OK;
+            }
+            throw new RespError("ERR Unknown subcommand or wrong number of arguments for '" + str(argv.get(1)) + "'");
+        });
+    }
+
+    /**
+     * 在事件循环线程中直接执行，脚本内的命令之间不会插入其他连接的命令，与 Lua 脚本一样原子
+     */
+    private Object eval(Session session, EmbeddedRedisServer.Script script, List<byte[]> argv, long now) {
+        long numKeys = integer(argv.get(2));
+        if (numKeys < 0 || numKeys > argv.size() - 3) {
+            throw new RespError("ERR Number of keys can't be greater than number of args");
+        }
+        int split = 3 + (int) numKeys;
+        scriptSession.db = session.db;
+        Object result = script.run(argv.subList(3, split), argv.subList(split, argv.size()), command -> {
+            List<byte[]> call = new ArrayList<>(command.length);
+            for (Object arg : command) {
+                call.add(arg instanceof byte[] ? (byte[]) arg : bulk(String.valueOf(arg)));
+            }
+            Command target = table.get(upper(call.get(0)));
+            RespError error = check(target, call);
+            Object reply = error != null ? error : call(target, scriptSession, call, now);
+            if (reply instanceof RespError) {
+                throw (RespError) reply;
+            }
+            return reply == NULL_ARRAY ? null : reply;
+        });
+        return scriptReply(result);
+    }
+
+    /**
+     * 脚本返回值按 Lua 到 RESP 的规则转换：true 为 1，false 为 nil，字符串为 bulk string
+     */
+    private static Object scriptReply(Object result) {
+        if (result instanceof Boolean) {
+            return (Boolean) result ? 1L : null;
+        }
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof String) {
+            return bulk((String) result);
+        }
+        if (result instanceof List) {
+            List<Object> reply = new ArrayList<>();
+            for (Object element : (List<?>) result) {
+                reply.add(scriptReply(element));
+            }
+            return reply;
+        }
+        return result;
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private Database db(Session session) {
+        return dbs[session.db];
+    }
+
+    /**
+     * @Description: block 阻塞命令暂时没有数据：网络连接挂起等待 timeout 毫秒（0 为一直等待），
+     * 事务和脚本中不挂起，直接返回超时的回复
+     * @Param: [session, timeout, timeoutReply]
+     * @return: java.lang.Object
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    private Object block(Session session, long timeout, Object timeoutReply) {
+        if (inExec || !session.blockable()) {
+            return timeoutReply;
+        }
+        session.blockTimeout = timeout;
+        session.timeoutReply = timeoutReply;
+        return BLOCKED;
+    }
+
+    /**
+     * 列表阻塞命令的超时参数，单位秒，可以是小数
+     */
+    private static long timeout(byte[] value) {
+        double seconds;
+        try {
+            seconds = number(value);
+        } catch (RespError e) {
+            throw new RespError("ERR timeout is not a float or out of range");
+        }
+        if (seconds < 0) {
+            throw new RespError("ERR timeout is negative");
+        }
+        return (long) Math.ceil(seconds * 1000);
+    }
+
+    private void add(String name, int arity, int flags, Handler handler) {
+        table.put(name, new Command(name.toLowerCase(Locale.ROOT), arity, flags, 0, 0, 0, handler));
+    }
+
+    private void write(String name, int arity, Handler handler) {
+        write(name, arity, 1, 1, 1, handler);
+    }
+
+    private void write(String name, int arity, int firstKey, int lastKey, int step, Handler handler) {
+        table.put(name, new Command(name.toLowerCase(Locale.ROOT), arity, WRITE, firstKey, lastKey, step, handler));
+    }
+
+    private static RespError wrongArguments(String command) {
+        return new RespError("ERR wrong number of arguments for '" + command + "' command");
+    }
+
+    private static void pairs(List<byte[]> argv, int from, String command) {
+        if ((argv.size() - from) % 2 != 0) {
+            throw wrongArguments(command);
+        }
+    }
+
+    private static Bytes key(List<byte[]> argv, int index) {
+        return new Bytes(argv.get(index));
+    }
+
+    private static String str(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    static String upper(byte[] value) {
+        char[] chars = new char[value.length];
+        for (int i = 0; i < value.length; i++) {
+            char c = (char) (value[i] & 0xff);
+            chars[i] = c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+        }
+        return new String(chars);
+    }
+
+    private static byte[] bulk(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 整数值的分数输出为整数形式，与 Redis 一致
+     */
+    private static byte[] bytes(double value) {
+        if (Double.isInfinite(value)) {
+            return bulk(value > 0 ? "inf" : "-inf");
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e17) {
+            return bytes((long) value);
+        }
+        return bulk(Double.toString(value));
+    }
+
+    private static long integer(byte[] value) {
+        if (value.length == 0 || value.length > 20 || value[0] == '+' || Character.isWhitespace(value[0])) {
+            throw RespError.NOT_INTEGER;
+        }
+        try {
+            return Long.parseLong(str(value));
+        } catch (NumberFormatException e) {
+            throw RespError.NOT_INTEGER;
+        }
+    }
+
+    private static double number(byte[] value) {
+        String text = str(value);
+        switch (text.toLowerCase(Locale.ROOT)) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                break;
+        }
+        try {
+            double number = Double.parseDouble(text);
+            if (Double.isNaN(number) || text.isEmpty() || Character.isWhitespace(text.charAt(0))
+                    || Character.isWhitespace(text.charAt(text.length() - 1))) {
+                throw RespError.NOT_FLOAT;
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw RespError.NOT_FLOAT;
+        }
+    }
+
+    private static long multiply(long value, long factor) {
+        try {
+            return Math.multiplyExact(value, factor);
+        } catch (ArithmeticException e) {
+            throw new RespError("ERR invalid expire time");
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * 按 Redis 规则规范 [start, stop]：负数从末尾计，越界截断，区间为空时返回 null
+     */
+    private static int[] range(long start, long stop, int size) {
+        if (start < 0) {
+            start += size;
+        }
+        if (stop < 0) {
+            stop += size;
+        }
+        start = Math.max(start, 0);
+        stop = Math.min(stop, size - 1L);
+        if (start > stop || start >= size) {
+            return null;
+        }
+        return new int[]{(int) start, (int) stop};
+    }
+
+    /**
+     * Redis 的 glob 匹配：* ? [abc] [^a] [a-z] 和 \ 转义
+     */
+    static boolean match(byte[] pattern, byte[] value) {
+        return match(pattern, 0, value, 0);
+    }
+
+    private static boolean match(byte[] p, int pi, byte[] s, int si) {
+        while (pi < p.length) {
+            switch (p[pi]) {
+                case '*':
+                    while (pi + 1 < p.length && p[pi + 1] == '*') {
+                        pi++;
+                    }
+                    if (pi + 1 == p.length) {
+                        return true;
+                    }
+                    for (int i = si; i <= s.length; i++) {
+                        if (match(p, pi + 1, s, i)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case '?':
+                    if (si >= s.length) {
+                        return false;
+                    }
+                    pi++;
+                    si++;
+                    break;
+                case '[':
+                    if (si >= s.length) {
+                        return false;
+                    }
+                    pi++;
+                    boolean not = pi < p.length && p[pi] == '^';
+                    if (not) {
+                        pi++;
+                    }
+                    boolean matched = false;
+                    int c = s[si] & 0xff;
+                    while (pi < p.length && p[pi] != ']') {
+                        if (p[pi] == '\\' && pi + 1 < p.length) {
+                            matched |= (p[pi + 1] & 0xff) == c;
+                            pi += 2;
+                        } else if (pi + 2 < p.length && p[pi + 1] == '-' && p[pi + 2] != ']') {
+                            int low = Math.min(p[pi] & 0xff, p[pi + 2] & 0xff);
+                            int high = Math.max(p[pi] & 0xff, p[pi + 2] & 0xff);
+                            matched |= c >= low && c <= high;
+                            pi += 3;
+                        } else {
+                            matched |= (p[pi] & 0xff) == c;
+                            pi++;
+                        }
+                    }
+                    if (matched == not) {
+                        return false;
+                    }
+                    pi++;
+                    si++;
+                    break;
+                case '\\':
+                    //转义后的字符按普通字符比较
+                    if (pi + 1 < p.length) {
+                        pi++;
+                    }
+                    if (si >= s.length || p[pi] != s[si]) {
+                        return false;
+                    }
+                    pi++;
+                    si++;
+                    break;
+                default:
+                    if (si >= s.length || p[pi] != s[si]) {
+                        return false;
+                    }
+                    pi++;
+                    si++;
+            }
+        }
+        return si == s.length;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+
+        Object run(Session session, List<byte[]> argv, long now);
+    }
+
+    private static final class Command {
+
+        private final String name;
+
+        /**
+         * 参数个数（含命令名），负数表示至少
+         */
+        private final int arity;
+
+        private final int flags;
+
+        /**
+         * 写命令的键位置，用于标记 WATCH
+         */
+        private final int firstKey;
+
+        private final int lastKey;
+
+        private final int step;
+
+        private final Handler handler;
+
+        private Command(String name, int arity, int flags, int firstKey, int lastKey, int step, Handler handler) {
+            this.name = name;
+            this.arity = arity;
+            this.flags = flags;
+            this.firstKey = firstKey;
+            this.lastKey = lastKey;
+            this.step = step;
+            this.handler = handler;
+        }
+    }
+}
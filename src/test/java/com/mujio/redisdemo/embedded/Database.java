@@ -0,0 +1,216 @@
+package com.mujio.redisdemo.embedded;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * @Description: Database 一个逻辑库，键到值的散列表
+ * 值的类型：string 为 byte[]，hash 为 HashMap，list 为 ArrayList，set 为 HashSet，zset 为 ZSet，stream 为 Stream
+ * 过期键在访问时惰性删除，其余由时间轮到期后调用 expireIfDue 删除；键被修改或删除时标记 WATCH 它的连接
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class Database {
+
+    final int index;
+
+    private final Map<Bytes, Entry> entries = new HashMap<>();
+
+    private final Map<Bytes, Set<Session>> watchers = new HashMap<>();
+
+    private final TimerWheel<Expiring> wheel;
+
+    Database(int index, TimerWheel<Expiring> wheel) {
+        this.index = index;
+        this.wheel = wheel;
+    }
+
+    /**
+     * @Description: lookup 未过期的条目，已过期的顺带删除
+     * @Param: [key, now]
+     * @return: com.mujio.redisdemo.embedded.Database.Entry
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    Entry lookup(Bytes key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= now) {
+            entries.remove(key);
+            touch(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * @Description: get 指定类型的值，键不存在时为 null，类型不符时回复 WRONGTYPE
+     * @Param: [key, type, now]
+     * @return: T
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    <T> T get(Bytes key, Class<T> type, long now) {
+        Entry entry = lookup(key, now);
+        if (entry == null) {
+            return null;
+        }
+        if (!type.isInstance(entry.value)) {
+            throw RespError.WRONG_TYPE;
+        }
+        return type.cast(entry.value);
+    }
+
+    <T> T getOrCreate(Bytes key, Class<T> type, Supplier<T> factory, long now) {
+        T value = get(key, type, now);
+        if (value == null) {
+            value = factory.get();
+            entries.put(key, new Entry(value));
+        }
+        return value;
+    }
+
+    /**
+     * @Description: put 写入值并清除过期时间
+     * @Param: [key, value]
+     * @return: com.mujio.redisdemo.embedded.Database.Entry
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    Entry put(Bytes key, Object value) {
+        Entry entry = new Entry(value);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * 保留原条目（含过期时间）移动到新键
+     */
+    void rename(Bytes from, Bytes to, Entry entry) {
+        entries.remove(from);
+        entries.put(to, entry);
+        if (entry.expireAt != 0) {
+            wheel.schedule(new Expiring(this, to), entry.expireAt);
+        }
+    }
+
+    boolean remove(Bytes key, long now) {
+        return lookup(key, now) != null && entries.remove(key) != null;
+    }
+
+    /**
+     * 容器类型的值被清空时删除键，与 Redis 一致不保留空集合
+     */
+    void removeIfEmpty(Bytes key, int size) {
+        if (size == 0) {
+            entries.remove(key);
+        }
+    }
+
+    void expireAt(Bytes key, Entry entry, long at) {
+        entry.expireAt = at;
+        if (at != 0) {
+            wheel.schedule(new Expiring(this, key), at);
+        }
+    }
+
+    /**
+     * 时间轮到期回调，过期时间被延长或清除的键不删除
+     */
+    void expireIfDue(Bytes key, long now) {
+        lookup(key, now);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int expires() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.expireAt != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    Set<Bytes> keys(long now) {
+        Set<Bytes> keys = new LinkedHashSet<>(entries.size());
+        Iterator<Map.Entry<Bytes, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Bytes, Entry> entry = iterator.next();
+            if (entry.getValue().expireAt != 0 && entry.getValue().expireAt <= now) {
+                iterator.remove();
+                touch(entry.getKey());
+            } else {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    void clear() {
+        for (Bytes key : entries.keySet()) {
+            touch(key);
+        }
+        entries.clear();
+    }
+
+    void watch(Session session, Bytes key) {
+        watchers.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(session);
+    }
+
+    void unwatch(Session session, Bytes key) {
+        Set<Session> sessions = watchers.get(key);
+        if (sessions != null && sessions.remove(session) && sessions.isEmpty()) {
+            watchers.remove(key);
+        }
+    }
+
+    boolean hasWatchers() {
+        return !watchers.isEmpty();
+    }
+
+    /**
+     * 键被修改，WATCH 它的连接的下一次 EXEC 放弃执行
+     */
+    void touch(Bytes key) {
+        if (watchers.isEmpty()) {
+            return;
+        }
+        for (Session session : watchers.getOrDefault(key, Collections.emptySet())) {
+            session.dirty = true;
+        }
+    }
+
+    static final class Entry {
+
+        Object value;
+
+        /**
+         * 过期时间戳（毫秒），0 表示不过期
+         */
+        long expireAt;
+
+        Entry(Object value) {
+            this.value = value;
+        }
+    }
+
+    static final class Expiring {
+
+        final Database db;
+
+        final Bytes key;
+
+        Expiring(Database db, Bytes key) {
+            this.db = db;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mujio.redisdemo.embedded;
+
+import com.mujio.redisdemo.config.RedisConfig;
+import com.mujio.redisdemo.config.SerializerProperties;
+import com.mujio.redisdemo.resilience.RedisResilience;
+import com.mujio.redisdemo.serializer.TypeRegistry;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * @Description: EmbeddedRedisFixture 测试公用的内嵌 Redis：独立的 EmbeddedRedisServer（已注册所有脚本）加一个连接工厂，
+ * 模板按 RedisConfig 创建，不启用熔断与隔离舱；RedisConfig 的方法签名变化时只需修改这里
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public final class EmbeddedRedisFixture implements AutoCloseable {
+
+    private final EmbeddedRedisServer server;
+
+    private final LettuceConnectionFactory factory;
+
+    private EmbeddedRedisFixture(EmbeddedRedisServer server, LettuceConnectionFactory factory) {
+        this.server = server;
+        this.factory = factory;
+    }
+
+    /**
+     * @Description: start 启动新的内嵌 Redis 并创建连接工厂，用完调用 close
+     * @Param: []
+     * @return: com.mujio.redisdemo.embedded.EmbeddedRedisFixture
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public static EmbeddedRedisFixture start() {
+        EmbeddedRedisServer server = new EmbeddedRedisServer();
+        EmbeddedScripts.registerAll(server);
+        server.start();
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(server.getHost(), server.getPort()));
+        factory.afterPropertiesSet();
+        return new EmbeddedRedisFixture(server, factory);
+    }
+
+    /**
+     * @Description: redisTemplate 按 RedisConfig 创建模板，不启用熔断与隔离舱，供不经过 Spring 容器的测试和基准测试使用
+     * @Param: [factory, typeRegistry, properties, metrics]
+     * @return: org.springframework.data.redis.core.RedisTemplate<java.lang.String,java.lang.Object>
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public static RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory, TypeRegistry typeRegistry,
+                                                              SerializerProperties properties, RedisMetrics metrics) {
+        return new RedisConfig().redisTemplate(factory, typeRegistry, properties, metrics,
+                new StaticListableBeanFactory().getBeanProvider(RedisResilience.class));
+    }
+
+    public RedisTemplate<String, Object> redisTemplate() {
+        return redisTemplate(RedisMetrics.noop());
+    }
+
+    public RedisTemplate<String, Object> redisTemplate(RedisMetrics metrics) {
+        return redisTemplate(factory, new TypeRegistry(), new SerializerProperties(), metrics);
+    }
+
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(RedisMetrics metrics) {
+        return new RedisConfig().reactiveRedisTemplate(factory, new TypeRegistry(), new SerializerProperties(), metrics);
+    }
+
+    public EmbeddedRedisServer getServer() {
+        return server;
+    }
+
+    public LettuceConnectionFactory getFactory() {
+        return factory;
+    }
+
+    @Override
+    public void close() {
+        factory.destroy();
+        server.close();
+    }
+}
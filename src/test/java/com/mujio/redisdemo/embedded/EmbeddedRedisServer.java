@@ -0,0 +1,863 @@
+package com.mujio.redisdemo.embedded;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @Description: EmbeddedRedisServer 进程内的 RESP2 服务端，测试和基准测试不再依赖本机的 Redis
+ * 单个 NIO 线程处理所有连接和命令，与 Redis 一样命令串行执行，事务和脚本天然原子；
+ * 一次读到的多条 pipeline 命令的回复合并为一次写出
+ * 支持 RedisUtil 用到的 string/hash/list/set/zset/stream/过期/SCAN/事务/发布订阅命令，过期 key 由时间轮主动删除；
+ * 阻塞命令（BRPOP、BRPOPLPUSH、XREADGROUP BLOCK）没有数据时挂起连接，每轮事件循环重试直到有数据或超时；
+ * 不解释 Lua，EVAL/EVALSHA 执行按脚本 SHA1 注册的 Java 实现（见 EmbeddedScripts）
+ * 可注入固定延迟和故障（错误回复、断开连接、超时不回复），用于验证熔断、超时和重试
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public final class EmbeddedRedisServer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedRedisServer.class);
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private static final int MAX_BULK_LENGTH = 512 * 1024 * 1024;
+
+    private static final long TICK_MILLIS = 10;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static final byte[] NULL_BULK = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] NULL_ARRAY = "*-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static EmbeddedRedisServer shared;
+
+    public enum Fault {
+        /**
+         * 回复 ERR injected fault，不执行命令
+         */
+        ERROR,
+        /**
+         * 关闭连接，不执行命令
+         */
+        DISCONNECT,
+        /**
+         * 执行命令但不回复，之后同一连接的回复也被阻塞，直到 clearFaults
+         */
+        TIMEOUT
+    }
+
+    /**
+     * 用 Java 实现的脚本，通过 redis.call 执行命令，返回值按 Lua 的规则转换为回复
+     */
+    @FunctionalInterface
+    public interface Script {
+
+        Object run(List<byte[]> keys, List<byte[]> args, Redis redis);
+    }
+
+    @FunctionalInterface
+    public interface Redis {
+
+        /**
+         * 参数为 byte[] 或任意对象（按 toString 编码），命令出错时抛出异常，与 Lua 中的 redis.call 一致
+         */
+        Object call(Object... command);
+    }
+
+    private final String host;
+
+    private final int requestedPort;
+
+    private final Map<String, Script> scripts = new ConcurrentHashMap<>();
+
+    private final List<FaultRule> faults = new CopyOnWriteArrayList<>();
+
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final Set<Client> clients = new LinkedHashSet<>();
+
+    /**
+     * 本轮事件循环中有待写出数据的连接
+     */
+    private final Set<Client> pendingFlush = new LinkedHashSet<>();
+
+    /**
+     * 有延迟回复的连接
+     */
+    private final Set<Client> delayed = new HashSet<>();
+
+    /**
+     * 被阻塞命令挂起的连接，按挂起的顺序重试
+     */
+    private final Set<Client> blocked = new LinkedHashSet<>();
+
+    private volatile long latencyNanos;
+
+    private volatile boolean running;
+
+    private Selector selector;
+
+    private ServerSocketChannel serverChannel;
+
+    private Thread loop;
+
+    private Commands commands;
+
+    private int port;
+
+    private long nextClientId = 1;
+
+    private long commandsProcessed;
+
+    public EmbeddedRedisServer() {
+        this("127.0.0.1", 0);
+    }
+
+    /**
+     * @Description: EmbeddedRedisServer 端口为 0 时随机分配，启动后由 getPort 获取
+     * @Param: [host, port]
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public EmbeddedRedisServer(String host, int port) {
+        this.host = host;
+        this.requestedPort = port;
+    }
+
+    /**
+     * @Description: shared 整个 JVM 共用的实例，首次调用时启动并注册仓库中所有 Lua 脚本的 Java 实现
+     * 不注册关闭钩子：事件循环是守护线程，随 JVM 退出，提前关闭会让 Spring 关闭上下文时的命令超时
+     * @Param: []
+     * @return: com.mujio.redisdemo.embedded.EmbeddedRedisServer
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public static synchronized EmbeddedRedisServer shared() {
+        if (shared == null) {
+            EmbeddedRedisServer server = new EmbeddedRedisServer();
+            EmbeddedScripts.registerAll(server);
+            server.start();
+            shared = server;
+        }
+        return shared;
+    }
+
+    public synchronized EmbeddedRedisServer start() {
+        if (running) {
+            return this;
+        }
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(new InetSocketAddress(host, requestedPort), 1024);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            port = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            throw new UncheckedIOException("failed to start embedded redis on " + host + ":" + requestedPort, e);
+        }
+        commands = new Commands(scripts, this::serverInfo, System.currentTimeMillis());
+        running = true;
+        loop = new Thread(this::run, "redis-embedded");
+        loop.setDaemon(true);
+        loop.start();
+        log.info("embedded redis started on {}:{}", host, port);
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @Description: setLatency 之后每条回复延迟发送，同一连接的回复保持顺序，Duration.ZERO 取消延迟
+     * @Param: [latency]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void setLatency(Duration latency) {
+        this.latencyNanos = latency.toNanos();
+    }
+
+    /**
+     * @Description: injectFault 之后每条命令按概率触发故障，commands 为空时作用于所有命令
+     * @Param: [fault, probability, commands]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void injectFault(Fault fault, double probability, String... commands) {
+        Set<String> names = new HashSet<>();
+        for (String command : commands) {
+            names.add(command.toUpperCase(Locale.ROOT));
+        }
+        faults.add(new FaultRule(fault, probability, names));
+    }
+
+    /**
+     * 取消所有故障，被 TIMEOUT 阻塞的回复随即发出
+     */
+    public void clearFaults() {
+        faults.clear();
+        submit(() -> {
+            for (Client client : clients) {
+                client.release();
+            }
+        });
+    }
+
+    /**
+     * @Description: flushAll 清空所有库，在事件循环中执行，返回时已完成
+     * @Param: []
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void flushAll() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        submit(() -> {
+            commands.flushAll();
+            done.complete(null);
+        });
+        try {
+            done.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while flushing embedded redis", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("failed to flush embedded redis", e);
+        }
+    }
+
+    /**
+     * @Description: registerScript 为 Lua 脚本注册 Java 实现，EVAL 该脚本或 EVALSHA 其 SHA1 时执行
+     * @Param: [script, implementation]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public void registerScript(String script, Script implementation) {
+        scripts.put(sha1(script), implementation);
+    }
+
+    static String sha1(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void submit(Runnable task) {
+        tasks.add(task);
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private String serverInfo() {
+        return "# Server\r\nredis_version:6.0.0\r\nredis_mode:standalone\r\ntcp_port:" + port + "\r\n"
+                + "# Clients\r\nconnected_clients:" + clients.size() + "\r\n"
+                + "# Stats\r\ntotal_commands_processed:" + commandsProcessed + "\r\n";
+    }
+
+    // ---------------------------------------------------------------- event loop
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(selectTimeout());
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable()) {
+                            client.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            pendingFlush.add(client);
+                        }
+                    }
+                }
+                commands.expire(System.currentTimeMillis());
+                retryBlocked();
+                releaseDelayed();
+                for (Client client : pendingFlush) {
+                    client.flush();
+                }
+                pendingFlush.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("embedded redis event loop failed", e);
+        } finally {
+            for (Client client : new ArrayList<>(clients)) {
+                client.close();
+            }
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            log.info("embedded redis on port {} stopped", port);
+        }
+    }
+
+    /**
+     * 最长等待一个时间轮刻度，有延迟回复时等到最早的到期时间
+     */
+    private long selectTimeout() {
+        long timeout = TICK_MILLIS;
+        if (!delayed.isEmpty()) {
+            long now = System.nanoTime();
+            for (Client client : delayed) {
+                long due = client.replies.peekFirst().due;
+                if (due != Long.MAX_VALUE) {
+                    timeout = Math.min(timeout, Math.max(1, TimeUnit.NANOSECONDS.toMillis(due - now + 999_999)));
+                }
+            }
+        }
+        return timeout;
+    }
+
+    private void retryBlocked() {
+        if (blocked.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Client client : new ArrayList<>(blocked)) {
+            client.retry(now);
+        }
+    }
+
+    private void releaseDelayed() {
+        if (delayed.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Iterator<Client> iterator = delayed.iterator(); iterator.hasNext(); ) {
+            Client client = iterator.next();
+            while (!client.replies.isEmpty() && client.replies.peekFirst().due <= now) {
+                client.out.write(client.replies.pollFirst().data);
+                pendingFlush.add(client);
+            }
+            if (client.replies.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Client client = new Client(nextClientId++, channel);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+        }
+    }
+
+    private Fault fault(List<byte[]> argv) {
+        if (faults.isEmpty()) {
+            return null;
+        }
+        String name = Commands.upper(argv.get(0));
+        for (FaultRule rule : faults) {
+            if ((rule.commands.isEmpty() || rule.commands.contains(name)) && ThreadLocalRandom.current().nextDouble() < rule.probability) {
+                return rule.fault;
+            }
+        }
+        return null;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                //关闭失败不影响其他资源的释放
+            }
+        }
+    }
+
+    private static final class FaultRule {
+
+        private final Fault fault;
+
+        private final double probability;
+
+        private final Set<String> commands;
+
+        private FaultRule(Fault fault, double probability, Set<String> commands) {
+            this.fault = fault;
+            this.probability = probability;
+            this.commands = commands;
+        }
+    }
+
+    private static final class Delayed {
+
+        private final byte[] data;
+
+        private long due;
+
+        private Delayed(byte[] data, long due) {
+            this.data = data;
+            this.due = due;
+        }
+    }
+
+    /**
+     * 一条客户端连接，读缓冲中可能有不完整的命令，写缓冲积累本轮的回复
+     */
+    private final class Client extends Session {
+
+        private final SocketChannel channel;
+
+        private SelectionKey key;
+
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        private final Output out = new Output();
+
+        /**
+         * 因延迟或超时故障尚未发出的回复，按顺序发出
+         */
+        private final ArrayDeque<Delayed> replies = new ArrayDeque<>();
+
+        private boolean closed;
+
+        private int parsed;
+
+        /**
+         * 挂起的阻塞命令和截止时间，挂起期间不执行该连接之后的命令
+         */
+        private List<byte[]> blockedCommand;
+
+        private long blockedUntil;
+
+        private Client(long id, SocketChannel channel) {
+            super(id);
+            this.channel = channel;
+        }
+
+        @Override
+        void push(Object message) {
+            reply(message, false);
+            pendingFlush.add(this);
+        }
+
+        @Override
+        boolean blockable() {
+            return true;
+        }
+
+        private void read() {
+            int read;
+            try {
+                read = channel.read(in);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (read < 0) {
+                close();
+                return;
+            }
+            process();
+        }
+
+        /**
+         * 执行读缓冲中完整的命令，连接被阻塞命令挂起时之后的命令留在缓冲区中
+         */
+        private void process() {
+            in.flip();
+            byte[] buffer = in.array();
+            int limit = in.limit();
+            int position = 0;
+            try {
+                while (!closed && blockedCommand == null && position < limit) {
+                    List<byte[]> argv = parse(buffer, position, limit);
+                    if (argv == null) {
+                        break;
+                    }
+                    position = parsed;
+                    if (!argv.isEmpty()) {
+                        execute(argv);
+                    }
+                }
+            } catch (ProtocolException e) {
+                out.write(encode(new RespError("ERR Protocol error: " + e.getMessage())));
+                flush();
+                close();
+                return;
+            }
+            if (closed) {
+                return;
+            }
+            in.position(position);
+            in.compact();
+            if (!in.hasRemaining()) {
+                //剩余的半条命令占满了缓冲区
+                in.flip();
+                in = ByteBuffer.allocate(in.capacity() * 2).put(in);
+            }
+            pendingFlush.add(this);
+        }
+
+        private void execute(List<byte[]> argv) {
+            commandsProcessed++;
+            Fault fault = fault(argv);
+            if (fault == Fault.DISCONNECT) {
+                close();
+                return;
+            }
+            if (fault == Fault.ERROR) {
+                reply(new RespError("ERR injected fault"), false);
+                return;
+            }
+            Object reply = commands.execute(this, argv, System.currentTimeMillis());
+            if (reply == Commands.BLOCKED) {
+                blockedCommand = argv;
+                blockedUntil = blockTimeout == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + blockTimeout;
+                blocked.add(this);
+                return;
+            }
+            if (reply != Commands.NO_REPLY) {
+                reply(reply, fault == Fault.TIMEOUT);
+            }
+            if ("QUIT".equals(Commands.upper(argv.get(0)))) {
+                flush();
+                close();
+            }
+        }
+
+        /**
+         * 重新执行挂起的阻塞命令，有数据或已超时时回复，并继续执行缓冲区中之后的命令
+         */
+        private void retry(long now) {
+            Object reply = commands.execute(this, blockedCommand, now);
+            if (reply == Commands.BLOCKED) {
+                if (now < blockedUntil) {
+                    return;
+                }
+                reply = timeoutReply;
+            }
+            blockedCommand = null;
+            blocked.remove(this);
+            reply(reply, false);
+            process();
+        }
+
+        private void reply(Object reply, boolean hold) {
+            long latency = latencyNanos;
+            if (!hold && latency == 0 && replies.isEmpty()) {
+                encode(reply, out);
+                return;
+            }
+            long due = hold ? Long.MAX_VALUE : System.nanoTime() + latency;
+            Delayed last = replies.peekLast();
+            if (last != null && last.due > due) {
+                //排在被阻塞或更晚的回复之后，保持同一连接的回复顺序
+                due = last.due;
+            }
+            replies.addLast(new Delayed(encode(reply), due));
+            delayed.add(this);
+        }
+
+        /**
+         * 放行被 TIMEOUT 故障阻塞的回复
+         */
+        private void release() {
+            for (Delayed reply : replies) {
+                if (reply.due == Long.MAX_VALUE) {
+                    reply.due = 0;
+                }
+            }
+        }
+
+        private void flush() {
+            if (closed) {
+                return;
+            }
+            try {
+                out.writeTo(channel);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            int ops = out.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            commands.disconnect(this);
+            clients.remove(this);
+            delayed.remove(this);
+            blocked.remove(this);
+            key.cancel();
+            closeQuietly(channel);
+        }
+
+        /**
+         * 解析一条命令，不完整时返回 null，完整时 parsed 为命令结束的位置；支持 RESP 数组和 telnet 式的内联命令
+         */
+        private List<byte[]> parse(byte[] buffer, int start, int limit) {
+            if (buffer[start] != '*') {
+                int end = lineEnd(buffer, start, limit);
+                if (end < 0) {
+                    return null;
+                }
+                parsed = end + 2;
+                List<byte[]> argv = new ArrayList<>();
+                for (String part : new String(buffer, start, end - start, StandardCharsets.UTF_8).trim().split("\\s+")) {
+                    if (!part.isEmpty()) {
+                        argv.add(part.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                return argv;
+            }
+            int end = lineEnd(buffer, start, limit);
+            if (end < 0) {
+                return null;
+            }
+            long count = number(buffer, start + 1, end);
+            if (count > 1024 * 1024) {
+                throw new ProtocolException("invalid multibulk length");
+            }
+            int position = end + 2;
+            List<byte[]> argv = new ArrayList<>((int) Math.max(count, 0));
+            for (long i = 0; i < count; i++) {
+                if (position >= limit) {
+                    return null;
+                }
+                if (buffer[position] != '$') {
+                    throw new ProtocolException("expected '$', got '" + (char) buffer[position] + "'");
+                }
+                end = lineEnd(buffer, position, limit);
+                if (end < 0) {
+                    return null;
+                }
+                long length = number(buffer, position + 1, end);
+                if (length < 0 || length > MAX_BULK_LENGTH) {
+                    throw new ProtocolException("invalid bulk length");
+                }
+                position = end + 2;
+                if (position + length + 2 > limit) {
+                    return null;
+                }
+                argv.add(Arrays.copyOfRange(buffer, position, position + (int) length));
+                position += (int) length + 2;
+            }
+            parsed = position;
+            return argv;
+        }
+
+        private int lineEnd(byte[] buffer, int start, int limit) {
+            for (int i = start; i < limit - 1; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    return i;
+                }
+            }
+            if (limit - start > 64 * 1024) {
+                throw new ProtocolException("too big inline request");
+            }
+            return -1;
+        }
+
+        private long number(byte[] buffer, int start, int end) {
+            boolean negative = start < end && buffer[start] == '-';
+            long value = 0;
+            for (int i = negative ? start + 1 : start; i < end; i++) {
+                if (buffer[i] < '0' || buffer[i] > '9') {
+                    throw new ProtocolException("invalid length");
+                }
+                value = value * 10 + (buffer[i] - '0');
+            }
+            return negative ? -value : value;
+        }
+    }
+
+    private static byte[] encode(Object reply) {
+        Output output = new Output();
+        encode(reply, output);
+        return Arrays.copyOf(output.buffer, output.size);
+    }
+
+    private static void encode(Object reply, Output out) {
+        if (reply == null) {
+            out.write(NULL_BULK);
+        } else if (reply instanceof byte[]) {
+            byte[] bulk = (byte[]) reply;
+            out.write('$');
+            out.writeLong(bulk.length);
+            out.write(CRLF);
+            out.write(bulk);
+            out.write(CRLF);
+        } else if (reply instanceof String) {
+            out.write('+');
+            out.write(((String) reply).getBytes(StandardCharsets.UTF_8));
+            out.write(CRLF);
+        } else if (reply instanceof Number) {
+            out.write(':');
+            out.writeLong(((Number) reply).longValue());
+            out.write(CRLF);
+        } else if (reply instanceof RespError) {
+            out.write('-');
+            out.write(((RespError) reply).getMessage().replace('\r', ' ').replace('\n', ' ').getBytes(StandardCharsets.UTF_8));
+            out.write(CRLF);
+        } else if (reply instanceof List) {
+            List<?> list = (List<?>) reply;
+            out.write('*');
+            out.writeLong(list.size());
+            out.write(CRLF);
+            for (Object element : list) {
+                encode(element, out);
+            }
+        } else if (reply == Commands.NULL_ARRAY) {
+            out.write(NULL_ARRAY);
+        } else {
+            throw new IllegalArgumentException("unsupported reply " + reply.getClass());
+        }
+    }
+
+    /**
+     * 可增长的写缓冲，记录已写出到 socket 的位置
+     */
+    private static final class Output {
+
+        private byte[] buffer = new byte[READ_BUFFER_SIZE];
+
+        private int size;
+
+        private int written;
+
+        private boolean isEmpty() {
+            return written == size;
+        }
+
+        private void write(int b) {
+            ensure(1);
+            buffer[size++] = (byte) b;
+        }
+
+        private void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void writeLong(long value) {
+            if (value >= 0 && value < 10) {
+                write('0' + (int) value);
+            } else {
+                write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        private void writeTo(SocketChannel channel) throws IOException {
+            if (isEmpty()) {
+                return;
+            }
+            written += channel.write(ByteBuffer.wrap(buffer, written, size - written));
+            if (isEmpty()) {
+                size = 0;
+                written = 0;
+                if (buffer.length > 1024 * 1024) {
+                    //大回复之后缩回初始大小
+                    buffer = new byte[READ_BUFFER_SIZE];
+                }
+            }
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class ProtocolException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private ProtocolException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.mujio.redisdemo.embedded;
+
+import io.lettuce.core.BitFieldArgs;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.TransactionResult;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.models.stream.PendingMessage;
+import io.lettuce.core.models.stream.PendingParser;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedRedisServerTests {
+
+    private EmbeddedRedisServer server;
+
+    private RedisClient client;
+
+    private StatefulRedisConnection<String, String> connection;
+
+    private RedisCommands<String, String> redis;
+
+    @BeforeEach
+    void start() {
+        server = new EmbeddedRedisServer().start();
+        client = RedisClient.create(RedisURI.builder().withHost(server.getHost()).withPort(server.getPort())
+                .withTimeout(Duration.ofSeconds(2)).build());
+        connection = client.connect();
+        redis = connection.sync();
+    }
+
+    @AfterEach
+    void stop() {
+        client.shutdown(Duration.ZERO, Duration.ofSeconds(1));
+        server.close();
+    }
+
+    @Test
+    void stringsAndExpiry() throws Exception {
+        assertEquals("OK", redis.set("a", "1"));
+        assertEquals(5L, redis.incrby("a", 4));
+        assertEquals(3L, redis.append("a", "xy"));
+        assertEquals("5xy", redis.get("a"));
+        assertNull(redis.set("a", "2", SetArgs.Builder.nx()));
+        assertEquals(Arrays.asList(KeyValue.just("a", "5xy"), KeyValue.empty("missing")), redis.mget("a", "missing"));
+
+        redis.set("ttl", "v", SetArgs.Builder.px(50));
+        assertTrue(redis.pttl("ttl") > 0);
+        //时间轮主动删除，不访问 key 时 DBSIZE 也会下降
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (redis.dbsize() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1L, redis.dbsize());
+        assertEquals(-2L, redis.ttl("ttl"));
+
+        assertEquals(Arrays.asList(0L, 255L), redis.bitfield("bits",
+                BitFieldArgs.Builder.set(BitFieldArgs.unsigned(8), 0, 255).get(BitFieldArgs.unsigned(8), 0)));
+        assertEquals(8L, redis.bitcount("bits"));
+    }
+
+    @Test
+    void collections() {
+        assertTrue(redis.hset("h", "f1", "1"));
+        assertTrue(redis.hset("h", "f2", "2"));
+        assertFalse(redis.hset("h", "f2", "2"));
+        assertEquals(11L, redis.hincrby("h", "f1", 10));
+        assertEquals("2", redis.hget("h", "f2"));
+        assertEquals(2L, redis.hlen("h"));
+
+        assertEquals(3L, redis.rpush("l", "a", "b", "c"));
+        assertEquals(4L, redis.lpush("l", "z"));
+        assertEquals(Arrays.asList("z", "a", "b", "c"), redis.lrange("l", 0, -1));
+        assertEquals(1L, redis.lrem("l", 0, "a"));
+        assertEquals("c", redis.rpop("l"));
+
+        assertEquals(2L, redis.sadd("s", "x", "y", "x"));
+        assertEquals(new HashSet<>(Arrays.asList("x", "y")), redis.smembers("s"));
+        assertTrue(redis.sismember("s", "x"));
+
+        redis.zadd("z", 3.0, "c", 1.0, "a", 2.0, "b");
+        assertEquals(Arrays.asList("c", "b"), redis.zrevrange("z", 0, 1));
+        assertEquals(Arrays.asList(ScoredValue.just(2, "b"), ScoredValue.just(3, "c")),
+                redis.zrangebyscoreWithScores("z", Range.create(1.5, 3)));
+        assertEquals(0L, redis.zrevrank("z", "c"));
+        assertEquals(4.5, redis.zincrby("z", 2.5, "b"));
+
+        assertThrows(RedisCommandExecutionException.class, () -> redis.hget("l", "f"));
+        assertEquals("list", redis.type("l"));
+    }
+
+    @Test
+    void scanVisitsEveryKey() {
+        for (int i = 0; i < 1000; i++) {
+            redis.set("scan:" + i, "v");
+        }
+        redis.set("other", "v");
+        Set<String> seen = new HashSet<>();
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            KeyScanCursor<String> page = redis.scan(cursor, ScanArgs.Builder.matches("scan:*").limit(100));
+            seen.addAll(page.getKeys());
+            cursor = page;
+        } while (!cursor.isFinished());
+        assertEquals(1000, seen.size());
+    }
+
+    @Test
+    void watchedKeyChangeDiscardsTransaction() {
+        redis.set("tx", "1");
+        redis.watch("tx");
+        try (StatefulRedisConnection<String, String> other = client.connect()) {
+            other.sync().set("tx", "2");
+        }
+        redis.multi();
+        redis.set("tx", "3");
+        TransactionResult result = redis.exec();
+        assertTrue(result.wasDiscarded());
+        assertEquals("2", redis.get("tx"));
+
+        redis.multi();
+        redis.incr("tx");
+        redis.get("tx");
+        assertEquals(Arrays.asList(3L, "3"), redis.exec().stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void publishReachesChannelAndPatternSubscribers() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StatefulRedisPubSubConnection<String, String> pubSub = client.connectPubSub();
+        pubSub.addListener(new RedisPubSubAdapter<String, String>() {
+            @Override
+            public void message(String channel, String message) {
+                received.add(channel + "=" + message);
+            }
+
+            @Override
+            public void message(String pattern, String channel, String message) {
+                received.add(pattern + ":" + channel + "=" + message);
+            }
+        });
+        pubSub.sync().subscribe("news");
+        pubSub.sync().psubscribe("n*");
+        assertEquals(2L, redis.publish("news", "hello"));
+        Set<String> messages = new HashSet<>();
+        messages.add(received.poll(2, TimeUnit.SECONDS));
+        messages.add(received.poll(2, TimeUnit.SECONDS));
+        assertEquals(new HashSet<>(Arrays.asList("news=hello", "n*:news=hello")), messages);
+        pubSub.close();
+    }
+
+    @Test
+    void injectedFaults() {
+        server.injectFault(EmbeddedRedisServer.Fault.ERROR, 1, "GET");
+        RedisCommandExecutionException error = assertThrows(RedisCommandExecutionException.class, () -> redis.get("k"));
+        assertEquals("ERR injected fault", error.getMessage());
+        assertEquals("OK", redis.set("k", "v"));
+        server.clearFaults();
+
+        connection.setTimeout(Duration.ofMillis(200));
+        server.injectFault(EmbeddedRedisServer.Fault.TIMEOUT, 1, "INCR");
+        assertThrows(RedisCommandTimeoutException.class, () -> redis.incr("counter"));
+        server.clearFaults();
+        //超时的命令已执行，被阻塞的回复放行后连接上的回复顺序不乱
+        assertEquals(2L, redis.incr("counter"));
+        assertEquals("v", redis.get("k"));
+
+        server.injectFault(EmbeddedRedisServer.Fault.DISCONNECT, 1, "PING");
+        assertThrows(RedisException.class, () -> redis.ping());
+        server.clearFaults();
+        assertEquals("PONG", redis.ping());
+    }
+
+    @Test
+    void blockingPopWaitsForPush() throws Exception {
+        assertNull(redis.brpop(1, "queue"));
+        try (StatefulRedisConnection<String, String> other = client.connect()) {
+            RedisFuture<KeyValue<String, String>> popped = other.async().brpop(5, "queue");
+            Thread.sleep(50);
+            assertFalse(popped.isDone());
+            redis.lpush("queue", "a");
+            assertEquals(KeyValue.just("queue", "a"), popped.get(2, TimeUnit.SECONDS));
+        }
+        redis.lpush("queue", "b");
+        assertEquals("b", redis.brpoplpush(1, "queue", "processing"));
+        assertEquals(Arrays.asList("b"), redis.lrange("processing", 0, -1));
+        //事务中的阻塞命令不挂起，直接返回超时的回复
+        redis.multi();
+        redis.brpop(0, "queue");
+        assertEquals(Arrays.asList((Object) null), redis.exec().stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void streamConsumerGroups() throws Exception {
+        assertEquals("OK", redis.xgroupCreate(XReadArgs.StreamOffset.from("stream", "0"), "group", XGroupCreateArgs.Builder.mkstream()));
+        assertThrows(RedisCommandExecutionException.class,
+                () -> redis.xgroupCreate(XReadArgs.StreamOffset.from("stream", "0"), "group"));
+        String first = redis.xadd("stream", "f", "1");
+        String second = redis.xadd("stream", XAddArgs.Builder.maxlen(10), "f", "2");
+        assertEquals(2L, redis.xlen("stream"));
+        assertEquals("stream", redis.type("stream"));
+
+        List<StreamMessage<String, String>> read = redis.xreadgroup(Consumer.from("group", "c1"),
+                XReadArgs.Builder.count(1), lastConsumed("stream"));
+        assertEquals(first, read.get(0).getId());
+        assertEquals(Collections.singletonMap("f", "1"), read.get(0).getBody());
+        assertEquals(second, redis.xreadgroup(Consumer.from("group", "c2"), lastConsumed("stream")).get(0).getId());
+        assertEquals(2L, redis.xpending("stream", "group").get(0));
+
+        //没有新消息时 BLOCK 挂起，直到 XADD
+        try (StatefulRedisConnection<String, String> other = client.connect()) {
+            RedisFuture<List<StreamMessage<String, String>>> blocked = other.async().xreadgroup(Consumer.from("group", "c1"),
+                    XReadArgs.Builder.block(5000), lastConsumed("stream"));
+            Thread.sleep(50);
+            assertFalse(blocked.isDone());
+            String third = redis.xadd("stream", "f", "3");
+            assertEquals(third, blocked.get(2, TimeUnit.SECONDS).get(0).getId());
+        }
+
+        assertEquals(1L, redis.xack("stream", "group", second));
+        Thread.sleep(20);
+        List<StreamMessage<String, String>> claimed = redis.xclaim("stream", Consumer.from("group", "c2"), 10, first);
+        assertEquals(first, claimed.get(0).getId());
+        List<PendingMessage> pending = PendingParser.parseRange(redis.xpending("stream", Consumer.from("group", "c2"), Range.create("-", "+"), Limit.from(10)));
+        assertEquals(1, pending.size());
+        assertEquals(2L, pending.get(0).getRedeliveryCount());
+        assertEquals(Arrays.asList(first, second), redis.xrange("stream", Range.create(first, second)).stream()
+                .map(StreamMessage::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void latencyDelaysReplies() {
+        server.setLatency(Duration.ofMillis(50));
+        long begin = System.nanoTime();
+        List<String> values = Arrays.asList(redis.set("a", "1"), redis.get("a"));
+        assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(Arrays.asList("OK", "1"), values);
+    }
+
+    /** Lettuce 的 xreadgroup 以泛型可变参数接收偏移，这里直接给出数组，避免调用处的 unchecked 警告 */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static XReadArgs.StreamOffset<String>[] lastConsumed(String stream) {
+        return new XReadArgs.StreamOffset[]{XReadArgs.StreamOffset.lastConsumed(stream)};
+    }
+}
@@ -0,0 +1,161 @@
+package com.mujio.redisdemo.embedded;
+
+import com.mujio.redisdemo.utils.RedisScripts;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @Description: EmbeddedScripts src/main/resources/lua 下各脚本的 Java 实现，逐条对应 Lua 中的 redis.call，
+ * 修改 Lua 脚本时需要同步修改这里，否则内嵌 Redis 上 EVALSHA 会返回 NOSCRIPT
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+public final class EmbeddedScripts {
+
+    private EmbeddedScripts() {
+    }
+
+    /**
+     * @Description: registerAll 注册 RedisScripts 中的所有脚本
+     * @Param: [server]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    public static void registerAll(EmbeddedRedisServer server) {
+        server.registerScript(RedisScripts.HSET_EX.getScriptAsString(), (keys, args, redis) -> {
+            long ttl = number(args.get(0));
+            if (args.size() > 1) {
+                redis.call(command("HMSET", keys.get(0), args.subList(1, args.size())));
+            }
+            expire(redis, keys.get(0), ttl);
+            return (args.size() - 1) / 2;
+        });
+        server.registerScript(RedisScripts.SADD_EX.getScriptAsString(), (keys, args, redis) -> {
+            long ttl = number(args.get(0));
+            Object count = args.size() > 1 ? redis.call(command("SADD", keys.get(0), args.subList(1, args.size()))) : 0;
+            expire(redis, keys.get(0), ttl);
+            return count;
+        });
+        server.registerScript(RedisScripts.RPUSH_EX.getScriptAsString(), (keys, args, redis) -> {
+            long ttl = number(args.get(0));
+            Object size = args.size() > 1
+                    ? redis.call(command("RPUSH", keys.get(0), args.subList(1, args.size())))
+                    : redis.call("LLEN", keys.get(0));
+            expire(redis, keys.get(0), ttl);
+            return size;
+        });
+        server.registerScript(RedisScripts.UNLOCK.getScriptAsString(), (keys, args, redis) -> {
+            if (!Arrays.equals((byte[]) redis.call("GET", keys.get(0)), args.get(0))) {
+                return 0;
+            }
+            redis.call("DEL", keys.get(0));
+            if (args.size() > 1) {
+                redis.call("PUBLISH", args.get(1), keys.get(0));
+            }
+            return 1;
+        });
+        server.registerScript(RedisScripts.RENEW.getScriptAsString(), (keys, args, redis) -> {
+            if (!Arrays.equals((byte[]) redis.call("GET", keys.get(0)), args.get(0))) {
+                return 0;
+            }
+            return redis.call("PEXPIRE", keys.get(0), args.get(1));
+        });
+        server.registerScript(RedisScripts.LOCK.getScriptAsString(), EmbeddedScripts::lock);
+        server.registerScript(RedisScripts.RATE_LIMIT.getScriptAsString(), EmbeddedScripts::rateLimit);
+    }
+
+    private static Object lock(List<byte[]> keys, List<byte[]> args, EmbeddedRedisServer.Redis redis) {
+        byte[] owner = args.get(0);
+        boolean fair = "1".equals(string(args.get(2)));
+        long now = number(args.get(3));
+        if (fair) {
+            while (true) {
+                byte[] head = (byte[]) redis.call("LINDEX", keys.get(2), 0);
+                if (head == null) {
+                    break;
+                }
+                byte[] deadline = (byte[]) redis.call("ZSCORE", keys.get(3), head);
+                if (deadline != null && Double.parseDouble(string(deadline)) >= now) {
+                    break;
+                }
+                redis.call("LPOP", keys.get(2));
+                redis.call("ZREM", keys.get(3), head);
+            }
+        }
+        if ((Long) redis.call("EXISTS", keys.get(0)) == 0) {
+            byte[] head = fair ? (byte[]) redis.call("LINDEX", keys.get(2), 0) : null;
+            if (head == null || Arrays.equals(head, owner)) {
+                if (head != null) {
+                    redis.call("LPOP", keys.get(2));
+                    redis.call("ZREM", keys.get(3), owner);
+                }
+                redis.call("SET", keys.get(0), owner, "PX", args.get(1));
+                return Arrays.asList(1, redis.call("INCR", keys.get(1)));
+            }
+        }
+        if (fair) {
+            if (redis.call("ZSCORE", keys.get(3), owner) == null) {
+                redis.call("RPUSH", keys.get(2), owner);
+            }
+            redis.call("ZADD", keys.get(3), now + number(args.get(4)), owner);
+        }
+        return Arrays.asList(0, Math.max((Long) redis.call("PTTL", keys.get(0)), 0));
+    }
+
+    private static Object rateLimit(List<byte[]> keys, List<byte[]> args, EmbeddedRedisServer.Redis redis) {
+        double window = number(args.get(0));
+        double limit = number(args.get(1));
+        long permits = number(args.get(2));
+        double now = number(args.get(3));
+        long current = (long) Math.floor(now / window);
+        double offset = now - current * window;
+        double count = field(redis, keys.get(0), current);
+        double previous = field(redis, keys.get(0), current - 1);
+        double estimated = previous * (window - offset) / window + count;
+        if (estimated + permits > limit) {
+            double retry = window - offset;
+            double room = limit - count - permits;
+            if (previous > 0 && room >= 0) {
+                retry = Math.max(Math.ceil(window * (1 - room / previous)) - offset, 1);
+            }
+            return Arrays.asList(0, (long) Math.max(Math.floor(limit - estimated), 0), (long) retry);
+        }
+        if ((Long) redis.call("HINCRBY", keys.get(0), current, permits) == permits) {
+            redis.call("HDEL", keys.get(0), current - 2);
+            redis.call("PEXPIRE", keys.get(0), (long) (window * 2));
+        }
+        return Arrays.asList(1, (long) Math.floor(limit - estimated - permits), 0);
+    }
+
+    private static double field(EmbeddedRedisServer.Redis redis, byte[] key, long window) {
+        byte[] value = (byte[]) redis.call("HGET", key, window);
+        return value == null ? 0 : Double.parseDouble(string(value));
+    }
+
+    private static void expire(EmbeddedRedisServer.Redis redis, byte[] key, long ttl) {
+        if (ttl > 0) {
+            redis.call("EXPIRE", key, ttl);
+        }
+    }
+
+    private static Object[] command(String name, byte[] key, List<byte[]> args) {
+        Object[] command = new Object[args.size() + 2];
+        command[0] = name;
+        command[1] = key;
+        for (int i = 0; i < args.size(); i++) {
+            command[i + 2] = args.get(i);
+        }
+        return command;
+    }
+
+    private static long number(byte[] value) {
+        return (long) Double.parseDouble(string(value));
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,23 @@
+package com.mujio.redisdemo.embedded;
+
+/**
+ * @Description: RespError 命令的错误回复，消息以错误前缀开头（ERR、WRONGTYPE、NOSCRIPT 等）
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class RespError extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    static final RespError WRONG_TYPE = new RespError("WRONGTYPE Operation against a key holding the wrong kind of value");
+
+    static final RespError NOT_INTEGER = new RespError("ERR value is not an integer or out of range");
+
+    static final RespError NOT_FLOAT = new RespError("ERR value is not a valid float");
+
+    static final RespError SYNTAX = new RespError("ERR syntax error");
+
+    RespError(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mujio.redisdemo.embedded;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @Description: Session 一个客户端连接的状态：当前库、事务队列、WATCH 的键、订阅的频道和阻塞命令的等待参数
+ * 脚本中的 redis.call 使用单独的 Session，与调用方共用当前库
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+class Session {
+
+    final long id;
+
+    int db;
+
+    String name;
+
+    /**
+     * MULTI 之后排队的命令，不在事务中时为 null
+     */
+    List<List<byte[]>> queued;
+
+    /**
+     * 排队时出现错误，EXEC 直接放弃
+     */
+    boolean queueError;
+
+    final List<Watch> watched = new ArrayList<>();
+
+    /**
+     * WATCH 的键在 EXEC 前被修改
+     */
+    boolean dirty;
+
+    final Set<Bytes> channels = new HashSet<>();
+
+    final Set<Bytes> patterns = new HashSet<>();
+
+    /**
+     * 阻塞命令的等待时间（毫秒，0 为一直等待）和超时后的回复，命令回复 BLOCKED 时设置
+     */
+    long blockTimeout;
+
+    Object timeoutReply;
+
+    Session(long id) {
+        this.id = id;
+    }
+
+    boolean subscribed() {
+        return !channels.isEmpty() || !patterns.isEmpty();
+    }
+
+    /**
+     * 推送发布订阅消息，只有网络连接支持
+     */
+    void push(Object message) {
+        throw new RespError("ERR pub/sub is not allowed in this context");
+    }
+
+    /**
+     * 能否挂起等待阻塞命令，只有网络连接支持
+     */
+    boolean blockable() {
+        return false;
+    }
+
+    static final class Watch {
+
+        final Database db;
+
+        final Bytes key;
+
+        Watch(Database db, Bytes key) {
+            this.db = db;
+            this.key = key;
+        }
+    }
+}
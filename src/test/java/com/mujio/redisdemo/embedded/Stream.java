@@ -0,0 +1,172 @@
+package com.mujio.redisdemo.embedded;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * @Description: Stream 按 ID 排序的条目加消费组，条目的字段和值按顺序平铺存储，与 XRANGE 的回复一致
+ * 消费组记录最后投递的 ID 和已投递未确认的消息（PEL），消费者只记录名字
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class Stream {
+
+    final TreeMap<Id, List<byte[]>> entries = new TreeMap<>();
+
+    final Map<Bytes, Group> groups = new LinkedHashMap<>();
+
+    Id lastId = Id.MIN;
+
+    /**
+     * @Description: nextId XADD 的 ID：* 按当前毫秒生成，同一毫秒内递增序号；指定的 ID 必须大于最后一个 ID
+     * @Param: [requested, now]
+     * @return: com.mujio.redisdemo.embedded.Stream.Id
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    Id nextId(byte[] requested, long now) {
+        if (requested.length == 1 && requested[0] == '*') {
+            return now > lastId.ms ? new Id(now, 0) : new Id(lastId.ms, lastId.seq + 1);
+        }
+        Id id = Id.parse(requested, 0);
+        if (id.compareTo(lastId) <= 0) {
+            throw new RespError("ERR The ID specified in XADD is equal or smaller than the target stream top item");
+        }
+        return id;
+    }
+
+    void add(Id id, List<byte[]> fields) {
+        entries.put(id, fields);
+        lastId = id;
+    }
+
+    /**
+     * MAXLEN 裁剪，从最早的条目开始删除，不区分 ~ 和 =
+     */
+    void trim(long maxLen) {
+        while (entries.size() > maxLen) {
+            entries.pollFirstEntry();
+        }
+    }
+
+    static final class Id implements Comparable<Id> {
+
+        static final Id MIN = new Id(0, 0);
+
+        static final Id MAX = new Id(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        final long ms;
+
+        final long seq;
+
+        Id(long ms, long seq) {
+            this.ms = ms;
+            this.seq = seq;
+        }
+
+        /**
+         * @Description: parse 解析 ms-seq，省略序号时取 defaultSeq；- 和 + 为最小和最大的 ID
+         * @Param: [value, defaultSeq]
+         * @return: com.mujio.redisdemo.embedded.Stream.Id
+         * @Author: GZY
+         * @Date: 2026/10/17 0017
+         */
+        static Id parse(byte[] value, long defaultSeq) {
+            Id id = tryParse(value, defaultSeq);
+            if (id == null) {
+                throw new RespError("ERR Invalid stream ID specified as stream command argument");
+            }
+            return id;
+        }
+
+        /**
+         * 不是合法的 ID 时返回 null，用于区分 ID 和命令选项
+         */
+        static Id tryParse(byte[] value, long defaultSeq) {
+            String text = new String(value, StandardCharsets.US_ASCII);
+            if ("-".equals(text)) {
+                return MIN;
+            }
+            if ("+".equals(text)) {
+                return MAX;
+            }
+            int dash = text.indexOf('-');
+            try {
+                if (dash < 0) {
+                    return new Id(Long.parseUnsignedLong(text), defaultSeq);
+                }
+                return new Id(Long.parseUnsignedLong(text.substring(0, dash)), Long.parseUnsignedLong(text.substring(dash + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        byte[] bytes() {
+            return toString().getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public int compareTo(Id other) {
+            int result = Long.compareUnsigned(ms, other.ms);
+            return result != 0 ? result : Long.compareUnsigned(seq, other.seq);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Id)) {
+                return false;
+            }
+            Id other = (Id) o;
+            return ms == other.ms && seq == other.seq;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(ms) * 31 + Long.hashCode(seq);
+        }
+
+        @Override
+        public String toString() {
+            return Long.toUnsignedString(ms) + "-" + Long.toUnsignedString(seq);
+        }
+    }
+
+    static final class Group {
+
+        Id lastDelivered;
+
+        final TreeMap<Id, Pending> pending = new TreeMap<>();
+
+        final Set<Bytes> consumers = new LinkedHashSet<>();
+
+        Group(Id lastDelivered) {
+            this.lastDelivered = lastDelivered;
+        }
+    }
+
+    /**
+     * PEL 中的一条消息：当前所属的消费者、最后一次投递的时间和投递次数
+     */
+    static final class Pending {
+
+        Bytes consumer;
+
+        long deliveredAt;
+
+        long deliveries;
+
+        Pending(Bytes consumer, long deliveredAt) {
+            this.consumer = consumer;
+            this.deliveredAt = deliveredAt;
+            this.deliveries = 1;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mujio.redisdemo.embedded;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * @Description: TimerWheel 哈希时间轮，按到期时间把条目放入 tick 对应的槽，每次推进只检查经过的槽，
+ * 与条目总数无关；到期时间超过一圈的条目留在槽中，转到对应的圈数时才到期
+ * 只在事件循环线程中使用，不做同步
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class TimerWheel<T> {
+
+    private final long tickMillis;
+
+    private final List<List<Node<T>>> slots;
+
+    private final int mask;
+
+    private long currentTick;
+
+    private int size;
+
+    TimerWheel(long tickMillis, int slotCount, long now) {
+        int count = Integer.highestOneBit(Math.max(2, slotCount - 1) << 1);
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.mask = count - 1;
+        this.currentTick = now / tickMillis;
+    }
+
+    /**
+     * @Description: schedule 登记在 deadline（毫秒时间戳）到期的条目，已过期的在下一个 tick 到期
+     * @Param: [item, deadline]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    void schedule(T item, long deadline) {
+        long tick = Math.max((deadline + tickMillis - 1) / tickMillis, currentTick + 1);
+        slots.get((int) (tick & mask)).add(new Node<>(item, deadline));
+        size++;
+    }
+
+    /**
+     * @Description: advance 推进到 now，把经过的槽中已到期的条目交给 expired
+     * @Param: [now, expired]
+     * @return: void
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    void advance(long now, Consumer<T> expired) {
+        long target = now / tickMillis;
+        if (target <= currentTick) {
+            return;
+        }
+        //间隔超过一圈时每个槽只需检查一次
+        long steps = Math.min(target - currentTick, slots.size());
+        for (long tick = target - steps + 1; tick <= target; tick++) {
+            Iterator<Node<T>> iterator = slots.get((int) (tick & mask)).iterator();
+            while (iterator.hasNext()) {
+                Node<T> node = iterator.next();
+                if (node.deadline <= now) {
+                    iterator.remove();
+                    size--;
+                    expired.accept(node.item);
+                }
+            }
+        }
+        currentTick = target;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static final class Node<T> {
+
+        private final T item;
+
+        private final long deadline;
+
+        private Node(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.mujio.redisdemo.embedded;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * @Description: ZSet 有序集合，成员到分数的散列表加按 (分数, 成员) 排序的红黑树，排名为 O(n)，测试规模下足够
+ * @Author: GZY
+ * @Date: 2026/10/17 0017
+ */
+final class ZSet {
+
+    private final Map<Bytes, Double> scores = new HashMap<>();
+
+    private final TreeSet<Item> sorted = new TreeSet<>();
+
+    int size() {
+        return scores.size();
+    }
+
+    Double score(Bytes member) {
+        return scores.get(member);
+    }
+
+    /**
+     * @Description: put 写入成员的分数，返回原分数，新成员返回 null
+     * @Param: [member, score]
+     * @return: java.lang.Double
+     * @Author: GZY
+     * @Date: 2026/10/17 0017
+     */
+    Double put(Bytes member, double score) {
+        Double previous = scores.put(member, score);
+        if (previous != null) {
+            sorted.remove(new Item(member, previous));
+        }
+        sorted.add(new Item(member, score));
+        return previous;
+    }
+
+    boolean remove(Bytes member) {
+        Double previous = scores.remove(member);
+        if (previous == null) {
+            return false;
+        }
+        sorted.remove(new Item(member, previous));
+        return true;
+    }
+
+    /**
+     * 升序排名，成员不存在时为 -1
+     */
+    int rank(Bytes member) {
+        Double score = scores.get(member);
+        return score == null ? -1 : sorted.headSet(new Item(member, score)).size();
+    }
+
+    /**
+     * 按升序排名取 [start, stop]，下标已规范为非负且不越界
+     */
+    List<Item> range(int start, int stop) {
+        List<Item> items = new ArrayList<>(Math.max(0, stop - start + 1));
+        int index = 0;
+        for (Item item : sorted) {
+            if (index > stop) {
+                break;
+            }
+            if (index >= start) {
+                items.add(item);
+            }
+            index++;
+        }
+        return items;
+    }
+
+    /**
+     * 分数在区间内的成员，升序
+     */
+    NavigableSet<Item> rangeByScore(double min, boolean minExclusive, double max, boolean maxExclusive) {
+        if (min > max) {
+            return new TreeSet<>();
+        }
+        Item from = new Item(minExclusive ? Item.AFTER : Item.BEFORE, min);
+        Item to = new Item(maxExclusive ? Item.BEFORE : Item.AFTER, max);
+        if (from.compareTo(to) > 0) {
+            return new TreeSet<>();
+        }
+        return sorted.subSet(from, true, to, true);
+    }
+
+    Iterable<Item> items() {
+        return sorted;
+    }
+
+    static final class Item implements Comparable<Item> {
+
+        /**
+         * 区间查询的边界哨兵，排在同分数的所有成员之前/之后
+         */
+        private static final Bytes BEFORE = new Bytes(new byte[0]);
+
+        private static final Bytes AFTER = new Bytes(new byte[0]);
+
+        final Bytes member;
+
+        final double score;
+
+        Item(Bytes member, double score) {
+            this.member = member;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            int byScore = Double.compare(score, other.score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            if (member == other.member) {
+                return 0;
+            }
+            if (member == BEFORE || other.member == AFTER) {
+                return -1;
+            }
+            if (member == AFTER || other.member == BEFORE) {
+                return 1;
+            }
+            return member.compareTo(other.member);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Item && compareTo((Item) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return member.hashCode() * 31 + Double.hashCode(score);
+        }
+    }
+}
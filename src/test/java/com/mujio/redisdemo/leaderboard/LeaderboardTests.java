@@ -0,0 +1,152 @@
+package com.mujio.redisdemo.leaderboard;
+
+import com.mujio.redisdemo.config.LeaderboardProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private SimpleMeterRegistry registry;
+
+    private LeaderboardProperties properties;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        redisTemplate = redis.redisTemplate();
+        registry = new SimpleMeterRegistry();
+        properties = new LeaderboardProperties();
+        properties.setPageSize(2);
+        properties.setCachedPages(2);
+        properties.setPageTtl(Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void stop() {
+        redis.close();
+    }
+
+    @Test
+    void rankingFollowsScores() {
+        Leaderboard leaderboard = leaderboard("test:rank");
+        Map<String, Double> scores = new LinkedHashMap<>();
+        scores.put("a", 10.0);
+        scores.put("b", 30.0);
+        scores.put("c", 20.0);
+        leaderboard.addAll(scores);
+        leaderboard.add("d", 5);
+
+        assertEquals(4, leaderboard.size());
+        Leaderboard.Entry c = leaderboard.get("c");
+        assertEquals(2, c.getRank());
+        assertEquals(20.0, c.getScore());
+        assertNull(leaderboard.get("missing"));
+
+        assertEquals(35.0, leaderboard.incr("d", 30));
+        assertEquals(1, leaderboard.get("d").getRank());
+        assertTrue(leaderboard.remove("b"));
+        assertFalse(leaderboard.remove("b"));
+        assertEquals(Arrays.asList("1:d=35.0", "2:c=20.0", "3:a=10.0"), names(leaderboard.top(10)));
+    }
+
+    @Test
+    void pagesSplitTheBoard() {
+        Leaderboard leaderboard = leaderboard("test:page");
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (int i = 1; i <= 7; i++) {
+            scores.put("m" + i, (double) i);
+        }
+        leaderboard.addAll(scores);
+
+        assertEquals(Arrays.asList("1:m7=7.0", "2:m6=6.0"), names(leaderboard.page(0)));
+        assertEquals(Arrays.asList("3:m5=5.0", "4:m4=4.0"), names(leaderboard.page(1)));
+        //超出缓存页的页直接查询 Redis
+        assertEquals(Arrays.asList("5:m3=3.0", "6:m2=2.0"), names(leaderboard.page(2)));
+        assertEquals(Arrays.asList("7:m1=1.0"), names(leaderboard.page(3)));
+        assertTrue(leaderboard.page(4).isEmpty());
+
+        assertEquals(Arrays.asList("1:m7=7.0", "2:m6=6.0", "3:m5=5.0"), names(leaderboard.top(3)));
+        assertEquals(6, leaderboard.top(6).size());
+        assertTrue(leaderboard.top(0).isEmpty());
+    }
+
+    @Test
+    void cachedPageLagsAtMostPageTtl() throws Exception {
+        Leaderboard leaderboard = leaderboard("test:stale");
+        leaderboard.add("a", 1);
+        assertEquals(Arrays.asList("1:a=1.0"), names(leaderboard.page(0)));
+
+        leaderboard.add("b", 2);
+        assertEquals(Arrays.asList("1:a=1.0"), names(leaderboard.page(0)));
+
+        //有效期过半后的查询仍返回缓存页，同时在后台刷新
+        Thread.sleep(200);
+        leaderboard.page(0);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (leaderboard.page(0).size() < 2) {
+            assertTrue(System.nanoTime() < deadline, "page not refreshed in time");
+            Thread.sleep(20);
+        }
+
+        //过期后的查询同步回源，不返回旧页
+        leaderboard.remove("b");
+        Thread.sleep(400);
+        assertEquals(Arrays.asList("1:a=1.0"), names(leaderboard.page(0)));
+    }
+
+    @Test
+    void concurrentPageLoadsShareOneQuery() throws Exception {
+        Leaderboard leaderboard = leaderboard("test:concurrent");
+        leaderboard.add("a", 1);
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Leaderboard.Entry>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                ready.await();
+                return leaderboard.page(0);
+            }));
+        }
+        ready.countDown();
+        for (Future<List<Leaderboard.Entry>> result : results) {
+            assertEquals(Arrays.asList("1:a=1.0"), names(result.get(5, TimeUnit.SECONDS)));
+        }
+        executor.shutdown();
+        assertEquals(1, registry.get("redis.command").tag("command", "leaderboardRange").timer().count());
+    }
+
+    private Leaderboard leaderboard(String name) {
+        return new Leaderboard(redisTemplate, name, properties, new RedisMetrics(registry));
+    }
+
+    private static List<String> names(List<Leaderboard.Entry> entries) {
+        return entries.stream().map(Leaderboard.Entry::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+package com.mujio.redisdemo.limit;
+
+import com.mujio.redisdemo.config.RateLimiterProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import com.mujio.redisdemo.utils.RedisScripts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisRateLimiterTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisRateLimiter rateLimiter;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        redisTemplate = redis.redisTemplate();
+        rateLimiter = new RedisRateLimiter(redisTemplate, new RateLimiterProperties(), RedisMetrics.noop());
+    }
+
+    @AfterEach
+    void stop() {
+        redis.close();
+    }
+
+    @Test
+    void rejectsOnceLimitIsReached() {
+        Duration window = Duration.ofHours(1);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("user:1", 3, window));
+        }
+        RedisRateLimiter.Result rejected = rateLimiter.acquire("user:1", 3, window, 1);
+        assertFalse(rejected.isAllowed());
+        assertEquals(0, rejected.getRemaining());
+        assertTrue(rejected.getRetryAfterMillis() > 0);
+
+        //限流键之间互不影响
+        RedisRateLimiter.Result other = rateLimiter.acquire("user:2", 3, window, 2);
+        assertTrue(other.isAllowed());
+        assertEquals(1, other.getRemaining());
+        assertEquals(0, other.getRetryAfterMillis());
+        assertFalse(rateLimiter.acquire("user:2", 3, window, 2).isAllowed());
+        assertTrue(redisTemplate.hasKey("rate-limit:user:2"));
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.acquire("user:3", 3, window, 0));
+    }
+
+    @Test
+    void previousWindowDecaysAcrossTheBoundary() {
+        //窗口 1000ms、限额 10，时间由参数指定
+        assertEquals(Arrays.asList(1L, 0L, 0L), script(10_000, 10));
+        assertEquals(Arrays.asList(0L, 0L, 500L), script(10_500, 1));
+
+        //新窗口过半：上一窗口按 0.5 计入，估算 5 次
+        assertEquals(Arrays.asList(1L, 0L, 0L), script(11_500, 5));
+        //再过 100ms：估算 10 * 0.4 + 5 = 9 次
+        assertEquals(Arrays.asList(1L, 0L, 0L), script(11_600, 1));
+        //估算 10 次已满，上一窗口权重降到 0.3 时可以放行
+        assertEquals(Arrays.asList(0L, 0L, 100L), script(11_600, 1));
+        assertEquals(Arrays.asList(1L, 0L, 0L), script(11_700, 1));
+
+        //两个窗口后上一窗口不再计入，新窗口的第一次请求把键的过期时间续为两个窗口
+        assertEquals(Arrays.asList(1L, 7L, 0L), script(13_000, 3));
+        long ttl = redisTemplate.getExpire("rate-limit:script", TimeUnit.MILLISECONDS);
+        assertTrue(ttl > 0 && ttl <= 2000, "ttl: " + ttl);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> script(long now, int permits) {
+        return redisTemplate.execute(RedisScripts.RATE_LIMIT, RedisSerializer.string(), null,
+                Collections.singletonList("rate-limit:script"), "1000", "10", String.valueOf(permits), String.valueOf(now));
+    }
+}
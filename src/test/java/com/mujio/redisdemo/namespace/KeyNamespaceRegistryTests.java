@@ -0,0 +1,118 @@
+package com.mujio.redisdemo.namespace;
+
+import com.mujio.redisdemo.config.KeyNamespaceProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import com.mujio.redisdemo.embedded.EmbeddedRedisServer;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyNamespaceRegistryTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private KeyNamespaceProperties properties;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        redisTemplate = redis.redisTemplate();
+        properties = new KeyNamespaceProperties();
+        properties.setReclaim(false);
+        properties.setPrefixes(Collections.singletonMap("users", "app:user"));
+    }
+
+    @AfterEach
+    void stop() {
+        redis.close();
+    }
+
+    @Test
+    void invalidateSwitchesToNewVersion() {
+        KeyNamespaceRegistry registry = new KeyNamespaceRegistry(redisTemplate, properties, RedisMetrics.noop());
+        KeyNamespace users = registry.getNamespace("users");
+        assertEquals("app:user:v0:1001", users.key("1001"));
+        assertEquals("orders:v0:7", registry.key("orders", "7"));
+
+        redisTemplate.opsForValue().set(users.key("1001"), "alice");
+        assertEquals(1L, users.invalidate());
+        assertEquals("app:user:v1:1001", users.key("1001"));
+        assertNull(redisTemplate.opsForValue().get(users.key("1001")));
+        assertEquals(0L, registry.getNamespace("orders").version());
+        registry.destroy();
+    }
+
+    @Test
+    void versionIsServedFromLocalCache() {
+        KeyNamespaceRegistry registry = new KeyNamespaceRegistry(redisTemplate, properties, RedisMetrics.noop());
+        registry.invalidate("users");
+        //本地已有版本号，GET 全部失败也不影响拼 key
+        redis.getServer().injectFault(EmbeddedRedisServer.Fault.ERROR, Integer.MAX_VALUE, "GET");
+        for (int i = 0; i < 100; i++) {
+            assertEquals("app:user:v1:" + i, registry.key("users", String.valueOf(i)));
+        }
+        redis.getServer().clearFaults();
+        registry.destroy();
+    }
+
+    @Test
+    void notificationUpdatesOtherNodes() {
+        KeyNamespaceRegistry local = new KeyNamespaceRegistry(redisTemplate, properties, RedisMetrics.noop());
+        KeyNamespaceRegistry remote = new KeyNamespaceRegistry(redisTemplate, properties, RedisMetrics.noop());
+        assertEquals(0L, remote.getNamespace("users").version());
+
+        local.invalidate("users");
+        local.invalidate("users");
+        remote.onMessage(message("users|2"), null);
+        assertEquals("app:user:v2:x", remote.key("users", "x"));
+        //迟到的旧通知不会让版本号回退
+        remote.onMessage(message("users|1"), null);
+        assertEquals(2L, remote.getNamespace("users").version());
+        local.destroy();
+        remote.destroy();
+    }
+
+    @Test
+    void reclaimDeletesOnlyOlderVersions() {
+        KeyNamespaceRegistry registry = new KeyNamespaceRegistry(redisTemplate, properties, RedisMetrics.noop());
+        KeyNamespace users = registry.getNamespace("users");
+        for (int i = 0; i < 30; i++) {
+            redisTemplate.opsForValue().set(users.key(String.valueOf(i)), i);
+        }
+        users.invalidate();
+        for (int i = 0; i < 20; i++) {
+            redisTemplate.opsForValue().set(users.key(String.valueOf(i)), i);
+        }
+        users.invalidate();
+        redisTemplate.opsForValue().set(users.key("current"), "kept");
+        redisTemplate.opsForValue().set("app:user:vip", "unrelated");
+
+        properties.setReclaimBatch(7);
+        assertEquals(50L, registry.reclaim("users"));
+        assertEquals("kept", redisTemplate.opsForValue().get(users.key("current")));
+        assertTrue(redisTemplate.hasKey("app:user:vip"));
+        assertTrue(redisTemplate.hasKey("app:user:version"));
+        assertFalse(redisTemplate.hasKey("app:user:v0:0"));
+        registry.destroy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private DefaultMessage message(String text) {
+        return new DefaultMessage(properties.getChannel().getBytes(StandardCharsets.UTF_8),
+                ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(text));
+    }
+}
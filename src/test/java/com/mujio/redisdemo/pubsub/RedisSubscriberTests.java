@@ -0,0 +1,97 @@
+package com.mujio.redisdemo.pubsub;
+
+import com.mujio.redisdemo.config.RedisPubSubProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class RedisSubscriberTests {
+
+    private RedisSubscriber subscriber(int queueCapacity, int batchSize) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setValueSerializer(RedisSerializer.string());
+        RedisPubSubProperties properties = new RedisPubSubProperties();
+        properties.setQueueCapacity(queueCapacity);
+        properties.setBatchSize(batchSize);
+        properties.setDispatchThreads(4);
+        return new RedisSubscriber(mock(RedisMessageListenerContainer.class), template, properties, RedisMetrics.noop());
+    }
+
+    private static DefaultMessage message(String channel, String body) {
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void messagesOfEachChannelAreDeliveredInOrderAndInBatches() throws Exception {
+        RedisSubscriber subscriber = subscriber(100000, 50);
+        int channels = 8;
+        int perChannel = 2000;
+        Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+        AtomicInteger maxBatch = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(channels * perChannel);
+        RedisSubscriber.Subscription subscription = subscriber.subscribe("events:*", 4, messages -> {
+            maxBatch.accumulateAndGet(messages.size(), Math::max);
+            for (PubSubMessage message : messages) {
+                assertEquals("events:*", message.getTopic());
+                received.computeIfAbsent(message.getChannel(), c -> new ArrayList<>()).add(Integer.parseInt((String) message.getPayload()));
+                done.countDown();
+            }
+        });
+        List<Thread> publishers = new ArrayList<>();
+        for (int c = 0; c < channels; c++) {
+            String channel = "events:" + c;
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < perChannel; i++) {
+                    subscription.onMessage(message(channel, String.valueOf(i)), null);
+                }
+            });
+            publishers.add(publisher);
+            publisher.start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(channels, received.size());
+        for (List<Integer> values : received.values()) {
+            for (int i = 0; i < perChannel; i++) {
+                assertEquals(i, values.get(i));
+            }
+        }
+        assertTrue(maxBatch.get() <= 50);
+        subscriber.destroy();
+    }
+
+    @Test
+    void overflowIsDroppedWithoutBlockingTheCallback() throws Exception {
+        RedisSubscriber subscriber = subscriber(10, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger handled = new AtomicInteger();
+        RedisSubscriber.Subscription subscription = subscriber.subscribe("jobs", 1, messages -> {
+            release.await();
+            handled.addAndGet(messages.size());
+        });
+        for (int i = 0; i < 100; i++) {
+            subscription.onMessage(message("jobs", String.valueOf(i)), null);
+        }
+        release.countDown();
+        subscriber.destroy();
+        assertTrue(handled.get() <= 11);
+    }
+}
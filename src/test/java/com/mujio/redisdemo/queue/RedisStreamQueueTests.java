@@ -0,0 +1,121 @@
+package com.mujio.redisdemo.queue;
+
+import com.mujio.redisdemo.config.RedisStreamConfig;
+import com.mujio.redisdemo.config.RedisStreamProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisStreamQueueTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisStreamProperties properties;
+
+    private RedisQueueRegistry registry;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        redisTemplate = redis.redisTemplate();
+        properties = new RedisStreamProperties();
+        properties.setPollTimeout(Duration.ofMillis(200));
+        properties.setAckInterval(Duration.ofMillis(50));
+        properties.setReclaimInterval(Duration.ofMillis(100));
+        properties.setMinIdle(Duration.ofMillis(200));
+        properties.setMaxDeliveries(2);
+        StreamMessageListenerContainer<String, MapRecord<String, String, Object>> container =
+                new RedisStreamConfig().streamListenerContainer(redis.getFactory(), redisTemplate, properties);
+        container.start();
+        registry = new RedisQueueRegistry(redisTemplate, container, properties, RedisMetrics.noop());
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        registry.destroy();
+        //等待阻塞中的 XREADGROUP 返回，避免关闭连接时记录读取失败
+        Thread.sleep(properties.getPollTimeout().toMillis());
+        redis.close();
+    }
+
+    @Test
+    void consumedMessagesAreAcknowledged() throws Exception {
+        RedisStreamQueue queue = registry.getQueue("test:stream");
+        List<Object> received = new CopyOnWriteArrayList<>();
+        queue.subscribe("workers", (id, payload) -> received.add(payload));
+
+        queue.add("a");
+        queue.addAll(Arrays.asList("b", "c"));
+        await(() -> received.size() == 3);
+        assertEquals(Arrays.asList("a", "b", "c"), received);
+        await(() -> queue.pending("workers") == 0);
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    void failingMessageIsReclaimedThenDeadLettered() throws Exception {
+        RedisStreamQueue queue = registry.getQueue("test:stream");
+        List<Object> attempts = new CopyOnWriteArrayList<>();
+        queue.subscribe("workers", (id, payload) -> {
+            attempts.add(payload);
+            if ("bad".equals(payload)) {
+                throw new IllegalStateException("cannot handle " + payload);
+            }
+        });
+
+        String id = queue.add("bad");
+        queue.add("good");
+        //首次投递失败，空闲超过 minIdle 后被接管重试一次，投递次数达到 maxDeliveries 后转入死信队列
+        await(() -> redisTemplate.hasKey("test:stream:dlq"));
+        await(() -> queue.pending("workers") == 0);
+        assertEquals(Arrays.asList("bad", "good", "bad"), attempts);
+
+        List<ByteRecord> dead = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection -> connection.streamCommands()
+                .xRange(RedisSerializer.string().serialize("test:stream:dlq"), Range.unbounded()));
+        assertEquals(1, dead.size());
+        assertEquals(id, string(dead.get(0), "source-id"));
+        assertEquals("bad", redisTemplate.getValueSerializer().deserialize(field(dead.get(0), RedisStreamQueue.PAYLOAD)));
+    }
+
+    private static String string(ByteRecord record, String field) {
+        return RedisSerializer.string().deserialize(field(record, field));
+    }
+
+    private static byte[] field(ByteRecord record, String field) {
+        return record.getValue().entrySet().stream()
+                .filter(entry -> field.equals(RedisSerializer.string().deserialize(entry.getKey())))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(20);
+        }
+    }
+}
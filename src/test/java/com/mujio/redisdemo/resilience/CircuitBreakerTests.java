@@ -0,0 +1,79 @@
+package com.mujio.redisdemo.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final List<String> transitions = new ArrayList<>();
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker(10, 5, 50, 1000, 2, clock::get, (from, to) -> transitions.add(from + "->" + to));
+    }
+
+    private static void fail(CircuitBreaker breaker, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    void opensAtFailureRateAndRecoversThroughHalfOpen() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 6; i++) {
+            breaker.tryAcquire();
+            breaker.onSuccess();
+        }
+        fail(breaker, 4);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        //窗口满后最早的成功被挤出，失败率达到 50%
+        fail(breaker, 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        clock.addAndGet(1000);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+        assertEquals(3, transitions.size());
+        assertEquals("HALF_OPEN->CLOSED", transitions.get(2));
+    }
+
+    @Test
+    void failedProbeReopens() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, 5);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        clock.addAndGet(1000);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        clock.addAndGet(999);
+        assertFalse(breaker.tryAcquire());
+        clock.addAndGet(1);
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void belowMinimumCallsNeverOpens() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, 4);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+}
@@ -0,0 +1,105 @@
+package com.mujio.redisdemo.resilience;
+
+import com.mujio.redisdemo.config.RedisResilienceProperties;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisResilienceTests {
+
+    private final RedisConnection connection = mock(RedisConnection.class);
+
+    private RedisTemplate<String, Object> template(RedisResilience resilience) {
+        RedisConnectionFactory factory = mock(RedisConnectionFactory.class);
+        when(factory.getConnection()).thenReturn(connection);
+        RedisTemplate<String, Object> template = new ResilientRedisTemplate<>(resilience);
+        template.setConnectionFactory(factory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setHashValueSerializer(RedisSerializer.string());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static RedisResilienceProperties properties() {
+        RedisResilienceProperties properties = new RedisResilienceProperties();
+        properties.getCircuit().setWindowSize(10);
+        properties.getCircuit().setMinimumCalls(5);
+        properties.getCircuit().setOpenDuration(Duration.ofMinutes(1));
+        return properties;
+    }
+
+    @Test
+    void timeoutsOpenTheCircuitAndLaterCallsFailFast() {
+        RedisResilience resilience = new RedisResilience(properties(), RedisMetrics.noop());
+        RedisTemplate<String, Object> template = template(resilience);
+        when(connection.get(any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(QueryTimeoutException.class, () -> template.opsForValue().get("k"));
+        }
+        RedisRejectedException rejected = assertThrows(RedisRejectedException.class, () -> template.opsForValue().get("k"));
+        assertEquals("circuit", rejected.getReason());
+        assertEquals("string", rejected.getGroup());
+        verify(connection, times(5)).get(any());
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void commandErrorsDoNotOpenTheCircuit() {
+        RedisResilience resilience = new RedisResilience(properties(), RedisMetrics.noop());
+        RedisTemplate<String, Object> template = template(resilience);
+        when(connection.get(any())).thenThrow(new IllegalStateException("WRONGTYPE"));
+        for (int i = 0; i < 10; i++) {
+            assertThrows(IllegalStateException.class, () -> template.opsForValue().get("k"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void bulkheadLimitsInFlightCallsPerGroup() throws Exception {
+        RedisResilienceProperties properties = properties();
+        properties.getBulkhead().setGroups(Collections.singletonMap("hash", 1));
+        RedisResilience resilience = new RedisResilience(properties, RedisMetrics.noop());
+        RedisTemplate<String, Object> template = template(resilience);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(connection.hGet(any(), any())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return "v".getBytes(StandardCharsets.UTF_8);
+        });
+        when(connection.get(any())).thenReturn("s".getBytes(StandardCharsets.UTF_8));
+
+        Thread slow = new Thread(() -> template.opsForHash().get("h", "i"));
+        slow.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        RedisRejectedException rejected = assertThrows(RedisRejectedException.class, () -> template.opsForHash().get("h", "i"));
+        assertEquals("bulkhead", rejected.getReason());
+        //其他分组不受影响
+        assertEquals("s", template.opsForValue().get("k"));
+        release.countDown();
+        slow.join();
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getCircuitBreaker().getState());
+    }
+}
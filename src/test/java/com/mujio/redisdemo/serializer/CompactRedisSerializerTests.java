@@ -0,0 +1,140 @@
+package com.mujio.redisdemo.serializer;
+
+import com.mujio.redisdemo.config.RedisConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactRedisSerializerTests {
+
+    private final RedisSerializer<Object> json = RedisConfig.jacksonSerializer();
+
+    private final CompactRedisSerializer compact = new CompactRedisSerializer(new TypeRegistry().register(1, Order.class), json);
+
+    @Test
+    void roundTrip() {
+        Order order = Order.sample(1);
+        Order copy = (Order) compact.deserialize(compact.serialize(order));
+        assertEquals(order, copy);
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "中文名称");
+        map.put("count", -3);
+        map.put("items", Arrays.asList(1L, 2.5d, null, true));
+        assertEquals(map, compact.deserialize(compact.serialize(map)));
+    }
+
+    @Test
+    void readsLegacyJson() {
+        Order order = Order.sample(2);
+        assertEquals(order, compact.deserialize(json.serialize(order)));
+        assertEquals("plain", compact.deserialize(json.serialize("plain")));
+    }
+
+    @Test
+    void smallerThanJson() {
+        //编码/解码耗时见 SerializerBenchmark
+        Order order = Order.sample(3);
+        assertTrue(compact.serialize(order).length * 2 < json.serialize(order).length);
+    }
+
+    @Test
+    void collectionFieldsKeepDeclaredType() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(new TypeRegistry().register(2, Sorted.class), json);
+        Sorted sorted = new Sorted();
+        sorted.names = new TreeSet<>(Arrays.asList("b", "a"));
+        sorted.ranks = new TreeMap<>(Collections.singletonMap("x", 1));
+        sorted.navigable = new TreeSet<>(Arrays.asList(3, 1, 2));
+        sorted.queue = new ArrayDeque<>(Arrays.asList("q1", "q2"));
+        sorted.counts = new HashMap<>(Collections.singletonMap("c", 2L));
+
+        Sorted copy = (Sorted) serializer.deserialize(serializer.serialize(sorted));
+        assertEquals(sorted.names, copy.names);
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(copy.navigable));
+        assertEquals(sorted.ranks, copy.ranks);
+        assertEquals(Arrays.asList("q1", "q2"), new ArrayList<>(copy.queue));
+        assertEquals(sorted.counts, copy.counts);
+        assertTrue(copy.counts instanceof HashMap);
+
+        assertThrows(IllegalArgumentException.class, () -> new TypeRegistry().register(3, WithEnumSet.class));
+    }
+
+    static class Order {
+
+        private long id;
+
+        private String customer;
+
+        private double amount;
+
+        private boolean paid;
+
+        private List<String> tags;
+
+        private Map<String, Integer> quantities;
+
+        static Order sample(long id) {
+            Order order = new Order();
+            order.id = id;
+            order.customer = "customer-" + id;
+            order.amount = 99.5;
+            order.paid = true;
+            order.tags = new ArrayList<>(Arrays.asList("vip", "express"));
+            order.quantities = new LinkedHashMap<>();
+            order.quantities.put("sku-1", 2);
+            order.quantities.put("sku-2", 1);
+            return order;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Order)) {
+                return false;
+            }
+            Order other = (Order) o;
+            return id == other.id && paid == other.paid && Double.compare(amount, other.amount) == 0
+                    && customer.equals(other.customer) && tags.equals(other.tags) && quantities.equals(other.quantities);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+
+    static class Sorted {
+
+        private TreeSet<String> names;
+
+        private TreeMap<String, Integer> ranks;
+
+        private NavigableSet<Integer> navigable;
+
+        private Deque<String> queue;
+
+        private HashMap<String, Long> counts;
+    }
+
+    static class WithEnumSet {
+
+        private EnumSet<TimeUnit> units;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mujio.redisdemo.serializer;
+
+import com.mujio.redisdemo.config.RedisConfig;
+import com.mujio.redisdemo.utils.RedisMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressingRedisSerializerTests {
+
+    private final RedisSerializer<Object> json = RedisConfig.jacksonSerializer();
+
+    @Test
+    void roundTripWithEveryCodec() {
+        Map<String, Object> document = document();
+        byte[] raw = json.serialize(document);
+        for (CompressionCodec codec : CompressionCodec.values()) {
+            CompressingRedisSerializer<Object> serializer = serializer(codec);
+            byte[] stored = serializer.serialize(document);
+            assertEquals(codec.getHeader(), stored[0]);
+            assertTrue(stored.length < raw.length / 2, codec + " stored " + stored.length + " of " + raw.length);
+            assertEquals(document, serializer.deserialize(stored));
+            //任意一种配置都能读取其他算法压缩的值
+            assertEquals(document, serializer(CompressionCodec.LZ4).deserialize(stored));
+        }
+    }
+
+    @Test
+    void smallAndIncompressibleValuesStoredAsIs() {
+        CompressingRedisSerializer<Object> serializer = serializer(CompressionCodec.LZ4);
+        assertArrayEquals(json.serialize("small"), serializer.serialize("small"));
+
+        byte[] random = new byte[8192];
+        new Random(1).nextBytes(random);
+        RedisSerializer<byte[]> bytes = RedisSerializer.byteArray();
+        CompressingRedisSerializer<byte[]> raw = new CompressingRedisSerializer<>(bytes, CompressionCodec.DEFLATE, 1024, 0.1,
+                RedisMetrics.noop());
+        assertArrayEquals(random, raw.serialize(random));
+    }
+
+    @Test
+    void readsLegacyAndDisabledValues() {
+        Map<String, Object> document = document();
+        assertEquals(document, serializer(CompressionCodec.SNAPPY).deserialize(json.serialize(document)));
+        CompressingRedisSerializer<Object> disabled = serializer(null);
+        assertArrayEquals(json.serialize(document), disabled.serialize(document));
+        assertEquals(document, disabled.deserialize(serializer(CompressionCodec.DEFLATE).serialize(document)));
+    }
+
+    @Test
+    void corruptValuesFailToDeserialize() {
+        for (CompressionCodec codec : CompressionCodec.values()) {
+            byte[] stored = serializer(codec).serialize(document());
+            byte[] truncated = Arrays.copyOf(stored, stored.length / 2);
+            assertThrows(SerializationException.class, () -> serializer(codec).deserialize(truncated), codec.name());
+        }
+    }
+
+    private CompressingRedisSerializer<Object> serializer(CompressionCodec codec) {
+        return new CompressingRedisSerializer<>(json, codec, 4096, 0.1, RedisMetrics.noop());
+    }
+
+    private static Map<String, Object> document() {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "商品-" + i);
+            item.put("status", i % 3 == 0 ? "ACTIVE" : "INACTIVE");
+            items.add(item);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("items", items);
+        return document;
+    }
+}
@@ -0,0 +1,159 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.config.NearCacheProperties;
+import com.mujio.redisdemo.config.RedisAsyncProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisServer;
+import com.mujio.redisdemo.embedded.EmbeddedScripts;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncRedisUtilTests {
+
+    private EmbeddedRedisServer server;
+
+    private RedisClient client;
+
+    private SimpleMeterRegistry registry;
+
+    private AsyncRedisUtil redis;
+
+    @BeforeEach
+    void start() {
+        server = new EmbeddedRedisServer().start();
+        EmbeddedScripts.registerAll(server);
+        client = RedisClient.create(RedisURI.builder().withHost(server.getHost()).withPort(server.getPort())
+                .withTimeout(Duration.ofSeconds(2)).build());
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stop() {
+        redis.destroy();
+        client.shutdown(Duration.ZERO, Duration.ofSeconds(1));
+        server.close();
+    }
+
+    @Test
+    void concurrentCommandsShareFlushes() throws Exception {
+        redis = create(Duration.ofMillis(50), 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String key = "k" + i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                awaitQuietly(ready);
+                return redis.set(key, key);
+            }, executor).thenCompose(future -> future));
+        }
+        ready.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //命令写入缓冲后才计入 pending，恰好被并发的 flush 带出的命令计入下一次 flush，最多晚一个 flushInterval
+        DistributionSummary batches = registry.get("redis.async.batch").summary();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (batches.totalAmount() < 40 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(40, (long) batches.totalAmount());
+        assertTrue(batches.count() < 40, "flushes: " + batches.count());
+        assertEquals("k7", redis.get("k7").get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fanOutReadGoesOutInOneFlush() throws Exception {
+        //窗口足够长，结果能返回只可能是 fan-out 主动 flush
+        redis = create(Duration.ofHours(1), 1000);
+        redis.set("a", 1);
+        redis.set("c", 3);
+        redis.flush();
+
+        List<Object> values = redis.get(Arrays.asList("a", "b", "c")).get(1, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(1, null, 3), values);
+        assertEquals(2, registry.get("redis.async.batch").summary().count());
+        assertEquals(3.0, registry.get("redis.async.batch").summary().max());
+    }
+
+    @Test
+    void maxBatchFlushesWithoutWaitingForInterval() throws Exception {
+        redis = create(Duration.ofHours(1), 3);
+        CompletableFuture<Boolean> hset = redis.hset("h", "f", "v", 60);
+        CompletableFuture<Long> incr = redis.incr("n", 5);
+        CompletableFuture<Boolean> exists = redis.hasKey("missing");
+        assertTrue(hset.get(1, TimeUnit.SECONDS));
+        assertEquals(5L, incr.get(1, TimeUnit.SECONDS));
+        assertFalse(exists.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void zeroIntervalSendsImmediately() throws Exception {
+        redis = create(Duration.ZERO, 128);
+        assertTrue(redis.zAdd("z", "m", 2.0).get(1, TimeUnit.SECONDS));
+        assertEquals(2.0, redis.zScore("z", "m").get(1, TimeUnit.SECONDS));
+        assertTrue(redis.hset("h", "f", "v").get(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("v", null), redis.hget(Arrays.asList("h", "none"), "f").get(1, TimeUnit.SECONDS));
+        server.injectFault(EmbeddedRedisServer.Fault.ERROR, 1, "HSET");
+        assertFalse(redis.hset("h", "f", "w").get(1, TimeUnit.SECONDS));
+
+        assertTrue(redis.zAdd("z", "n", 1.0).get(1, TimeUnit.SECONDS));
+        assertEquals(0L, redis.zRank("z", "n", false).get(1, TimeUnit.SECONDS));
+        assertEquals(1L, redis.zRank("z", "n", true).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void writesInvalidateNearCache() throws Exception {
+        redis = create(Duration.ofMillis(1), 128);
+        NearCache nearCache = new NearCache(new RedisTemplate<>(), new NearCacheProperties(), RedisMetrics.noop());
+        ReflectionTestUtils.setField(redis, "nearCache", nearCache);
+        nearCache.get("k", () -> "cached");
+        assertTrue(redis.set("k", "v").get(1, TimeUnit.SECONDS));
+        assertEquals("reloaded", nearCache.get("k", () -> "reloaded"));
+        nearCache.hget("h", "f", () -> "cached");
+        assertEquals(0L, redis.hdel("h", "f").get(1, TimeUnit.SECONDS));
+        assertEquals("reloaded", nearCache.hget("h", "f", () -> "reloaded"));
+    }
+
+    private AsyncRedisUtil create(Duration flushInterval, int maxBatch) {
+        RedisAsyncProperties properties = new RedisAsyncProperties();
+        properties.setFlushInterval(flushInterval);
+        properties.setMaxBatch(maxBatch);
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.json());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setHashValueSerializer(RedisSerializer.json());
+        return new AsyncRedisUtil(client.connect(ByteArrayCodec.INSTANCE), template, properties, new RedisMetrics(registry));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
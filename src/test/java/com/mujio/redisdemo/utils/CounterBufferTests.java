@@ -0,0 +1,140 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.config.CounterBufferProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CounterBufferTests {
+
+    private final ConcurrentHashMap<String, AtomicLong> redis = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Double> redisHash = new ConcurrentHashMap<>();
+
+    @Test
+    void noDeltaLostUnderConcurrentFlush() throws Exception {
+        CounterBufferProperties properties = new CounterBufferProperties();
+        properties.setFlushInterval(Duration.ofMillis(1));
+        properties.setMaxKeys(50);
+        properties.setBatchSize(7);
+        CounterBuffer buffer = new CounterBuffer(template(), properties, RedisMetrics.noop());
+
+        int threads = 8;
+        int increments = 5000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < increments; i++) {
+                    buffer.incr("counter:" + (i % 100), 1);
+                    buffer.hincr("hash", "item", 0.5);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        buffer.destroy();
+
+        long total = redis.values().stream().mapToLong(AtomicLong::get).sum();
+        assertEquals((long) threads * increments, total);
+        assertEquals(threads * increments * 0.5, redisHash.get("hash:item"), 0.0001);
+        assertEquals(0, buffer.pending("counter:1"));
+    }
+
+    @Test
+    void pendingReflectsUnflushedDelta() {
+        CounterBufferProperties properties = new CounterBufferProperties();
+        properties.setFlushInterval(Duration.ofHours(1));
+        CounterBuffer buffer = new CounterBuffer(template(), properties, RedisMetrics.noop());
+        buffer.incr("a", 3);
+        buffer.incr("a", 4);
+        buffer.hincr("h", "x", 1.5);
+        assertEquals(7, buffer.pending("a"));
+        assertEquals(1.5, buffer.pending("h", "x"));
+        buffer.flush();
+        assertEquals(0, buffer.pending("a"));
+        assertEquals(7, redis.get("a").get());
+    }
+
+    @Test
+    void failedFlushBacksOffAndCapsPendingKeys() {
+        CounterBufferProperties properties = new CounterBufferProperties();
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setMaxKeys(10);
+        properties.setMaxPendingKeys(20);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicBoolean down = new AtomicBoolean(true);
+        AtomicInteger attempts = new AtomicInteger();
+        RedisTemplate<String, Object> delegate = template();
+        CounterBuffer buffer = new CounterBuffer(new RedisTemplate<String, Object>() {
+            @Override
+            public List<Object> executePipelined(RedisCallback<?> action) {
+                attempts.incrementAndGet();
+                if (down.get()) {
+                    throw new RedisConnectionFailureException("down");
+                }
+                return delegate.executePipelined(action);
+            }
+        }, properties, new RedisMetrics(registry));
+
+        for (int i = 0; i < 100; i++) {
+            buffer.incr("k" + i, 1);
+        }
+        //第一次达到 maxKeys 时同步提交失败，之后退避期间不再提交
+        assertEquals(1, attempts.get());
+        //已有 key 在达到硬上限后仍可累加
+        buffer.incr("k0", 1);
+        assertEquals(2, buffer.pending("k0"));
+        assertEquals(0, buffer.pending("k50"));
+        assertEquals(80.0, registry.get("redis.counter-buffer.dropped").tag("type", "counter").counter().count());
+
+        down.set(false);
+        buffer.flush();
+        assertEquals(2, attempts.get());
+        assertEquals(20, redis.size());
+        assertEquals(2, redis.get("k0").get());
+        buffer.destroy();
+    }
+
+    /**
+     * executePipelined 直接在一个模拟连接上执行，INCRBY/HINCRBYFLOAT 累加到内存 Map
+     */
+    private RedisTemplate<String, Object> template() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisSerializer<String> serializer = RedisSerializer.string();
+        when(connection.incrBy(any(byte[].class), anyLong())).thenAnswer(invocation -> redis
+                .computeIfAbsent(serializer.deserialize(invocation.getArgument(0)), k -> new AtomicLong())
+                .addAndGet(invocation.getArgument(1)));
+        when(connection.hIncrBy(any(byte[].class), any(byte[].class), anyDouble())).thenAnswer(invocation -> redisHash
+                .merge(serializer.deserialize(invocation.getArgument(0)) + ":" + serializer.deserialize(invocation.getArgument(1)),
+                        invocation.getArgument(2), Double::sum));
+        return new RedisTemplate<String, Object>() {
+            @Override
+            public List<Object> executePipelined(RedisCallback<?> action) {
+                action.doInRedis(connection);
+                return new ArrayList<>();
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.config.HotKeyProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeyDetectorTests {
+
+    private HotKeyDetector detector;
+
+    private HotKeyDetector detector(int topK) {
+        HotKeyProperties properties = new HotKeyProperties();
+        properties.setSampleRate(1);
+        properties.setWindow(Duration.ofHours(1));
+        properties.setThreshold(100.0 / 3600);
+        properties.setTopK(topK);
+        properties.setLocalTtl(Duration.ofMinutes(1));
+        detector = new HotKeyDetector(properties);
+        return detector;
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.destroy();
+    }
+
+    @Test
+    void keysAboveThresholdBecomeHotAfterRotation() {
+        HotKeyDetector detector = detector(4);
+        for (int i = 0; i < 150; i++) {
+            detector.record("hot");
+        }
+        for (int i = 0; i < 1000; i++) {
+            detector.record("cold:" + i);
+        }
+        assertFalse(detector.isHot("hot"));
+        detector.rotate();
+        assertTrue(detector.isHot("hot"));
+        assertFalse(detector.isHot("cold:1"));
+        List<HotKeyDetector.HotKey> top = detector.topKeys();
+        assertEquals("hot", top.get(0).getKey());
+        assertTrue(top.size() <= 4);
+
+        detector.rotate();
+        assertFalse(detector.isHot("hot"));
+    }
+
+    @Test
+    void hotKeysAreServedLocallyUntilInvalidated() {
+        HotKeyDetector detector = detector(4);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("v", detector.get("k", () -> {
+                loads.incrementAndGet();
+                return "v";
+            }));
+        }
+        detector.get("k#item", () -> "i");
+        assertEquals(1, loads.get());
+
+        detector.invalidate("k");
+        assertEquals("w", detector.get("k", () -> "w"));
+        assertEquals("j", detector.get("k#item", () -> "j"));
+    }
+
+    @Test
+    void writeDuringLoadIsNotCachedOver() throws Exception {
+        HotKeyDetector detector = detector(4);
+        for (String key : new String[]{"k", "k#item"}) {
+            CountDownLatch loading = new CountDownLatch(1);
+            CountDownLatch written = new CountDownLatch(1);
+            CompletableFuture<Object> read = CompletableFuture.supplyAsync(() -> detector.get(key, () -> {
+                loading.countDown();
+                awaitQuietly(written);
+                return "old";
+            }));
+            assertTrue(loading.await(1, TimeUnit.SECONDS));
+            //本地副本为空时写入，加载仍在进行
+            detector.invalidate("k");
+            written.countDown();
+            assertEquals("old", read.get(1, TimeUnit.SECONDS));
+            assertEquals("new", detector.get(key, () -> "new"), key);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
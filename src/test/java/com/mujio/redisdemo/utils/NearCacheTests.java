@@ -0,0 +1,153 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.config.NearCacheProperties;
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NearCacheTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private SimpleMeterRegistry registry;
+
+    private RedisMetrics metrics;
+
+    private NearCache nearCache;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        registry = new SimpleMeterRegistry();
+        metrics = new RedisMetrics(registry);
+        redisTemplate = redis.redisTemplate(metrics);
+        nearCache = new NearCache(redisTemplate, new NearCacheProperties(), metrics);
+    }
+
+    @AfterEach
+    void stop() {
+        redis.close();
+    }
+
+    @Test
+    void cachesLoadedValuesAndBindsMeters() {
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("v", nearCache.get("k", () -> {
+            loads.incrementAndGet();
+            return "v";
+        }));
+        assertEquals("v", nearCache.get("k", () -> "other"));
+        assertEquals(1, loads.get());
+
+        assertEquals(1.0, registry.get("redis.near-cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("redis.near-cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("redis.near-cache.size").gauge().value());
+    }
+
+    @Test
+    void invalidationDuringLoadIsNotCached() {
+        //加载期间另一个线程写入并失效，读到的旧值只返回给本次调用
+        assertEquals("old", nearCache.get("k", () -> {
+            nearCache.invalidate("k");
+            return "old";
+        }));
+        assertEquals("new", nearCache.get("k", () -> "new"));
+
+        assertEquals("old", nearCache.hget("h", "f", () -> {
+            nearCache.invalidate("h");
+            return "old";
+        }));
+        assertEquals("new", nearCache.hget("h", "f", () -> "new"));
+        assertEquals("new", nearCache.hget("h", "f", () -> "unused"));
+    }
+
+    @Test
+    void notificationFromOtherNodeInvalidates() {
+        nearCache.get("k", () -> "v1");
+        nearCache.onMessage(message(nearCache.notification("k")), null);
+        //自己发出的通知不重复处理，本地副本保留
+        assertEquals("v1", nearCache.get("k", () -> "v2"));
+
+        NearCache other = new NearCache(redisTemplate, new NearCacheProperties(), RedisMetrics.noop());
+        nearCache.onMessage(message(other.notification("k")), null);
+        assertEquals("v2", nearCache.get("k", () -> "v2"));
+    }
+
+    @Test
+    void multiKeyInvalidationIsPublishedInOnePipeline() throws Exception {
+        NearCache other = new NearCache(redisTemplate, new NearCacheProperties(), RedisMetrics.noop());
+        RedisConnection subscriber = redis.getFactory().getConnection();
+        try {
+            subscriber.subscribe(other, other.getChannel().getBytes(StandardCharsets.UTF_8));
+            other.get("a", () -> "1");
+            other.get("b", () -> "2");
+            other.get("c", () -> "3");
+
+            nearCache.invalidate("a", "b", "c");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (other.size() > 0) {
+                assertTrue(System.nanoTime() < deadline, "notifications not received in time");
+                Thread.sleep(20);
+            }
+        } finally {
+            subscriber.close();
+        }
+
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        when(template.getValueSerializer()).thenAnswer(invocation -> redisTemplate.getValueSerializer());
+        new NearCache(template, new NearCacheProperties(), RedisMetrics.noop()).invalidate("a", "b", "c");
+        verify(template, times(1)).executePipelined(any(RedisCallback.class));
+        verify(template, never()).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void batchAndReactiveWritesInvalidate() {
+        RedisUtil redisUtil = new RedisUtil(redisTemplate, metrics);
+        ReflectionTestUtils.setField(redisUtil, "nearCache", nearCache);
+        redisUtil.set("k", "v1");
+        assertEquals("v1", redisUtil.get("k"));
+
+        redisUtil.batch().set("k", "v2").execute();
+        assertEquals("v2", redisUtil.get("k"));
+
+        ReactiveRedisUtil reactive = new ReactiveRedisUtil(redis.reactiveRedisTemplate(metrics), metrics);
+        ReflectionTestUtils.setField(reactive, "nearCache", nearCache);
+        reactive.set("k", "v3").block();
+        assertEquals("v3", redisUtil.get("k"));
+        reactive.hset("h", "f", "a").block();
+        assertEquals("a", redisUtil.hget("h", "f"));
+        reactive.hset("h", "f", "b").block();
+        assertEquals("b", redisUtil.hget("h", "f"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private DefaultMessage message(String text) {
+        return new DefaultMessage(nearCache.getChannel().getBytes(StandardCharsets.UTF_8),
+                ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(text));
+    }
+}
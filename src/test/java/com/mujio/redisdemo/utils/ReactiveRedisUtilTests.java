@@ -0,0 +1,64 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveRedisUtilTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private ReactiveRedisUtil reactiveRedisUtil;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        reactiveRedisUtil = new ReactiveRedisUtil(redis.reactiveRedisTemplate(RedisMetrics.noop()), RedisMetrics.noop());
+    }
+
+    @AfterEach
+    void stop() {
+        redis.close();
+    }
+
+    @Test
+    void batchedGetKeepsPositionOfMissingKeys() {
+        reactiveRedisUtil.set("a", 1).block();
+        reactiveRedisUtil.set("c", 3).block();
+        reactiveRedisUtil.set("e", 5).block();
+
+        List<List<Object>> batches = reactiveRedisUtil.get(Flux.just("a", "b", "c", "d", "e"), 2).collectList().block();
+        assertEquals(Arrays.asList(Arrays.asList(1, null), Arrays.asList(3, null), Arrays.asList(5)), batches);
+    }
+
+    @Test
+    void bulkSetWithTime() {
+        Flux<Map.Entry<String, Object>> entries = Flux.range(0, 100)
+                .map(i -> new AbstractMap.SimpleEntry<>("k" + i, i));
+        assertEquals(100L, reactiveRedisUtil.set(entries, 60).block());
+        assertEquals(42, reactiveRedisUtil.get("k42").block());
+        long ttl = reactiveRedisUtil.getExpire("k99").block();
+        assertTrue(ttl > 0 && ttl <= 60, "ttl: " + ttl);
+    }
+
+    @Test
+    void zRankInBothDirections() {
+        reactiveRedisUtil.zAdd("z", "low", 1.0).block();
+        reactiveRedisUtil.zAdd("z", "high", 2.0).block();
+        assertEquals(0L, reactiveRedisUtil.zRank("z", "low", false).block());
+        assertEquals(1L, reactiveRedisUtil.zRank("z", "low", true).block());
+        assertEquals(0L, reactiveRedisUtil.zRank("z", "high", true).block());
+        assertNull(reactiveRedisUtil.zRank("z", "missing", false).block());
+    }
+}
@@ -0,0 +1,90 @@
+package com.mujio.redisdemo.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RedisBloomFilterTests {
+
+    private final BitSet bitmap = new BitSet();
+
+    @Test
+    void sizing() {
+        assertEquals(9585059, RedisBloomFilter.optimalBits(1000000, 0.01));
+        assertEquals(7, RedisBloomFilter.optimalHashes(1000000, 9585059));
+        assertEquals(RedisBloomFilter.MAX_BITS, RedisBloomFilter.optimalBits(Long.MAX_VALUE / 100, 0.000001));
+    }
+
+    @Test
+    void murmur3MatchesReferenceVector() {
+        long[] hash = RedisBloomFilter.murmur3("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(new long[]{0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L}, hash);
+    }
+
+    @Test
+    void noFalseNegativesAndBoundedFalsePositives() {
+        RedisBloomFilter filter = new RedisBloomFilter(template(), RedisMetrics.noop(), "bf", 10000, 0.01);
+        List<String> added = IntStream.range(0, 10000).mapToObj(i -> "id:" + i).collect(Collectors.toList());
+        filter.addAll(added.subList(0, 5000));
+        for (String element : added.subList(5000, 10000)) {
+            filter.add(element);
+        }
+        assertTrue(filter.mightContainAll(added).stream().allMatch(Boolean::booleanValue));
+        assertTrue(filter.mightContain("id:42"));
+
+        List<String> absent = IntStream.range(0, 10000).mapToObj(i -> "missing:" + i).collect(Collectors.toList());
+        long falsePositives = filter.mightContainAll(absent).stream().filter(Boolean::booleanValue).count();
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        assertFalse(filter.add("id:42"));
+    }
+
+    /**
+     * BITFIELD 在内存位图上执行；executePipelined 收集每条命令的返回值
+     */
+    private RedisTemplate<String, Object> template() {
+        RedisConnection connection = mock(RedisConnection.class);
+        List<Object> pipelined = new ArrayList<>();
+        when(connection.bitField(any(byte[].class), any(BitFieldSubCommands.class))).thenAnswer(invocation -> {
+            List<Long> results = new ArrayList<>();
+            for (BitFieldSubCommands.BitFieldSubCommand command : (BitFieldSubCommands) invocation.getArgument(1)) {
+                int offset = (int) command.getOffset().getValue();
+                results.add(bitmap.get(offset) ? 1L : 0L);
+                if (command instanceof BitFieldSubCommands.BitFieldSet) {
+                    bitmap.set(offset);
+                }
+            }
+            pipelined.add(results);
+            return results;
+        });
+        return new RedisTemplate<String, Object>() {
+            @Override
+            public <T> T execute(RedisCallback<T> action) {
+                return action.doInRedis(connection);
+            }
+
+            @Override
+            public List<Object> executePipelined(RedisCallback<?> action) {
+                pipelined.clear();
+                action.doInRedis(connection);
+                return new ArrayList<>(pipelined);
+            }
+        };
+    }
+}
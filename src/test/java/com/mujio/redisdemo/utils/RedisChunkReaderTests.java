@@ -0,0 +1,140 @@
+package com.mujio.redisdemo.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RedisChunkReaderTests {
+
+    private final List<String> list = IntStream.range(0, 2503).mapToObj(i -> "v" + i).collect(Collectors.toList());
+
+    private final AtomicInteger lranges = new AtomicInteger();
+
+    @Test
+    void listReadInWindows() {
+        for (int prefetch : new int[]{0, 1, 3}) {
+            lranges.set(0);
+            try (Stream<Object> values = new RedisChunkReader(template()).list("list", 500, prefetch)) {
+                assertEquals(list, values.collect(Collectors.toList()));
+            }
+            assertEquals(6, lranges.get());
+        }
+    }
+
+    @Test
+    void closeStopsPrefetch() throws Exception {
+        try (Stream<Object> values = new RedisChunkReader(template()).list("list", 10, 2)) {
+            assertEquals("v0", values.findFirst().orElse(null));
+        }
+        Thread.sleep(300);
+        //已取走 1 块，队列中最多 2 块，另有 1 块在后台线程手中等待入队
+        assertTrue(lranges.get() <= 4);
+    }
+
+    @Test
+    void abandonedPrefetchReleasesCursor() throws Exception {
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        RedisChunkReader reader = new RedisChunkReader(endlessSet(cursorClosed));
+        assertEquals("m", firstWithoutClosing(reader));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!cursorClosed.get() && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertTrue(cursorClosed.get());
+        reader.destroy();
+    }
+
+    @Test
+    void destroyStopsPrefetch() throws Exception {
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        RedisChunkReader reader = new RedisChunkReader(endlessSet(cursorClosed));
+        try (Stream<Object> values = reader.set("set", 10, 1)) {
+            Iterator<Object> iterator = values.iterator();
+            assertEquals("m", iterator.next());
+            reader.destroy();
+            assertThrows(IllegalStateException.class, () -> iterator.forEachRemaining(value -> {
+            }));
+        }
+        assertTrue(cursorClosed.get());
+    }
+
+    /** 读一个元素后直接丢弃 Stream，不关闭 */
+    private static Object firstWithoutClosing(RedisChunkReader reader) {
+        return reader.set("set", 10, 1).iterator().next();
+    }
+
+    /**
+     * SSCAN 游标永远有下一个元素，关闭时记录
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> endlessSet(AtomicBoolean cursorClosed) throws Exception {
+        RedisSerializer<String> serializer = RedisSerializer.string();
+        Cursor<byte[]> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true);
+        when(cursor.next()).thenAnswer(invocation -> serializer.serialize("m"));
+        when(cursor.isClosed()).thenAnswer(invocation -> cursorClosed.get());
+        doAnswer(invocation -> {
+            cursorClosed.set(true);
+            return null;
+        }).when(cursor).close();
+        RedisTemplate<String, Object> template = new RedisTemplate<String, Object>() {
+            @Override
+            public <T extends Closeable> T executeWithStickyConnection(RedisCallback<T> callback) {
+                return (T) cursor;
+            }
+        };
+        template.setKeySerializer(serializer);
+        template.setValueSerializer(serializer);
+        return template;
+    }
+
+    /**
+     * execute 直接在一个模拟连接上执行，LRANGE 从内存 list 中截取
+     */
+    private RedisTemplate<String, Object> template() {
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisSerializer<String> serializer = RedisSerializer.string();
+        when(connection.lRange(any(byte[].class), anyLong(), anyLong())).thenAnswer(invocation -> {
+            lranges.incrementAndGet();
+            int start = (int) Math.min((long) invocation.getArgument(1), list.size());
+            int end = (int) Math.min((long) invocation.getArgument(2) + 1, list.size());
+            List<byte[]> chunk = new ArrayList<>();
+            for (String value : list.subList(start, end)) {
+                chunk.add(serializer.serialize(value));
+            }
+            return chunk;
+        });
+        RedisTemplate<String, Object> template = new RedisTemplate<String, Object>() {
+            @Override
+            public <T> T execute(RedisCallback<T> action) {
+                return action.doInRedis(connection);
+            }
+        };
+        template.setKeySerializer(serializer);
+        template.setValueSerializer(serializer);
+        return template;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mujio.redisdemo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisKeyAnalyzerTests {
+
+    @Test
+    void prefixReplacesSegmentsWithDigits() {
+        assertEquals("user:*", RedisKeyAnalyzer.prefixOf("user:1001:profile", 2));
+        assertEquals("user:*:profile", RedisKeyAnalyzer.prefixOf("user:1001:profile", 3));
+        assertEquals("config", RedisKeyAnalyzer.prefixOf("config", 2));
+        assertEquals("session:*", RedisKeyAnalyzer.prefixOf("session:9f2c:x:y", 2));
+    }
+
+    @Test
+    void reportAggregatesByPrefixAndType() {
+        KeyReport report = new KeyReport("*", 2);
+        List<KeyReport.KeyInfo> infos = Arrays.asList(
+                new KeyReport.KeyInfo("user:1", "hash", "ziplist", 100, 3, -1),
+                new KeyReport.KeyInfo("user:2", "hash", "hashtable", 5000, 20000, 1000),
+                new KeyReport.KeyInfo("user:3", "string", "embstr", 60, -1, 1000),
+                new KeyReport.KeyInfo("feed:4", "list", "quicklist", 9000, 50000, -1),
+                new KeyReport.KeyInfo("feed:5", "list", "quicklist", 7000, 40000, -1));
+        for (KeyReport.KeyInfo info : infos) {
+            report.add(info, RedisKeyAnalyzer.prefixOf(info.getKey(), 2), info.getElements() >= 10000);
+        }
+        report.finish(null);
+
+        assertEquals(5, report.getScanned());
+        assertEquals(21160, report.getTotalBytes());
+        assertEquals(3, report.getNoTtlCount());
+        assertEquals(Arrays.asList("user:1", "feed:4"), report.getNoTtlKeys());
+        assertEquals(3, report.getBigKeyCount());
+        assertEquals(Arrays.asList("feed:4", "feed:5"),
+                Arrays.asList(report.getBigKeys().get(0).getKey(), report.getBigKeys().get(1).getKey()));
+
+        List<KeyReport.Group> groups = report.getGroups();
+        assertEquals(3, groups.size());
+        assertEquals("feed:*", groups.get(0).getPrefix());
+        assertEquals(16000, groups.get(0).getBytes());
+        assertEquals(2, groups.get(0).getNoTtl());
+        assertEquals("hash", groups.get(1).getType());
+        assertEquals(5000, groups.get(1).getMaxBytes());
+    }
+}
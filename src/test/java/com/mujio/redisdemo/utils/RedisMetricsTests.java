@@ -0,0 +1,86 @@
+package com.mujio.redisdemo.utils;
+
+import com.mujio.redisdemo.embedded.EmbeddedRedisFixture;
+import com.mujio.redisdemo.embedded.EmbeddedRedisServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisMetricsTests {
+
+    private EmbeddedRedisFixture redis;
+
+    private SimpleMeterRegistry registry;
+
+    private RedisUtil redisUtil;
+
+    @BeforeEach
+    void start() {
+        redis = EmbeddedRedisFixture.start();
+        registry = new SimpleMeterRegistry();
+        RedisMetrics metrics = new RedisMetrics(registry);
+        redisUtil = new RedisUtil(redis.redisTemplate(metrics), metrics);
+    }
+
+    @AfterEach
+    void stop() {
+        redis.close();
+    }
+
+    @Test
+    void eachCallIsTimedOnce() {
+        assertTrue(redisUtil.set("a", "1", 0));
+        assertTrue(redisUtil.set("b", "2", 60));
+        assertTrue(redisUtil.hset("h", "f", "v", 60));
+        assertEquals("1", redisUtil.get("a"));
+
+        assertEquals(1, timerCount("set"));
+        assertEquals(1, timerCount("setWithTime"));
+        assertEquals(1, timerCount("hsetWithTime"));
+        assertEquals(1, timerCount("get"));
+        //hset 内部设置过期时间不再单独记为 expire
+        assertNull(registry.find("redis.command").tag("command", "expire").timer());
+    }
+
+    @Test
+    void errorsAreCountedByException() {
+        redis.getServer().injectFault(EmbeddedRedisServer.Fault.ERROR, 1, "SET");
+        assertFalse(redisUtil.set("a", "1"));
+        assertEquals(1.0, registry.get("redis.command.errors").tag("command", "set")
+                .tag("exception", "RedisSystemException").counter().count());
+        assertEquals(1, timerCount("set"));
+    }
+
+    @Test
+    void payloadBytesAreCounted() {
+        redisUtil.set("a", "0123456789");
+        redisUtil.get("a");
+        double out = registry.get("redis.payload.bytes").tag("direction", "out").functionCounter().count();
+        double in = registry.get("redis.payload.bytes").tag("direction", "in").functionCounter().count();
+        assertTrue(out >= 10, "out: " + out);
+        assertEquals(out, in);
+    }
+
+    @Test
+    void publishedChannelsAreCapped() {
+        RedisMetrics metrics = new RedisMetrics(registry);
+        for (int i = 0; i < 500; i++) {
+            metrics.published("user:" + i, 1);
+        }
+        metrics.received("user:*", metrics.start());
+        assertEquals(1.0, registry.get("redis.pubsub.messages").tag("topic", "user:0").tag("direction", "out").counter().count());
+        assertEquals(300.0, registry.get("redis.pubsub.messages").tag("topic", "other").tag("direction", "out").counter().count());
+        assertEquals(1.0, registry.get("redis.pubsub.messages").tag("topic", "other").tag("direction", "in").counter().count());
+        assertTrue(registry.find("redis.pubsub.messages").counters().size() <= 2 * 201);
+    }
+
+    private long timerCount(String command) {
+        return registry.get("redis.command").tag("command", command).timer().count();
+    }
+}